@@ -0,0 +1,176 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAnnotation;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.semanticweb.owlapi.model.IRI;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Microbenchmark of the translation of OCL invariants: the invariants of the
+ * class models are parsed once, then normalized and mapped to concepts a
+ * number of times, reporting the time spent and the memory allocated per
+ * invariant. The measures are repeated so the first ones, taken while the JVM
+ * warms up, can be told apart.
+ * <p>
+ * usage: java consistencychecker.InvariantBenchmark [rounds] [model.ecore]...
+ * <p>
+ * Without models, every class model in the Models folder is used.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantBenchmark {
+
+	private static final String MODELS_FOLDER = "Models";
+	private static final String ECORE_EXTENSION = "ecore";
+	private static final String ONTOLOGY_IRI = "lse.ic.uff.br/ontology";
+	private static final int DEFAULT_ROUNDS = 2000;
+	private static final int REPETITIONS = 5;
+	private static final String LOG_CORPUS = "%d invariants in %d models, translated %d times per measure%n";
+	private static final String LOG_MEASURE = "measure %d: %.1f ms, %.2f KB allocated per invariant%n";
+	private static final String LOG_MEASURE_NO_ALLOCATION = "measure %d: %.1f ms%n";
+
+	//The invariants of the corpus and the package of each one
+	private final List<OCLExpression<EClassifier>> invariants = new ArrayList<OCLExpression<EClassifier>>();
+	private final List<String> packages = new ArrayList<String>();
+
+	public static void main(String[] args) throws Exception {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+		List<File> models = new ArrayList<File>();
+		for (int i = 1; i < args.length; i++) {
+			models.add(new File(args[i]));
+		}
+		if (models.isEmpty()) {
+			for (File model : new File(MODELS_FOLDER).listFiles()) {
+				if (model.getName().endsWith("." + ECORE_EXTENSION)) {
+					models.add(model);
+				}
+			}
+		}
+
+		InvariantBenchmark benchmark = new InvariantBenchmark();
+		for (File model : models) {
+			benchmark.parse(model);
+		}
+		System.out.printf(LOG_CORPUS, benchmark.invariants.size(), models.size(), rounds);
+		for (int i = 1; i <= REPETITIONS; i++) {
+			benchmark.measure(i, rounds);
+		}
+	}
+
+	/**
+	 * Parses the invariants of a class model, as they are found by the
+	 * {@link OntologyCreator}
+	 */
+	private void parse(File model) throws Exception {
+		org.eclipse.emf.ecore.impl.EcorePackageImpl.init();
+		ResourceSet resSet = new ResourceSetImpl();
+		resSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(ECORE_EXTENSION,
+				new XMIResourceFactoryImpl());
+		Resource resource = resSet.getResource(URI.createFileURI(model.getAbsolutePath()), true);
+		EPackage pkg = (EPackage) resource.getContents().get(0);
+
+		InvariantParser parser = new InvariantParser();
+		try {
+			for (EClassifier classifier : pkg.getEClassifiers()) {
+				if (classifier instanceof EClass) {
+					for (EAnnotation ant : classifier.getEAnnotations()) {
+						if (ant.getSource().equals(OntologyCreator.PIVOT_URL)) {
+							for (int i = 0; i < ant.getDetails().size(); i++) {
+								invariants.add(parser.parse((EClass) classifier, ant.getDetails().get(i).getValue()));
+								packages.add(pkg.getName());
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			parser.dispose();
+		}
+	}
+
+	/**
+	 * Normalizes and maps every invariant to a concept the provided number of
+	 * times, printing the time spent and the memory allocated
+	 */
+	private void measure(int repetition, int rounds) throws ConsistencyCheckerGenericException {
+		IRI ontologyIRI = IRI.create(ONTOLOGY_IRI);
+		//One normalizer per package, as the InvariantTranslator workers use
+		List<OCLLiteNormalizer> normalizers = new ArrayList<OCLLiteNormalizer>();
+		for (String pkg : packages) {
+			normalizers.add(new OCLLiteNormalizer(new OWLDataFactoryImpl(), ontologyIRI, pkg));
+		}
+
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		//The hash codes are summed so the concepts are not optimized away
+		int hash = 0;
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < invariants.size(); i++) {
+				hash += normalizers.get(i).normalize(invariants.get(i)).resolveStack().hashCode();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocatedAfter = allocatedBytes();
+
+		double milliseconds = elapsed / 1e6;
+		if (allocatedBefore < 0 || allocatedAfter < 0) {
+			System.out.printf(LOG_MEASURE_NO_ALLOCATION, repetition, milliseconds);
+		} else {
+			double kilobytes = (allocatedAfter - allocatedBefore) / 1024.0 / ((long) rounds * invariants.size());
+			System.out.printf(LOG_MEASURE, repetition, milliseconds, kilobytes);
+		}
+		if (hash == 0) {
+			System.out.println();
+		}
+	}
+
+	/**
+	 * @return Returns the bytes allocated by the current thread, or -1 if the
+	 *         JVM does not measure them
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+			if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+				return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
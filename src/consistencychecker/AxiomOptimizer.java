@@ -0,0 +1,343 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectCardinalityRestriction;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectExactCardinality;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectMaxCardinality;
+import org.semanticweb.owlapi.model.OWLObjectMinCardinality;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectUnionOf;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+
+/**
+ * Rewrites the ontology created by the mapping before it is handed to the
+ * reasoner. The class expressions of the subsumption axioms are simplified
+ * (nested intersections and unions are flattened, single operands, double
+ * negations, \top and \bot operands are removed), the subsumptions sharing
+ * the same left-hand side are merged into a single axiom and the cardinality
+ * restrictions entailed by stronger ones in the same conjunction are dropped.
+ * Entities that would leave the signature are kept through declarations.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class AxiomOptimizer {
+
+	private OWLOntologyManager ontologyManager_;
+	private OWLDataFactory owlDataFactory_;
+
+	/**
+	 * @param ontologyManager
+	 * 		The manager responsible for the ontologies to be optimized
+	 */
+	public AxiomOptimizer(OWLOntologyManager ontologyManager) {
+		ontologyManager_ = ontologyManager;
+		owlDataFactory_ = ontologyManager.getOWLDataFactory();
+	}
+
+	/**
+	 * Simplifies and merges the subsumption axioms of the ontology
+	 * 
+	 * @param ontology
+	 * 		The ontology to be optimized, changed in place
+	 * @return Returns the number of logical axioms removed from the ontology
+	 */
+	public int optimize(OWLOntology ontology) {
+		int logicalAxiomsBefore = ontology.getLogicalAxiomCount();
+		Set<OWLEntity> signatureBefore = ontology.getSignature();
+
+		//Groups the simplified right-hand sides by their simplified left-hand side
+		Map<OWLClassExpression, Set<OWLClassExpression>> conjunctsBySubClass = new LinkedHashMap<OWLClassExpression, Set<OWLClassExpression>>();
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+		for (OWLSubClassOfAxiom axiom : ontology.getAxioms(AxiomType.SUBCLASS_OF)) {
+			//Annotated axioms are kept as they are
+			if (!axiom.getAnnotations().isEmpty()) {
+				continue;
+			}
+			changes.add(new RemoveAxiom(ontology, axiom));
+			OWLClassExpression subClass = simplify(axiom.getSubClass());
+			OWLClassExpression superClass = simplify(axiom.getSuperClass());
+			
+			//Tautologies are not stored again
+			if (subClass.isOWLNothing() || superClass.isOWLThing() || subClass.equals(superClass)) {
+				continue;
+			}
+			Set<OWLClassExpression> conjuncts = conjunctsBySubClass.get(subClass);
+			if (conjuncts == null) {
+				conjuncts = new HashSet<OWLClassExpression>();
+				conjunctsBySubClass.put(subClass, conjuncts);
+			}
+			conjuncts.addAll(superClass.asConjunctSet());
+		}
+
+		//Creates a single subsumption for each left-hand side
+		for (Map.Entry<OWLClassExpression, Set<OWLClassExpression>> entry : conjunctsBySubClass.entrySet()) {
+			Set<OWLClassExpression> conjuncts = removeEntailedCardinalities(entry.getValue());
+			OWLClassExpression superClass = conjuncts.size() == 1 ? conjuncts.iterator().next()
+					: owlDataFactory_.getOWLObjectIntersectionOf(conjuncts);
+			changes.add(new AddAxiom(ontology, owlDataFactory_.getOWLSubClassOfAxiom(entry.getKey(), superClass)));
+		}
+		ontologyManager_.applyChanges(changes);
+
+		//Declares the entities that were only mentioned by removed axioms
+		changes = new ArrayList<OWLOntologyChange>();
+		for (OWLEntity entity : signatureBefore) {
+			if (!ontology.containsEntityInSignature(entity)) {
+				changes.add(new AddAxiom(ontology, owlDataFactory_.getOWLDeclarationAxiom(entity)));
+			}
+		}
+		ontologyManager_.applyChanges(changes);
+
+		return logicalAxiomsBefore - ontology.getLogicalAxiomCount();
+	}
+
+	/**
+	 * Rewrites a class expression into an equivalent and smaller one
+	 * 
+	 * @param expression
+	 * 		The class expression to be simplified
+	 * @return Returns the simplified class expression
+	 */
+	protected OWLClassExpression simplify(OWLClassExpression expression) {
+		switch (expression.getClassExpressionType()) {
+		case OBJECT_INTERSECTION_OF:
+			//Flattens the nested intersections, ignoring \top and stopping at \bot
+			Set<OWLClassExpression> conjuncts = new HashSet<OWLClassExpression>();
+			for (OWLClassExpression operand : ((OWLObjectIntersectionOf) expression).getOperands()) {
+				for (OWLClassExpression conjunct : simplify(operand).asConjunctSet()) {
+					if (conjunct.isOWLNothing()) {
+						return owlDataFactory_.getOWLNothing();
+					}
+					if (!conjunct.isOWLThing()) {
+						conjuncts.add(conjunct);
+					}
+				}
+			}
+			conjuncts = removeEntailedCardinalities(conjuncts);
+			if (conjuncts.isEmpty()) {
+				return owlDataFactory_.getOWLThing();
+			}
+			return conjuncts.size() == 1 ? conjuncts.iterator().next()
+					: owlDataFactory_.getOWLObjectIntersectionOf(conjuncts);
+		case OBJECT_UNION_OF:
+			//Flattens the nested unions, ignoring \bot and stopping at \top
+			Set<OWLClassExpression> disjuncts = new HashSet<OWLClassExpression>();
+			for (OWLClassExpression operand : ((OWLObjectUnionOf) expression).getOperands()) {
+				for (OWLClassExpression disjunct : simplify(operand).asDisjunctSet()) {
+					if (disjunct.isOWLThing()) {
+						return owlDataFactory_.getOWLThing();
+					}
+					if (!disjunct.isOWLNothing()) {
+						disjuncts.add(disjunct);
+					}
+				}
+			}
+			if (disjuncts.isEmpty()) {
+				return owlDataFactory_.getOWLNothing();
+			}
+			return disjuncts.size() == 1 ? disjuncts.iterator().next()
+					: owlDataFactory_.getOWLObjectUnionOf(disjuncts);
+		case OBJECT_COMPLEMENT_OF:
+			OWLClassExpression operand = simplify(((OWLObjectComplementOf) expression).getOperand());
+			if (operand.isOWLThing()) {
+				return owlDataFactory_.getOWLNothing();
+			}
+			if (operand.isOWLNothing()) {
+				return owlDataFactory_.getOWLThing();
+			}
+			//Removes the double negation
+			if (operand instanceof OWLObjectComplementOf) {
+				return ((OWLObjectComplementOf) operand).getOperand();
+			}
+			return owlDataFactory_.getOWLObjectComplementOf(operand);
+		case OBJECT_ALL_VALUES_FROM:
+			OWLObjectAllValuesFrom forAll = (OWLObjectAllValuesFrom) expression;
+			OWLClassExpression forAllFiller = simplify(forAll.getFiller());
+			//\forall r.\top holds for every individual
+			if (forAllFiller.isOWLThing()) {
+				return owlDataFactory_.getOWLThing();
+			}
+			return owlDataFactory_.getOWLObjectAllValuesFrom(forAll.getProperty(), forAllFiller);
+		case OBJECT_SOME_VALUES_FROM:
+			OWLObjectSomeValuesFrom exists = (OWLObjectSomeValuesFrom) expression;
+			OWLClassExpression existsFiller = simplify(exists.getFiller());
+			//\exists r.\bot holds for no individual
+			if (existsFiller.isOWLNothing()) {
+				return owlDataFactory_.getOWLNothing();
+			}
+			return owlDataFactory_.getOWLObjectSomeValuesFrom(exists.getProperty(), existsFiller);
+		case OBJECT_MIN_CARDINALITY:
+			OWLObjectMinCardinality min = (OWLObjectMinCardinality) expression;
+			OWLClassExpression minFiller = simplify(min.getFiller());
+			if (min.getCardinality() == 0) {
+				return owlDataFactory_.getOWLThing();
+			}
+			if (minFiller.isOWLNothing()) {
+				return owlDataFactory_.getOWLNothing();
+			}
+			return owlDataFactory_.getOWLObjectMinCardinality(min.getCardinality(), min.getProperty(), minFiller);
+		case OBJECT_MAX_CARDINALITY:
+			OWLObjectMaxCardinality max = (OWLObjectMaxCardinality) expression;
+			OWLClassExpression maxFiller = simplify(max.getFiller());
+			if (maxFiller.isOWLNothing()) {
+				return owlDataFactory_.getOWLThing();
+			}
+			return owlDataFactory_.getOWLObjectMaxCardinality(max.getCardinality(), max.getProperty(), maxFiller);
+		case OBJECT_EXACT_CARDINALITY:
+			OWLObjectExactCardinality exact = (OWLObjectExactCardinality) expression;
+			return owlDataFactory_.getOWLObjectExactCardinality(exact.getCardinality(), exact.getProperty(),
+					simplify(exact.getFiller()));
+		default:
+			//Classes, nominals and data restrictions are kept as they are
+			return expression;
+		}
+	}
+
+	/**
+	 * Removes from a conjunction the cardinality restrictions entailed by other
+	 * conjuncts. \exists r.F is handled as (\geq 1 r.F). For the same role and
+	 * filler only the greatest minimum and the least maximum are kept,
+	 * (\geq n r.\top) is dropped when some (\geq m r.F) with m \geq n is
+	 * present and (\leq m r.F) is dropped when some (\leq n r.\top) with
+	 * n \leq m is present.
+	 * 
+	 * @param conjuncts
+	 * 		The operands of the conjunction
+	 * @return Returns the operands that are not entailed by the others
+	 */
+	protected Set<OWLClassExpression> removeEntailedCardinalities(Set<OWLClassExpression> conjuncts) {
+		//Strongest bounds found for each role and filler
+		HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>> minimums = new HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>>();
+		HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>> maximums = new HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>>();
+		for (OWLClassExpression conjunct : conjuncts) {
+			if (conjunct instanceof OWLObjectSomeValuesFrom) {
+				OWLObjectSomeValuesFrom exists = (OWLObjectSomeValuesFrom) conjunct;
+				storeBound(minimums, exists.getProperty(), exists.getFiller(), 1, true);
+			} else if (conjunct instanceof OWLObjectMinCardinality) {
+				OWLObjectCardinalityRestriction min = (OWLObjectCardinalityRestriction) conjunct;
+				storeBound(minimums, min.getProperty(), min.getFiller(), min.getCardinality(), true);
+			} else if (conjunct instanceof OWLObjectMaxCardinality) {
+				OWLObjectCardinalityRestriction max = (OWLObjectCardinalityRestriction) conjunct;
+				storeBound(maximums, max.getProperty(), max.getFiller(), max.getCardinality(), false);
+			}
+		}
+		//Nothing to prune when there are no cardinality restrictions
+		if (minimums.isEmpty() && maximums.isEmpty()) {
+			return conjuncts;
+		}
+
+		Set<OWLClassExpression> kept = new HashSet<OWLClassExpression>();
+		for (OWLClassExpression conjunct : conjuncts) {
+			if (conjunct instanceof OWLObjectSomeValuesFrom) {
+				OWLObjectSomeValuesFrom exists = (OWLObjectSomeValuesFrom) conjunct;
+				if (isMinimumEntailed(minimums, exists.getProperty(), exists.getFiller(), 1)
+						|| conjuncts.contains(owlDataFactory_.getOWLObjectMinCardinality(1, exists.getProperty(),
+								exists.getFiller()))) {
+					continue;
+				}
+			} else if (conjunct instanceof OWLObjectMinCardinality) {
+				OWLObjectCardinalityRestriction min = (OWLObjectCardinalityRestriction) conjunct;
+				if (isMinimumEntailed(minimums, min.getProperty(), min.getFiller(), min.getCardinality())) {
+					continue;
+				}
+			} else if (conjunct instanceof OWLObjectMaxCardinality) {
+				OWLObjectCardinalityRestriction max = (OWLObjectCardinalityRestriction) conjunct;
+				if (isMaximumEntailed(maximums, max.getProperty(), max.getFiller(), max.getCardinality())) {
+					continue;
+				}
+			}
+			kept.add(conjunct);
+		}
+		return kept;
+	}
+
+	/**
+	 * Stores a bound for a role and a filler, keeping the strongest one
+	 */
+	private void storeBound(HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>> bounds,
+			OWLObjectPropertyExpression property, OWLClassExpression filler, int cardinality, boolean isMinimum) {
+		HashMap<OWLClassExpression, Integer> byFiller = bounds.get(property);
+		if (byFiller == null) {
+			byFiller = new HashMap<OWLClassExpression, Integer>();
+			bounds.put(property, byFiller);
+		}
+		Integer current = byFiller.get(filler);
+		if (current == null || (isMinimum ? cardinality > current : cardinality < current)) {
+			byFiller.put(filler, cardinality);
+		}
+	}
+
+	/**
+	 * Checks if a minimum cardinality is entailed by a stronger one
+	 */
+	private boolean isMinimumEntailed(HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>> minimums,
+			OWLObjectPropertyExpression property, OWLClassExpression filler, int cardinality) {
+		HashMap<OWLClassExpression, Integer> byFiller = minimums.get(property);
+		if (byFiller.get(filler) > cardinality) {
+			return true;
+		}
+		//A bound on any filler entails the same bound on \top
+		if (filler.isOWLThing()) {
+			for (Map.Entry<OWLClassExpression, Integer> entry : byFiller.entrySet()) {
+				if (!entry.getKey().isOWLThing() && entry.getValue() >= cardinality) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a maximum cardinality is entailed by a stronger one
+	 */
+	private boolean isMaximumEntailed(HashMap<OWLObjectPropertyExpression, HashMap<OWLClassExpression, Integer>> maximums,
+			OWLObjectPropertyExpression property, OWLClassExpression filler, int cardinality) {
+		HashMap<OWLClassExpression, Integer> byFiller = maximums.get(property);
+		if (byFiller.get(filler) < cardinality) {
+			return true;
+		}
+		//A bound on \top entails the same bound on any filler
+		Integer onThing = byFiller.get(owlDataFactory_.getOWLThing());
+		return !filler.isOWLThing() && onThing != null && onThing <= cardinality;
+	}
+}
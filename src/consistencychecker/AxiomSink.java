@@ -13,34 +13,34 @@
  *
  *   You should have received a copy of the GNU General Public License
  *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
- * 
+ *
  */
 
-package ecorexmiparser;
+package consistencychecker;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
 
 /**
- * @author Cassio Santos, Christiano Braga
- * @version 1.0.0
- * @since 1.0.0
+ * Destination of the axioms produced by the Ecore to DL mapping. Axiom
+ * generators write each axiom to the sink as soon as it is built, instead of
+ * collecting the whole theory in memory before creating the ontology.
  *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
  */
-public class TObject {
-
-	private String id;
+public interface AxiomSink {
 
 	/**
-	 * @param id Unique identifier for the TObject
-	 *            
+	 * Receives an axiom generated by the mapping
+	 *
+	 * @param axiom
+	 * 		The axiom to be stored
 	 */
-	public TObject(String id) {
-		this.id = id;
-	}
+	public void add(OWLAxiom axiom);
 
 	/**
-	 * @return Returns the TObject unique identifier;
+	 * Makes every axiom received so far visible at the destination
 	 */
-	public String getId() {
-		return id;
-	}
-
+	public void flush();
 }
@@ -0,0 +1,282 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import ecorexmiparser.XMIReaderMode;
+
+/**
+ * Groups the options that change how a model is mapped and checked. A new
+ * instance holds the default behavior of ECC.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CheckerSettings {
+
+	//Subset of the mapping applied when generating the ontology
+	private EncodingProfile encodingProfile = EncodingProfile.FULL;
+	
+	//Mapping applied to operations with parameters
+	private OperationEncoding operationEncoding = OperationEncoding.INVERSE;
+	
+	//Mapping applied to enumerations
+	private EnumerationEncoding enumerationEncoding = EnumerationEncoding.NOMINALS;
+	//Mapping of the objects of an object model
+	private ObjectEncoding objectEncoding = ObjectEncoding.CLASSES;
+	//Mapping closing the links of an object model
+	private LinkEncoding linkEncoding = LinkEncoding.NEGATIONS;
+	
+	//Flag indicating if the ontology is optimized before reasoning
+	private boolean normalize = false;
+	
+	//Maximum number of threads used to translate the invariants
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	//File caching the translated invariants between runs, null when there is no cache
+	private String invariantCacheFile = null;
+	
+	//Flag indicating if the objects and links of an object model are stored outside the Java heap
+	private boolean offHeapObjectStore = false;
+	
+	//XML reader used to parse the object models
+	private XMIReaderMode xmiReaderMode = XMIReaderMode.SAX;
+	
+	//Maximum number of threads parsing chunks of an object model
+	private int xmiThreads = 1;
+	//Flag indicating if the axioms of an object model are built while it is parsed
+	private boolean pipelinedObjectModel = false;
+	//Maximum number of shards of an object model, each one checked by its own reasoner
+	private int objectModelShards = 1;
+	//Flag indicating if the object model is kept after it was mapped, so it can be changed by deltas
+	private boolean incrementalObjectModel = false;
+
+	/**
+	 * @return Returns the subset of the mapping applied when generating the ontology
+	 */
+	public EncodingProfile getEncodingProfile() {
+		return encodingProfile;
+	}
+
+	/**
+	 * @param encodingProfile
+	 * 		The subset of the mapping applied when generating the ontology
+	 */
+	public void setEncodingProfile(EncodingProfile encodingProfile) {
+		this.encodingProfile = encodingProfile;
+	}
+
+	/**
+	 * @return Returns the mapping applied to operations with parameters
+	 */
+	public OperationEncoding getOperationEncoding() {
+		return operationEncoding;
+	}
+
+	/**
+	 * @param operationEncoding
+	 * 		The mapping applied to operations with parameters
+	 */
+	public void setOperationEncoding(OperationEncoding operationEncoding) {
+		this.operationEncoding = operationEncoding;
+	}
+
+	/**
+	 * @return Returns the mapping applied to enumerations
+	 */
+	public EnumerationEncoding getEnumerationEncoding() {
+		return enumerationEncoding;
+	}
+
+	/**
+	 * @param enumerationEncoding
+	 * 		The mapping applied to enumerations
+	 */
+	public void setEnumerationEncoding(EnumerationEncoding enumerationEncoding) {
+		this.enumerationEncoding = enumerationEncoding;
+	}
+
+	/**
+	 * @return Returns the mapping of the objects of an object model
+	 */
+	public ObjectEncoding getObjectEncoding() {
+		return objectEncoding;
+	}
+
+	/**
+	 * @param objectEncoding
+	 * 		The mapping of the objects of an object model
+	 */
+	public void setObjectEncoding(ObjectEncoding objectEncoding) {
+		this.objectEncoding = objectEncoding;
+	}
+
+	/**
+	 * @return Returns the mapping closing the links of an object model
+	 */
+	public LinkEncoding getLinkEncoding() {
+		return linkEncoding;
+	}
+
+	/**
+	 * @param linkEncoding
+	 * 		The mapping closing the links of an object model
+	 */
+	public void setLinkEncoding(LinkEncoding linkEncoding) {
+		this.linkEncoding = linkEncoding;
+	}
+
+	/**
+	 * @return Returns true if the ontology is optimized before reasoning
+	 */
+	public boolean isNormalize() {
+		return normalize;
+	}
+
+	/**
+	 * @param normalize
+	 * 		True if the ontology must be optimized before reasoning
+	 */
+	public void setNormalize(boolean normalize) {
+		this.normalize = normalize;
+	}
+
+	/**
+	 * @return Returns the maximum number of threads used to translate the invariants
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads
+	 * 		The maximum number of threads used to translate the invariants
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * @return Returns the file caching the translated invariants between runs, or null if there is none
+	 */
+	public String getInvariantCacheFile() {
+		return invariantCacheFile;
+	}
+
+	/**
+	 * @param invariantCacheFile
+	 * 		The file caching the translated invariants between runs, or null to disable the cache
+	 */
+	public void setInvariantCacheFile(String invariantCacheFile) {
+		this.invariantCacheFile = invariantCacheFile;
+	}
+
+	/**
+	 * @return Returns true if the objects and links of an object model are stored outside the Java heap
+	 */
+	public boolean isOffHeapObjectStore() {
+		return offHeapObjectStore;
+	}
+
+	/**
+	 * @param offHeapObjectStore
+	 * 		True if the objects and links of an object model must be stored outside the Java heap
+	 */
+	public void setOffHeapObjectStore(boolean offHeapObjectStore) {
+		this.offHeapObjectStore = offHeapObjectStore;
+	}
+
+	/**
+	 * @return Returns the XML reader used to parse the object models
+	 */
+	public XMIReaderMode getXmiReaderMode() {
+		return xmiReaderMode;
+	}
+
+	/**
+	 * @param xmiReaderMode
+	 * 		The XML reader used to parse the object models
+	 */
+	public void setXmiReaderMode(XMIReaderMode xmiReaderMode) {
+		this.xmiReaderMode = xmiReaderMode;
+	}
+
+	/**
+	 * @return Returns the maximum number of threads parsing chunks of an object model
+	 */
+	public int getXmiThreads() {
+		return xmiThreads;
+	}
+
+	/**
+	 * @param xmiThreads
+	 * 		The maximum number of threads parsing chunks of an object model, 1 to parse it as a whole
+	 */
+	public void setXmiThreads(int xmiThreads) {
+		this.xmiThreads = xmiThreads;
+	}
+
+	/**
+	 * @return Returns true if the axioms of an object model are built by another thread while it is parsed
+	 */
+	public boolean isPipelinedObjectModel() {
+		return pipelinedObjectModel;
+	}
+
+	/**
+	 * @param pipelinedObjectModel
+	 * 		True if the axioms of an object model must be built by another thread while it is parsed
+	 */
+	public void setPipelinedObjectModel(boolean pipelinedObjectModel) {
+		this.pipelinedObjectModel = pipelinedObjectModel;
+	}
+
+	/**
+	 * @return Returns the maximum number of shards of an object model, each one
+	 *         checked by its own reasoner
+	 */
+	public int getObjectModelShards() {
+		return objectModelShards;
+	}
+
+	/**
+	 * @param objectModelShards
+	 * 		The maximum number of shards of an object model, 1 to check it as a whole
+	 */
+	public void setObjectModelShards(int objectModelShards) {
+		this.objectModelShards = objectModelShards;
+	}
+
+	/**
+	 * @return Returns true if the object model is kept after it was mapped, so
+	 *         it can be changed by deltas
+	 */
+	public boolean isIncrementalObjectModel() {
+		return incrementalObjectModel;
+	}
+
+	/**
+	 * @param incrementalObjectModel
+	 * 		True if the object model must be kept after it was mapped, so it can be changed
+	 * 		by deltas. The object model is then never split in shards nor pipelined
+	 */
+	public void setIncrementalObjectModel(boolean incrementalObjectModel) {
+		this.incrementalObjectModel = incrementalObjectModel;
+	}
+}
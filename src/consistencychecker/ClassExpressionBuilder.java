@@ -0,0 +1,222 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNaryBooleanClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectUnionOf;
+
+/**
+ * Creates the class expressions representing the invariants. Every expression
+ * is simplified before being created and each distinct expression is created
+ * only once, so equal sub-expressions of different invariants are the same
+ * object. The rules applied are:
+ * <ul>
+ * <li>not not C is C, not Top is Bottom and not Bottom is Top</li>
+ * <li>nested intersections and unions are flattened and repeated operands removed</li>
+ * <li>C and Top is C, C and Bottom is Bottom, C and not C is Bottom</li>
+ * <li>C or Bottom is C, C or Top is Top, C or not C is Top</li>
+ * <li>exists r.Bottom is Bottom</li>
+ * </ul>
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ClassExpressionBuilder {
+
+	private OWLDataFactory owlDataFactory_;
+	private OWLClassExpression thing_;
+	private OWLClassExpression nothing_;
+
+	//Canonical instance of each expression already created
+	private HashMap<OWLClassExpression, OWLClassExpression> expressions_;
+
+	//Number of expressions replaced by a simpler one and of expressions reused
+	private int simplifiedCount;
+	private int sharedCount;
+
+	/**
+	 * @param owlDataFactory
+	 * 		The data factory used to create the expressions
+	 */
+	public ClassExpressionBuilder(OWLDataFactory owlDataFactory) {
+		owlDataFactory_ = owlDataFactory;
+		thing_ = owlDataFactory.getOWLThing();
+		nothing_ = owlDataFactory.getOWLNothing();
+		expressions_ = new HashMap<OWLClassExpression, OWLClassExpression>();
+	}
+
+	/**
+	 * @return Returns the Top concept
+	 */
+	public OWLClassExpression thing() {
+		return thing_;
+	}
+
+	/**
+	 * Creates the complement of a concept
+	 *
+	 * @param operand
+	 * 		The concept to be complemented
+	 * @return Returns the simplified complement of the concept
+	 */
+	public OWLClassExpression complementOf(OWLClassExpression operand) {
+		if (operand instanceof OWLObjectComplementOf) {
+			simplifiedCount++;
+			return ((OWLObjectComplementOf) operand).getOperand();
+		}
+		if (operand.isOWLThing()) {
+			simplifiedCount++;
+			return nothing_;
+		}
+		if (operand.isOWLNothing()) {
+			simplifiedCount++;
+			return thing_;
+		}
+		return share(owlDataFactory_.getOWLObjectComplementOf(operand));
+	}
+
+	/**
+	 * Creates the intersection of two concepts
+	 *
+	 * @return Returns the simplified intersection of the concepts
+	 */
+	public OWLClassExpression intersectionOf(OWLClassExpression left, OWLClassExpression right) {
+		Set<OWLClassExpression> operands = new LinkedHashSet<OWLClassExpression>();
+		//Top is the neutral element and Bottom the absorbing element of the intersection
+		if (!addOperand(operands, left, true) || !addOperand(operands, right, true)
+				|| hasComplementaryOperands(operands)) {
+			simplifiedCount++;
+			return nothing_;
+		}
+		if (operands.size() < 2) {
+			simplifiedCount++;
+			return operands.isEmpty() ? thing_ : operands.iterator().next();
+		}
+		return share(owlDataFactory_.getOWLObjectIntersectionOf(operands));
+	}
+
+	/**
+	 * Creates the union of two concepts
+	 *
+	 * @return Returns the simplified union of the concepts
+	 */
+	public OWLClassExpression unionOf(OWLClassExpression left, OWLClassExpression right) {
+		Set<OWLClassExpression> operands = new LinkedHashSet<OWLClassExpression>();
+		//Bottom is the neutral element and Top the absorbing element of the union
+		if (!addOperand(operands, left, false) || !addOperand(operands, right, false)
+				|| hasComplementaryOperands(operands)) {
+			simplifiedCount++;
+			return thing_;
+		}
+		if (operands.size() < 2) {
+			simplifiedCount++;
+			return operands.isEmpty() ? nothing_ : operands.iterator().next();
+		}
+		return share(owlDataFactory_.getOWLObjectUnionOf(operands));
+	}
+
+	/**
+	 * Creates the existential restriction of a role
+	 *
+	 * @param role
+	 * 		The role restricted
+	 * @param filler
+	 * 		The concept reached through the role
+	 * @return Returns the simplified restriction
+	 */
+	public OWLClassExpression someValuesFrom(OWLObjectPropertyExpression role, OWLClassExpression filler) {
+		if (filler.isOWLNothing()) {
+			simplifiedCount++;
+			return nothing_;
+		}
+		return share(owlDataFactory_.getOWLObjectSomeValuesFrom(role, filler));
+	}
+
+	/**
+	 * @return Returns the number of expressions replaced by a simpler one
+	 */
+	public int getSimplifiedCount() {
+		return simplifiedCount;
+	}
+
+	/**
+	 * @return Returns the number of expressions reused instead of created again
+	 */
+	public int getSharedCount() {
+		return sharedCount;
+	}
+
+	/**
+	 * Adds an operand of an intersection (or union), flattening the operands
+	 * of nested intersections (or unions)
+	 *
+	 * @return Returns false if the operand is the absorbing element
+	 */
+	private boolean addOperand(Set<OWLClassExpression> operands, OWLClassExpression operand, boolean intersection) {
+		if (intersection ? operand.isOWLNothing() : operand.isOWLThing()) {
+			return false;
+		}
+		if (intersection ? operand.isOWLThing() : operand.isOWLNothing()) {
+			simplifiedCount++;
+			return true;
+		}
+		if (intersection ? operand instanceof OWLObjectIntersectionOf : operand instanceof OWLObjectUnionOf) {
+			operands.addAll(((OWLNaryBooleanClassExpression) operand).getOperands());
+		} else if (!operands.add(operand)) {
+			simplifiedCount++;
+		}
+		return true;
+	}
+
+	/**
+	 * Verifies if a concept and its complement are both operands
+	 */
+	private static boolean hasComplementaryOperands(Set<OWLClassExpression> operands) {
+		for (OWLClassExpression operand : operands) {
+			if (operand instanceof OWLObjectComplementOf
+					&& operands.contains(((OWLObjectComplementOf) operand).getOperand())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the canonical instance of an expression
+	 */
+	private OWLClassExpression share(OWLClassExpression expression) {
+		OWLClassExpression canonical = expressions_.get(expression);
+		if (canonical == null) {
+			expressions_.put(expression, expression);
+			return expression;
+		}
+		sharedCount++;
+		return canonical;
+	}
+}
@@ -18,10 +18,18 @@
 
 package consistencychecker;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.dllearner.utilities.owl.OWLAPIRenderers;
 import org.eclipse.ocl.ParserException;
@@ -61,9 +69,14 @@ public class ConsistencyChecker {
 	private static final String LOG_STARTING_ONTOLOGY_CREATION = "\nStarting ontology creation.";
 	private static final String LOG_ENDED_ONTOLOGY_CREATION = "\nEnded ontology creation.";
 	private static final String LOG_ONTOLOGY_NULL = "\nThe ontology created is now null.";
+	private static final String LOG_NORMALIZING_ONTOLOGY = "\nOptimizing the ontology axioms.";
+	private static final String LOG_NORMALIZED_ONTOLOGY = "\nThe optimization removed %d axioms.";
 	private static final String LOG_CREATING_REASONER = "\nCreating the reasoner with the ontology information.";
 	private static final String LOG_REASONER_NULL = "\nThe reasoner created is now null.";
 	private static final String LOG_CREATED_REASONER = "\nThe reasoner was created.";
+	private static final String LOG_APPLYING_DELTA = "\nApplying a delta of %d changes to the object model.";
+	private static final String LOG_APPLIED_DELTA = "\nThe delta changed %d axioms of the ontology.";
+	private static final String LOG_CREATED_SHARDS = "\nThe object model was split in %d shards, reasoned in parallel.";
 	private static final String LOG_EXECUTION_TERMINATES = "\nThe execution was terminated with the error: \"%s\" ";
 	
 	//Error Messages
@@ -72,15 +85,27 @@ public class ConsistencyChecker {
 	private static final String CONSISTENCY_CHECKER_REASONER_NOT_CREATED_ERROR = "To reason on a ontology you must first instantiate the reasoner.";
 	private static final String CONSISTENCY_CHECKER_NOT_REASONED_ERROR = "To check a ontology consistency, you must first reason on it.";
 	private static final String CONSISTENCY_CHECKER_NOT_CHECKED_ERROR = "Consistency was not checked.";
+	private static final String CONSISTENCY_CHECKER_NOT_INCREMENTAL_ERROR = "To apply a delta the object model must be mapped incrementally.";
+	private static final String CONSISTENCY_CHECKER_SHARDS_INTERRUPTED_ERROR = "The reasoning on the shards of the object model was interrupted.";
+	private static final String CONSISTENCY_CHECKER_SHARD_FAILED_ERROR = "The reasoning on a shard of the object model failed: %s";
+	
+	//Separator between the name of the .owl file and the number of a shard
+	private static final String SHARD_FILE_SEPARATOR = "_shard";
 
 	//Control flag indicating if the model was already checked
 	private boolean isChecked = false;
 	
 	//Class Attributes
 	private OntologyCreator creator;
+	private CheckerSettings settings;
 	private OWLOntology ontology;
 	private Reasoner reasoner;
 	private Set<OWLClass> inconsistent_classes;
+	private int removedAxioms = 0;
+	//Shards of the object model, each one with its own ontology and reasoner, if it was split
+	private List<ShardReasoner> shards;
+	//Object model changed by deltas, if it was mapped incrementally
+	private IncrementalObjectModel objectModel;
 	
 	/**
 	 * 
@@ -94,13 +119,34 @@ public class ConsistencyChecker {
 	 */	
 	public ConsistencyChecker(String input_file_path, StringBuilder log)
 			throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
+		this(input_file_path, new CheckerSettings(), log);
+	}
+
+	/**
+	 * 
+	 * @param input_file_path
+	 * 				Full path to the .ecore model containing the ECore Class Diagram
+	 * @param settings
+	 * 				Options that change how the model is mapped and checked
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 * @throws ParserException
+	 */	
+	public ConsistencyChecker(String input_file_path, CheckerSettings settings, StringBuilder log)
+			throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
 		
 		log.append(LOG_INITIALIZING_ONTOLOGY_CREATOR);
+		this.settings = settings;
 		creator = new OntologyCreator();
+		creator.setSettings(settings);
 		
 		//Maps the Ecore Class Diagram to an DL Theory stored in the ontology attribute
 		log.append(LOG_STARTING_ONTOLOGY_CREATION);
 		ontology = creator.processAndCreateOntology(input_file_path, log);
+		//The class diagram is no longer needed once it was mapped to the ontology
+		creator.releaseModel();
 		log.append(LOG_ENDED_ONTOLOGY_CREATION);
 		
 		if (ontology == null) {
@@ -108,6 +154,7 @@ public class ConsistencyChecker {
 			log.append(String.format(LOG_EXECUTION_TERMINATES, CONSISTENCY_CHECKER_ONTOLOGY_ERROR));
 			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_ONTOLOGY_ERROR);
 		} else {
+			normalize(log);
 			
 			//Creates the reasoner based on the ontology created
 			log.append(LOG_CREATING_REASONER);
@@ -134,13 +181,101 @@ public class ConsistencyChecker {
 	 */
 	public ConsistencyChecker(String path_ecore_metamodel, String path_ecore_objectModel, StringBuilder log)
 			throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
+		this(path_ecore_metamodel, path_ecore_objectModel, new CheckerSettings(), log);
+	}
+
+	/**
+	 * 
+	 * @param path_ecore_metamodel
+	 * 				Full path to the .ecore model containing the ECore Class Diagram
+	 * @param path_ecore_objectModel
+	 * 				Full path to the .xmi model containing the object model
+	 * @param settings
+	 * 				Options that change how the models are mapped and checked
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 * @throws ParserException
+	 */
+	public ConsistencyChecker(String path_ecore_metamodel, String path_ecore_objectModel, CheckerSettings settings,
+			StringBuilder log) throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
 		log.append(LOG_INITIALIZING_ONTOLOGY_CREATOR);
 		
-		creator = ExtendedOntologyCreator.getInstance();
+		this.settings = settings;
+		//Each checker has a creator of its own, so checkers can run at the same time
+		creator = new ExtendedOntologyCreator();
+		creator.setSettings(settings);
 
 		log.append(LOG_STARTING_ONTOLOGY_CREATION);
 		//Maps the Ecore Class Diagram and the XMI object model to an DL Theory stored in the ontology attribute
 		creator.processAndCreateOntology(path_ecore_metamodel, log);
+		extend(path_ecore_objectModel, log);
+	}
+
+	/**
+	 * Checks an object model against a class model mapped once for many object
+	 * models. The ontology holds a copy of the class model and the object model.
+	 * 
+	 * @param overlayCreator
+	 * 				The creator of the overlay ontology, provided by a MetamodelChecker
+	 * @param path_ecore_objectModel
+	 * 				Full path to the .xmi model containing the object model
+	 * @param settings
+	 * 				Options that change how the models are mapped and checked
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 */
+	ConsistencyChecker(ExtendedOntologyCreator overlayCreator, String path_ecore_objectModel, CheckerSettings settings,
+			StringBuilder log) throws ConsistencyCheckerGenericException, OWLOntologyCreationException {
+		log.append(LOG_INITIALIZING_ONTOLOGY_CREATOR);
+		this.settings = settings;
+		creator = overlayCreator;
+		log.append(LOG_STARTING_ONTOLOGY_CREATION);
+		extend(path_ecore_objectModel, log);
+	}
+
+	/**
+	 * Extends the class model ontology of the creator with an object model and
+	 * creates the reasoner, or splits the object model in shards when requested
+	 * by the settings
+	 * 
+	 * @param path_ecore_objectModel
+	 * 				Full path to the .xmi model containing the object model
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 */
+	private void extend(String path_ecore_objectModel, StringBuilder log)
+			throws ConsistencyCheckerGenericException, OWLOntologyCreationException {
+		if (settings.isIncrementalObjectModel()) {
+			//Only the class model is optimized, since the object model axioms are replaced by the deltas
+			ontology = creator.ontology_;
+			normalize(log);
+			objectModel = ((ExtendedOntologyCreator) creator).extendOntologyIncrementally(path_ecore_objectModel);
+			log.append(LOG_ENDED_ONTOLOGY_CREATION);
+			log.append(LOG_CREATING_REASONER);
+			reasoner = new Reasoner(ontology);
+			log.append(LOG_CREATED_REASONER);
+			return;
+		}
+		if (settings.getObjectModelShards() > 1) {
+			//The objects are split in shards of unlinked objects, whose reasoners are
+			//created and run in parallel by the reason() method
+			shards = new ArrayList<ShardReasoner>();
+			for (OWLOntology shardOntology : ((ExtendedOntologyCreator) creator)
+					.extendOntologyInShards(path_ecore_objectModel, settings.getObjectModelShards())) {
+				normalize(shardOntology, log);
+				shards.add(new ShardReasoner(shardOntology));
+			}
+			ontology = shards.get(0).ontology;
+			log.append(LOG_ENDED_ONTOLOGY_CREATION);
+			log.append(String.format(LOG_CREATED_SHARDS, shards.size()));
+			return;
+		}
 		ontology = ((ExtendedOntologyCreator) creator).extendOntology(path_ecore_objectModel);
 		log.append(LOG_ENDED_ONTOLOGY_CREATION);
 
@@ -149,6 +284,7 @@ public class ConsistencyChecker {
 			log.append(String.format(LOG_EXECUTION_TERMINATES, CONSISTENCY_CHECKER_ONTOLOGY_ERROR));
 			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_ONTOLOGY_ERROR);
 		} else {
+			normalize(log);
 			
 			//Creates the reasoner based on the ontology created
 			log.append(LOG_CREATING_REASONER);
@@ -161,13 +297,39 @@ public class ConsistencyChecker {
 		}
 	}
 
+	/**
+	 * Optimizes the ontology axioms before the reasoner is created, when
+	 * requested by the settings
+	 * 
+	 * @param log
+	 * 				Variable containing the log messages
+	 */
+	private void normalize(StringBuilder log) {
+		normalize(ontology, log);
+	}
+
+	/**
+	 * Optimizes the axioms of an ontology, counting the removed axioms
+	 */
+	private void normalize(OWLOntology target, StringBuilder log) {
+		if (settings.isNormalize()) {
+			log.append(LOG_NORMALIZING_ONTOLOGY);
+			int removed = new AxiomOptimizer(target.getOWLOntologyManager()).optimize(target);
+			removedAxioms += removed;
+			log.append(String.format(LOG_NORMALIZED_ONTOLOGY, removed));
+		}
+	}
+
 	/**
 	 * Calculates the consistency of the DL theory stored in the reasoner attribute
 	 * 
 	 * @throws ConsistencyCheckerGenericException
 	 */
 	public void reason() throws ConsistencyCheckerGenericException {
-		if (reasoner == null) {
+		if (shards != null) {
+			reasonOnShards();
+			isChecked = true;
+		} else if (reasoner == null) {
 			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_REASONER_NOT_CREATED_ERROR);
 		} else {
 			//Calculates the consistency and stores the result internally
@@ -177,6 +339,55 @@ public class ConsistencyChecker {
 		}
 	}
 
+	/**
+	 * Creates the reasoner of each shard and calculates its consistency, on a
+	 * pool of threads, waiting for all of them
+	 * 
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the reasoning is interrupted or fails unexpectedly
+	 */
+	private void reasonOnShards() throws ConsistencyCheckerGenericException {
+		ExecutorService pool = Executors.newFixedThreadPool(shards.size());
+		try {
+			for (Future<Void> future : pool.invokeAll(shards)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_SHARDS_INTERRUPTED_ERROR);
+		} catch (ExecutionException e) {
+			throw new ConsistencyCheckerGenericException(String.format(CONSISTENCY_CHECKER_SHARD_FAILED_ERROR, e.getCause()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Applies a delta to an object model mapped incrementally. Only the axioms
+	 * of the objects and links touched by the delta are replaced in the
+	 * ontology, and the reasoner receives the changes, so the model must be
+	 * reasoned again before its consistency is checked.
+	 * 
+	 * @param delta
+	 * 				The objects and links added and removed
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * 				If the object model was not mapped incrementally, or the delta names
+	 * 				an object, class, reference or link that does not exist
+	 */
+	public void applyDelta(ObjectModelDelta delta, StringBuilder log) throws ConsistencyCheckerGenericException {
+		if (objectModel == null) {
+			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_NOT_INCREMENTAL_ERROR);
+		}
+		log.append(String.format(LOG_APPLYING_DELTA, delta.size()));
+		int changed = objectModel.apply(delta);
+		log.append(String.format(LOG_APPLIED_DELTA, changed));
+		//The reasoner buffers the changes until it is flushed
+		reasoner.flush();
+		isChecked = false;
+	}
+
 	/**
 	 * Checks if the ontology associated with a model is consistent. The reasoner
 	 * returns a set of inconsistent classes when
@@ -191,7 +402,15 @@ public class ConsistencyChecker {
 		if (isChecked) {
 			//Checks if the the reasoner has calculated any unsatisfiable class that not bottom.
 			//If that's the case, the ontology is inconsistent and so are the models
-			inconsistent_classes = reasoner.getUnsatisfiableClasses().getEntitiesMinusBottom();
+			if (shards != null) {
+				//The model is inconsistent if any of the shards is
+				inconsistent_classes = new HashSet<OWLClass>();
+				for (ShardReasoner shard : shards) {
+					inconsistent_classes.addAll(shard.unsatisfiable);
+				}
+			} else {
+				inconsistent_classes = getUnsatisfiableClasses(ontology, reasoner);
+			}
 			return inconsistent_classes.isEmpty();
 		} else {
 			//Throws exception if this method is called before the reason() method
@@ -212,51 +431,72 @@ public class ConsistencyChecker {
 		if (!isChecked) {
 			//Throws exception if this method is called before the reason() method
 			throw new ConsistencyCheckerGenericException(CONSISTENCY_CHECKER_NOT_CHECKED_ERROR);
+		} else if (shards != null) {
+			//Each class is explained by the first shard where it is inconsistent
+			for (ShardReasoner shard : shards) {
+				explain(shard.ontology, shard.reasoner, shard.unsatisfiable, all, fullMapClassExplanation);
+			}
 		} else {
-			//Instantiates properly the reasoner classes
-			ReasonerFactory factory = new Reasoner.ReasonerFactory() {
-				protected OWLReasoner createHermiTOWLReasoner(org.semanticweb.HermiT.Configuration configuration,
-						OWLOntology ontology) {
-					configuration.throwInconsistentOntologyException = false;
-					return new Reasoner(configuration, ontology);
-				}
-			};
-			HSTExplanationGenerator multExplanator = new HSTExplanationGenerator(
-					new BlackBoxExplanation(ontology, factory, reasoner));
-			
-			// Creates the variables that will store the inconsistency explanation
-			Set<OWLAxiom> explanations = null;
-			Set<Set<OWLAxiom>> allExplanations = null;
-			
-			
-			for (OWLClass cls : reasoner.getUnsatisfiableClasses().getEntitiesMinusBottom()) {
-				HashSet<Set<String>> fullans = new HashSet<Set<String>>();
-				if (all) {
-					//If all explanations for the inconsistency of a given class were requested
-					//then each set of explanation is covered for its causing axioms 
-					allExplanations = multExplanator.getExplanations(cls);
-					for (Set<OWLAxiom> explanation_set : allExplanations) {
-						HashSet<String> temp = new HashSet<String>();
-						for (OWLAxiom causingAxiom : explanation_set) {
-							temp.add(OWLAPIRenderers.toManchesterOWLSyntax(causingAxiom));
-						}
-						fullans.add(temp);
-					}
-				} else {
-					//If only one explanation was requested than only one of the explanations
-					//is covered for its causing axioms
-					HashSet<String> ans = new HashSet<String>();
-					explanations = multExplanator.getExplanation(cls);
-					for (OWLAxiom causingAxiom : explanations) {
-						ans.add(OWLAPIRenderers.toManchesterOWLSyntax(causingAxiom));
+			explain(ontology, reasoner, getUnsatisfiableClasses(ontology, reasoner), all, fullMapClassExplanation);
+		}
+		return fullMapClassExplanation;
+	}
+
+	/**
+	 * Explains the inconsistency of the classes not explained yet
+	 * 
+	 * @param classes
+	 * 		The inconsistent classes of the ontology
+	 * @param fullMapClassExplanation
+	 * 		The explanations found so far, which receives the new ones
+	 */
+	private void explain(OWLOntology ontology, OWLReasoner reasoner, Set<OWLClass> classes, boolean all,
+			HashMap<OWLClass, Set<Set<String>>> fullMapClassExplanation) {
+		//Instantiates properly the reasoner classes
+		ReasonerFactory factory = new Reasoner.ReasonerFactory() {
+			protected OWLReasoner createHermiTOWLReasoner(org.semanticweb.HermiT.Configuration configuration,
+					OWLOntology ontology) {
+				configuration.throwInconsistentOntologyException = false;
+				return new Reasoner(configuration, ontology);
+			}
+		};
+		HSTExplanationGenerator multExplanator = new HSTExplanationGenerator(
+				new BlackBoxExplanation(ontology, factory, reasoner));
+		
+		// Creates the variables that will store the inconsistency explanation
+		Set<OWLAxiom> explanations = null;
+		Set<Set<OWLAxiom>> allExplanations = null;
+		
+		
+		for (OWLClass cls : classes) {
+			if (fullMapClassExplanation.containsKey(cls)) {
+				continue;
+			}
+			HashSet<Set<String>> fullans = new HashSet<Set<String>>();
+			if (all) {
+				//If all explanations for the inconsistency of a given class were requested
+				//then each set of explanation is covered for its causing axioms 
+				allExplanations = multExplanator.getExplanations(cls);
+				for (Set<OWLAxiom> explanation_set : allExplanations) {
+					HashSet<String> temp = new HashSet<String>();
+					for (OWLAxiom causingAxiom : explanation_set) {
+						temp.add(OWLAPIRenderers.toManchesterOWLSyntax(causingAxiom));
 					}
-					fullans.add(ans);
+					fullans.add(temp);
+				}
+			} else {
+				//If only one explanation was requested than only one of the explanations
+				//is covered for its causing axioms
+				HashSet<String> ans = new HashSet<String>();
+				explanations = multExplanator.getExplanation(cls);
+				for (OWLAxiom causingAxiom : explanations) {
+					ans.add(OWLAPIRenderers.toManchesterOWLSyntax(causingAxiom));
 				}
-				//Add the class and the explanation for its inconsistency in a map
-				fullMapClassExplanation.put(cls, fullans);
+				fullans.add(ans);
 			}
+			//Add the class and the explanation for its inconsistency in a map
+			fullMapClassExplanation.put(cls, fullans);
 		}
-		return fullMapClassExplanation;
 	}
 
 	/**
@@ -273,9 +513,37 @@ public class ConsistencyChecker {
 		}
 		HashMap<String, Boolean> classes = new HashMap<>();
 		ArrayList<ArrayList<String>> classesDeEquivalencia = new ArrayList<ArrayList<String>>();
+		if (shards != null) {
+			//The classes of the class model are reported by the first shard
+			for (ShardReasoner shard : shards) {
+				addEquivalentClasses(shard.ontology, shard.reasoner, classes, classesDeEquivalencia);
+			}
+		} else {
+			addEquivalentClasses(ontology, reasoner, classes, classesDeEquivalencia);
+		}
+		return classesDeEquivalencia;
+	}
+
+	/**
+	 * Adds the equivalences between the classes of an ontology not reported yet
+	 * 
+	 * @param classes
+	 * 		The IRIs of the classes already reported
+	 * @param classesDeEquivalencia
+	 * 		The equivalences found so far, which receives the new ones
+	 */
+	private void addEquivalentClasses(OWLOntology ontology, OWLReasoner reasoner, HashMap<String, Boolean> classes,
+			ArrayList<ArrayList<String>> classesDeEquivalencia) {
+		//An inconsistent ontology entails every equivalence, so none is reported
+		if (!reasoner.isConsistent()) {
+			return;
+		}
 		//for each class in the DL theory cover its list of equivalent classes and adds
 		//an string represeting each equivalency
 		for (OWLClass cls : ontology.getClassesInSignature(true)) {
+			if (ExtendedOntologyCreator.isOthersClass(cls)) {
+				continue;
+			}
 			if (classes.get(cls.getIRI().toString()) == null) {
 				classes.put(cls.getIRI().toString(), Boolean.TRUE);
 				ArrayList<String> equivalence = new ArrayList<String>();
@@ -289,7 +557,21 @@ public class ConsistencyChecker {
 				classesDeEquivalencia.add(equivalence);
 			}
 		}
-		return classesDeEquivalencia;
+	}
+
+	/**
+	 * Finds the unsatisfiable classes other than bottom. When the objects are
+	 * encoded as individuals, an object model violating the model makes the whole
+	 * ontology inconsistent instead of making a class unsatisfiable, and owl:Thing
+	 * is then the only class reported.
+	 * 
+	 * @return Returns the unsatisfiable classes
+	 */
+	static Set<OWLClass> getUnsatisfiableClasses(OWLOntology ontology, OWLReasoner reasoner) {
+		if (!reasoner.isConsistent()) {
+			return Collections.singleton(ontology.getOWLOntologyManager().getOWLDataFactory().getOWLThing());
+		}
+		return reasoner.getUnsatisfiableClasses().getEntitiesMinusBottom();
 	}
 
 	/**
@@ -321,13 +603,83 @@ public class ConsistencyChecker {
 	 * @throws ConsistencyCheckerGenericException
 	 */
 	public void save(String owlFilepath) throws OWLOntologyStorageException, ConsistencyCheckerGenericException {
-		creator.save(owlFilepath, ontology);
+		if (shards == null) {
+			creator.save(owlFilepath, ontology);
+			return;
+		}
+		//Each shard is saved in its own file, numbered after the file name
+		int extension = owlFilepath.lastIndexOf('.');
+		if (extension <= owlFilepath.lastIndexOf(File.separatorChar)) {
+			extension = owlFilepath.length();
+		}
+		for (int shard = 0; shard < shards.size(); shard++) {
+			creator.save(owlFilepath.substring(0, extension) + SHARD_FILE_SEPARATOR + shard
+					+ owlFilepath.substring(extension), shards.get(shard).ontology);
+		}
+	}
+	
+	/**
+	 * @return Returns the options used to map and check the model
+	 */
+	public CheckerSettings getSettings() {
+		return settings;
 	}
 	
 	/**
-	 * @return Returns the working ontology
+	 * @return Returns the number of axioms removed by the optimization
+	 */
+	public int getRemovedAxioms() {
+		return removedAxioms;
+	}
+	
+	/**
+	 * @return Returns the working ontology, the ontology of the first shard if
+	 *         the object model was split in shards
 	 */
 	public OWLOntology getOntology() {
 		return ontology;
 	}
+
+	/**
+	 * @return Returns the ontology of each shard of the object model, or the
+	 *         working ontology alone if it was not split
+	 */
+	public List<OWLOntology> getOntologies() {
+		if (shards == null) {
+			return Collections.singletonList(ontology);
+		}
+		List<OWLOntology> ontologies = new ArrayList<OWLOntology>(shards.size());
+		for (ShardReasoner shard : shards) {
+			ontologies.add(shard.ontology);
+		}
+		return ontologies;
+	}
+
+	/**
+	 * Creates the reasoner of a shard of the object model and finds its
+	 * inconsistent classes, leaving out the classes representing the objects
+	 * placed in other shards, whose inconsistency is reported by their shards
+	 */
+	private static class ShardReasoner implements Callable<Void> {
+		private final OWLOntology ontology;
+		private Reasoner reasoner;
+		private Set<OWLClass> unsatisfiable;
+
+		private ShardReasoner(OWLOntology ontology) {
+			this.ontology = ontology;
+		}
+
+		@Override
+		public Void call() {
+			reasoner = new Reasoner(ontology);
+			reasoner.isConsistent();
+			unsatisfiable = new HashSet<OWLClass>();
+			for (OWLClass cls : getUnsatisfiableClasses(ontology, reasoner)) {
+				if (!ExtendedOntologyCreator.isOthersClass(cls)) {
+					unsatisfiable.add(cls);
+				}
+			}
+			return null;
+		}
+	}
 }
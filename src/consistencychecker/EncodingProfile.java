@@ -0,0 +1,112 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+/**
+ * Named subsets of the Ecore to DL mapping. Each profile switches whole
+ * families of axioms on or off when the ontology is generated. Classes,
+ * generalizations and associations are always mapped.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum EncodingProfile {
+
+	/**
+	 * Classes, generalizations and associations only
+	 */
+	STRUCTURE("structure", false, false, false),
+
+	/**
+	 * The structure plus the OCL invariants
+	 */
+	STRUCTURE_INVARIANTS("structure+invariants", false, false, true),
+
+	/**
+	 * The complete mapping: attributes (with datatypes and enumerations),
+	 * operations and OCL invariants
+	 */
+	FULL("full", true, true, true);
+
+	private static final String UNKNOWN_PROFILE_ERROR = "The encoding profile \"%s\" is unknown.";
+
+	private final String profileName;
+	private final boolean attributes;
+	private final boolean operations;
+	private final boolean invariants;
+
+	private EncodingProfile(String profileName, boolean attributes, boolean operations, boolean invariants) {
+		this.profileName = profileName;
+		this.attributes = attributes;
+		this.operations = operations;
+		this.invariants = invariants;
+	}
+
+	/**
+	 * @return Returns true if the attributes, their datatypes and enumerations are mapped
+	 */
+	public boolean includesAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * @return Returns true if the operations are mapped
+	 */
+	public boolean includesOperations() {
+		return operations;
+	}
+
+	/**
+	 * @return Returns true if the OCL invariants are mapped
+	 */
+	public boolean includesInvariants() {
+		return invariants;
+	}
+
+	/**
+	 * @return Returns the name used to select this profile in the command line
+	 */
+	public String getProfileName() {
+		return profileName;
+	}
+
+	@Override
+	public String toString() {
+		return profileName;
+	}
+
+	/**
+	 * Finds the profile with the provided name
+	 *
+	 * @param name
+	 * 		The profile name, as used in the command line
+	 * @return Returns the profile with the provided name
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If there is no profile with such name
+	 */
+	public static EncodingProfile fromName(String name) throws ConsistencyCheckerGenericException {
+		for (EncodingProfile profile : values()) {
+			if (profile.profileName.equalsIgnoreCase(name)) {
+				return profile;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_PROFILE_ERROR, name));
+	}
+}
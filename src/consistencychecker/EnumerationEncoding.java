@@ -0,0 +1,80 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+/**
+ * Ways of mapping EEnums and their literals.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum EnumerationEncoding {
+
+	/**
+	 * Each literal is a named individual and the enumeration is equivalent to
+	 * the set of its literals: E \equiv \{l_1,...,l_n\}
+	 */
+	NOMINALS("nominals"),
+
+	/**
+	 * Each literal is an atomic concept L_i, the literals are pairwise disjoint
+	 * and together they cover the enumeration:
+	 * L_i \sqsubseteq E and E \sqsubseteq L_1 \sqcup ... \sqcup L_n
+	 */
+	DISJOINT_CLASSES("classes");
+
+	private static final String UNKNOWN_ENCODING_ERROR = "The enumeration encoding \"%s\" is unknown.";
+
+	private final String encodingName;
+
+	private EnumerationEncoding(String encodingName) {
+		this.encodingName = encodingName;
+	}
+
+	/**
+	 * @return Returns the name used to select this encoding in the command line
+	 */
+	public String getEncodingName() {
+		return encodingName;
+	}
+
+	@Override
+	public String toString() {
+		return encodingName;
+	}
+
+	/**
+	 * Finds the encoding with the provided name
+	 *
+	 * @param name
+	 * 		The encoding name, as used in the command line
+	 * @return Returns the encoding with the provided name
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If there is no encoding with such name
+	 */
+	public static EnumerationEncoding fromName(String name) throws ConsistencyCheckerGenericException {
+		for (EnumerationEncoding encoding : values()) {
+			if (encoding.encodingName.equalsIgnoreCase(name)) {
+				return encoding;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_ENCODING_ERROR, name));
+	}
+}
@@ -18,11 +18,11 @@
 
 package consistencychecker;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.emf.ecore.EClass;
@@ -31,19 +31,25 @@ import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObjectComplementOf;
 import org.semanticweb.owlapi.model.OWLObjectExactCardinality;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 import org.semanticweb.owlapi.model.OWLObjectUnionOf;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 
 import ecorexmiparser.EcoreXMIParser;
-import ecorexmiparser.TLink;
-import ecorexmiparser.TObject;
+import ecorexmiparser.IntArray;
+import ecorexmiparser.ObjectComponents;
+import ecorexmiparser.ObjectModelListener;
+import ecorexmiparser.ObjectModelPipeline;
+import ecorexmiparser.ObjectStore;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 /**
  * @author Cassio Santos, Christiano Braga
@@ -54,27 +60,72 @@ import ecorexmiparser.TObject;
 public class ExtendedOntologyCreator extends OntologyCreator {
 	
 	protected static final String OBJECT_POSFIX = "object";
+	protected static final String OTHERS_POSFIX = "others";
+	private static final String SHARD_IRI_BUILDER = "%s/shard%d";
+	private static final String OVERLAY_IRI_BUILDER = "%s/overlay%d";
+	private static final String OBJECT_MODEL_ERROR = "The object model could not be parsed. %s";
+	private static final String PIPELINE_ERROR = "The axioms of the object model could not be built. %s";
+	//Number of event blocks waiting for the thread building the axioms of a pipelined object model
+	private static final int PIPELINE_BLOCKS = 16;
 	
 	// Variable used to implement the singleton design pattern
 	private static ExtendedOntologyCreator instance;
+	
+	//Shard of each object while the shards of an object model are encoded, and the shard being encoded
+	private int[] shardOf_;
+	private int shard_;
 
 	/**
 	 * Standard Constructor. Calls the superclass constructor to instantiate
-	 * attributes Used only internally. For external calls, the getInstance
-	 * should be used to ensure the oneness of the instance.
+	 * attributes. Each creator keeps the state of the models it maps, so a
+	 * creator must not be shared by checks running at the same time.
 	 * 
 	 * @throws OWLOntologyCreationException
 	 */
-	private ExtendedOntologyCreator() throws OWLOntologyCreationException {
+	public ExtendedOntologyCreator() throws OWLOntologyCreationException {
 		super();
 	}
 
+	/**
+	 * Creates a creator extending an overlay ontology, which starts with a copy
+	 * of the class model axioms of another creator instead of mapping the class
+	 * model again
+	 * 
+	 * @param classModelCreator
+	 * 		The creator that mapped the class model
+	 * @param classModelAxioms
+	 * 		The axioms of the class model ontology
+	 * @param overlay
+	 * 		A number identifying the overlay ontology
+	 * @throws OWLOntologyCreationException
+	 */
+	private ExtendedOntologyCreator(ExtendedOntologyCreator classModelCreator, Set<OWLAxiom> classModelAxioms,
+			int overlay) throws OWLOntologyCreationException {
+		//A manager and data factory of its own keep the overlay apart from the ones created on other threads
+		super(OWLManager.createOWLOntologyManager(new OWLDataFactoryImpl()));
+		settings_ = classModelCreator.settings_;
+		classes = classModelCreator.classes;
+		associations = classModelCreator.associations;
+		PACKAGE_PREFIX = classModelCreator.PACKAGE_PREFIX;
+		CLASS_NAME_BUILDER = classModelCreator.CLASS_NAME_BUILDER;
+		
+		//An ontology belongs to a single manager, and the managers of the overlays are kept apart,
+		//so each overlay holds a copy of the class model axioms instead of importing them
+		ontology_ = ontologyManager_.createOntology(IRI.create(String.format(OVERLAY_IRI_BUILDER, ontologyIRI_, overlay)));
+		ontologyManager_.addAxioms(ontology_, classModelAxioms);
+		axiomSink_ = new OntologyAxiomSink(ontologyManager_, ontology_);
+	}
+
 	/**
 	 * Implementation of the singleton design pattern. Use this method to get an instance of this class
 	 * 
 	 * @return returns the singleton instance
 	 * @throws OWLOntologyCreationException
+	 * @deprecated The instance keeps the state of the last models mapped, so
+	 *             checks sharing it can not run at the same time. Use the
+	 *             constructor, or a MetamodelChecker to check many object models
 	 */
+	@Deprecated
 	public static ExtendedOntologyCreator getInstance() throws OWLOntologyCreationException {
 		if (instance == null) {
 			instance = new ExtendedOntologyCreator();
@@ -82,61 +133,295 @@ public class ExtendedOntologyCreator extends OntologyCreator {
 		return instance;
 	}
 
+	/**
+	 * Prepares the class model, once it was mapped, to be shared by the
+	 * creators of overlay ontologies. The features of the classes and
+	 * references that EMF computes on demand are computed here, so the
+	 * overlays, possibly created on several threads, only read them.
+	 * 
+	 * @return Returns a copy of the axioms of the class model ontology
+	 */
+	protected Set<OWLAxiom> prepareOverlays() {
+		axiomSink_.flush();
+		for (EClass currentClass : classes) {
+			currentClass.getEAllSuperTypes();
+			currentClass.getEAllContainments();
+			for (EReference reference : currentClass.getEAllReferences()) {
+				reference.getEOpposite();
+				reference.getEReferenceType();
+			}
+		}
+		return new HashSet<OWLAxiom>(ontology_.getAxioms());
+	}
+
+	/**
+	 * Creates a creator extending an overlay ontology with an object model.
+	 * The overlay holds a copy of the class model mapped by this creator,
+	 * which must have been prepared by prepareOverlays(), and the axioms of
+	 * the object model.
+	 * 
+	 * @param classModelAxioms
+	 * 		The axioms returned by prepareOverlays()
+	 * @param overlay
+	 * 		A number identifying the overlay ontology
+	 * @return Returns the creator of the overlay
+	 * @throws OWLOntologyCreationException
+	 */
+	protected ExtendedOntologyCreator createOverlay(Set<OWLAxiom> classModelAxioms, int overlay)
+			throws OWLOntologyCreationException {
+		return new ExtendedOntologyCreator(this, classModelAxioms, overlay);
+	}
+
 	/**
 	 * Extends the created ontology with axioms representing an object model instance of the UML class model
 	 * 
 	 * @param objectModelPath Full path for the .XMI representing the object model
 	 * @return returns an OWLOntology representing the 
 	 * @throws OWLOntologyCreationException
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the object model can not be read or does not match the class model
 	 */
-	public OWLOntology extendOntology(String objectModelPath) throws OWLOntologyCreationException {
-		OWLOntologyManager ontologyManager_ = OWLManager.createOWLOntologyManager();
-		//Instantiate the XMI parser providing the classes and associations retrieved from the Class Model
-		EcoreXMIParser parser = new EcoreXMIParser(classes, associations, PACKAGE_PREFIX);
-		//Parses the XMI File, creating and pools of objects and links
-		parser.parse(objectModelPath);
-		//Creates axioms representing the objects
-		insertTypingAxioms(parser.getObjectPool());
-		//Creates axioms representing the links
-		insertLinksAxioms(parser.getObjectPool(), parser.getlinkPool());
-		//Create the ontology containing the object model axioms
-		OWLOntology ontology_ = ontologyManager_.createOntology(ontologyIRI_);
-		//Adds the object model axioms to the previouly created metamodel axioms
-		List<OWLOntologyChange> ontologyResulted = ontologyManager_.addAxioms(ontology_, axiomList_);
-		ontologyManager_.applyChanges(ontologyResulted);
+	public OWLOntology extendOntology(String objectModelPath)
+			throws OWLOntologyCreationException, ConsistencyCheckerGenericException {
+		EcoreXMIParser parser = createParser();
+		ObjectModelPipeline pipeline = null;
+		if (settings_.isPipelinedObjectModel()) {
+			//The typing and link axioms are built by another thread while the file is parsed,
+			//and only the closure axioms wait for the whole object model. The closure axioms
+			//need every link, so the store still holds the whole object model and the peak
+			//memory is the one of a mapping without pipeline
+			pipeline = new ObjectModelPipeline(new AxiomBuilder(parser.getObjectStore()), PIPELINE_BLOCKS);
+			parser.setListener(pipeline);
+		}
+		//Parses the XMI File, storing the objects and links
+		try {
+			parser.parse(objectModelPath);
+		} catch (IOException e) {
+			if (pipeline != null) {
+				pipeline.abort();
+			}
+			throw new ConsistencyCheckerGenericException(String.format(OBJECT_MODEL_ERROR, e.getMessage()));
+		}
+		if (pipeline != null) {
+			try {
+				pipeline.finish();
+			} catch (RuntimeException e) {
+				throw new ConsistencyCheckerGenericException(String.format(PIPELINE_ERROR, e));
+			}
+		}
+		insertObjectModelAxioms(parser.getObjectStore(), pipeline == null);
+		//The objects and links are no longer needed once their axioms were generated
+		parser.clear();
+		//Adds the object model axioms still pending to the previouly created metamodel axioms
+		axiomSink_.flush();
+		//The class model is no longer needed as well
+		releaseModel();
 		//returns the extended ontology
 		return ontology_;
 	}
 
+	/**
+	 * Extends the created ontology with an object model split in shards. The
+	 * objects are grouped by the connected components of their links, and
+	 * the components are balanced over the shards, so no link crosses two
+	 * shards. Each shard is a copy of the class model ontology extended with
+	 * its own objects and links, in an ontology manager of its own so the
+	 * shards can be reasoned in parallel. The instances of a class placed in
+	 * other shards are represented by a single class, keeping the closure of
+	 * the class and of its links sound.
+	 * 
+	 * @param objectModelPath Full path for the .XMI representing the object model
+	 * @param shards The maximum number of shards. There are never more shards than components
+	 * @return returns the ontology of each shard
+	 * @throws OWLOntologyCreationException
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the object model can not be read or does not match the class model
+	 */
+	public List<OWLOntology> extendOntologyInShards(String objectModelPath, int shards)
+			throws OWLOntologyCreationException, ConsistencyCheckerGenericException {
+		//The shards are known only once the whole object model was parsed, so it is never pipelined
+		EcoreXMIParser parser = createParser();
+		try {
+			parser.parse(objectModelPath);
+		} catch (IOException e) {
+			throw new ConsistencyCheckerGenericException(String.format(OBJECT_MODEL_ERROR, e.getMessage()));
+		}
+		ObjectStore store = parser.getObjectStore();
+		ObjectComponents components = new ObjectComponents(store);
+		int shardCount = components.getPartCount(shards);
+		shardOf_ = components.partition(shards);
+		components = null;
+		
+		//Every shard holds a copy of the axioms of the class model, so its reasoner needs no other ontology
+		axiomSink_.flush();
+		Set<OWLAxiom> classModelAxioms = new HashSet<OWLAxiom>();
+		for (OWLOntology classModelOntology : ontologyManager_.getImportsClosure(ontology_)) {
+			classModelAxioms.addAll(classModelOntology.getAxioms());
+		}
+		AxiomSink classModelSink = axiomSink_;
+		List<OWLOntology> shardOntologies = new ArrayList<OWLOntology>(shardCount);
+		try {
+			for (shard_ = 0; shard_ < shardCount; shard_++) {
+				//A manager and data factory of its own keep the reasoner of the shard apart from the others
+				OWLOntologyManager shardManager = OWLManager.createOWLOntologyManager(new OWLDataFactoryImpl());
+				OWLOntology shardOntology = shardManager
+						.createOntology(IRI.create(String.format(SHARD_IRI_BUILDER, ontologyIRI_, shard_)));
+				shardManager.addAxioms(shardOntology, classModelAxioms);
+				axiomSink_ = new OntologyAxiomSink(shardManager, shardOntology);
+				insertObjectModelAxioms(store, true);
+				axiomSink_.flush();
+				shardOntologies.add(shardOntology);
+			}
+		} finally {
+			axiomSink_ = classModelSink;
+			shardOf_ = null;
+		}
+		//The objects, links and class model are no longer needed once the shards were created
+		parser.clear();
+		releaseModel();
+		return shardOntologies;
+	}
+
+	/**
+	 * Extends the created ontology with an object model that may later be
+	 * changed by deltas. The objects and links are kept after their axioms were
+	 * added, so a delta regenerates only the axioms of the elements it touches
+	 * instead of parsing and mapping the whole object model again.
+	 * 
+	 * @param objectModelPath Full path for the .XMI representing the object model
+	 * @return returns the object model, which applies the deltas to the extended ontology
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the object model can not be read or does not match the class model
+	 */
+	IncrementalObjectModel extendOntologyIncrementally(String objectModelPath) throws ConsistencyCheckerGenericException {
+		//The axioms are grouped by the element they encode, so the object model is never pipelined
+		EcoreXMIParser parser = createParser();
+		try {
+			parser.parse(objectModelPath);
+		} catch (IOException e) {
+			throw new ConsistencyCheckerGenericException(String.format(OBJECT_MODEL_ERROR, e.getMessage()));
+		}
+		//The class model axioms still pending reach the ontology before the object model axioms
+		axiomSink_.flush();
+		IncrementalObjectModel objectModel = new IncrementalObjectModel(this, parser.getObjectStore());
+		objectModel.encode();
+		//The object model keeps its own copy of the objects and links, and of the class model it needs
+		parser.clear();
+		releaseModel();
+		return objectModel;
+	}
+
+	/**
+	 * Instantiates the XMI parser providing the classes and associations retrieved from the Class Model
+	 */
+	private EcoreXMIParser createParser() {
+		EcoreXMIParser parser = new EcoreXMIParser(classes, associations, PACKAGE_PREFIX,
+				settings_.isOffHeapObjectStore());
+		parser.setReaderMode(settings_.getXmiReaderMode());
+		parser.setThreads(settings_.getXmiThreads());
+		return parser;
+	}
+
+	/**
+	 * Inserts the axioms representing the objects and links of the object
+	 * model, or of the shard being encoded, with the object encoding of the settings
+	 * 
+	 * @param positive
+	 * 			True if the axioms stating the type of each object and each link must be
+	 * 			inserted, false if they were already built while the object model was parsed
+	 */
+	private void insertObjectModelAxioms(ObjectStore store, boolean positive) {
+		if (settings_.getObjectEncoding() == ObjectEncoding.INDIVIDUALS) {
+			//Creates assertions on the individuals representing the objects, and their links
+			insertIndividualTypingAxioms(store, positive);
+			insertIndividualLinksAxioms(store, positive);
+		} else {
+			//Creates axioms representing the objects, writing them on the metamodel ontology
+			insertTypingAxioms(store, positive);
+			//Creates axioms representing the links
+			insertLinksAxioms(store, positive);
+		}
+	}
+
+	/**
+	 * @return Returns true if the object is encoded in the ontology being
+	 *         created, which is always the case unless it belongs to another shard
+	 */
+	private boolean inShard(int objectId) {
+		return shardOf_ == null || shardOf_[objectId] == shard_;
+	}
+
+	/**
+	 * Creates the OWLClass representing the instances of a class placed in
+	 * other shards, which is a subclass of the class disjoint from the objects
+	 * of the shard being encoded
+	 */
+	private OWLClass getOthersClass(String className) {
+		return owlDataFactory_.getOWLClass(
+				IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + className + OTHERS_POSFIX));
+	}
+
+	/**
+	 * @return Returns true if the class represents the instances of a class placed in other shards
+	 */
+	protected static boolean isOthersClass(OWLClass owlClass) {
+		return owlClass.getIRI().toString().endsWith(OTHERS_POSFIX);
+	}
+
 	/**
 	 * Inserts into the ontology being created the axioms representing the association
 	 * between the objects at the object mode
 	 * 
-	 * @param objectPoolSimplified
-	 * 			Pool of TObjects representing the objects in the object model.
-	 * 			They're associated with their respective metaclass using the mapping.
+	 * @param store
+	 * 			The objects of the object model. Each class is related to its instances,
+	 * 			the instances of its subclasses included.
 	 */
-	public void insertTypingAxioms(Map<String, ArrayList<TObject>> objectPoolSimplified) {
+	public void insertTypingAxioms(ObjectStore store) {
+		insertTypingAxioms(store, true);
+	}
+
+	/**
+	 * Inserts the typing axioms, the axioms stating the type of each object
+	 * excluded if they were already built while the object model was parsed
+	 * 
+	 * @param positive
+	 * 			True if the axioms stating the type of each object must be inserted
+	 */
+	private void insertTypingAxioms(ObjectStore store, boolean positive) {
 		//Runs through the classes list
 		for (EClass currentClass : classes) {
+			int classId = store.getClassId(currentClass.getName());
 			//Builds and OWLClas representing the class. (The name unicity theory assures that
 			//we are referencing the same OWL Class created previously)
 			OWLClass owlClass = owlDataFactory_
 					.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, currentClass.getName())));
 			//Creates a set to store all objects instances of the current class, here called siblingObjects
 			Set<OWLClass> siblingObjects = new HashSet<OWLClass>();
-			//Runs through the object List associated with the current class
-			for (TObject currentObject : objectPoolSimplified.get(currentClass.getName())) {
+			boolean instancesElsewhere = false;
+			//Runs through the instances of the current class
+			for (int i = 0; i < store.getInstanceCount(classId); i++) {
+				if (!inShard(store.getInstance(classId, i))) {
+					instancesElsewhere = true;
+					continue;
+				}
 				//Creates the OWLClass representing the object.
-				OWLClass owlObject = owlDataFactory_.getOWLClass(
-						IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentObject.getId() + OBJECT_POSFIX));
+				OWLClass owlObject = getObjectClass(store, store.getInstance(classId, i));
 				//Adds the current object to the list of instances of the current class
 				siblingObjects.add(owlObject);
-				//Creates an axiom stating that the OWLClass representing the object
-				//is an subclass of the OWLClass representing the class.
-				OWLAxiom subsumsType = owlDataFactory_.getOWLSubClassOfAxiom(owlObject, owlClass);
-				//Adds the axiom to the resulting axiom list
-				axiomList_.add(subsumsType);
+				if (positive) {
+					//Creates an axiom stating that the OWLClass representing the object
+					//is an subclass of the OWLClass representing the class.
+					OWLAxiom subsumsType = owlDataFactory_.getOWLSubClassOfAxiom(owlObject, owlClass);
+					//Adds the axiom to the resulting axiom list
+					axiomSink_.add(subsumsType);
+				}
+			}
+			//The instances placed in other shards take part in the disjointness and the union
+			//as a single subclass of the current class
+			if (instancesElsewhere) {
+				OWLClass owlOthers = getOthersClass(currentClass.getName());
+				siblingObjects.add(owlOthers);
+				axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlOthers, owlClass));
 			}
 			//Checks if there were any object associated with the current class
 			if (siblingObjects.size() > 0) {
@@ -147,7 +432,7 @@ public class ExtendedOntologyCreator extends OntologyCreator {
 					//an object instance of a class are disjoint to each other (Inheritance disjointness)
 					OWLAxiom disjointness = owlDataFactory_.getOWLDisjointClassesAxiom(siblingObjects);
 					//Adds the axiom to the resulting axiom list
-					axiomList_.add(disjointness);
+					axiomSink_.add(disjointness);
 				}
 				//If there were any object associated with the current class 
 				//then, there must exist an axiom, assuring that the OWLClass representing 
@@ -160,7 +445,7 @@ public class ExtendedOntologyCreator extends OntologyCreator {
 				//Creates an axiom representing that the current class is a subset of the union of its objects
 				OWLAxiom subsumUnionAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, unionOfBrothers);
 				//Adds the axiom to the resulting axiom list
-				axiomList_.add(subsumUnionAxiom);
+				axiomSink_.add(subsumUnionAxiom);
 			}
 		}
 	}
@@ -168,108 +453,110 @@ public class ExtendedOntologyCreator extends OntologyCreator {
 	/**
 	 * Inserts into the ontology being created the axioms representing the links in the object model
 	 * 
-	 * @param objs
-	 * 			Mapping relating a list of objects to its class
-	 * @param links
-	 * 			Mapping relating an association to a map of objects and links that implement such association
+	 * @param store
+	 * 			The objects of the object model and the links that implement each association
+	 * @param positive
+	 * 			True if the axioms stating each link must be inserted, false if they were
+	 * 			already built while the object model was parsed
 	 */
-	private void insertLinksAxioms(Map<String, ArrayList<TObject>> objs,
-			Map<String, HashMap<TObject, ArrayList<TLink>>> links) { 
+	private void insertLinksAxioms(ObjectStore store, boolean positive) { 
+		
+		//Marks the objects holding the attribute of the current association, and the
+		//objects related to the current source object
+		BitSet holdsAttribute = new BitSet(store.getObjectCount());
+		BitSet objectsRelated = new BitSet(store.getObjectCount());
 		
 		//Runs through the associations list
 		for (EReference currentAssociation : associations) {
 			
-			//Stores all objects of the source type in a list
-			ArrayList<TObject> allObjectsFromSource = objs.get(currentAssociation.getEOpposite().getEType().getName());
+			int associationId = store.getAssociationId(currentAssociation.getEOpposite().getEType().getName(),
+					currentAssociation.getName());
+			int sourceClassId = store.getClassId(currentAssociation.getEOpposite().getEType().getName());
+			int targetClassId = store.getClassId(currentAssociation.getEType().getName());
 			
-			//Stores all objects ids of the source type that implement the association in a list
-			ArrayList<String> objectsIdsInAssociation = new ArrayList<String>();
+			//Creates the OWL Object Property representing the association, shared by every axiom
+			OWLObjectProperty owlEr = getAssociationRole(currentAssociation);
 			
-			//Stores all objects from the source type with links that implement the current association
-			//as being in the relation.
-			Set<TObject> objectsInAssociationSource = links.get(currentAssociation.getEOpposite().getEType().getName() + currentAssociation.getName()).keySet();
-			for (TObject tObject : objectsInAssociationSource) {
-				objectsIdsInAssociation.add(tObject.getId());
+			//The closure encoding states the links of each object in a single axiom
+			if (settings_.getLinkEncoding() == LinkEncoding.CLOSURE) {
+				insertClosedLinksAxioms(store, owlEr, associationId, sourceClassId, positive);
+				continue;
 			}
-
-			//Creates a list to store all objects from source that doesn't implement
-			//the current association
-			ArrayList<TObject> objectsFromSourceNotInAssociation = new ArrayList<TObject>();
 			
-			//Adds all objects from source that were not marked as being in the association
-			//to the objectsFromSourceNotInRelation list.
-			for (TObject tObject : allObjectsFromSource) {
-				if (!objectsIdsInAssociation.contains(tObject.getId())) {
-					objectsFromSourceNotInAssociation.add(tObject);
+			//Creates, once for every source, the concepts stating that an object is not
+			//related to each object of the target type. The objects placed in other shards
+			//are never linked to the objects of this shard, so they share a single concept
+			OWLObjectComplementOf[] unrelatedTo = new OWLObjectComplementOf[store.getInstanceCount(targetClassId)];
+			OWLObjectComplementOf unrelatedToOthers = null;
+			for (int t = 0; t < unrelatedTo.length; t++) {
+				if (!inShard(store.getInstance(targetClassId, t))) {
+					if (unrelatedToOthers == null) {
+						OWLClass owlOthers = getOthersClass(currentAssociation.getEType().getName());
+						unrelatedToOthers = owlDataFactory_
+								.getOWLObjectComplementOf(owlDataFactory_.getOWLObjectSomeValuesFrom(owlEr, owlOthers));
+					}
+					continue;
 				}
+				OWLClass owlObjectTarget = getObjectClass(store, store.getInstance(targetClassId, t));
+				OWLObjectSomeValuesFrom exists = owlDataFactory_.getOWLObjectSomeValuesFrom(owlEr, owlObjectTarget);
+				unrelatedTo[t] = owlDataFactory_.getOWLObjectComplementOf(exists);
 			}
 			
-			//Stores all objects from the association target in a list
-			ArrayList<TObject> allObjectsFromTarget = objs.get(currentAssociation.getEType().getName());
+			holdsAttribute.clear();
+			for (int s = 0; s < store.getSourceCount(associationId); s++) {
+				holdsAttribute.set(store.getSource(associationId, s));
+			}
 			
-			//Runs through the list of source objects that are not a source for this association
+			//Runs through the objects of the source type that don't hold the association attribute
 			//and add and axiom explicitly stating that such relationship doesn't exist
 			//between it and any object of the target type
 			//this axiom is needed due to the open world assumption existing in DL
-			for (TObject currentSourceObject : objectsFromSourceNotInAssociation) {
-				for (TObject currentTargetObject : allObjectsFromTarget) {
-					
-					//Creates and axiom describing the source object
-					OWLClass owlObjectSource = owlDataFactory_.getOWLClass(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentSourceObject.getId() + OBJECT_POSFIX));
-					
-					//Creates and axiom describing the target object
-					OWLClass owlObjectTarget = owlDataFactory_.getOWLClass(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentTargetObject.getId() + OBJECT_POSFIX));
-					
-					//Creates an axiom describing one association between the two objects 
-					OWLObjectProperty owlEr = owlDataFactory_.getOWLObjectProperty(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentAssociation.getEOpposite().getEReferenceType().getName()
-									+ currentAssociation.getName() + currentAssociation.getEReferenceType().getName() + ROLE_POSFIX));
-					
-					//Creates an axiom describing that the association between the two objects doesn't  exists
-					OWLObjectSomeValuesFrom exists = owlDataFactory_.getOWLObjectSomeValuesFrom(owlEr, owlObjectTarget);
-					OWLObjectComplementOf complement = owlDataFactory_.getOWLObjectComplementOf(exists);
-					
+			for (int s = 0; s < store.getInstanceCount(sourceClassId); s++) {
+				int currentSourceObject = store.getInstance(sourceClassId, s);
+				if (holdsAttribute.get(currentSourceObject) || !inShard(currentSourceObject)) {
+					continue;
+				}
+				//Creates an OWLClass representing the source object
+				OWLClass owlObjectSource = getObjectClass(store, currentSourceObject);
+				for (int t = 0; t < unrelatedTo.length; t++) {
+					if (unrelatedTo[t] == null) {
+						continue;
+					}
 					//Creates an axiom stating that the current source object is a subset of 
-					//the previous axiom.
-					OWLAxiom subsumAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource, complement);
+					//the concept stating that it is not related to the target object
+					OWLAxiom subsumAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource, unrelatedTo[t]);
 					//Adds the axiom to the resulting axiom list
-					axiomList_.add(subsumAxiom);
+					axiomSink_.add(subsumAxiom);
+				}
+				if (unrelatedToOthers != null) {
+					axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource, unrelatedToOthers));
 				}
 			}
 			
-			//Get the mapping between objects and the list of links of this association
-			HashMap<TObject, ArrayList<TLink>> assoc = links.get(currentAssociation.getEOpposite().getEType().getName() + currentAssociation.getName());
-			
-			//runs through the list of source objects 
-			for (TObject currentSourceObject : objectsInAssociationSource) {
+			//runs through the objects holding the association attribute
+			for (int s = 0; s < store.getSourceCount(associationId); s++) {
+				int currentSourceObject = store.getSource(associationId, s);
+				if (!inShard(currentSourceObject)) {
+					continue;
+				}
+				objectsRelated.clear();
 				
-				//Creates an list to store the objects related to the current object
-				// through a link implementing the current association
-				ArrayList<TObject> objectsRelated = new ArrayList<>();
+				//Creates an OWLClass representing the current source object
+				OWLClass owlObject = getObjectClass(store, currentSourceObject);
 				
 				//run through the links that implement the current association and
 				//have as source the current object
-				for (TLink link : assoc.get(currentSourceObject)) {
-					
-					//Populates the list of related objects with the target objects
-					//for the current object
-					objectsRelated.add(objs.get(link.getType()).get(link.getPosition()));
+				for (int l = 0; l < store.getLinkCount(associationId, s); l++) {
+					int target = store.getLinkTarget(associationId, s, l);
 					
-					//Creates an OWLClass representing the current source object
-					OWLClass owlObject = owlDataFactory_.getOWLClass(
-							IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentSourceObject.getId() + OBJECT_POSFIX));
-					
-					//Creates and OWL Object Property representing the object class association
-					OWLObjectProperty owlEr = owlDataFactory_.getOWLObjectProperty(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentAssociation.getEOpposite().getEReferenceType().getName()
-									+ currentAssociation.getName() + currentAssociation.getEReferenceType().getName() + ROLE_POSFIX));
+					//Marks the target object as related to the current object
+					objectsRelated.set(target);
+					if (!positive) {
+						continue;
+					}
 					
 					//Creates an OWLClass representing the current target object
-					OWLClass owlObjectTarget = owlDataFactory_
-							.getOWLClass(IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX
-									+ objs.get(link.getType()).get(link.getPosition()).getId() + OBJECT_POSFIX));
+					OWLClass owlObjectTarget = getObjectClass(store, target);
 					
 					//Creates an axiom stating that the current link has a Cardinality of exactly 1.
 					OWLObjectExactCardinality cardExaclty = owlDataFactory_.getOWLObjectExactCardinality(1, owlEr,
@@ -280,47 +567,455 @@ public class ExtendedOntologyCreator extends OntologyCreator {
 					OWLAxiom subsumUnionAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObject, cardExaclty);
 					
 					//Adds the axiom to axiom list
-					axiomList_.add(subsumUnionAxiom);
+					axiomSink_.add(subsumUnionAxiom);
 				}
 				
-				//Creates an list to store all the objects from the target's type that doesn't relate
-				//to the current source object. Such list is instantiated with all objects from target
-				ArrayList<TObject> unrelatedObjects = new ArrayList<TObject>(allObjectsFromTarget);
-				
-				//remove from the unrelatedObjects list the objects that are related 
+				//runs through the objects from the target's type that don't relate
 				//to the current source object
-				unrelatedObjects.removeAll(objectsRelated);
-				
-				//runs through the unrelated objects list
-				for (TObject tObjectTarget : unrelatedObjects) {
-					
-					//Creates an OWLCLass representing the current object
-					OWLClass owlObjectSource = owlDataFactory_.getOWLClass(
-							IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentSourceObject.getId() + OBJECT_POSFIX));
-					
-					//Creates an OWLClass representing the current unrelated target object
-					OWLClass owlObjectTarget = owlDataFactory_.getOWLClass(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + tObjectTarget.getId() + OBJECT_POSFIX));
-					
-					//Creates an axiom representing the current association
-					OWLObjectProperty owlEr = owlDataFactory_.getOWLObjectProperty(IRI.create(
-							ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + currentAssociation.getEOpposite().getEReferenceType().getName()
-									+ currentAssociation.getName() + currentAssociation.getEReferenceType().getName() + ROLE_POSFIX));
-					
-					//Creates an axiom stating that such association between the two objects
-					//doesn't exits
-					OWLObjectSomeValuesFrom exists = owlDataFactory_.getOWLObjectSomeValuesFrom(owlEr, owlObjectTarget);
-					OWLObjectComplementOf complement = owlDataFactory_.getOWLObjectComplementOf(exists);
+				for (int t = 0; t < unrelatedTo.length; t++) {
+					if (unrelatedTo[t] == null || objectsRelated.get(store.getInstance(targetClassId, t))) {
+						continue;
+					}
 					
 					//Creates an axiom stating that the current object is a subset
-					//of the  previous axiom
-					OWLAxiom subsumAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource, complement);
+					//of the concept stating that it is not related to the target object
+					OWLAxiom subsumAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObject, unrelatedTo[t]);
 
 					//Adds the axiom to axiom list
-					axiomList_.add(subsumAxiom);
+					axiomSink_.add(subsumAxiom);
+				}
+				if (unrelatedToOthers != null) {
+					axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlObject, unrelatedToOthers));
 				}
 			}
 		}
 	}
 
+	/**
+	 * Inserts the axioms representing the links of an association, closing
+	 * the links of each object of the source type with a single axiom stating
+	 * that its only successors are the objects it links, or that it has none.
+	 * The number of axioms grows with the objects and links, instead of the
+	 * pairs of source and target objects.
+	 * 
+	 * @param owlEr
+	 * 			The OWL Object Property representing the association
+	 * @param positive
+	 * 			True if the axioms stating each link must be inserted, false if they were
+	 * 			already built while the object model was parsed
+	 */
+	private void insertClosedLinksAxioms(ObjectStore store, OWLObjectProperty owlEr, int associationId,
+			int sourceClassId, boolean positive) {
+		//Stores the OWLClasses representing the objects related to the current source object
+		Set<OWLClass> objectsRelated = new HashSet<OWLClass>();
+		
+		//Runs through the objects of the source type, whether they hold the association attribute or not
+		for (int s = 0; s < store.getInstanceCount(sourceClassId); s++) {
+			int currentSourceObject = store.getInstance(sourceClassId, s);
+			if (!inShard(currentSourceObject)) {
+				continue;
+			}
+			OWLClass owlObjectSource = getObjectClass(store, currentSourceObject);
+			objectsRelated.clear();
+			
+			int sourcePosition = store.findSource(associationId, currentSourceObject);
+			if (sourcePosition >= 0) {
+				for (int l = 0; l < store.getLinkCount(associationId, sourcePosition); l++) {
+					OWLClass owlObjectTarget = getObjectClass(store, store.getLinkTarget(associationId, sourcePosition, l));
+					objectsRelated.add(owlObjectTarget);
+					if (positive) {
+						//Creates an axiom stating that the current object is related to exactly one target object
+						OWLObjectExactCardinality cardExaclty = owlDataFactory_.getOWLObjectExactCardinality(1, owlEr,
+								owlObjectTarget);
+						axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource, cardExaclty));
+					}
+				}
+			}
+			
+			//Creates the concept holding every successor of the current object: nothing,
+			//a single object or the union of the related objects
+			OWLClassExpression successors;
+			if (objectsRelated.isEmpty()) {
+				successors = owlDataFactory_.getOWLNothing();
+			} else if (objectsRelated.size() == 1) {
+				successors = objectsRelated.iterator().next();
+			} else {
+				successors = owlDataFactory_.getOWLObjectUnionOf(objectsRelated);
+			}
+			//Creates an axiom stating that the current object is only related to such successors
+			OWLAxiom closureAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlObjectSource,
+					owlDataFactory_.getOWLObjectAllValuesFrom(owlEr, successors));
+			axiomSink_.add(closureAxiom);
+		}
+	}
+
+	/**
+	 * Inserts the assertions typing the individuals that represent the objects,
+	 * stating that every object is a different individual and that each class
+	 * holds no individual but its objects
+	 * 
+	 * @param positive
+	 * 			True if the assertions stating the type of each object must be inserted,
+	 * 			false if they were already built while the object model was parsed
+	 */
+	private void insertIndividualTypingAxioms(ObjectStore store, boolean positive) {
+		//A single axiom states that all objects are different, instead of a disjointness per class
+		Set<OWLIndividual> allObjects = new HashSet<OWLIndividual>();
+		for (int object = 0; object < store.getObjectCount(); object++) {
+			if (inShard(object)) {
+				allObjects.add(getObjectIndividual(store, object));
+			}
+		}
+		if (allObjects.size() > 1) {
+			axiomSink_.add(owlDataFactory_.getOWLDifferentIndividualsAxiom(allObjects));
+		}
+		allObjects = null;
+		
+		//Runs through the classes list
+		for (EClass currentClass : classes) {
+			int classId = store.getClassId(currentClass.getName());
+			OWLClass owlClass = owlDataFactory_
+					.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, currentClass.getName())));
+			//Stores the individuals representing the instances of the current class
+			Set<OWLIndividual> siblingObjects = new HashSet<OWLIndividual>();
+			boolean instancesElsewhere = false;
+			for (int i = 0; i < store.getInstanceCount(classId); i++) {
+				if (!inShard(store.getInstance(classId, i))) {
+					instancesElsewhere = true;
+					continue;
+				}
+				OWLNamedIndividual owlObject = getObjectIndividual(store, store.getInstance(classId, i));
+				siblingObjects.add(owlObject);
+				if (positive) {
+					//Asserts that the object is an instance of the current class
+					axiomSink_.add(owlDataFactory_.getOWLClassAssertionAxiom(owlClass, owlObject));
+				}
+			}
+			//The class holds no individual but its objects, due to the open world assumption in DL
+			if (instancesElsewhere) {
+				//The instances placed in other shards are a subclass of the class disjoint from the objects of this shard
+				OWLClass owlOthers = getOthersClass(currentClass.getName());
+				axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlOthers, owlClass));
+				if (siblingObjects.size() > 0) {
+					OWLClassExpression owlSiblings = owlDataFactory_.getOWLObjectOneOf(siblingObjects);
+					axiomSink_.add(owlDataFactory_.getOWLDisjointClassesAxiom(owlSiblings, owlOthers));
+					axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlClass,
+							owlDataFactory_.getOWLObjectUnionOf(owlSiblings, owlOthers)));
+				} else {
+					axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlOthers));
+				}
+			} else if (siblingObjects.size() > 0) {
+				OWLAxiom closureAxiom = owlDataFactory_.getOWLSubClassOfAxiom(owlClass,
+						owlDataFactory_.getOWLObjectOneOf(siblingObjects));
+				axiomSink_.add(closureAxiom);
+			}
+		}
+	}
+
+	/**
+	 * Inserts the assertions representing the links between the individuals
+	 * that represent the objects, closed by the link encoding of the settings
+	 * 
+	 * @param positive
+	 * 			True if the assertions stating each link must be inserted, false if they
+	 * 			were already built while the object model was parsed
+	 */
+	private void insertIndividualLinksAxioms(ObjectStore store, boolean positive) {
+		boolean closure = settings_.getLinkEncoding() == LinkEncoding.CLOSURE;
+		//Marks the objects related to the current source object
+		BitSet objectsRelated = new BitSet(store.getObjectCount());
+		//Stores the individuals related to the current source object
+		Set<OWLIndividual> individualsRelated = new HashSet<OWLIndividual>();
+		
+		//Runs through the associations list
+		for (EReference currentAssociation : associations) {
+			int associationId = store.getAssociationId(currentAssociation.getEOpposite().getEType().getName(),
+					currentAssociation.getName());
+			int sourceClassId = store.getClassId(currentAssociation.getEOpposite().getEType().getName());
+			int targetClassId = store.getClassId(currentAssociation.getEType().getName());
+			OWLObjectProperty owlEr = getAssociationRole(currentAssociation);
+			
+			//Creates the individuals representing the objects of the target type once for every source,
+			//and the concept stating that an object is not related to the ones placed in other shards
+			OWLNamedIndividual[] owlTargets = new OWLNamedIndividual[closure ? 0 : store.getInstanceCount(targetClassId)];
+			OWLObjectComplementOf unrelatedToOthers = null;
+			for (int t = 0; t < owlTargets.length; t++) {
+				if (!inShard(store.getInstance(targetClassId, t))) {
+					if (unrelatedToOthers == null) {
+						OWLClass owlOthers = getOthersClass(currentAssociation.getEType().getName());
+						unrelatedToOthers = owlDataFactory_
+								.getOWLObjectComplementOf(owlDataFactory_.getOWLObjectSomeValuesFrom(owlEr, owlOthers));
+					}
+					continue;
+				}
+				owlTargets[t] = getObjectIndividual(store, store.getInstance(targetClassId, t));
+			}
+			
+			//Runs through the objects of the source type, whether they hold the association attribute or not
+			for (int s = 0; s < store.getInstanceCount(sourceClassId); s++) {
+				int currentSourceObject = store.getInstance(sourceClassId, s);
+				if (!inShard(currentSourceObject)) {
+					continue;
+				}
+				OWLNamedIndividual owlSource = getObjectIndividual(store, currentSourceObject);
+				objectsRelated.clear();
+				individualsRelated.clear();
+				
+				int sourcePosition = store.findSource(associationId, currentSourceObject);
+				if (sourcePosition >= 0) {
+					for (int l = 0; l < store.getLinkCount(associationId, sourcePosition); l++) {
+						int target = store.getLinkTarget(associationId, sourcePosition, l);
+						OWLNamedIndividual owlTarget = getObjectIndividual(store, target);
+						objectsRelated.set(target);
+						individualsRelated.add(owlTarget);
+						if (positive) {
+							//Asserts the link between the two objects
+							axiomSink_.add(owlDataFactory_.getOWLObjectPropertyAssertionAxiom(owlEr, owlSource, owlTarget));
+						}
+					}
+				}
+				
+				if (closure) {
+					//Asserts that the current object is only related to the objects it links
+					OWLClassExpression successors = individualsRelated.isEmpty() ? owlDataFactory_.getOWLNothing()
+							: owlDataFactory_.getOWLObjectOneOf(individualsRelated);
+					axiomSink_.add(owlDataFactory_.getOWLClassAssertionAxiom(
+							owlDataFactory_.getOWLObjectAllValuesFrom(owlEr, successors), owlSource));
+				} else {
+					//Asserts that the current object is not related to each object of the target type it does not link
+					for (int t = 0; t < owlTargets.length; t++) {
+						if (owlTargets[t] == null || objectsRelated.get(store.getInstance(targetClassId, t))) {
+							continue;
+						}
+						axiomSink_.add(owlDataFactory_.getOWLNegativeObjectPropertyAssertionAxiom(owlEr, owlSource,
+								owlTargets[t]));
+					}
+					if (unrelatedToOthers != null) {
+						axiomSink_.add(owlDataFactory_.getOWLClassAssertionAxiom(unrelatedToOthers, owlSource));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the OWL Object Property representing an association
+	 */
+	protected OWLObjectProperty getAssociationRole(EReference association) {
+		return owlDataFactory_.getOWLObjectProperty(IRI.create(
+				ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + association.getEOpposite().getEReferenceType().getName()
+						+ association.getName() + association.getEReferenceType().getName() + ROLE_POSFIX));
+	}
+
+	/**
+	 * Creates the IRI of the class or individual representing an object of the object model
+	 */
+	protected IRI getObjectIRI(String objectName) {
+		return IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + objectName + OBJECT_POSFIX);
+	}
+
+	/**
+	 * Creates the individual representing an object of the object model
+	 */
+	private OWLNamedIndividual getObjectIndividual(ObjectStore store, int objectId) {
+		return owlDataFactory_.getOWLNamedIndividual(getObjectIRI(store.getObjectName(objectId)));
+	}
+
+	/**
+	 * Creates the OWLClass representing an object of the object model
+	 */
+	private OWLClass getObjectClass(ObjectStore store, int objectId) {
+		return owlDataFactory_.getOWLClass(getObjectIRI(store.getObjectName(objectId)));
+	}
+
+	/**
+	 * Builds the typing and link axioms of the objects received from the
+	 * parser, on the thread of an ObjectModelPipeline. The objects of each
+	 * type are listed as they arrive, so a link naming its target by a
+	 * position is built as soon as the target is parsed, and the links to
+	 * objects found later in the file wait for the end of the model.
+	 */
+	private class AxiomBuilder implements ObjectModelListener {
+		private final ObjectStore store;
+		//True if the objects are represented by individuals instead of classes
+		private final boolean individuals;
+		//OWL classes by class id, the classes each type is an instance of and the types instance of each class
+		private final OWLClass[] owlClasses;
+		private final int[][] typeClasses;
+		private final int[][] classTypes;
+		//Roles by association id
+		private final OWLObjectProperty[] roles;
+		//Objects of each type received so far, each object listed once, and the links waiting for
+		//the instances of each class, as association, source and position
+		private final IntArray[] typeObjects;
+		private final IntArray[] waitingLinks;
+
+		private AxiomBuilder(ObjectStore store) {
+			this.store = store;
+			individuals = settings_.getObjectEncoding() == ObjectEncoding.INDIVIDUALS;
+			int classCount = store.getClassCount();
+			owlClasses = new OWLClass[classCount];
+			for (EClass currentClass : classes) {
+				owlClasses[store.getClassId(currentClass.getName())] = owlDataFactory_
+						.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, currentClass.getName())));
+			}
+			typeClasses = new int[classCount][];
+			classTypes = new int[classCount][];
+			for (int type = 0; type < classCount; type++) {
+				IntArray superClasses = new IntArray(0, false);
+				IntArray subTypes = new IntArray(0, false);
+				for (int cls = 0; cls < classCount; cls++) {
+					if (store.isInstanceType(type, cls)) {
+						superClasses.add(cls);
+					}
+					if (store.isInstanceType(cls, type)) {
+						subTypes.add(cls);
+					}
+				}
+				typeClasses[type] = toArray(superClasses);
+				classTypes[type] = toArray(subTypes);
+			}
+			roles = new OWLObjectProperty[associations.size()];
+			for (EReference currentAssociation : associations) {
+				int associationId = store.getAssociationId(currentAssociation.getEOpposite().getEType().getName(),
+						currentAssociation.getName());
+				if (associationId >= 0 && roles[associationId] == null) {
+					roles[associationId] = getAssociationRole(currentAssociation);
+				}
+			}
+			typeObjects = new IntArray[classCount];
+			waitingLinks = new IntArray[classCount];
+			for (int cls = 0; cls < classCount; cls++) {
+				typeObjects[cls] = new IntArray(0, false);
+				waitingLinks[cls] = new IntArray(0, false);
+			}
+		}
+
+		private int[] toArray(IntArray values) {
+			int[] array = new int[values.size()];
+			for (int i = 0; i < values.size(); i++) {
+				array[i] = values.get(i);
+			}
+			return array;
+		}
+
+		@Override
+		public void objectAdded(int objectId, int classId) {
+			OWLClass owlObject = individuals ? null : getObjectClass(store, objectId);
+			OWLNamedIndividual owlIndividual = individuals ? getObjectIndividual(store, objectId) : null;
+			typeObjects[classId].add(objectId);
+			for (int cls : typeClasses[classId]) {
+				//The object is an instance of its type and of every superclass of its type
+				if (individuals) {
+					axiomSink_.add(owlDataFactory_.getOWLClassAssertionAxiom(owlClasses[cls], owlIndividual));
+				} else {
+					axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlObject, owlClasses[cls]));
+				}
+			}
+		}
+
+		@Override
+		public void linkAdded(int associationId, int sourceId, int targetId) {
+			if (individuals) {
+				axiomSink_.add(owlDataFactory_.getOWLObjectPropertyAssertionAxiom(roles[associationId],
+						getObjectIndividual(store, sourceId), getObjectIndividual(store, targetId)));
+				return;
+			}
+			//The source is related to exactly one instance of the target object
+			OWLObjectExactCardinality cardExaclty = owlDataFactory_.getOWLObjectExactCardinality(1,
+					roles[associationId], getObjectClass(store, targetId));
+			axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(getObjectClass(store, sourceId), cardExaclty));
+		}
+
+		@Override
+		public void positionLinkAdded(int associationId, int sourceId, int targetClassId, int position) {
+			int target = findInstance(targetClassId, position);
+			if (target >= 0) {
+				linkAdded(associationId, sourceId, target);
+			} else {
+				IntArray waiting = waitingLinks[targetClassId];
+				waiting.add(associationId);
+				waiting.add(sourceId);
+				waiting.add(position);
+			}
+		}
+
+		@Override
+		public void modelParsed() {
+			for (int cls = 0; cls < waitingLinks.length; cls++) {
+				IntArray waiting = waitingLinks[cls];
+				for (int i = 0; i < waiting.size(); i += 3) {
+					//A position with no object is reported by the parser
+					int target = findInstance(cls, waiting.get(i + 2));
+					if (target >= 0) {
+						linkAdded(waiting.get(i), waiting.get(i + 1), target);
+					}
+				}
+				waitingLinks[cls] = null;
+			}
+		}
+
+		/**
+		 * Finds an instance of a class among the objects received so far
+		 * 
+		 * @param position
+		 * 			The position of the instance, in the order of the file, the
+		 * 			instances of the subclasses included
+		 * @return Returns the instance at the position, or -1 if it was not received yet
+		 */
+		private int findInstance(int cls, int position) {
+			int[] types = classTypes[cls];
+			if (types.length == 1) {
+				IntArray objects = typeObjects[types[0]];
+				return position < objects.size() ? objects.get(position) : -1;
+			}
+			int count = 0;
+			int last = -1;
+			for (int type : types) {
+				IntArray objects = typeObjects[type];
+				count += objects.size();
+				if (objects.size() > 0) {
+					last = Math.max(last, objects.get(objects.size() - 1));
+				}
+			}
+			if (position >= count) {
+				return -1;
+			}
+			//The ids grow in the order of the file, so the instance is the lowest id
+			//preceded by as many instances as its position
+			int low = 0;
+			int high = last;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (countUpTo(types, middle) > position) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return Returns the number of objects of the types whose id is not greater than the provided one
+		 */
+		private int countUpTo(int[] types, int objectId) {
+			int count = 0;
+			for (int type : types) {
+				IntArray objects = typeObjects[type];
+				int low = 0;
+				int high = objects.size();
+				while (low < high) {
+					int middle = (low + high) >>> 1;
+					if (objects.get(middle) <= objectId) {
+						low = middle + 1;
+					} else {
+						high = middle;
+					}
+				}
+				count += low;
+			}
+			return count;
+		}
+	}
 }
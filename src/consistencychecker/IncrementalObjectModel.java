@@ -0,0 +1,582 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EReference;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+
+import ecorexmiparser.ObjectStore;
+
+/**
+ * Objects and links of an object model kept once their axioms were added to
+ * the ontology, so the object model can be changed by deltas without being
+ * parsed and mapped again. The object model axioms are grouped by the element
+ * they encode: the types of an object, the instances of a class, the links of
+ * an object through an association and, under the individuals object
+ * encoding, the distinctness of all objects. A delta regenerates only the
+ * groups of the elements it touches, and the ontology receives the difference
+ * between their old and new axioms.
+ * <p>
+ * Under the negations link encoding an object is stated unrelated to every
+ * instance of the target class it does not link, so adding or removing an
+ * instance of a target class regenerates the links of every source of the
+ * association. The closure encoding keeps the changes local to the objects
+ * and links of the delta.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+class IncrementalObjectModel {
+
+	private static final String UNKNOWN_OBJECT_ERROR = "The object %s does not exist.";
+	private static final String EXISTING_OBJECT_ERROR = "The object %s already exists.";
+	private static final String UNKNOWN_CLASS_ERROR = "The class %s of the object %s does not exist.";
+	private static final String UNKNOWN_REFERENCE_ERROR = "The object %s has no reference %s.";
+	private static final String WRONG_TARGET_ERROR = "The object %s can not be linked through %s.%s.";
+	private static final String UNKNOWN_LINK_ERROR = "The link %s does not exist.";
+
+	private final ExtendedOntologyCreator creator;
+	private final OWLDataFactory factory;
+	private final OWLOntologyManager manager;
+	private final OWLOntology ontology;
+	private final boolean individuals;
+	private final boolean closure;
+
+	//Classes by class id, and the classes each type is an instance of
+	private final String[] classNames;
+	private final Map<String, Integer> classIds = new HashMap<String, Integer>();
+	private final OWLClass[] owlClasses;
+	private final int[][] typeClasses;
+	//Name, role, source class and target class of each association
+	private final String[] referenceNames;
+	private final OWLObjectProperty[] roles;
+	private final int[] sourceClasses;
+	private final int[] targetClasses;
+
+	//Type of each object, and the instances of each class in the order they were added
+	private final Map<String, Integer> objectTypes = new LinkedHashMap<String, Integer>();
+	private final List<Set<String>> instances = new ArrayList<Set<String>>();
+	//Targets linked by each source, by association
+	private final List<Map<String, Set<String>>> links = new ArrayList<Map<String, Set<String>>>();
+
+	//Axioms of each group in the ontology, and the number of groups holding each axiom
+	private final Map<String, Set<OWLAxiom>> groups = new HashMap<String, Set<OWLAxiom>>();
+	private final Map<OWLAxiom, Integer> axiomGroups = new HashMap<OWLAxiom, Integer>();
+
+	//Groups to regenerate, gathered while a delta is applied
+	private final Set<String> staleObjects = new LinkedHashSet<String>();
+	private final BitSet staleClasses = new BitSet();
+	private final List<Set<String>> staleSources = new ArrayList<Set<String>>();
+	private boolean staleDistinctness = false;
+
+	/**
+	 * Keeps the objects and links of a sealed object store, before the class
+	 * model of the creator is released
+	 *
+	 * @param creator
+	 * 		The creator that mapped the class model, whose ontology receives the object model
+	 */
+	IncrementalObjectModel(ExtendedOntologyCreator creator, ObjectStore store) {
+		this.creator = creator;
+		factory = creator.owlDataFactory_;
+		manager = creator.ontologyManager_;
+		ontology = creator.ontology_;
+		individuals = creator.settings_.getObjectEncoding() == ObjectEncoding.INDIVIDUALS;
+		closure = creator.settings_.getLinkEncoding() == LinkEncoding.CLOSURE;
+
+		int classCount = store.getClassCount();
+		classNames = new String[classCount];
+		owlClasses = new OWLClass[classCount];
+		for (EClass currentClass : creator.classes) {
+			int classId = store.getClassId(currentClass.getName());
+			classNames[classId] = currentClass.getName();
+			classIds.put(currentClass.getName(), classId);
+			owlClasses[classId] = factory
+					.getOWLClass(IRI.create(String.format(creator.CLASS_NAME_BUILDER, currentClass.getName())));
+		}
+		typeClasses = new int[classCount][];
+		for (int type = 0; type < classCount; type++) {
+			List<Integer> superClasses = new ArrayList<Integer>();
+			for (int cls = 0; cls < classCount; cls++) {
+				if (store.isInstanceType(type, cls)) {
+					superClasses.add(cls);
+				}
+			}
+			typeClasses[type] = new int[superClasses.size()];
+			for (int i = 0; i < superClasses.size(); i++) {
+				typeClasses[type][i] = superClasses.get(i);
+			}
+			instances.add(new LinkedHashSet<String>());
+		}
+
+		int associationCount = store.getAssociationCount();
+		referenceNames = new String[associationCount];
+		roles = new OWLObjectProperty[associationCount];
+		sourceClasses = new int[associationCount];
+		targetClasses = new int[associationCount];
+		for (EReference currentAssociation : creator.associations) {
+			String sourceClassName = currentAssociation.getEOpposite().getEType().getName();
+			int associationId = store.getAssociationId(sourceClassName, currentAssociation.getName());
+			if (associationId >= 0 && roles[associationId] == null) {
+				referenceNames[associationId] = currentAssociation.getName();
+				roles[associationId] = creator.getAssociationRole(currentAssociation);
+				sourceClasses[associationId] = store.getClassId(sourceClassName);
+				targetClasses[associationId] = store.getClassId(currentAssociation.getEType().getName());
+			}
+		}
+		for (int association = 0; association < associationCount; association++) {
+			links.add(new HashMap<String, Set<String>>());
+			staleSources.add(new LinkedHashSet<String>());
+		}
+
+		for (int object = 0; object < store.getObjectCount(); object++) {
+			addObject(store.getObjectName(object), store.getType(object));
+		}
+		for (int association = 0; association < associationCount; association++) {
+			for (int s = 0; s < store.getSourceCount(association); s++) {
+				String source = store.getObjectName(store.getSource(association, s));
+				for (int l = 0; l < store.getLinkCount(association, s); l++) {
+					addLink(association, source, store.getObjectName(store.getLinkTarget(association, s, l)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the axioms of the whole object model to the ontology
+	 *
+	 * @return Returns the number of axioms added
+	 */
+	int encode() {
+		return update();
+	}
+
+	/**
+	 * Applies a delta to the object model and updates the ontology with the
+	 * axioms of the groups it touches. The delta is validated before any
+	 * change, so a rejected delta leaves the object model and the ontology as
+	 * they were. The links are removed first, then the objects, and the
+	 * objects are added before the links.
+	 *
+	 * @return Returns the number of axioms added to or removed from the ontology
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the delta names an object, class, reference or link that does not exist
+	 */
+	int apply(ObjectModelDelta delta) throws ConsistencyCheckerGenericException {
+		int[] addedLinkAssociations = validate(delta);
+		for (ObjectModelDelta.Link link : delta.getRemovedLinks()) {
+			int association = findAssociation(objectTypes.get(link.getSource()), link.getReference());
+			links.get(association).get(link.getSource()).remove(link.getTarget());
+			staleSources.get(association).add(link.getSource());
+		}
+		for (String object : delta.getRemovedObjects()) {
+			removeObject(object);
+		}
+		for (Map.Entry<String, String> object : delta.getAddedObjects().entrySet()) {
+			addObject(object.getKey(), classIds.get(object.getValue()));
+		}
+		for (int i = 0; i < addedLinkAssociations.length; i++) {
+			ObjectModelDelta.Link link = delta.getAddedLinks().get(i);
+			addLink(addedLinkAssociations[i], link.getSource(), link.getTarget());
+		}
+		return update();
+	}
+
+	/**
+	 * Checks that every change of the delta can be applied, following the
+	 * order the changes are applied in
+	 *
+	 * @return Returns the association of each added link
+	 */
+	private int[] validate(ObjectModelDelta delta) throws ConsistencyCheckerGenericException {
+		for (ObjectModelDelta.Link link : delta.getRemovedLinks()) {
+			Integer sourceType = objectTypes.get(link.getSource());
+			int association = sourceType == null ? -1 : findAssociation(sourceType, link.getReference());
+			Set<String> targets = association < 0 ? null : links.get(association).get(link.getSource());
+			if (targets == null || !targets.contains(link.getTarget())) {
+				throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_LINK_ERROR, link));
+			}
+		}
+		//Objects existing once the removed objects are gone and the added ones are in, with their types
+		Map<String, Integer> types = new HashMap<String, Integer>();
+		for (String object : delta.getRemovedObjects()) {
+			if (!objectTypes.containsKey(object) || types.containsKey(object)) {
+				throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_OBJECT_ERROR, object));
+			}
+			types.put(object, null);
+		}
+		for (Map.Entry<String, String> object : delta.getAddedObjects().entrySet()) {
+			if (objectTypes.containsKey(object.getKey()) && !types.containsKey(object.getKey())) {
+				throw new ConsistencyCheckerGenericException(String.format(EXISTING_OBJECT_ERROR, object.getKey()));
+			}
+			Integer type = classIds.get(object.getValue());
+			if (type == null) {
+				throw new ConsistencyCheckerGenericException(
+						String.format(UNKNOWN_CLASS_ERROR, object.getValue(), object.getKey()));
+			}
+			types.put(object.getKey(), type);
+		}
+
+		int[] associations = new int[delta.getAddedLinks().size()];
+		for (int i = 0; i < associations.length; i++) {
+			ObjectModelDelta.Link link = delta.getAddedLinks().get(i);
+			Integer sourceType = types.containsKey(link.getSource()) ? types.get(link.getSource())
+					: objectTypes.get(link.getSource());
+			Integer targetType = types.containsKey(link.getTarget()) ? types.get(link.getTarget())
+					: objectTypes.get(link.getTarget());
+			if (sourceType == null || targetType == null) {
+				throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_OBJECT_ERROR,
+						sourceType == null ? link.getSource() : link.getTarget()));
+			}
+			associations[i] = findAssociation(sourceType, link.getReference());
+			if (associations[i] < 0) {
+				throw new ConsistencyCheckerGenericException(
+						String.format(UNKNOWN_REFERENCE_ERROR, link.getSource(), link.getReference()));
+			}
+			if (!isInstance(targetType, targetClasses[associations[i]])) {
+				throw new ConsistencyCheckerGenericException(String.format(WRONG_TARGET_ERROR, link.getTarget(),
+						classNames[sourceClasses[associations[i]]], link.getReference()));
+			}
+		}
+		return associations;
+	}
+
+	/**
+	 * @return Returns the association of the reference held by the objects of
+	 *         the type, or a negative value if there is none
+	 */
+	private int findAssociation(int type, String reference) {
+		for (int association = 0; association < roles.length; association++) {
+			if (reference.equals(referenceNames[association]) && isInstance(type, sourceClasses[association])) {
+				return association;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return Returns true if the objects of the type are instances of the class
+	 */
+	private boolean isInstance(int type, int classId) {
+		for (int cls : typeClasses[type]) {
+			if (cls == classId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds an object, marking the groups that mention it as stale
+	 */
+	private void addObject(String object, int type) {
+		objectTypes.put(object, type);
+		staleObjects.add(object);
+		for (int cls : typeClasses[type]) {
+			instances.get(cls).add(object);
+			staleClasses.set(cls);
+		}
+		touchObject(type, object);
+	}
+
+	/**
+	 * Removes an object and its links, marking the groups that mention it as stale
+	 */
+	private void removeObject(String object) {
+		int type = objectTypes.remove(object);
+		staleObjects.add(object);
+		for (int cls : typeClasses[type]) {
+			instances.get(cls).remove(object);
+			staleClasses.set(cls);
+		}
+		for (int association = 0; association < roles.length; association++) {
+			links.get(association).remove(object);
+			if (isInstance(type, targetClasses[association])) {
+				//The links to the removed object are removed from their sources
+				for (Map.Entry<String, Set<String>> source : links.get(association).entrySet()) {
+					if (source.getValue().remove(object)) {
+						staleSources.get(association).add(source.getKey());
+					}
+				}
+			}
+		}
+		touchObject(type, object);
+	}
+
+	/**
+	 * Marks as stale the links of an object added or removed and, under the
+	 * negations encoding, the links of the sources stating it unrelated
+	 */
+	private void touchObject(int type, String object) {
+		for (int association = 0; association < roles.length; association++) {
+			if (roles[association] == null) {
+				continue;
+			}
+			if (isInstance(type, sourceClasses[association])) {
+				staleSources.get(association).add(object);
+			}
+			if (!closure && isInstance(type, targetClasses[association])) {
+				staleSources.get(association).addAll(instances.get(sourceClasses[association]));
+			}
+		}
+		staleDistinctness = true;
+	}
+
+	/**
+	 * Adds a link, marking the links of its source as stale
+	 */
+	private void addLink(int association, String source, String target) {
+		if (roles[association] == null) {
+			return;
+		}
+		Set<String> targets = links.get(association).get(source);
+		if (targets == null) {
+			targets = new LinkedHashSet<String>();
+			links.get(association).put(source, targets);
+		}
+		targets.add(target);
+		staleSources.get(association).add(source);
+	}
+
+	/**
+	 * Regenerates the stale groups and applies the difference between their
+	 * old and new axioms to the ontology. An axiom is removed only when no
+	 * group holds it anymore, since the same axiom may encode two elements.
+	 *
+	 * @return Returns the number of axioms added or removed
+	 */
+	private int update() {
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+		for (String object : staleObjects) {
+			Integer type = objectTypes.get(object);
+			replaceGroup("type " + object, type == null ? new HashSet<OWLAxiom>() : buildTypeGroup(object, type),
+					changes);
+		}
+		for (int cls = staleClasses.nextSetBit(0); cls >= 0; cls = staleClasses.nextSetBit(cls + 1)) {
+			replaceGroup("class " + cls, buildClassGroup(cls), changes);
+		}
+		for (int association = 0; association < roles.length; association++) {
+			if (roles[association] == null) {
+				continue;
+			}
+			for (String source : staleSources.get(association)) {
+				Set<OWLAxiom> group = new HashSet<OWLAxiom>();
+				//A removed object, or one that is no longer a source, keeps no link axiom
+				if (instances.get(sourceClasses[association]).contains(source)) {
+					group = buildLinksGroup(association, source);
+				}
+				replaceGroup("links " + association + " " + source, group, changes);
+			}
+			staleSources.get(association).clear();
+		}
+		if (staleDistinctness && individuals) {
+			replaceGroup("objects", buildDistinctnessGroup(), changes);
+		}
+		staleObjects.clear();
+		staleClasses.clear();
+		staleDistinctness = false;
+		if (!changes.isEmpty()) {
+			manager.applyChanges(changes);
+		}
+		return changes.size();
+	}
+
+	/**
+	 * Replaces the axioms of a group, recording the ontology changes needed
+	 */
+	private void replaceGroup(String key, Set<OWLAxiom> axioms, List<OWLOntologyChange> changes) {
+		Set<OWLAxiom> previous = axioms.isEmpty() ? groups.remove(key) : groups.put(key, axioms);
+		if (previous != null) {
+			for (OWLAxiom axiom : previous) {
+				if (!axioms.contains(axiom)) {
+					int holders = axiomGroups.get(axiom) - 1;
+					if (holders == 0) {
+						axiomGroups.remove(axiom);
+						changes.add(new RemoveAxiom(ontology, axiom));
+					} else {
+						axiomGroups.put(axiom, holders);
+					}
+				}
+			}
+		}
+		for (OWLAxiom axiom : axioms) {
+			if (previous == null || !previous.contains(axiom)) {
+				Integer holders = axiomGroups.get(axiom);
+				if (holders == null) {
+					axiomGroups.put(axiom, 1);
+					changes.add(new AddAxiom(ontology, axiom));
+				} else {
+					axiomGroups.put(axiom, holders + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the axioms stating that an object is an instance of its type and
+	 * of every superclass of its type
+	 */
+	private Set<OWLAxiom> buildTypeGroup(String object, int type) {
+		Set<OWLAxiom> group = new HashSet<OWLAxiom>();
+		for (int cls : typeClasses[type]) {
+			if (individuals) {
+				group.add(factory.getOWLClassAssertionAxiom(owlClasses[cls], getObjectIndividual(object)));
+			} else {
+				group.add(factory.getOWLSubClassOfAxiom(getObjectClass(object), owlClasses[cls]));
+			}
+		}
+		return group;
+	}
+
+	/**
+	 * Builds the axioms stating that a class holds no object but its instances,
+	 * which are disjoint from each other
+	 */
+	private Set<OWLAxiom> buildClassGroup(int cls) {
+		Set<OWLAxiom> group = new HashSet<OWLAxiom>();
+		if (instances.get(cls).isEmpty()) {
+			return group;
+		}
+		if (individuals) {
+			Set<OWLIndividual> siblingObjects = new HashSet<OWLIndividual>();
+			for (String object : instances.get(cls)) {
+				siblingObjects.add(getObjectIndividual(object));
+			}
+			group.add(factory.getOWLSubClassOfAxiom(owlClasses[cls], factory.getOWLObjectOneOf(siblingObjects)));
+			return group;
+		}
+		Set<OWLClass> siblingObjects = new HashSet<OWLClass>();
+		for (String object : instances.get(cls)) {
+			siblingObjects.add(getObjectClass(object));
+		}
+		if (siblingObjects.size() > 1) {
+			group.add(factory.getOWLDisjointClassesAxiom(siblingObjects));
+		}
+		group.add(factory.getOWLSubClassOfAxiom(owlClasses[cls], factory.getOWLObjectUnionOf(siblingObjects)));
+		return group;
+	}
+
+	/**
+	 * Builds the axioms stating the links of a source through an association,
+	 * closed by the link encoding
+	 */
+	private Set<OWLAxiom> buildLinksGroup(int association, String source) {
+		Set<OWLAxiom> group = new HashSet<OWLAxiom>();
+		OWLObjectProperty owlEr = roles[association];
+		Set<String> targets = links.get(association).get(source);
+		if (targets == null) {
+			targets = new HashSet<String>();
+		}
+		if (individuals) {
+			OWLIndividual owlSource = getObjectIndividual(source);
+			Set<OWLIndividual> individualsRelated = new HashSet<OWLIndividual>();
+			for (String target : targets) {
+				individualsRelated.add(getObjectIndividual(target));
+				group.add(factory.getOWLObjectPropertyAssertionAxiom(owlEr, owlSource, getObjectIndividual(target)));
+			}
+			if (closure) {
+				OWLClassExpression successors = individualsRelated.isEmpty() ? factory.getOWLNothing()
+						: factory.getOWLObjectOneOf(individualsRelated);
+				group.add(factory.getOWLClassAssertionAxiom(factory.getOWLObjectAllValuesFrom(owlEr, successors),
+						owlSource));
+			} else {
+				for (String target : instances.get(targetClasses[association])) {
+					if (!targets.contains(target)) {
+						group.add(factory.getOWLNegativeObjectPropertyAssertionAxiom(owlEr, owlSource,
+								getObjectIndividual(target)));
+					}
+				}
+			}
+			return group;
+		}
+
+		OWLClass owlSource = getObjectClass(source);
+		Set<OWLClass> objectsRelated = new HashSet<OWLClass>();
+		for (String target : targets) {
+			OWLClass owlTarget = getObjectClass(target);
+			objectsRelated.add(owlTarget);
+			group.add(factory.getOWLSubClassOfAxiom(owlSource, factory.getOWLObjectExactCardinality(1, owlEr, owlTarget)));
+		}
+		if (closure) {
+			OWLClassExpression successors;
+			if (objectsRelated.isEmpty()) {
+				successors = factory.getOWLNothing();
+			} else if (objectsRelated.size() == 1) {
+				successors = objectsRelated.iterator().next();
+			} else {
+				successors = factory.getOWLObjectUnionOf(objectsRelated);
+			}
+			group.add(factory.getOWLSubClassOfAxiom(owlSource, factory.getOWLObjectAllValuesFrom(owlEr, successors)));
+		} else {
+			for (String target : instances.get(targetClasses[association])) {
+				if (!targets.contains(target)) {
+					group.add(factory.getOWLSubClassOfAxiom(owlSource, factory.getOWLObjectComplementOf(
+							factory.getOWLObjectSomeValuesFrom(owlEr, getObjectClass(target)))));
+				}
+			}
+		}
+		return group;
+	}
+
+	/**
+	 * Builds the axiom stating that all objects are different individuals
+	 */
+	private Set<OWLAxiom> buildDistinctnessGroup() {
+		Set<OWLAxiom> group = new HashSet<OWLAxiom>();
+		if (objectTypes.size() > 1) {
+			Set<OWLIndividual> allObjects = new HashSet<OWLIndividual>();
+			for (String object : objectTypes.keySet()) {
+				allObjects.add(getObjectIndividual(object));
+			}
+			group.add(factory.getOWLDifferentIndividualsAxiom(allObjects));
+		}
+		return group;
+	}
+
+	private OWLClass getObjectClass(String object) {
+		return factory.getOWLClass(creator.getObjectIRI(object));
+	}
+
+	private OWLIndividual getObjectIndividual(String object) {
+		return factory.getOWLNamedIndividual(creator.getObjectIRI(object));
+	}
+}
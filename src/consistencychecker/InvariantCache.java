@@ -0,0 +1,396 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+/**
+ * On-disk cache of translated invariants. An entry relates the context class,
+ * the text of an invariant and the ontology names to the concept the
+ * invariant was translated to, so unchanged invariants skip the OCL parser and
+ * the normalization. Each entry also records the classes and references the
+ * invariant depends on and a fingerprint of their structure; the entry is
+ * ignored once the fingerprint computed over the current model differs.
+ * <p>
+ * The cache is stored as an ontology in functional syntax, where each entry
+ * is a subclass axiom from a class named after the entry key to the cached
+ * concept, annotated with the fingerprint and the dependencies.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantCache {
+
+	//Changing the translation of the invariants must change this version, discarding old entries
+	protected static final String CACHE_VERSION = "ecc-invariants-1";
+	protected static final String CACHE_NAMESPACE = "http://lse.ic.uff.br/ecc/invariant-cache#";
+	protected static final String FINGERPRINT = "fingerprint";
+	protected static final String DEPENDENCIES = "dependencies";
+	protected static final String SEPARATOR = " ";
+	protected static final String REFERENCE_SEPARATOR = ".";
+	protected static final String MISSING = "-";
+
+	private File file_;
+	private String namesPrefix_;
+	private OWLOntologyManager manager_;
+	private OWLDataFactory owlDataFactory_;
+	private OWLAnnotationProperty fingerprintProperty_;
+	private OWLAnnotationProperty dependenciesProperty_;
+
+	//Entry axioms by key, as loaded from the file or added in this run
+	private HashMap<String, OWLSubClassOfAxiom> entries_;
+	private boolean changed = false;
+
+	private int hitCount;
+	private int missCount;
+
+	/**
+	 * @param file
+	 * 		The file holding the cache, created when the cache is saved
+	 * @param ontologyIRI
+	 * 		The ontology IRI used when generating OWL Concepts
+	 * @param packagePrefix
+	 * 		The name of the package where the OCL Expression are declared
+	 */
+	public InvariantCache(File file, IRI ontologyIRI, String packagePrefix) {
+		file_ = file;
+		namesPrefix_ = ontologyIRI + "\n" + packagePrefix;
+		manager_ = OWLManager.createOWLOntologyManager();
+		owlDataFactory_ = manager_.getOWLDataFactory();
+		fingerprintProperty_ = owlDataFactory_.getOWLAnnotationProperty(IRI.create(CACHE_NAMESPACE + FINGERPRINT));
+		dependenciesProperty_ = owlDataFactory_.getOWLAnnotationProperty(IRI.create(CACHE_NAMESPACE + DEPENDENCIES));
+		entries_ = new HashMap<String, OWLSubClassOfAxiom>();
+	}
+
+	/**
+	 * Reads the entries stored in the file, if it exists. A file that can not
+	 * be read, or that is not a cache, leaves the cache empty and is never
+	 * overwritten when the cache is saved.
+	 *
+	 * @return Returns false if the file exists but is not a readable cache
+	 */
+	public boolean load() {
+		if (!file_.exists()) {
+			return true;
+		}
+		try {
+			OWLOntology stored = readCache();
+			if (stored == null) {
+				return false;
+			}
+			for (OWLSubClassOfAxiom axiom : stored.getAxioms(AxiomType.SUBCLASS_OF)) {
+				if (!axiom.getSubClass().isAnonymous()) {
+					IRI key = axiom.getSubClass().asOWLClass().getIRI();
+					entries_.put(key.toString().substring(CACHE_NAMESPACE.length()), axiom);
+				}
+			}
+			manager_.removeOntology(stored);
+			return true;
+		} catch (OWLOntologyCreationException e) {
+			entries_.clear();
+			return false;
+		} catch (RuntimeException e) {
+			//The parsers report some syntax errors as unchecked exceptions
+			entries_.clear();
+			return false;
+		}
+	}
+
+	/**
+	 * Finds the concept an invariant was translated to in a previous run
+	 *
+	 * @param context
+	 * 		The class holding the invariant
+	 * @param text
+	 * 		The OCL expression text
+	 * @return Returns the cached concept, or null if there is no valid entry
+	 */
+	public OWLClassExpression get(EClass context, String text) {
+		OWLSubClassOfAxiom entry = entries_.get(key(context, text));
+		if (entry != null) {
+			String dependencies = annotationValue(entry, dependenciesProperty_);
+			//The entry is valid only if the classes and references it depends on are unchanged
+			if (dependencies != null && fingerprint(context.getEPackage(), dependencies)
+					.equals(annotationValue(entry, fingerprintProperty_))) {
+				hitCount++;
+				return entry.getSuperClass();
+			}
+		}
+		missCount++;
+		return null;
+	}
+
+	/**
+	 * Stores the concept an invariant was translated to
+	 *
+	 * @param context
+	 * 		The class holding the invariant
+	 * @param text
+	 * 		The OCL expression text
+	 * @param concept
+	 * 		The concept representing the invariant
+	 * @param dependencies
+	 * 		The dependencies of the invariant, as gathered by {@link #getDependencies(EClass, StackExp)}
+	 */
+	public void put(EClass context, String text, OWLClassExpression concept, String dependencies) {
+		String key = key(context, text);
+		Set<OWLAnnotation> annotations = new HashSet<OWLAnnotation>();
+		annotations.add(owlDataFactory_.getOWLAnnotation(fingerprintProperty_,
+				owlDataFactory_.getOWLLiteral(fingerprint(context.getEPackage(), dependencies))));
+		annotations.add(owlDataFactory_.getOWLAnnotation(dependenciesProperty_,
+				owlDataFactory_.getOWLLiteral(dependencies)));
+		entries_.put(key, owlDataFactory_.getOWLSubClassOfAxiom(
+				owlDataFactory_.getOWLClass(IRI.create(CACHE_NAMESPACE + key)), concept, annotations));
+		changed = true;
+	}
+
+	/**
+	 * Writes the entries to the file, if any entry was added. An existing file
+	 * is replaced only if it holds a cache, so a mistyped path never
+	 * overwrites a model.
+	 *
+	 * @return Returns false if the file could not be written
+	 */
+	public boolean save() {
+		if (!changed) {
+			return true;
+		}
+		try {
+			if (file_.exists()) {
+				OWLOntology previous = readCache();
+				if (previous == null) {
+					return false;
+				}
+				manager_.removeOntology(previous);
+			}
+			OWLOntology stored = manager_.createOntology(IRI.create(CACHE_NAMESPACE));
+			manager_.addAxioms(stored, new HashSet<OWLAxiom>(entries_.values()));
+			manager_.saveOntology(stored, new OWLFunctionalSyntaxOntologyFormat(), IRI.create(file_.toURI()));
+			manager_.removeOntology(stored);
+			changed = false;
+			return true;
+		} catch (OWLOntologyCreationException e) {
+			return false;
+		} catch (OWLOntologyStorageException e) {
+			return false;
+		} catch (RuntimeException e) {
+			//The parsers report some syntax errors as unchecked exceptions
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the file as an ontology, keeping it only if it was written by a
+	 * cache
+	 *
+	 * @return Returns the ontology in the file, or null if the file is not a cache
+	 * @throws OWLOntologyCreationException
+	 * 		If the file can not be read as an ontology
+	 */
+	private OWLOntology readCache() throws OWLOntologyCreationException {
+		if (!file_.isFile()) {
+			return null;
+		}
+		OWLOntology stored = manager_.loadOntologyFromOntologyDocument(file_);
+		if (!IRI.create(CACHE_NAMESPACE).equals(stored.getOntologyID().getOntologyIRI())) {
+			manager_.removeOntology(stored);
+			return null;
+		}
+		return stored;
+	}
+
+	/**
+	 * @return Returns the number of invariants found in the cache
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return Returns the number of invariants not found in the cache
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Describes the model elements a normalized invariant depends on: its
+	 * context class, the classes used as types and the references navigated
+	 *
+	 * @param context
+	 * 		The class holding the invariant
+	 * @param normalized
+	 * 		The stack holding the normalized invariant
+	 * @return Returns the class names and the references, as "Class.reference",
+	 *         sorted and separated by spaces
+	 */
+	public static String getDependencies(EClass context, StackExp normalized) {
+		Set<EReference> references = new HashSet<EReference>();
+		Set<String> typeNames = new HashSet<String>();
+		normalized.collectDependencies(references, typeNames);
+		TreeSet<String> dependencies = new TreeSet<String>(typeNames);
+		dependencies.add(context.getName());
+		for (EReference reference : references) {
+			dependencies.add(reference.getEContainingClass().getName() + REFERENCE_SEPARATOR + reference.getName());
+		}
+		StringBuilder description = new StringBuilder();
+		for (String dependency : dependencies) {
+			if (description.length() > 0) {
+				description.append(SEPARATOR);
+			}
+			description.append(dependency);
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Creates the key of an entry from the ontology names, the context class
+	 * and the invariant text
+	 */
+	private String key(EClass context, String text) {
+		return digest(CACHE_VERSION + "\n" + namesPrefix_ + "\n" + context.getName() + "\n" + text);
+	}
+
+	/**
+	 * Computes the fingerprint of the current structure of the dependencies
+	 * of an invariant
+	 */
+	private static String fingerprint(EPackage pkg, String dependencies) {
+		StringBuilder structure = new StringBuilder();
+		for (String dependency : dependencies.split(SEPARATOR)) {
+			int dot = dependency.indexOf(REFERENCE_SEPARATOR);
+			String className = dot < 0 ? dependency : dependency.substring(0, dot);
+			EClassifier classifier = pkg.getEClassifier(className);
+			structure.append(dependency).append(SEPARATOR);
+			if (!(classifier instanceof EClass)) {
+				structure.append(MISSING);
+			} else if (dot < 0) {
+				describeClass((EClass) classifier, structure);
+			} else {
+				describeReference(((EClass) classifier).getEStructuralFeature(dependency.substring(dot + 1)),
+						structure);
+			}
+			structure.append('\n');
+		}
+		return digest(structure.toString());
+	}
+
+	/**
+	 * Describes the parts of a class that change the translation of the
+	 * invariants using it: its superclasses and its features
+	 */
+	private static void describeClass(EClass cls, StringBuilder structure) {
+		structure.append(cls.isAbstract()).append(SEPARATOR).append(cls.isInterface());
+		List<String> names = new ArrayList<String>();
+		for (EClass superType : cls.getEAllSuperTypes()) {
+			names.add(superType.getName());
+		}
+		Collections.sort(names);
+		structure.append(SEPARATOR).append(names);
+		names.clear();
+		for (EStructuralFeature feature : cls.getEAllStructuralFeatures()) {
+			names.add(feature.getName() + REFERENCE_SEPARATOR + feature.getEType().getName());
+		}
+		Collections.sort(names);
+		structure.append(SEPARATOR).append(names);
+	}
+
+	/**
+	 * Describes the parts of a reference that change the translation of the
+	 * invariants navigating it: its type, multiplicity and opposite
+	 */
+	private static void describeReference(EStructuralFeature feature, StringBuilder structure) {
+		if (!(feature instanceof EReference)) {
+			structure.append(MISSING);
+			return;
+		}
+		EReference reference = (EReference) feature;
+		structure.append(reference.getEType().getName()).append(SEPARATOR).append(reference.getLowerBound())
+				.append(SEPARATOR).append(reference.getUpperBound()).append(SEPARATOR);
+		if (reference.getEOpposite() == null) {
+			structure.append(MISSING);
+		} else {
+			structure.append(reference.getEOpposite().getEContainingClass().getName()).append(REFERENCE_SEPARATOR)
+					.append(reference.getEOpposite().getName());
+		}
+	}
+
+	/**
+	 * Computes the hexadecimal SHA-256 digest of a text
+	 */
+	private static String digest(String text) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes("UTF-8"));
+			StringBuilder hex = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			//Every Java platform is required to support SHA-256 and UTF-8
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Finds the value of an annotation of an entry
+	 */
+	private static String annotationValue(OWLSubClassOfAxiom entry, OWLAnnotationProperty property) {
+		for (OWLAnnotation annotation : entry.getAnnotations(property)) {
+			if (annotation.getValue() instanceof OWLLiteral) {
+				return ((OWLLiteral) annotation.getValue()).getLiteral();
+			}
+		}
+		return null;
+	}
+}
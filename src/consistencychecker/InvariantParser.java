@@ -0,0 +1,141 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.HashMap;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EEnumLiteral;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EOperation;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EParameter;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.ocl.OCL;
+import org.eclipse.ocl.ParserException;
+import org.eclipse.ocl.ecore.CallOperationAction;
+import org.eclipse.ocl.ecore.Constraint;
+import org.eclipse.ocl.ecore.EcoreEnvironmentFactory;
+import org.eclipse.ocl.ecore.SendSignalAction;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.eclipse.ocl.helper.OCLHelper;
+
+/**
+ * Parses the OCL invariants of a model. A single OCL environment is shared by
+ * all the invariants, one helper is kept for each context class and the
+ * parsed expressions are cached by context and text, so an expression is
+ * parsed only once no matter how many times it is requested.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantParser {
+
+	//OCL environment shared by every invariant
+	private OCL<EPackage, EClassifier, EOperation, EStructuralFeature, EEnumLiteral, EParameter, EObject, CallOperationAction, SendSignalAction, Constraint, EClass, EObject> ocl_;
+	
+	//Helpers whose context is set to each class
+	private HashMap<EClass, OCLHelper<EClassifier, EOperation, EStructuralFeature, Constraint>> helpers_;
+	
+	//Parsed expressions by context class and expression text
+	private HashMap<EClass, HashMap<String, OCLExpression<EClassifier>>> parsedExpressions_;
+	
+	//Counters of the expressions parsed and of the ones taken from the cache
+	private int parsedCount = 0;
+	private int reusedCount = 0;
+
+	public InvariantParser() {
+		ocl_ = OCL.newInstance(EcoreEnvironmentFactory.INSTANCE);
+		helpers_ = new HashMap<EClass, OCLHelper<EClassifier, EOperation, EStructuralFeature, Constraint>>();
+		parsedExpressions_ = new HashMap<EClass, HashMap<String, OCLExpression<EClassifier>>>();
+	}
+
+	/**
+	 * Parses an OCL expression in the context of a class. The returned
+	 * expression is shared by every request with the same context and text,
+	 * so it must not be changed by the caller.
+	 * 
+	 * @param context
+	 * 		The class used as the context of the expression
+	 * @param text
+	 * 		The OCL expression text
+	 * @return Returns the parsed expression
+	 * @throws ParserException
+	 * 		If the text is not a valid OCL expression for the context
+	 */
+	public OCLExpression<EClassifier> parse(EClass context, String text) throws ParserException {
+		HashMap<String, OCLExpression<EClassifier>> byText = parsedExpressions_.get(context);
+		if (byText == null) {
+			byText = new HashMap<String, OCLExpression<EClassifier>>();
+			parsedExpressions_.put(context, byText);
+		}
+		
+		OCLExpression<EClassifier> expression = byText.get(text);
+		if (expression == null) {
+			expression = getHelper(context).createQuery(text);
+			byText.put(text, expression);
+			parsedCount++;
+		} else {
+			reusedCount++;
+		}
+		return expression;
+	}
+
+	/**
+	 * Finds the helper of a class, creating it on the first request
+	 * 
+	 * @param context
+	 * 		The class used as the context of the helper
+	 * @return Returns the helper whose context is the provided class
+	 */
+	private OCLHelper<EClassifier, EOperation, EStructuralFeature, Constraint> getHelper(EClass context) {
+		OCLHelper<EClassifier, EOperation, EStructuralFeature, Constraint> helper = helpers_.get(context);
+		if (helper == null) {
+			helper = ocl_.createOCLHelper();
+			helper.setContext(context);
+			helpers_.put(context, helper);
+		}
+		return helper;
+	}
+
+	/**
+	 * @return Returns the number of expressions actually parsed
+	 */
+	public int getParsedCount() {
+		return parsedCount;
+	}
+
+	/**
+	 * @return Returns the number of expressions taken from the cache
+	 */
+	public int getReusedCount() {
+		return reusedCount;
+	}
+
+	/**
+	 * Releases the OCL environment and the cached expressions
+	 */
+	public void dispose() {
+		helpers_.clear();
+		parsedExpressions_.clear();
+		ocl_.dispose();
+	}
+}
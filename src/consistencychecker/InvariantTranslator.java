@@ -0,0 +1,327 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.ocl.ParserException;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Translates the OCL invariants of a model into concepts using a bounded
+ * pool of threads. Neither the Eclipse OCL environment nor the OWL data
+ * factory are thread-safe, so each worker has its own parser, normalizer and
+ * data factory. The concepts are returned in the order the invariants were
+ * added, whatever the order in which the workers translated them.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantTranslator {
+
+	private static final String TRANSLATION_INTERRUPTED_ERROR = "The translation of the invariants was interrupted.";
+	private static final String TRANSLATION_FAILED_ERROR = "The translation of the invariants failed: %s";
+
+	private IRI ontologyIRI_;
+	private String packagePrefix_;
+	private int threads_;
+	private InvariantCache cache_;
+
+	//Invariants waiting to be translated, in the order they were added
+	private List<EClass> contexts_;
+	private List<String> texts_;
+
+	//Counters summed over the workers
+	private int parsedCount;
+	private int reusedCount;
+	private int simplifiedCount;
+	private int sharedCount;
+
+	/**
+	 * @param ontologyIRI
+	 * 		The ontology IRI used when generating OWL Concepts
+	 * @param packagePrefix
+	 * 		The name of the package where the OCL Expression are declared
+	 * @param threads
+	 * 		The maximum number of threads translating the invariants
+	 */
+	public InvariantTranslator(IRI ontologyIRI, String packagePrefix, int threads) {
+		ontologyIRI_ = ontologyIRI;
+		packagePrefix_ = packagePrefix;
+		threads_ = Math.max(1, threads);
+		contexts_ = new ArrayList<EClass>();
+		texts_ = new ArrayList<String>();
+	}
+
+	/**
+	 * @param cache
+	 * 		The cache consulted before translating an invariant and updated with
+	 * 		the translated ones, or null to translate every invariant
+	 */
+	public void setCache(InvariantCache cache) {
+		cache_ = cache;
+	}
+
+	/**
+	 * Adds an invariant to be translated
+	 *
+	 * @param context
+	 * 		The class holding the invariant
+	 * @param text
+	 * 		The OCL expression text
+	 */
+	public void add(EClass context, String text) {
+		contexts_.add(context);
+		texts_.add(text);
+	}
+
+	/**
+	 * Translates every invariant added so far
+	 *
+	 * @return Returns the concepts representing the invariants, in the order
+	 *         the invariants were added
+	 * @throws ParserException
+	 * 		If an invariant is not a valid OCL expression
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If an invariant is not in the OCL-Lite fragment
+	 */
+	public List<OWLClassExpression> translate() throws ParserException, ConsistencyCheckerGenericException {
+		int total = contexts_.size();
+		OWLClassExpression[] concepts = new OWLClassExpression[total];
+		Exception[] errors = new Exception[total];
+		String[] dependencies = new String[total];
+
+		//Only the invariants without a valid cache entry are translated
+		int[] pending = new int[total];
+		int pendingCount = 0;
+		for (int i = 0; i < total; i++) {
+			if (cache_ != null) {
+				concepts[i] = cache_.get(contexts_.get(i), texts_.get(i));
+			}
+			if (concepts[i] == null) {
+				pending[pendingCount++] = i;
+			}
+		}
+		if (pendingCount == 0) {
+			return collect(concepts);
+		}
+
+		//EMF computes the features of a class lazily and without synchronization,
+		//so they are computed before the workers start
+		prepareClasses();
+
+		//Each worker takes the next invariant not yet taken until none is left
+		AtomicInteger next = new AtomicInteger();
+		int workers = Math.min(threads_, pendingCount);
+		List<Worker> workerList = new ArrayList<Worker>(workers);
+		for (int i = 0; i < workers; i++) {
+			workerList.add(new Worker(next, pending, pendingCount, concepts, errors, dependencies));
+		}
+		if (workers == 1) {
+			//A single worker runs on this thread, failing as it would on the pool
+			try {
+				workerList.get(0).call();
+			} catch (RuntimeException e) {
+				throw new ConsistencyCheckerGenericException(String.format(TRANSLATION_FAILED_ERROR, e));
+			}
+		} else {
+			runWorkers(workerList);
+		}
+
+		for (Worker worker : workerList) {
+			parsedCount += worker.parser.getParsedCount();
+			reusedCount += worker.parser.getReusedCount();
+			simplifiedCount += worker.normalizer.getExpressionBuilder().getSimplifiedCount();
+			sharedCount += worker.normalizer.getExpressionBuilder().getSharedCount();
+		}
+
+		//The first invariant that failed is reported, as a sequential translation would do
+		for (Exception error : errors) {
+			if (error instanceof ParserException) {
+				throw (ParserException) error;
+			}
+			if (error != null) {
+				throw (ConsistencyCheckerGenericException) error;
+			}
+		}
+
+		if (cache_ != null) {
+			for (int p = 0; p < pendingCount; p++) {
+				int i = pending[p];
+				cache_.put(contexts_.get(i), texts_.get(i), concepts[i], dependencies[i]);
+			}
+		}
+		return collect(concepts);
+	}
+
+	/**
+	 * Lists the translated concepts and clears the translated invariants
+	 */
+	private List<OWLClassExpression> collect(OWLClassExpression[] concepts) {
+		contexts_.clear();
+		texts_.clear();
+		List<OWLClassExpression> result = new ArrayList<OWLClassExpression>(concepts.length);
+		for (OWLClassExpression concept : concepts) {
+			result.add(concept);
+		}
+		return result;
+	}
+
+	/**
+	 * Runs the workers on a pool of threads and waits for all of them
+	 *
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If a worker is interrupted or fails unexpectedly
+	 */
+	private void runWorkers(List<Worker> workerList) throws ConsistencyCheckerGenericException {
+		ExecutorService pool = Executors.newFixedThreadPool(workerList.size());
+		try {
+			for (Future<Void> future : pool.invokeAll(workerList)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConsistencyCheckerGenericException(TRANSLATION_INTERRUPTED_ERROR);
+		} catch (ExecutionException e) {
+			throw new ConsistencyCheckerGenericException(String.format(TRANSLATION_FAILED_ERROR, e.getCause()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Computes the features of the classes holding invariants and of the
+	 * classes of their packages
+	 */
+	private void prepareClasses() {
+		Set<EClass> prepared = new HashSet<EClass>();
+		for (EClass context : contexts_) {
+			if (!prepared.add(context)) {
+				continue;
+			}
+			for (EClassifier classifier : context.getEPackage().getEClassifiers()) {
+				if (classifier instanceof EClass && (classifier == context || prepared.add((EClass) classifier))) {
+					EClass cls = (EClass) classifier;
+					cls.getEAllSuperTypes();
+					cls.getEAllStructuralFeatures();
+					cls.getEAllOperations();
+					for (EReference reference : cls.getEAllReferences()) {
+						reference.getEOpposite();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Returns the number of expressions actually parsed
+	 */
+	public int getParsedCount() {
+		return parsedCount;
+	}
+
+	/**
+	 * @return Returns the number of expressions taken from the parser caches
+	 */
+	public int getReusedCount() {
+		return reusedCount;
+	}
+
+	/**
+	 * @return Returns the number of concepts replaced by a simpler one
+	 */
+	public int getSimplifiedCount() {
+		return simplifiedCount;
+	}
+
+	/**
+	 * @return Returns the number of concepts reused instead of created again
+	 */
+	public int getSharedCount() {
+		return sharedCount;
+	}
+
+	/**
+	 * Translates invariants with its own OCL environment and data factory
+	 */
+	private class Worker implements Callable<Void> {
+		private final AtomicInteger next;
+		private final int[] pending;
+		private final int pendingCount;
+		private final OWLClassExpression[] concepts;
+		private final Exception[] errors;
+		private final String[] dependencies;
+		private final InvariantParser parser;
+		private final OCLLiteNormalizer normalizer;
+
+		private Worker(AtomicInteger next, int[] pending, int pendingCount, OWLClassExpression[] concepts,
+				Exception[] errors, String[] dependencies) {
+			this.next = next;
+			this.pending = pending;
+			this.pendingCount = pendingCount;
+			this.concepts = concepts;
+			this.errors = errors;
+			this.dependencies = dependencies;
+			parser = new InvariantParser();
+			normalizer = new OCLLiteNormalizer(new OWLDataFactoryImpl(), ontologyIRI_, packagePrefix_);
+		}
+
+		@Override
+		public Void call() {
+			try {
+				for (int p = next.getAndIncrement(); p < pendingCount; p = next.getAndIncrement()) {
+					int i = pending[p];
+					try {
+						//Parses, normalizes and maps the invariant to a concept
+						OCLExpression<EClassifier> invariant = parser.parse(contexts_.get(i), texts_.get(i));
+						StackExp normalized = normalizer.normalize(invariant);
+						concepts[i] = normalized.resolveStack();
+						if (cache_ != null) {
+							dependencies[i] = InvariantCache.getDependencies(contexts_.get(i), normalized);
+						}
+					} catch (ParserException e) {
+						errors[i] = e;
+					} catch (ConsistencyCheckerGenericException e) {
+						errors[i] = e;
+					}
+				}
+			} finally {
+				parser.dispose();
+			}
+			return null;
+		}
+	}
+}
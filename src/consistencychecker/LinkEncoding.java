@@ -0,0 +1,87 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+/**
+ * Ways of closing the links of an object model, stating that an object is
+ * related through an association to the objects it links and to no other.
+ * Both encodings also state each link with an exact cardinality. Under the
+ * individuals object encoding the same closure is stated by assertions:
+ * \neg r(o, o') for each unrelated pair, or (\forall r.\{o_1, ..., o_k\})(o).
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum LinkEncoding {
+
+	/**
+	 * Each object is stated unrelated to every instance of the target class
+	 * it does not link, one axiom per pair:
+	 * o \sqsubseteq \neg \exists r.o'
+	 * The number of axioms grows with the product of the sources and targets.
+	 */
+	NEGATIONS("negations"),
+
+	/**
+	 * Each object is stated to relate only to the objects it links, in a
+	 * single axiom, or to nothing if it has no link:
+	 * o \sqsubseteq \forall r.(o_1 \sqcup ... \sqcup o_k), o \sqsubseteq \forall r.\bot
+	 * The number of axioms grows with the objects and links.
+	 */
+	CLOSURE("closure");
+
+	private static final String UNKNOWN_ENCODING_ERROR = "The link encoding \"%s\" is unknown.";
+
+	private final String encodingName;
+
+	private LinkEncoding(String encodingName) {
+		this.encodingName = encodingName;
+	}
+
+	/**
+	 * @return Returns the name used to select this encoding in the command line
+	 */
+	public String getEncodingName() {
+		return encodingName;
+	}
+
+	@Override
+	public String toString() {
+		return encodingName;
+	}
+
+	/**
+	 * Finds the encoding with the provided name
+	 *
+	 * @param name
+	 * 		The encoding name, as used in the command line
+	 * @return Returns the encoding with the provided name
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If there is no encoding with such name
+	 */
+	public static LinkEncoding fromName(String name) throws ConsistencyCheckerGenericException {
+		for (LinkEncoding encoding : values()) {
+			if (encoding.encodingName.equalsIgnoreCase(name)) {
+				return encoding;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_ENCODING_ERROR, name));
+	}
+}
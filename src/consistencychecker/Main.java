@@ -18,20 +18,31 @@
 
 package consistencychecker;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.ocl.ParserException;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyStorageException;
 
+import ecorexmiparser.XMIReaderMode;
 import util.Constants;
+import util.ModelInput;
 
 /**
  * @author Cassio Santos, Christiano Braga
@@ -48,6 +59,21 @@ public class Main {
 	private static final String MINUS_EQUIV = "-equiv";
 	private static final String MINUS_LOG = "-log";
 	private static final String MINUS_HELP = "-help";
+	private static final String MINUS_PROFILE = "-profile";
+	private static final String MINUS_OPERATIONS = "-operations";
+	private static final String MINUS_ENUMS = "-enums";
+	private static final String MINUS_OBJECTS = "-objects";
+	private static final String MINUS_LINKS = "-links";
+	private static final String MINUS_NORMALIZE = "-normalize";
+	private static final String MINUS_THREADS = "-threads";
+	private static final String MINUS_CACHE = "-cache";
+	private static final String MINUS_OFFHEAP = "-offheap";
+	private static final String MINUS_PIPELINE = "-pipeline";
+	private static final String MINUS_READER = "-reader";
+	private static final String MINUS_XMI_THREADS = "-xmithreads";
+	private static final String MINUS_SHARDS = "-shards";
+	private static final String MINUS_BATCH = "-batch";
+	private static final String MINUS_DELTA = "-delta";
 
 	// Set of extensions handled in ECC
 	private static final String ECORE_EXTENSION = ".ecore";
@@ -55,12 +81,27 @@ public class Main {
 	private static final String XMI_EXTENSION = ".xmi";
 
 	// Help messages
-	private static final String HELP_USAGE = "usage: java -jar consistencyChecker [-owl] [-equiv] [-explain] [-extend] [input_objectModel.xmi] input_ClassDiagram.ecore \nusage: java -jar consistencyChecker [-help]";
+	private static final String HELP_USAGE = "usage: java -jar consistencyChecker [-owl] [-equiv] [-explain] [-profile name] [-operations encoding] [-enums encoding] [-objects encoding] [-links encoding] [-normalize] [-threads n] [-cache file] [-offheap] [-pipeline] [-reader name] [-xmithreads n] [-shards n] [-batch list] [-delta file]... [-extend] [input_objectModel.xmi] input_ClassDiagram.ecore \nusage: java -jar consistencyChecker [-help]";
 	private static final String HELP_OWL = "-owl:\n\t Creates a OWL file of the ontology with name: input_file.owl.";
 	private static final String HELP_EXPLAIN = "-explain:\n\t Display an automatic explanation from the reasoner about the inconsistencies found in the ontology.";
 	private static final String HELP_EXPLAINALL = "-explainall:\n\t Display all the automatic explanations from the reasoner about the inconsistencies found in the ontology.";
 	private static final String HELP_EQUIV = "-equiv:\n\t Display the equivalence classes reasoned by the reasoner.";
-	private static final String HELP_EXTENDED = "-extend:\n\t Informes that the following parameter is a object model from the input class diagram.";
+	private static final String HELP_EXTENDED = "-extend:\n\t Informes that the following parameter is a object model from the input class diagram. The models may be compressed with gzip or zip.";
+	private static final String HELP_PROFILE = "-profile:\n\t Selects the subset of the mapping used to create the ontology: structure, structure+invariants or full (default).";
+	private static final String HELP_OPERATIONS = "-operations:\n\t Selects how operations with parameters are mapped: inverse (default) or forward, which avoids inverse roles.";
+	private static final String HELP_OBJECTS = "-objects:\n\t Selects how the objects of the object model are mapped: classes (default) or individuals, which asserts named individuals and their links.";
+	private static final String HELP_LINKS = "-links:\n\t Selects how the links of the object model are closed: negations (default), one axiom per unrelated pair of objects, or closure, one axiom per object.";
+	private static final String HELP_ENUMS = "-enums:\n\t Selects how enumerations are mapped: nominals (default) or classes, which represents the literals as disjoint concepts.";
+	private static final String HELP_THREADS = "-threads:\n\t Sets the maximum number of threads translating the OCL invariants. Defaults to the number of processors.";
+	private static final String HELP_CACHE = "-cache:\n\t Keeps the translated OCL invariants in the provided file, so unchanged invariants are not translated again in the next runs.";
+	private static final String HELP_OFFHEAP = "-offheap:\n\t Stores the objects and links of the object model outside the Java heap.";
+	private static final String HELP_PIPELINE = "-pipeline:\n\t Builds the axioms of the object model on another thread while it is parsed. The object model is parsed as a whole, and its objects and links are still kept until it is mapped.";
+	private static final String HELP_READER = "-reader:\n\t Selects the XML reader parsing the object model: sax (default) or stax, a pull reader with large buffers.";
+	private static final String HELP_SHARDS = "-shards:\n\t Splits the object model in at most n shards of unlinked objects, checked in parallel by one reasoner each. Defaults to 1, which checks it as a whole. The shards are built once the whole object model is parsed, so -pipeline has no effect.";
+	private static final String HELP_BATCH = "-batch:\n\t Checks every object model listed in the file, one path per line, against the class diagram, which is mapped and classified only once. The object models are checked in parallel by the threads set by -threads.";
+	private static final String HELP_DELTA = "-delta:\n\t Applies the changes listed in the file to the object model once it was checked, and checks it again. The object model is kept after it is mapped, so only the axioms of the objects and links changed are replaced. May be repeated, each file being a transaction checked in turn. Requires -extend, and -shards and -pipeline have no effect.";
+	private static final String HELP_XMI_THREADS = "-xmithreads:\n\t Sets the maximum number of threads parsing chunks of the object model. Defaults to 1, which parses it as a whole.";
+	private static final String HELP_NORMALIZE = "-normalize:\n\t Simplifies and merges the ontology axioms before reasoning, removing the redundant ones.";
 	private static final String HELP_HELP = "-help:\n\t Display this message.";
 	private static final String HELP_ACKS_MAIN_MESSAGE = "\nThis sofware uses the following libraries:";
 	private static final String HELP_ACKS_HERMIT = "HermiT Reasoner";
@@ -74,11 +115,37 @@ public class Main {
 	private static final String MODEL_INCONSISTENT = "The model %s is inconsistent";
 	private static final String INCONSISTENTCLASSES = "The folowing classes are inconsistent";
 	private static final String INCONSISTENCYEXPLANATION = "The following axioms make %s class inconsistent:";
+	private static final String ENCODING_PROFILE_USED = "Encoding profile: %s";
+	private static final String OPERATION_ENCODING_USED = "Operation encoding: %s";
+	private static final String ENUMERATION_ENCODING_USED = "Enumeration encoding: %s";
+	private static final String OBJECT_ENCODING_USED = "Object encoding: %s";
+	private static final String LINK_ENCODING_USED = "Link encoding: %s";
+	private static final String SHARDS_USED = "Object model shards: %d";
+	private static final String OBJECT_MODEL_CONSISTENT = "The object model %s is consistent";
+	private static final String OBJECT_MODEL_INCONSISTENT = "The object model %s is inconsistent";
+	private static final String OBJECT_MODEL_NOT_CHECKED = "The object model %s could not be checked: %s";
+	private static final String BATCH_SUMMARY = "%d of %d object models are consistent";
+	private static final String DELTA_CHECKED = "The delta %s was applied and checked in %d ms";
+	private static final String DELTA_REJECTED = "The delta %s was not applied: %s";
+	private static final String NORMALIZATION_REMOVED = "Normalization removed %d axioms";
 
 	// Error Message
-	private static final String FINAL_PARAM_ERR = "The final parameter must be a .ecore model or the -help parameter. \nFor more detailed instructions please use the -help parameter.";
+	private static final String FINAL_PARAM_ERR = "The final parameter must be a .ecore model, optionally compressed as .ecore.gz or .ecore.zip, or the -help parameter. \nFor more detailed instructions please use the -help parameter.";
 	private static final String UNKNOW_PARAM_ERR = "The parameter %s is unknow. Plese use the -help parameter to get a list of valids parameters.";
-	private static final String UNKNOW_XMI_ERR = "The parameter after the \"-extend\" parameter must be an .xmi model";
+	private static final String UNKNOW_XMI_ERR = "The parameter after the \"-extend\" parameter must be an .xmi model, optionally compressed as .xmi.gz or .xmi.zip";
+	private static final String UNKNOW_OPERATIONS_ERR = "The parameter after the \"-operations\" parameter must be one of: inverse, forward";
+	private static final String UNKNOW_OBJECTS_ERR = "The parameter after the \"-objects\" parameter must be one of: classes, individuals";
+	private static final String UNKNOW_LINKS_ERR = "The parameter after the \"-links\" parameter must be one of: negations, closure";
+	private static final String UNKNOW_ENUMS_ERR = "The parameter after the \"-enums\" parameter must be one of: nominals, classes";
+	private static final String UNKNOW_THREADS_ERR = "The parameter after the \"-threads\" parameter must be a positive number";
+	private static final String UNKNOW_READER_ERR = "The parameter after the \"-reader\" parameter must be one of: sax, stax";
+	private static final String DELTA_WITHOUT_EXTEND_ERR = "The parameter \"-delta\" requires an object model, passed with the \"-extend\" parameter";
+	private static final String BATCH_INTERRUPTED_ERR = "The check of the object models was interrupted.";
+	private static final String BATCH_FAILED_ERR = "The check of an object model failed: %s";
+	private static final String UNKNOW_SHARDS_ERR = "The parameter after the \"-shards\" parameter must be a positive number";
+	private static final String UNKNOW_XMI_THREADS_ERR = "The parameter after the \"-xmithreads\" parameter must be a positive number";
+	private static final String UNKNOW_PROFILE_ERR = "The parameter after the \"-profile\" parameter must be one of: structure, structure+invariants, full";
+	private static final String MISSING_VALUE_ERR = "The parameter \"%s\" requires a value, placed before the final parameter";
 	private static final String PARAM_ERR = "Incorrect number of parameters, please provide the model name. \nFor more detailed instructions please add the -help parameter.";
 	private static final String ONTOLOGY_CREATOR_ILL_FORMED_MODEL_ERROR = "The model is not well-formed.";
 
@@ -111,11 +178,28 @@ public class Main {
 	private static final String LOG_EXPLAINALL_FOUND = "\nThe parameter -explainall was detected.";
 	private static final String LOG_EQUIV_FOUND = "\nThe parameter -equiv was detected.";
 	private static final String LOG_LOG_FOUND = "\nThe parameter -log was detected.";
+	private static final String LOG_PROFILE_FOUND = "\nThe parameter -profile was detected.";
+	private static final String LOG_OPERATIONS_FOUND = "\nThe parameter -operations was detected.";
+	private static final String LOG_ENUMS_FOUND = "\nThe parameter -enums was detected.";
+	private static final String LOG_OBJECTS_FOUND = "\nThe parameter -objects was detected.";
+	private static final String LOG_LINKS_FOUND = "\nThe parameter -links was detected.";
+	private static final String LOG_NORMALIZE_FOUND = "\nThe parameter -normalize was detected.";
+	private static final String LOG_THREADS_FOUND = "\nThe parameter -threads was detected.";
+	private static final String LOG_CACHE_FOUND = "\nThe parameter -cache was detected.";
+	private static final String LOG_OFFHEAP_FOUND = "\nThe parameter -offheap was detected.";
+	private static final String LOG_PIPELINE_FOUND = "\nThe parameter -pipeline was detected.";
+	private static final String LOG_READER_FOUND = "\nThe parameter -reader was detected.";
+	private static final String LOG_BATCH_FOUND = "\nThe parameter -batch was detected.";
+	private static final String LOG_DELTA_FOUND = "\nThe parameter -delta was detected.";
+	private static final String LOG_CHECKING_DELTA = "\nApplying the delta %s.";
+	private static final String LOG_SHARDS_FOUND = "\nThe parameter -shards was detected.";
+	private static final String LOG_XMI_THREADS_FOUND = "\nThe parameter -xmithreads was detected.";
 	private static final String LOG_UNKNOW_PARAM = "\nA unknow parameter was found.";
 	private static final String LOG_RELATIVE_PATH = "\nThe relative path to the .ecore model is: ";
 	private static final String LOG_MODEL_NAME = "\nThe .ecore file name is: ";
 	private static final String LOG_INITIALIZE_SIMPLE_CCHECKER = "\nInitializing simple consistency checker";
 	private static final String LOG_INITIALIZE_EXTENDED_CCHECKER = "\nInitializing extended consistency checker";
+	private static final String LOG_INITIALIZE_BATCH_CHECKER = "\nInitializing the check of the object models listed in %s";
 	private static final String LOG_READY_TO_REASON = "\nStarting reasoning on the created ontology.";
 	private static final String LOG_DONE_REASONING = "\nReasoning completed.";
 	private static final String LOG_SAVING_OWL = "\nReady to generate .owl representation of the ontology on the relative path: ";
@@ -137,6 +221,9 @@ public class Main {
 	
 	// The name of the file being checked for consistency
 	private static String file_name;
+	private static String model_name;
+	// True if an object model was checked with the class model
+	private static boolean object_model_checked = false;
 
 	/**
 	 * Standard use of ECC, as a stand-alone command line application will
@@ -182,6 +269,21 @@ public class Main {
 				System.out.println(HELP_EXPLAIN);
 				System.out.println(HELP_EXPLAINALL);
 				System.out.println(HELP_EQUIV);
+				System.out.println(HELP_PROFILE);
+				System.out.println(HELP_OPERATIONS);
+				System.out.println(HELP_ENUMS);
+				System.out.println(HELP_OBJECTS);
+				System.out.println(HELP_LINKS);
+				System.out.println(HELP_NORMALIZE);
+				System.out.println(HELP_THREADS);
+				System.out.println(HELP_CACHE);
+				System.out.println(HELP_OFFHEAP);
+				System.out.println(HELP_PIPELINE);
+				System.out.println(HELP_READER);
+				System.out.println(HELP_XMI_THREADS);
+				System.out.println(HELP_SHARDS);
+				System.out.println(HELP_BATCH);
+				System.out.println(HELP_DELTA);
 				System.out.println(HELP_HELP);
 				System.out.println(HELP_ACKS_MAIN_MESSAGE);
 				System.out.println(HELP_ACKS_HERMIT);
@@ -191,7 +293,8 @@ public class Main {
 				System.out.println(HELP_ACKS_AVAILABLE_DLLEARNER);
 				System.exit(0);
 			} else {
-				if (!final_parameter.endsWith(ECORE_EXTENSION)) {
+				// The model may be compressed with gzip or zip, as in model.ecore.gz
+				if (!ModelInput.getModelName(final_parameter).endsWith(ECORE_EXTENSION)) {
 					log.append(LOG_NOT_ECORE);
 					log.append(String.format(LOG_EXECUTION_TERMINATES, FINAL_PARAM_ERR));
 					// The final parameter was not help nor an .ecore file, so
@@ -211,9 +314,15 @@ public class Main {
 		boolean contains_explainall = false;
 		boolean contains_equiv = false;
 		boolean contains_log = false;
+		// Options that change how the model is mapped and checked
+		CheckerSettings settings = new CheckerSettings();
 		// This variable will store the position of the object model.
 		// If it remains -1 the parameter "extend" is not present.
 		int contains_extends = -1;
+		// File listing the object models checked in a batch, if any
+		String batch_file = null;
+		// Files holding the deltas applied to the object model, in order
+		ArrayList<String> delta_files = new ArrayList<String>();
 		// Run through the command line attributes, setting Its respective
 		// "contains" variables to true if they're present
 		for (int i = 0; i < args.length - 1; i++) {
@@ -234,7 +343,8 @@ public class Main {
 				// "contain_extends" variable
 				// And increases the loop counter
 				contains_extends = ++i;
-				if (!args[i].toLowerCase().endsWith(XMI_EXTENSION)) {
+				object_model_checked = true;
+				if (!ModelInput.getModelName(args[i].toLowerCase()).endsWith(XMI_EXTENSION)) {
 					// If the parameter after the "-extend" is not
 					// an XMI File
 					// Than an error is printed and the program is
@@ -243,6 +353,140 @@ public class Main {
 					System.exit(-1);
 				}
 				break;
+			case MINUS_PROFILE:
+				log.append(LOG_PROFILE_FOUND);
+				// The parameter after "-profile" names the encoding profile
+				try {
+					settings.setEncodingProfile(EncodingProfile.fromName(requireValue(args, i++, MINUS_PROFILE)));
+				} catch (ConsistencyCheckerGenericException e) {
+					// If the name is not a known profile than an error is
+					// printed and the program is terminated
+					System.err.println(UNKNOW_PROFILE_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_OPERATIONS:
+				log.append(LOG_OPERATIONS_FOUND);
+				// The parameter after "-operations" names the operation encoding
+				try {
+					settings.setOperationEncoding(OperationEncoding.fromName(requireValue(args, i++, MINUS_OPERATIONS)));
+				} catch (ConsistencyCheckerGenericException e) {
+					System.err.println(UNKNOW_OPERATIONS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_ENUMS:
+				log.append(LOG_ENUMS_FOUND);
+				// The parameter after "-enums" names the enumeration encoding
+				try {
+					settings.setEnumerationEncoding(EnumerationEncoding.fromName(requireValue(args, i++, MINUS_ENUMS)));
+				} catch (ConsistencyCheckerGenericException e) {
+					System.err.println(UNKNOW_ENUMS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_OBJECTS:
+				log.append(LOG_OBJECTS_FOUND);
+				// The parameter after "-objects" names the object encoding
+				try {
+					settings.setObjectEncoding(ObjectEncoding.fromName(requireValue(args, i++, MINUS_OBJECTS)));
+				} catch (ConsistencyCheckerGenericException e) {
+					System.err.println(UNKNOW_OBJECTS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_LINKS:
+				log.append(LOG_LINKS_FOUND);
+				// The parameter after "-links" names the link encoding
+				try {
+					settings.setLinkEncoding(LinkEncoding.fromName(requireValue(args, i++, MINUS_LINKS)));
+				} catch (ConsistencyCheckerGenericException e) {
+					System.err.println(UNKNOW_LINKS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_NORMALIZE:
+				log.append(LOG_NORMALIZE_FOUND);
+				settings.setNormalize(true);
+				break;
+			case MINUS_THREADS:
+				log.append(LOG_THREADS_FOUND);
+				// The parameter after "-threads" is the size of the translation pool
+				try {
+					int threads = Integer.parseInt(requireValue(args, i++, MINUS_THREADS));
+					if (threads < 1) {
+						throw new NumberFormatException();
+					}
+					settings.setThreads(threads);
+				} catch (NumberFormatException e) {
+					System.err.println(UNKNOW_THREADS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_CACHE:
+				log.append(LOG_CACHE_FOUND);
+				// The parameter after "-cache" is the file holding the translated invariants,
+				// which can not be the model given as the final parameter
+				settings.setInvariantCacheFile(requireValue(args, i++, MINUS_CACHE));
+				break;
+			case MINUS_OFFHEAP:
+				log.append(LOG_OFFHEAP_FOUND);
+				settings.setOffHeapObjectStore(true);
+				break;
+			case MINUS_PIPELINE:
+				log.append(LOG_PIPELINE_FOUND);
+				settings.setPipelinedObjectModel(true);
+				break;
+			case MINUS_READER:
+				log.append(LOG_READER_FOUND);
+				// The parameter after "-reader" names the XML reader of the object model
+				try {
+					settings.setXmiReaderMode(XMIReaderMode.fromName(requireValue(args, i++, MINUS_READER)));
+				} catch (IllegalArgumentException e) {
+					System.err.println(UNKNOW_READER_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_XMI_THREADS:
+				log.append(LOG_XMI_THREADS_FOUND);
+				// The parameter after "-xmithreads" is the size of the parsing pool
+				try {
+					int xmiThreads = Integer.parseInt(requireValue(args, i++, MINUS_XMI_THREADS));
+					if (xmiThreads < 1) {
+						throw new NumberFormatException();
+					}
+					settings.setXmiThreads(xmiThreads);
+				} catch (NumberFormatException e) {
+					System.err.println(UNKNOW_XMI_THREADS_ERR);
+					System.exit(-1);
+				}
+				break;
+			case MINUS_BATCH:
+				log.append(LOG_BATCH_FOUND);
+				// The parameter after "-batch" is the file listing the object models
+				batch_file = requireValue(args, i++, MINUS_BATCH);
+				object_model_checked = true;
+				break;
+			case MINUS_DELTA:
+				log.append(LOG_DELTA_FOUND);
+				// The parameter after "-delta" is a file holding the changes of a transaction
+				delta_files.add(requireValue(args, i++, MINUS_DELTA));
+				settings.setIncrementalObjectModel(true);
+				break;
+			case MINUS_SHARDS:
+				log.append(LOG_SHARDS_FOUND);
+				// The parameter after "-shards" is the maximum number of shards
+				try {
+					int shards = Integer.parseInt(requireValue(args, i++, MINUS_SHARDS));
+					if (shards < 1) {
+						throw new NumberFormatException();
+					}
+					settings.setObjectModelShards(shards);
+				} catch (NumberFormatException e) {
+					System.err.println(UNKNOW_SHARDS_ERR);
+					System.exit(-1);
+				}
+				break;
 			case MINUS_EXPLAINALL:
 				log.append(LOG_EXPLAINALL_FOUND);
 				contains_explainall = true;
@@ -264,28 +508,46 @@ public class Main {
 		log.append(LOG_RELATIVE_PATH + input_file);
 		file_name = input_file.split(SEPARATOR)[input_file.split(SEPARATOR).length - 1];
 		log.append(LOG_MODEL_NAME + file_name);
+		// The files written next to the model are named without the compression suffix
+		model_name = ModelInput.getModelName(input_file);
+
+		// Checks every object model of the batch against the class model, mapped a single time
+		if (batch_file != null) {
+			log.append(String.format(LOG_INITIALIZE_BATCH_CHECKER, batch_file));
+			log.append(checkBatch(input_file, batch_file, settings));
+			if (contains_log) {
+				saveLog(log);
+			}
+			return;
+		}
+
+		// The deltas change an object model, which must be present
+		if (!delta_files.isEmpty() && contains_extends == -1) {
+			System.err.println(DELTA_WITHOUT_EXTEND_ERR);
+			System.exit(-1);
+		}
 
 		// Initiates the ConsistencyChecker, creates the ontology
 		if (contains_extends == -1) {
 			// If "contains_extends" equals -1, than no extension file is passed
 			// as an argument
 			log.append(LOG_INITIALIZE_SIMPLE_CCHECKER);
-			checker = new ConsistencyChecker(input_file, log);
+			checker = new ConsistencyChecker(input_file, settings, log);
 		} else {
 			// If "contains_extends" is not equal to -1, than the object model
 			// file is passed as an argument
 			log.append(LOG_INITIALIZE_EXTENDED_CCHECKER);
-			checker = new ConsistencyChecker(file_name, args[contains_extends], log);
+			checker = new ConsistencyChecker(file_name, args[contains_extends], settings, log);
 		}
 		// Saves the created ontology as an .owl file if request in command line
 		// arguments
 		if (contains_owl) {
-			log.append(LOG_SAVING_OWL + input_file.replaceAll(ECORE_EXTENSION, OWL_EXTENSION));
+			log.append(LOG_SAVING_OWL + model_name.replaceAll(ECORE_EXTENSION, OWL_EXTENSION));
 			// The standard file name for the ".owl" representation is the same
 			// file name
 			// as the ECore file, only changing the extension.
-			checker.save(input_file.replaceAll(ECORE_EXTENSION, OWL_EXTENSION));
-			System.out.println(String.format(MODEL_SAVED, file_name.replaceAll(ECORE_EXTENSION, OWL_EXTENSION)));
+			checker.save(model_name.replaceAll(ECORE_EXTENSION, OWL_EXTENSION));
+			System.out.println(String.format(MODEL_SAVED, ModelInput.getModelName(file_name).replaceAll(ECORE_EXTENSION, OWL_EXTENSION)));
 			log.append(LOG_SAVED_OWL);
 		}
 
@@ -312,18 +574,228 @@ public class Main {
 			log.append(equiv_result);
 		}
 
+		// Applies each delta in turn, checking the object model after each one
+		for (String delta_file : delta_files) {
+			log.append(checkDelta(delta_file, log));
+		}
+
 		// If requested in command line, the Log file is generated.
 		// This parameter is not exhibited in help / usage messages as is
 		// intended
 		// to be used for debbuging purposes only.
 		if (contains_log) {
-			BufferedWriter logFile = new BufferedWriter(new FileWriter(
-					input_file.replaceAll(ECORE_EXTENSION, Calendar.getInstance().getTimeInMillis() + ".log")));
-			logFile.write(log.toString());
-			logFile.close();
+			saveLog(log);
 		}
 	}
 
+	/**
+	 * Writes the log messages to a file named after the model
+	 * 
+	 * @param log
+	 *            The log messages
+	 * @throws IOException
+	 */
+	private static void saveLog(StringBuilder log) throws IOException {
+		BufferedWriter logFile = new BufferedWriter(new FileWriter(
+				model_name.replaceAll(ECORE_EXTENSION, Calendar.getInstance().getTimeInMillis() + ".log")));
+		logFile.write(log.toString());
+		logFile.close();
+	}
+
+	/**
+	 * Applies the delta of a file to the object model of the checker and
+	 * displays the consistency of the changed model. A delta that can not be
+	 * read or applied leaves the object model as it was.
+	 * 
+	 * @param delta_file
+	 *            The file holding the changes of the delta
+	 * @param checker_log
+	 *            The log receiving the messages of the checker
+	 * @return Returns the logs messages genereted in the process.
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private static String checkDelta(String delta_file, StringBuilder checker_log)
+			throws ConsistencyCheckerGenericException {
+		StringBuilder log = new StringBuilder();
+		log.append(String.format(LOG_CHECKING_DELTA, delta_file));
+		long start = System.currentTimeMillis();
+		try {
+			checker.applyDelta(ObjectModelDelta.load(delta_file), checker_log);
+		} catch (IOException e) {
+			return log.append("\n" + printDeltaRejected(delta_file, e.getMessage())).toString();
+		} catch (ConsistencyCheckerGenericException e) {
+			return log.append("\n" + printDeltaRejected(delta_file, e.getMessage())).toString();
+		}
+		checker.reason();
+		// The result is computed before the time is reported
+		boolean consistent = checker.checkConsistency();
+		String checked = String.format(DELTA_CHECKED, delta_file, System.currentTimeMillis() - start);
+		log.append("\n" + checked);
+		System.out.println(checked);
+		if (consistent) {
+			log.append("\n" + String.format(MODEL_CONSISTENT, file_name));
+			System.out.println(String.format(MODEL_CONSISTENT, file_name));
+		} else {
+			log.append("\n" + String.format(MODEL_INCONSISTENT, file_name));
+			System.out.println(String.format(MODEL_INCONSISTENT, file_name));
+			log.append("\n" + INCONSISTENTCLASSES);
+			System.out.println(INCONSISTENTCLASSES);
+			for (String s : checker.getInconsistentClassesNames()) {
+				log.append("\n" + s);
+				System.out.println(s);
+			}
+		}
+		return log.toString();
+	}
+
+	/**
+	 * Displays that a delta was not applied
+	 * 
+	 * @return Returns the message displayed
+	 */
+	private static String printDeltaRejected(String delta_file, String reason) {
+		String rejected = String.format(DELTA_REJECTED, delta_file, reason);
+		System.out.println(rejected);
+		return rejected;
+	}
+
+	/**
+	 * Checks the object models listed in a file against a class model mapped
+	 * and classified once, on a pool of threads, and prints the result of each
+	 * object model in the order of the file.
+	 * 
+	 * @param input_file
+	 *            The path of the class model
+	 * @param batch_file
+	 *            The file listing the object models, one path per line
+	 * @param settings
+	 *            The options used to map and check every model
+	 * @return Returns the logs messages genereted in the process.
+	 * @throws IOException
+	 *             If the batch file can not be read
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 * @throws ParserException
+	 */
+	private static String checkBatch(String input_file, String batch_file, CheckerSettings settings)
+			throws IOException, ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
+		StringBuilder log = new StringBuilder();
+		List<String> objectModels = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new FileReader(batch_file));
+		try {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				if (!line.trim().isEmpty()) {
+					objectModels.add(line.trim());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		// The class model is mapped and classified once, and its verdict is
+		// reported before the object models
+		final MetamodelChecker metamodel = new MetamodelChecker(input_file, settings, log);
+		if (metamodel.isConsistent()) {
+			log.append("\n" + String.format(MODEL_CONSISTENT, file_name));
+			System.out.println(String.format(MODEL_CONSISTENT, file_name));
+		} else {
+			log.append("\n" + String.format(MODEL_INCONSISTENT, file_name));
+			System.out.println(String.format(MODEL_INCONSISTENT, file_name));
+			System.out.println(INCONSISTENTCLASSES);
+			for (String s : metamodel.getInconsistentClassesNames()) {
+				System.out.println(s);
+			}
+		}
+
+		final AtomicInteger consistent = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(settings.getThreads(), objectModels.size())));
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (final String objectModel : objectModels) {
+				results.add(pool.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						return checkObjectModel(metamodel, objectModel, consistent);
+					}
+				}));
+			}
+			// The results are printed as soon as the previous object models were reported
+			for (Future<String> result : results) {
+				String message = result.get();
+				log.append("\n" + message);
+				System.out.println(message);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConsistencyCheckerGenericException(BATCH_INTERRUPTED_ERR);
+		} catch (ExecutionException e) {
+			throw new ConsistencyCheckerGenericException(String.format(BATCH_FAILED_ERR, e.getCause()));
+		} finally {
+			pool.shutdown();
+		}
+		String summary = String.format(BATCH_SUMMARY, consistent.get(), objectModels.size());
+		log.append("\n" + summary);
+		System.out.println(summary);
+		return log.toString();
+	}
+
+	/**
+	 * Checks one object model of a batch
+	 * 
+	 * @param consistent
+	 *            The number of consistent object models, increased if this one is
+	 * @return Returns the message reporting the result of the object model,
+	 *         or the reason why it could not be checked
+	 */
+	private static String checkObjectModel(MetamodelChecker metamodel, String objectModel, AtomicInteger consistent) {
+		StringBuilder message = new StringBuilder();
+		try {
+			// The log of each object model is discarded, only its result is reported
+			ConsistencyChecker objectModelChecker = metamodel.check(objectModel, new StringBuilder());
+			objectModelChecker.reason();
+			if (objectModelChecker.checkConsistency()) {
+				consistent.incrementAndGet();
+				message.append(String.format(OBJECT_MODEL_CONSISTENT, objectModel));
+			} else {
+				message.append(String.format(OBJECT_MODEL_INCONSISTENT, objectModel));
+				for (String s : objectModelChecker.getInconsistentClassesNames()) {
+					message.append("\n" + s);
+				}
+			}
+		} catch (ConsistencyCheckerGenericException e) {
+			// An object model that can not be read does not stop the batch, and
+			// the result it may have started to report is discarded
+			return String.format(OBJECT_MODEL_NOT_CHECKED, objectModel, e.getMessage());
+		} catch (OWLOntologyCreationException e) {
+			return String.format(OBJECT_MODEL_NOT_CHECKED, objectModel, e.getMessage());
+		} catch (RuntimeException e) {
+			// Neither does an unexpected failure of the mapping or of the reasoner
+			return String.format(OBJECT_MODEL_NOT_CHECKED, objectModel, e);
+		}
+		return message.toString();
+	}
+
+
+	/**
+	 * Gives the value following an option. The final parameter is the model,
+	 * so it is never taken as a value; if the option has no value an error is
+	 * printed and the program is terminated.
+	 * 
+	 * @param args
+	 *            The parameters of the program
+	 * @param i
+	 *            The position of the option
+	 * @param option
+	 *            The name of the option, used in the error message
+	 * @return Returns the parameter after the option
+	 */
+	private static String requireValue(String[] args, int i, String option) {
+		if (i + 1 >= args.length - 1) {
+			System.err.println(String.format(MISSING_VALUE_ERR, option));
+			System.exit(-1);
+		}
+		return args[i + 1];
+	}
 
 	/**
 	 * Displays the equivalence classes calculated in the current usage
@@ -410,6 +882,38 @@ public class Main {
 				System.out.println(s);
 			}
 		}
+		// The verdict is always reported with the encodings that produced it
+		String profile = String.format(ENCODING_PROFILE_USED, checker.getSettings().getEncodingProfile());
+		log.append("\n" + profile);
+		System.out.println(profile);
+		if (checker.getSettings().getEncodingProfile().includesOperations()) {
+			String operations = String.format(OPERATION_ENCODING_USED, checker.getSettings().getOperationEncoding());
+			log.append("\n" + operations);
+			System.out.println(operations);
+		}
+		if (checker.getSettings().getEncodingProfile().includesAttributes()) {
+			String enumerations = String.format(ENUMERATION_ENCODING_USED, checker.getSettings().getEnumerationEncoding());
+			log.append("\n" + enumerations);
+			System.out.println(enumerations);
+		}
+		if (object_model_checked) {
+			String objects = String.format(OBJECT_ENCODING_USED, checker.getSettings().getObjectEncoding());
+			log.append("\n" + objects);
+			System.out.println(objects);
+			String links = String.format(LINK_ENCODING_USED, checker.getSettings().getLinkEncoding());
+			log.append("\n" + links);
+			System.out.println(links);
+			if (checker.getOntologies().size() > 1) {
+				String shards = String.format(SHARDS_USED, checker.getOntologies().size());
+				log.append("\n" + shards);
+				System.out.println(shards);
+			}
+		}
+		if (checker.getSettings().isNormalize()) {
+			String normalization = String.format(NORMALIZATION_REMOVED, checker.getRemovedAxioms());
+			log.append("\n" + normalization);
+			System.out.println(normalization);
+		}
 		return log.toString();
 	}
 
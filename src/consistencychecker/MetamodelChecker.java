@@ -0,0 +1,150 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ocl.ParserException;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+/**
+ * Checks many object models against a class model mapped a single time. The
+ * class model ontology is built and classified once, and each object model is
+ * mapped to an overlay ontology holding a copy of its axioms, with a creator,
+ * ontology manager and data factory of its own. The checkers of different object models share
+ * no mutable state, so they can be created and reasoned on several threads at
+ * once.
+ * <p>
+ * The reasoners can not start from the classification of another reasoner, so
+ * the reasoner of each overlay still processes the class model axioms. The
+ * classification of the class model alone tells apart the classes that are
+ * inconsistent whatever the object model is.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class MetamodelChecker {
+
+	//Log Messages
+	private static final String LOG_CLASSIFYING_CLASS_MODEL = "\nClassifying the class model ontology.";
+	private static final String LOG_CLASSIFIED_CLASS_MODEL = "\nThe class model has %d inconsistent classes.";
+	private static final String LOG_CHECKING_OBJECT_MODEL = "\nChecking the object model %s on the overlay ontology %d.";
+
+	//Error Messages
+	private static final String ONTOLOGY_ERROR = "Unable to create the class model ontology.";
+
+	private final ExtendedOntologyCreator creator;
+	private final CheckerSettings settings;
+	//Axioms of the class model ontology, copied into each overlay
+	private final Set<OWLAxiom> classModelAxioms;
+	//Classes inconsistent in the class model alone
+	private final Set<OWLClass> inconsistentClasses;
+	//Number of the next overlay ontology
+	private final AtomicInteger nextOverlay = new AtomicInteger();
+
+	/**
+	 * Maps and classifies the class model
+	 *
+	 * @param path_ecore_metamodel
+	 * 				Full path to the .ecore model containing the ECore Class Diagram
+	 * @param settings
+	 * 				Options that change how the models are mapped and checked, shared by every object model
+	 * @param log
+	 * 				Variable containing the log messages
+	 * @throws ConsistencyCheckerGenericException
+	 * @throws OWLOntologyCreationException
+	 * @throws ParserException
+	 */
+	public MetamodelChecker(String path_ecore_metamodel, CheckerSettings settings, StringBuilder log)
+			throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
+		this.settings = settings;
+		creator = new ExtendedOntologyCreator();
+		creator.setSettings(settings);
+		OWLOntology ontology = creator.processAndCreateOntology(path_ecore_metamodel, log);
+		if (ontology == null) {
+			throw new ConsistencyCheckerGenericException(ONTOLOGY_ERROR);
+		}
+		if (settings.isNormalize()) {
+			//The class model is optimized once, for every overlay
+			new AxiomOptimizer(ontology.getOWLOntologyManager()).optimize(ontology);
+		}
+		classModelAxioms = creator.prepareOverlays();
+
+		log.append(LOG_CLASSIFYING_CLASS_MODEL);
+		Reasoner reasoner = new Reasoner(ontology);
+		reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		inconsistentClasses = ConsistencyChecker.getUnsatisfiableClasses(ontology, reasoner);
+		reasoner.dispose();
+		log.append(String.format(LOG_CLASSIFIED_CLASS_MODEL, inconsistentClasses.size()));
+	}
+
+	/**
+	 * Maps an object model to an overlay ontology holding a copy of the class model.
+	 * This method may be called on several threads at once.
+	 *
+	 * @param path_ecore_objectModel
+	 * 				Full path to the .xmi model containing the object model
+	 * @param log
+	 * 				Variable containing the log messages of this object model
+	 * @return Returns the checker of the object model, ready to reason
+	 * @throws ConsistencyCheckerGenericException
+	 * 				If the object model can not be read or does not match the class model
+	 * @throws OWLOntologyCreationException
+	 */
+	public ConsistencyChecker check(String path_ecore_objectModel, StringBuilder log)
+			throws ConsistencyCheckerGenericException, OWLOntologyCreationException {
+		int overlay = nextOverlay.getAndIncrement();
+		log.append(String.format(LOG_CHECKING_OBJECT_MODEL, path_ecore_objectModel, overlay));
+		return new ConsistencyChecker(creator.createOverlay(classModelAxioms, overlay), path_ecore_objectModel,
+				settings, log);
+	}
+
+	/**
+	 * @return Returns true if the class model alone is consistent
+	 */
+	public boolean isConsistent() {
+		return inconsistentClasses.isEmpty();
+	}
+
+	/**
+	 * @return Returns the names of the classes inconsistent in the class model alone
+	 */
+	public ArrayList<String> getInconsistentClassesNames() {
+		ArrayList<String> names = new ArrayList<String>();
+		for (OWLClass cls : inconsistentClasses) {
+			names.add(cls.toString());
+		}
+		return names;
+	}
+
+	/**
+	 * @return Returns the options used to map and check the models
+	 */
+	public CheckerSettings getSettings() {
+		return settings;
+	}
+}
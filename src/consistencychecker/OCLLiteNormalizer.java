@@ -0,0 +1,403 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EOperation;
+import org.eclipse.emf.ecore.EParameter;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.ocl.expressions.CollectionItem;
+import org.eclipse.ocl.expressions.CollectionLiteralExp;
+import org.eclipse.ocl.expressions.CollectionLiteralPart;
+import org.eclipse.ocl.expressions.IntegerLiteralExp;
+import org.eclipse.ocl.expressions.IteratorExp;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.eclipse.ocl.expressions.OperationCallExp;
+import org.eclipse.ocl.expressions.PropertyCallExp;
+import org.eclipse.ocl.expressions.TypeExp;
+import org.eclipse.ocl.expressions.VariableExp;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * Normalizes an OCL-Lite invariant in a single top-down traversal of its
+ * parsed expression, storing the normalized form straight into a StackExp.
+ * The parsed expression is only read, never changed. The rewrite rules of
+ * Table 1 of the OCL-Lite paper are applied while the expression is
+ * traversed:
+ * 
+ * a) X->exists(b) is stored as X->select(b)->notEmpty()
+ * b) X->forAll(b) is stored as X->select(not b)->isEmpty()
+ * c) X->select(b1)->select(b2) is stored as X->select(b1 and b2)
+ * 
+ * Besides, X->reject(b) is stored as X->select(not b), the comparisons of
+ * X->size() with 0 or 1 and the negations of X->isEmpty() and X->notEmpty()
+ * are stored as X->isEmpty() or X->notEmpty(), and double negations are
+ * removed.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ * 
+ * @see <a href="http://www.inf.unibz.it/~calvanese/papers-html/DL-2012-ocl.html" target=
+ *  _blank>OCL-Lite: A Decidable (Yet Expressive) Fragment of OCL</a>
+ */
+public class OCLLiteNormalizer {
+
+	//Error Messages
+	private static final String UNSUPPORTED_EXPRESSION_ERROR = "The OCL expression \"%s\" is not in the OCL-Lite fragment.";
+
+	//State shared by the stacks of every invariant normalized
+	private StackContext context_;
+
+	/**
+	 * @param owlDataFactory
+	 * 		The data factory used to create the concepts
+	 * @param ontoIRI
+	 * 		The ontology IRI used when generating OWL Concepts
+	 * @param pkg
+	 * 		The name of the package where the OCL Expression are declared
+	 */
+	public OCLLiteNormalizer(OWLDataFactory owlDataFactory, IRI ontoIRI, String pkg) {
+		context_ = new StackContext(owlDataFactory, ontoIRI, pkg);
+	}
+
+	/**
+	 * Normalizes an invariant
+	 * 
+	 * @param invariant
+	 * 		The parsed invariant
+	 * @return Returns the stack holding the normalized invariant
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If the invariant is not in the OCL-Lite fragment
+	 */
+	public StackExp normalize(OCLExpression<EClassifier> invariant) throws ConsistencyCheckerGenericException {
+		StackExp mainSt = new StackExp(null, context_);
+		pushCondition(invariant, mainSt);
+		return mainSt;
+	}
+
+	/**
+	 * @return Returns the builder shared by the stacks to create their concepts
+	 */
+	public ClassExpressionBuilder getExpressionBuilder() {
+		return context_.getExpressionBuilder();
+	}
+
+	/**
+	 * Stores a boolean expression at the top of the stack
+	 * 
+	 * @param expression
+	 * 		The boolean expression
+	 * @param st
+	 * 		The stack receiving the expression
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private void pushCondition(OCLExpression<EClassifier> expression, StackExp st)
+			throws ConsistencyCheckerGenericException {
+		if (expression instanceof OperationCallExp) {
+			OperationCallExp<EClassifier, EOperation> callExp = asOperationCall(expression);
+			OperationKind kind = OperationKind.fromName(callExp.getReferredOperation().getName());
+			switch (kind) {
+			case AND:
+			case OR:
+			case IMPLIES:
+				//Long conjunctions are parsed as left-deep trees, so the chain of binary
+				//operators is walked without recursion, from the innermost first operand
+				ArrayDeque<OperationCallExp<EClassifier, EOperation>> chain =
+						new ArrayDeque<OperationCallExp<EClassifier, EOperation>>();
+				OCLExpression<EClassifier> first = callExp;
+				while (isBinaryOperation(first)) {
+					chain.push(asOperationCall(first));
+					first = asOperationCall(first).getSource();
+				}
+				pushCondition(first, st);
+				//The first operand remains in the stack and the second one is stored in
+				//the inner stack of the operator
+				while (!chain.isEmpty()) {
+					OperationCallExp<EClassifier, EOperation> binaryExp = chain.pop();
+					StackElement operator = st.push(
+							OperationKind.fromName(binaryExp.getReferredOperation().getName()), null, null);
+					pushCondition(binaryExp.getArgument().get(0), operator.getInnerStack());
+				}
+				return;
+			case NOT:
+				OCLExpression<EClassifier> operand = callExp.getSource();
+				//The negation of an emptiness verification is the opposite verification
+				if (pushEmptiness(operand, true, st)) {
+					return;
+				}
+				//Removes the double negation
+				if (operand instanceof OperationCallExp && OperationKind.fromName(
+						asOperationCall(operand).getReferredOperation().getName()) == OperationKind.NOT) {
+					pushCondition(asOperationCall(operand).getSource(), st);
+					return;
+				}
+				pushCondition(operand, st);
+				st.push(OperationKind.NOT, null, null);
+				return;
+			case OCL_IS_TYPE_OF:
+				pushNavigation(callExp.getSource(), st);
+				st.push(OperationKind.OCL_IS_TYPE_OF, null, getTypeName(callExp));
+				return;
+			default:
+				if (pushEmptiness(expression, false, st)) {
+					return;
+				}
+				break;
+			}
+		} else if (expression instanceof IteratorExp) {
+			IteratorExp<EClassifier, EParameter> iteratorExp = asIterator(expression);
+			switch (OperationKind.fromName(iteratorExp.getName())) {
+			case EXISTS:
+				//Rule a) X->exists(b) is X->select(b)->notEmpty()
+				pushSelect(iteratorExp, false, st);
+				st.push(OperationKind.NOT_EMPTY, null, null);
+				return;
+			case FOR_ALL:
+				//Rule b) X->forAll(b) is X->select(not b)->isEmpty()
+				pushSelect(iteratorExp, true, st);
+				st.push(OperationKind.IS_EMPTY, null, null);
+				return;
+			default:
+				break;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNSUPPORTED_EXPRESSION_ERROR, expression));
+	}
+
+	/**
+	 * Views an expression known to be an OperationCallExp with its Ecore type
+	 * arguments, which the parser always uses
+	 */
+	@SuppressWarnings("unchecked")
+	private static OperationCallExp<EClassifier, EOperation> asOperationCall(OCLExpression<EClassifier> expression) {
+		return (OperationCallExp<EClassifier, EOperation>) expression;
+	}
+
+	/**
+	 * Views an expression known to be an IteratorExp with its Ecore type arguments
+	 */
+	@SuppressWarnings("unchecked")
+	private static IteratorExp<EClassifier, EParameter> asIterator(OCLExpression<EClassifier> expression) {
+		return (IteratorExp<EClassifier, EParameter>) expression;
+	}
+
+	/**
+	 * Views an expression known to be a PropertyCallExp with its Ecore type
+	 * arguments
+	 */
+	@SuppressWarnings("unchecked")
+	private static PropertyCallExp<EClassifier, EStructuralFeature> asPropertyCall(
+			OCLExpression<EClassifier> expression) {
+		return (PropertyCallExp<EClassifier, EStructuralFeature>) expression;
+	}
+
+	/**
+	 * Verifies if the expression is an "and", "or" or "implies" operation
+	 */
+	private static boolean isBinaryOperation(OCLExpression<EClassifier> expression) {
+		if (!(expression instanceof OperationCallExp)) {
+			return false;
+		}
+		switch (OperationKind.fromName(asOperationCall(expression).getReferredOperation().getName())) {
+		case AND:
+		case OR:
+		case IMPLIES:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Stores an emptiness verification at the top of the stack, if the
+	 * expression is one
+	 * 
+	 * @param expression
+	 * 		The boolean expression
+	 * @param negated
+	 * 		True if the expression is the operand of a negation
+	 * @param st
+	 * 		The stack receiving the expression
+	 * @return Returns false if the expression is not an emptiness verification
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private boolean pushEmptiness(OCLExpression<EClassifier> expression, boolean negated, StackExp st)
+			throws ConsistencyCheckerGenericException {
+		if (!(expression instanceof OperationCallExp)) {
+			return false;
+		}
+		OperationCallExp<EClassifier, EOperation> callExp = asOperationCall(expression);
+		OperationKind kind = OperationKind.fromName(callExp.getReferredOperation().getName());
+		OCLExpression<EClassifier> collection;
+		boolean isEmpty;
+		switch (kind) {
+		case NOT_EMPTY:
+		case IS_EMPTY:
+			collection = callExp.getSource();
+			isEmpty = kind == OperationKind.IS_EMPTY;
+			break;
+		case GREATER_THAN:
+		case GREATER_EQUAL:
+		case LESS_THAN:
+		case LESS_EQUAL:
+		case EQUAL:
+		case NOT_EQUAL:
+			//Only X->size() compared to the bounds of an empty collection is supported
+			if (!(callExp.getSource() instanceof OperationCallExp)
+					|| !(callExp.getArgument().get(0) instanceof IntegerLiteralExp)) {
+				return false;
+			}
+			OperationCallExp<EClassifier, EOperation> sizeExp = asOperationCall(callExp.getSource());
+			if (OperationKind.fromName(sizeExp.getReferredOperation().getName()) != OperationKind.SIZE) {
+				return false;
+			}
+			Integer bound = ((IntegerLiteralExp<EClassifier>) callExp.getArgument().get(0)).getIntegerSymbol();
+			collection = sizeExp.getSource();
+			if ((kind == OperationKind.GREATER_THAN && bound == 0) || (kind == OperationKind.GREATER_EQUAL && bound == 1)
+					|| (kind == OperationKind.NOT_EQUAL && bound == 0)) {
+				isEmpty = false;
+			} else if ((kind == OperationKind.EQUAL && bound == 0) || (kind == OperationKind.LESS_THAN && bound == 1)
+					|| (kind == OperationKind.LESS_EQUAL && bound == 0)) {
+				isEmpty = true;
+			} else {
+				return false;
+			}
+			break;
+		default:
+			return false;
+		}
+		pushNavigation(collection, st);
+		st.push(isEmpty != negated ? OperationKind.IS_EMPTY : OperationKind.NOT_EMPTY, null, null);
+		return true;
+	}
+
+	/**
+	 * Stores a navigation at the top of the stack, from its first to its last
+	 * property. The context and the iterator variables are not stored.
+	 * 
+	 * @param expression
+	 * 		The expression leading to an object or a collection
+	 * @param st
+	 * 		The stack receiving the expression
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private void pushNavigation(OCLExpression<EClassifier> expression, StackExp st)
+			throws ConsistencyCheckerGenericException {
+		if (expression instanceof VariableExp) {
+			return;
+		}
+		if (expression instanceof PropertyCallExp) {
+			PropertyCallExp<EClassifier, EStructuralFeature> propertyExp = asPropertyCall(expression);
+			EStructuralFeature feature = propertyExp.getReferredProperty();
+			//Only the associations are mapped to roles
+			if (feature instanceof EReference && ((EReference) feature).getEOpposite() != null) {
+				pushNavigation(propertyExp.getSource(), st);
+				st.push(OperationKind.NAVIGATION, (EReference) feature, null);
+				return;
+			}
+		} else if (expression instanceof IteratorExp) {
+			IteratorExp<EClassifier, EParameter> iteratorExp = asIterator(expression);
+			switch (OperationKind.fromName(iteratorExp.getName())) {
+			case SELECT:
+				pushSelect(iteratorExp, false, st);
+				return;
+			case REJECT:
+				pushSelect(iteratorExp, true, st);
+				return;
+			case COLLECT:
+				//The navigation through a collection is an implicit "collect"
+				pushNavigation(iteratorExp.getSource(), st);
+				pushNavigation(iteratorExp.getBody(), st);
+				return;
+			default:
+				break;
+			}
+		} else if (expression instanceof CollectionLiteralExp) {
+			//A single valued navigation used as a collection is wrapped in a literal set
+			List<CollectionLiteralPart<EClassifier>> parts = ((CollectionLiteralExp<EClassifier>) expression).getPart();
+			if (parts.size() == 1 && parts.get(0) instanceof CollectionItem) {
+				pushNavigation(((CollectionItem<EClassifier>) parts.get(0)).getItem(), st);
+				return;
+			}
+		} else if (expression instanceof OperationCallExp) {
+			OperationCallExp<EClassifier, EOperation> callExp = asOperationCall(expression);
+			if (OperationKind.fromName(callExp.getReferredOperation().getName()) == OperationKind.OCL_AS_TYPE) {
+				pushNavigation(callExp.getSource(), st);
+				st.push(OperationKind.OCL_AS_TYPE, null, getTypeName(callExp));
+				return;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNSUPPORTED_EXPRESSION_ERROR, expression));
+	}
+
+	/**
+	 * Stores the source of an iterator followed by a "select" with the
+	 * iterator body as condition. When the source is itself a "select", the
+	 * body is added to its condition through an "and" (rule c).
+	 * 
+	 * @param iteratorExp
+	 * 		The iterator
+	 * @param negated
+	 * 		True if the negation of the body is the condition
+	 * @param st
+	 * 		The stack receiving the expression
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private void pushSelect(IteratorExp<EClassifier, EParameter> iteratorExp, boolean negated, StackExp st)
+			throws ConsistencyCheckerGenericException {
+		StackElement previousTop = st.peek();
+		pushNavigation(iteratorExp.getSource(), st);
+		StackElement sourceTop = st.peek();
+		
+		StackExp conditionSt;
+		if (sourceTop != previousTop && sourceTop.getKind() == OperationKind.SELECT) {
+			//Rule c) X->select(b1)->select(b2) is X->select(b1 and b2)
+			conditionSt = sourceTop.push(OperationKind.AND).getInnerStack();
+		} else {
+			conditionSt = st.push(OperationKind.SELECT, null, null).getInnerStack();
+		}
+		pushCondition(iteratorExp.getBody(), conditionSt);
+		if (negated) {
+			conditionSt.push(OperationKind.NOT, null, null);
+		}
+	}
+
+	/**
+	 * Extracts the name of the type used as argument of a type operation
+	 * 
+	 * @param callExp
+	 * 		The oclIsTypeOf or oclAsType operation
+	 * @return Returns the name of the type
+	 * @throws ConsistencyCheckerGenericException
+	 */
+	private String getTypeName(OperationCallExp<EClassifier, EOperation> callExp)
+			throws ConsistencyCheckerGenericException {
+		OCLExpression<EClassifier> argument = callExp.getArgument().get(0);
+		if (!(argument instanceof TypeExp)) {
+			throw new ConsistencyCheckerGenericException(String.format(UNSUPPORTED_EXPRESSION_ERROR, callExp));
+		}
+		return ((TypeExp<EClassifier>) argument).getReferredType().getName();
+	}
+}
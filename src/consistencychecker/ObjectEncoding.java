@@ -0,0 +1,82 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+/**
+ * Ways of mapping the objects of an object model.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum ObjectEncoding {
+
+	/**
+	 * Each object is a class, subclass of its types and disjoint from the
+	 * other instances of each type, and each link is a qualified cardinality:
+	 * o \sqsubseteq C, C \sqsubseteq o_1 \sqcup ... \sqcup o_n, o \sqsubseteq =1 r.o'
+	 */
+	CLASSES("classes"),
+
+	/**
+	 * Each object is a named individual, asserted to be an instance of its
+	 * types and different from every other object, and each link is a role
+	 * assertion:
+	 * C(o), C \sqsubseteq \{o_1, ..., o_n\}, r(o, o')
+	 */
+	INDIVIDUALS("individuals");
+
+	private static final String UNKNOWN_ENCODING_ERROR = "The object encoding \"%s\" is unknown.";
+
+	private final String encodingName;
+
+	private ObjectEncoding(String encodingName) {
+		this.encodingName = encodingName;
+	}
+
+	/**
+	 * @return Returns the name used to select this encoding in the command line
+	 */
+	public String getEncodingName() {
+		return encodingName;
+	}
+
+	@Override
+	public String toString() {
+		return encodingName;
+	}
+
+	/**
+	 * Finds the encoding with the provided name
+	 *
+	 * @param name
+	 * 		The encoding name, as used in the command line
+	 * @return Returns the encoding with the provided name
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If there is no encoding with such name
+	 */
+	public static ObjectEncoding fromName(String name) throws ConsistencyCheckerGenericException {
+		for (ObjectEncoding encoding : values()) {
+			if (encoding.encodingName.equalsIgnoreCase(name)) {
+				return encoding;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_ENCODING_ERROR, name));
+	}
+}
@@ -0,0 +1,202 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes applied to an object model in a single transaction: objects added
+ * or removed, and links added or removed. Objects are named as in the
+ * ontology, Object followed by their position in the XMI file, and a new
+ * object may take any name not in use. A link is named by its source object,
+ * the name of the reference and its target object; the links of the two ends
+ * of an association are changed separately, as they are written in the XMI
+ * file. A removed object loses its links as well.
+ * <p>
+ * A delta file holds one change per line, blank lines and lines starting
+ * with # ignored:
+ *
+ * <pre>
+ * +object name ClassName
+ * -object name
+ * +link source reference target
+ * -link source reference target
+ * </pre>
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectModelDelta {
+
+	private static final String ADD_OBJECT = "+object";
+	private static final String REMOVE_OBJECT = "-object";
+	private static final String ADD_LINK = "+link";
+	private static final String REMOVE_LINK = "-link";
+	private static final String COMMENT = "#";
+	private static final String FIELD_SEPARATOR = "\\s+";
+	private static final String MALFORMED_LINE_ERROR = "The line %d of the delta %s is not a change: %s";
+
+	//Objects added, by name, with the name of their class, and objects removed
+	private final Map<String, String> addedObjects = new LinkedHashMap<String, String>();
+	private final List<String> removedObjects = new ArrayList<String>();
+	//Links added and removed
+	private final List<Link> addedLinks = new ArrayList<Link>();
+	private final List<Link> removedLinks = new ArrayList<Link>();
+
+	/**
+	 * Reads a delta file
+	 *
+	 * @param path
+	 * 		The path of the delta file
+	 * @return Returns the changes listed in the file
+	 * @throws IOException
+	 * 		If the file can not be read
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If a line is not a change
+	 */
+	public static ObjectModelDelta load(String path) throws IOException, ConsistencyCheckerGenericException {
+		ObjectModelDelta delta = new ObjectModelDelta();
+		BufferedReader reader = new BufferedReader(new FileReader(path));
+		try {
+			int lineNumber = 0;
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith(COMMENT)) {
+					continue;
+				}
+				String[] fields = line.split(FIELD_SEPARATOR);
+				if (fields[0].equals(ADD_OBJECT) && fields.length == 3) {
+					delta.addObject(fields[1], fields[2]);
+				} else if (fields[0].equals(REMOVE_OBJECT) && fields.length == 2) {
+					delta.removeObject(fields[1]);
+				} else if (fields[0].equals(ADD_LINK) && fields.length == 4) {
+					delta.addLink(fields[1], fields[2], fields[3]);
+				} else if (fields[0].equals(REMOVE_LINK) && fields.length == 4) {
+					delta.removeLink(fields[1], fields[2], fields[3]);
+				} else {
+					throw new ConsistencyCheckerGenericException(
+							String.format(MALFORMED_LINE_ERROR, lineNumber, path, line));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return delta;
+	}
+
+	/**
+	 * Adds an object to the object model
+	 *
+	 * @param name
+	 * 		A name not used by other objects
+	 * @param className
+	 * 		The name of the class of the object
+	 */
+	public void addObject(String name, String className) {
+		addedObjects.put(name, className);
+	}
+
+	/**
+	 * Removes an object and its links from the object model
+	 */
+	public void removeObject(String name) {
+		removedObjects.add(name);
+	}
+
+	/**
+	 * Links the source object to the target through the reference
+	 */
+	public void addLink(String source, String reference, String target) {
+		addedLinks.add(new Link(source, reference, target));
+	}
+
+	/**
+	 * Unlinks the source object from the target through the reference
+	 */
+	public void removeLink(String source, String reference, String target) {
+		removedLinks.add(new Link(source, reference, target));
+	}
+
+	/**
+	 * @return Returns the names of the objects added, with the names of their classes
+	 */
+	public Map<String, String> getAddedObjects() {
+		return Collections.unmodifiableMap(addedObjects);
+	}
+
+	public List<String> getRemovedObjects() {
+		return Collections.unmodifiableList(removedObjects);
+	}
+
+	public List<Link> getAddedLinks() {
+		return Collections.unmodifiableList(addedLinks);
+	}
+
+	public List<Link> getRemovedLinks() {
+		return Collections.unmodifiableList(removedLinks);
+	}
+
+	/**
+	 * @return Returns the number of changes of the delta
+	 */
+	public int size() {
+		return addedObjects.size() + removedObjects.size() + addedLinks.size() + removedLinks.size();
+	}
+
+	/**
+	 * A link added or removed by a delta
+	 */
+	public static class Link {
+		private final String source;
+		private final String reference;
+		private final String target;
+
+		private Link(String source, String reference, String target) {
+			this.source = source;
+			this.reference = reference;
+			this.target = target;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		public String getReference() {
+			return reference;
+		}
+
+		public String getTarget() {
+			return target;
+		}
+
+		@Override
+		public String toString() {
+			return source + " " + reference + " " + target;
+		}
+	}
+}
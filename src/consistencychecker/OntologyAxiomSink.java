@@ -0,0 +1,84 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * AxiomSink that writes the received axioms straight into an OWLOntology. The
+ * axioms are applied in small batches, so only a bounded number of pending
+ * changes is kept alive at any moment.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class OntologyAxiomSink implements AxiomSink {
+
+	// Number of pending changes that triggers an application on the ontology
+	protected static final int BATCH_SIZE = 1024;
+
+	private OWLOntologyManager ontologyManager_;
+	private OWLOntology ontology_;
+	private List<OWLOntologyChange> pendingChanges;
+
+	/**
+	 * @param ontologyManager
+	 * 		The manager responsible for the target ontology
+	 * @param ontology
+	 * 		The ontology that will receive the axioms
+	 */
+	public OntologyAxiomSink(OWLOntologyManager ontologyManager, OWLOntology ontology) {
+		ontologyManager_ = ontologyManager;
+		ontology_ = ontology;
+		pendingChanges = new ArrayList<OWLOntologyChange>(BATCH_SIZE);
+	}
+
+	@Override
+	public void add(OWLAxiom axiom) {
+		pendingChanges.add(new AddAxiom(ontology_, axiom));
+		//Applies the changes once the batch is full, releasing the batch
+		if (pendingChanges.size() == BATCH_SIZE) {
+			flush();
+		}
+	}
+
+	@Override
+	public void flush() {
+		if (!pendingChanges.isEmpty()) {
+			ontologyManager_.applyChanges(pendingChanges);
+			//The applied list is handed over to the manager listeners, so a new one is started
+			pendingChanges = new ArrayList<OWLOntologyChange>(BATCH_SIZE);
+		}
+	}
+
+	/**
+	 * @return Returns the ontology receiving the axioms
+	 */
+	public OWLOntology getOntology() {
+		return ontology_;
+	}
+}
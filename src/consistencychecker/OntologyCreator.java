@@ -19,11 +19,12 @@
 package consistencychecker;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.emf.common.CommonPlugin;
@@ -35,25 +36,16 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EEnum;
 import org.eclipse.emf.ecore.EEnumLiteral;
-import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EOperation;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.EParameter;
 import org.eclipse.emf.ecore.EReference;
-import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.impl.EPackageImpl;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
-import org.eclipse.ocl.OCL;
 import org.eclipse.ocl.ParserException;
-import org.eclipse.ocl.ecore.CallOperationAction;
-import org.eclipse.ocl.ecore.Constraint;
-import org.eclipse.ocl.ecore.EcoreEnvironmentFactory;
-import org.eclipse.ocl.ecore.SendSignalAction;
-import org.eclipse.ocl.expressions.OCLExpression;
-import org.eclipse.ocl.helper.OCLHelper;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -66,14 +58,13 @@ import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLObjectOneOf;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
-import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLOntologyStorageException;
 
 import util.Constants;
+import util.ModelInput;
 
 /**
  * @author Cassio Santos, Christiano Braga
@@ -85,13 +76,18 @@ public class OntologyCreator {
 	
 	// LOG messages
 	private static final String LOG_GATHERED_AXIOMS = "\nall axioms gathered in one ontology.";
+	private static final String LOG_PARSED_INVARIANTS = "\nOCL expressions parsed: %d, reused from cache: %d.";
+	private static final String LOG_CACHED_INVARIANTS = "\nInvariants taken from the cache: %d, translated: %d.";
+	private static final String LOG_CACHE_NOT_LOADED = "\nThe file %s is not a readable invariant cache, it will not be used nor overwritten.";
+	private static final String LOG_CACHE_NOT_SAVED = "\nThe invariant cache %s could not be written.";
+	private static final String LOG_BUILT_EXPRESSIONS = "\nInvariant concepts simplified: %d, shared: %d.";
 	private static final String LOG_GATHERING_AXIOMS = "\nGathering all axioms in one ontology.";
 	private static final String LOG_CREATING_AXIOMS_EREFERENCE = "\nStarting axiom generation for the EReference with ends \"%s\" and \"%s\".";
 	private static final String LOG_CREATED_AXIOMS_EREFERENCE = "\nEnded axiom generation for the EReference with ends \"%s\" and \"%s\".";
 	private static final String LOG_CREATING_AXIOMS_INHERITANCE = "\nStarting axiom generation for the inheritance in the class %s.";
 	private static final String LOG_CREATED_AXIOMS_INHERITANCE = "\nEnded axiom generation for the inheritance in the class %s.";
-	private static final String LOG_CREATING_AXIOMS_INVARIANT = "\nStarting axiom generation for the axiom number %d in the class %s.";
-	private static final String LOG_CREATED_AXIOMS_INVARIANT = "\nEnded axiom generation for the axiom number %d in the class %s.";
+	private static final String LOG_QUEUED_INVARIANT = "\nQueued the invariant number %d in the class %s for translation.";
+	private static final String LOG_TRANSLATING_INVARIANTS = "\nTranslating %d invariants using up to %d threads.";
 	private static final String LOG_CHECKING_ECLASS_INVARIANTS = "\nThe class \"%s\" was identified with %d invariants. Starting processing.";
 	private static final String LOG_CHECKING_ECLASS = "\nChecking EClass %s.";
 	private static final String LOG_CHECKED_ECLASS = "\nChecked EClass %s.";
@@ -122,6 +118,11 @@ public class OntologyCreator {
 	private static final String LOG_CREATED_ONTOLOGY = "\nDone creating the ontology.";
 	private static final String LOG_PARSING_MODEL = "\nStarting to parse input model.";
 	private static final String LOG_PARSED_MODEL = "\nDone parsing input model.";
+	private static final String LOG_ENCODING_PROFILE = "\nUsing the encoding profile \"%s\".";
+	private static final String LOG_SKIPPED_BY_PROFILE = "\nThe %s of the EClass %s are not mapped by the encoding profile \"%s\".";
+	private static final String ATTRIBUTES_FAMILY = "attributes";
+	private static final String METHODS_FAMILY = "methods";
+	private static final String INVARIANTS_FAMILY = "invariants";
 	
 	//Unrecoverable ill formation messages
 	protected static final String ILL_FORMED_TYPELESS_ATTR_EXCEPTION = "The model has at least one attribute with no type, no recovery was possible.";
@@ -142,11 +143,14 @@ public class OntologyCreator {
 	protected static final String CLASS_POSFIX = "class";
 	protected static final String ENUMERATION_POSFIX = "enumeration";
 	protected static final String INDIVIDUAL_POSFIX = "individual";
+	protected static final String LITERAL_POSFIX = "literal";
 	protected static final String METHOD_POSFIX = "method";
 	protected static final String ROLE_POSFIX = "role";
 	
 	//Utils
 	private static final String ERR_SAVE_NULL_ONTOLOGY = "The ontology can't be null at the save moment.";
+	private static final String ERR_LOAD_COMPRESSED_MODEL = "The compressed model %s could not be read. %s";
+	private static final int MODEL_BUFFER_SIZE = 1 << 16;
 	protected static final String PIVOT_URL = "http://www.eclipse.org/emf/2002/Ecore/OCL/Pivot";
 	protected static final String ontologyIRI = "lse.ic.uff.br/ontology";
 	protected static final String RETURN = "ret";
@@ -168,13 +172,26 @@ public class OntologyCreator {
 	protected ArrayList<EClass> classes;
 	protected ArrayList<EEnum> enumerations;
 	
+	//Concepts of the enumerations already mapped, so each one is translated once
+	protected HashMap<EEnum, OWLClass> translatedEnumerations;
+	
 	//Attributes used to represent the the ontology in OWL form
 	protected OWLDataFactory owlDataFactory_;
 	protected IRI ontologyIRI_;
-	protected Set<OWLAxiom> axiomList_;
+	protected OWLOntology ontology_;
+	protected AxiomSink axiomSink_;
+	
+	//Resource holding the loaded .ecore model, released once the mapping is done
+	private Resource resource_;
 	
 	//Element used to control the creation, persistence and changes in the OWL Ontology
-	private OWLOntologyManager ontologyManager_;
+	protected OWLOntologyManager ontologyManager_;
+	
+	//Options that change how the model is mapped
+	protected CheckerSettings settings_;
+	
+	//Translator of the OCL invariants, shared by all the invariants of the model
+	protected InvariantTranslator invariantTranslator_;
 	
 	//Attribute used to implement the singleton design pattern
 	protected static OntologyCreator instance;
@@ -185,11 +202,29 @@ public class OntologyCreator {
 	 * @throws OWLOntologyCreationException
 	 */
 	public OntologyCreator() throws OWLOntologyCreationException {
-		ontologyManager_ = OWLManager.createOWLOntologyManager();
+		this(OWLManager.createOWLOntologyManager());
+	}
+
+	/**
+	 * OntologyCreator Constructor creating the ontologies with the provided manager
+	 * 
+	 * @param ontologyManager
+	 * 		The manager of the ontologies, whose data factory builds the axioms
+	 */
+	protected OntologyCreator(OWLOntologyManager ontologyManager) {
+		ontologyManager_ = ontologyManager;
 		owlDataFactory_ = ontologyManager_.getOWLDataFactory();
-		axiomList_ = new HashSet<OWLAxiom>();
 		ontologyIRI_ = IRI.create(ontologyIRI);
 		thing = owlDataFactory_.getOWLThing();
+		settings_ = new CheckerSettings();
+	}
+
+	/**
+	 * @param settings
+	 * 		The options that change how the model is mapped
+	 */
+	public void setSettings(CheckerSettings settings) {
+		settings_ = settings;
 	}
 
 	/**
@@ -243,9 +278,10 @@ public class OntologyCreator {
 	 * 
 	 * @param input_model
 	 *            String with the path to the Ecore model to be checked
+	 * @throws ConsistencyCheckerGenericException
 	 * @throws ParserException
 	 */
-	private void parse(String input_model, StringBuilder log) throws ParserException {
+	private void parse(String input_model, StringBuilder log) throws ConsistencyCheckerGenericException, ParserException {
 		//Loads the .ecore file to a memory representation 
 		//and stores the root package in the pkg variable
 		log.append(LOG_LOADED_EPACKAGE);
@@ -342,7 +378,8 @@ public class OntologyCreator {
 		//Saves the ontology in the path informed by the parameter "name"
 		File file = new File(name);
 		java.net.URI u = file.toURI();
-		ontologyManager_.saveOntology(ontology, IRI.create(u.toString()));
+		//The ontology is saved by its own manager, which differs from this one for the shards of an object model
+		ontology.getOWLOntologyManager().saveOntology(ontology, IRI.create(u.toString()));
 	}
 
 	/**
@@ -350,8 +387,10 @@ public class OntologyCreator {
 	 * @param model
 	 *            String with the path to the Ecore model
 	 * @return Returns the root EPackage of the Ecore model
+	 * @throws ConsistencyCheckerGenericException
+	 *             If a compressed model can not be read
 	 */
-	private EPackageImpl load(String model) {
+	private EPackageImpl load(String model) throws ConsistencyCheckerGenericException {
 		//initializes the internal emf settings required to manipulate ecore memory representations
 		org.eclipse.emf.ecore.impl.EcorePackageImpl.init();
 		ResourceSet resSet = new ResourceSetImpl();
@@ -361,11 +400,48 @@ public class OntologyCreator {
 		//loads the file to a Resource variable with an empty URI
 		URI uri = URI.createURI("");
 		URI resolved = CommonPlugin.resolve(uri);
-		URI deres = URI.createFileURI(model).deresolve(resolved);
-		Resource resource = resSet.getResource(deres, true);
+		if (ModelInput.isCompressed(model)) {
+			//A compressed model is decompressed by another thread while EMF reads it,
+			//under the name of the model without the compression suffix
+			URI deres = URI.createFileURI(ModelInput.getModelName(model)).deresolve(resolved);
+			resource_ = resSet.createResource(deres);
+			try {
+				InputStream input = ModelInput.open(model, "." + ECORE_EXTENSION, MODEL_BUFFER_SIZE);
+				try {
+					resource_.load(input, null);
+				} finally {
+					input.close();
+				}
+			} catch (IOException e) {
+				//A truncated file ends with an exception without message
+				String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+				throw new ConsistencyCheckerGenericException(String.format(ERR_LOAD_COMPRESSED_MODEL, model, reason));
+			}
+		} else {
+			URI deres = URI.createFileURI(model).deresolve(resolved);
+			resource_ = resSet.getResource(deres, true);
+		}
 		
 		//Extracts the root package from the resources content
-		return (EPackageImpl) resource.getContents().get(0);
+		return (EPackageImpl) resource_.getContents().get(0);
+	}
+
+	/**
+	 * Releases the memory representation of the .ecore model once the axioms
+	 * representing it were written to the ontology
+	 */
+	protected void releaseModel() {
+		classes = null;
+		associations = null;
+		enumerations = null;
+		translatedEnumerations = null;
+		inheritances = null;
+		if (resource_ != null) {
+			//Unloads the EMF resource, discarding the contents loaded from the .ecore file
+			resource_.unload();
+			resource_.getResourceSet().getResources().remove(resource_);
+			resource_ = null;
+		}
 	}
 
 	/**
@@ -519,55 +595,93 @@ public class OntologyCreator {
 	protected OWLOntology createOntology(StringBuilder log)
 			throws ConsistencyCheckerGenericException, OWLOntologyCreationException, ParserException {
 		
+		//Discards any ontology previously created by this creator with the same IRI
+		if (ontologyManager_.contains(ontologyIRI_)) {
+			ontologyManager_.removeOntology(ontologyManager_.getOntology(ontologyIRI_));
+		}
+		//Creates the actual ontology, which receives the axioms as they are generated
+		ontology_ = ontologyManager_.createOntology(ontologyIRI_);
+		axiomSink_ = new OntologyAxiomSink(ontologyManager_, ontology_);
+		translatedEnumerations = new HashMap<EEnum, OWLClass>();
+		invariantTranslator_ = new InvariantTranslator(ontologyIRI_, PACKAGE_PREFIX, settings_.getThreads());
+		//Invariants translated in previous runs are taken from the cache, if there is one
+		InvariantCache invariantCache = null;
+		if (settings_.getInvariantCacheFile() != null) {
+			invariantCache = new InvariantCache(new File(settings_.getInvariantCacheFile()), ontologyIRI_, PACKAGE_PREFIX);
+			if (!invariantCache.load()) {
+				log.append(String.format(LOG_CACHE_NOT_LOADED, settings_.getInvariantCacheFile()));
+			}
+			invariantTranslator_.setCache(invariantCache);
+		}
+		//Classes holding the invariants, in the order they were queued for translation
+		List<EClass> invariantContexts = new ArrayList<EClass>();
+		
+		//Only the axiom families included in the profile are generated
+		EncodingProfile profile = settings_.getEncodingProfile();
+		log.append(String.format(LOG_ENCODING_PROFILE, profile));
+		
 		//Maps each class to the axioms that represents it
 		for (EClass classe : classes) {
 			log.append(String.format(LOG_CHECKING_ECLASS, classe.getName()));
 
 			//Runs through the class attributes and creates the proper axioms
-			log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES, classe.getName()));
-			for (EAttribute attribute : classe.getEAllAttributes()) {
-				
-				//Checks if the current class attribute its from a built-in type
-				//or a created type and creates the proper axioms
-				if (checkOWLDataType(attribute.getEAttributeType().getName())) {
-					log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES_DATA_TYPE, attribute.getName(),
-							classe.getName()));
-					makeAttributeAxioms(classe, attribute);
-				} else {
-					log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES_NOT_DATA_TYPE, attribute.getName(),
-							classe.getName()));
-					makeAttributeAxiomsClass(classe, attribute);
+			if (profile.includesAttributes()) {
+				log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES, classe.getName()));
+				for (EAttribute attribute : classe.getEAllAttributes()) {
+					
+					//Checks if the current class attribute its from a built-in type
+					//or a created type and creates the proper axioms
+					if (checkOWLDataType(attribute.getEAttributeType().getName())) {
+						log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES_DATA_TYPE, attribute.getName(),
+								classe.getName()));
+						makeAttributeAxioms(classe, attribute);
+					} else {
+						log.append(String.format(LOG_CHECKING_ECLASS_ATTRIBUTES_NOT_DATA_TYPE, attribute.getName(),
+								classe.getName()));
+						makeAttributeAxiomsClass(classe, attribute);
+					}
+					log.append(
+							String.format(LOG_ATTRIBUTE_AXIOM_GENERATION_FINISHED, attribute.getName(), classe.getName()));
 				}
-				log.append(
-						String.format(LOG_ATTRIBUTE_AXIOM_GENERATION_FINISHED, attribute.getName(), classe.getName()));
+				log.append(String.format(LOG_CHECKED_ECLASS_ATTRIBUTES, classe.getName()));
+			} else {
+				log.append(String.format(LOG_SKIPPED_BY_PROFILE, ATTRIBUTES_FAMILY, classe.getName(), profile));
 			}
-			log.append(String.format(LOG_CHECKED_ECLASS_ATTRIBUTES, classe.getName()));
 
 			//Runs through the class methods and creates the proper axioms
-			log.append(String.format(LOG_CHECKING_ECLASS_METHODS, classe.getName()));
-			for (EOperation method : classe.getEAllOperations()) {
-				log.append(String.format(LOG_GENERATING_ECLASS_METHODS_AXIOMS, method.getName(), classe.getName()));
-				makeOperationAxioms(classe, method);
-				log.append(String.format(LOG_GENERATED_ECLASS_METHODS_AXIOMS, method.getName(), classe.getName()));
+			if (profile.includesOperations()) {
+				log.append(String.format(LOG_CHECKING_ECLASS_METHODS, classe.getName()));
+				for (EOperation method : classe.getEAllOperations()) {
+					log.append(String.format(LOG_GENERATING_ECLASS_METHODS_AXIOMS, method.getName(), classe.getName()));
+					makeOperationAxioms(classe, method);
+					log.append(String.format(LOG_GENERATED_ECLASS_METHODS_AXIOMS, method.getName(), classe.getName()));
+				}
+				log.append(String.format(LOG_CHECKED_ECLASS_METHODS, classe.getName()));
+			} else {
+				log.append(String.format(LOG_SKIPPED_BY_PROFILE, METHODS_FAMILY, classe.getName(), profile));
 			}
-			log.append(String.format(LOG_CHECKED_ECLASS_METHODS, classe.getName()));
 
 			//Runs through the class annotations and creates the proper axioms
-			log.append(String.format(LOG_CHECKING_ANNOTATIONS, classe.getName()));
-			for (EAnnotation ant : classe.getEAnnotations()) {
-				//Only anotations with source equals to the PIVOT_URL are OCL invariants
-				//and mapped to axioms. Other sources aren't mapped to any axiom
-				if (ant.getSource().equals(PIVOT_URL)) {
-					log.append(
-							String.format(LOG_CHECKING_ECLASS_INVARIANTS, classe.getName(), ant.getDetails().size()));
-					for (int i = 0; i < ant.getDetails().size(); i++) {
-						log.append(String.format(LOG_CREATING_AXIOMS_INVARIANT, i, classe.getName()));
-						makeInvariantAxioms(classe, ant.getDetails().get(i));
-						log.append(String.format(LOG_CREATED_AXIOMS_INVARIANT, i, classe.getName()));
+			if (profile.includesInvariants()) {
+				log.append(String.format(LOG_CHECKING_ANNOTATIONS, classe.getName()));
+				for (EAnnotation ant : classe.getEAnnotations()) {
+					//Only anotations with source equals to the PIVOT_URL are OCL invariants
+					//and mapped to axioms. Other sources aren't mapped to any axiom
+					if (ant.getSource().equals(PIVOT_URL)) {
+						log.append(
+								String.format(LOG_CHECKING_ECLASS_INVARIANTS, classe.getName(), ant.getDetails().size()));
+						for (int i = 0; i < ant.getDetails().size(); i++) {
+							//The invariants are translated together once every class is visited
+							invariantTranslator_.add(classe, ant.getDetails().get(i).getValue());
+							invariantContexts.add(classe);
+							log.append(String.format(LOG_QUEUED_INVARIANT, i, classe.getName()));
+						}
 					}
 				}
+				log.append(LOG_CHECKED_ANNOTATIONS);
+			} else {
+				log.append(String.format(LOG_SKIPPED_BY_PROFILE, INVARIANTS_FAMILY, classe.getName(), profile));
 			}
-			log.append(LOG_CHECKED_ANNOTATIONS);
 
 			//Creates the generalization axioms from the inheritances mapped
 			log.append(String.format(LOG_CREATING_AXIOMS_INHERITANCE, classe.getName()));
@@ -579,6 +693,25 @@ public class OntologyCreator {
 		}
 
 
+		//Translates the invariants of every class concurrently and creates their axioms in
+		//the order the invariants were found
+		log.append(String.format(LOG_TRANSLATING_INVARIANTS, invariantContexts.size(), settings_.getThreads()));
+		List<OWLClassExpression> invariants = invariantTranslator_.translate();
+		for (int i = 0; i < invariants.size(); i++) {
+			makeInvariantAxioms(invariantContexts.get(i), invariants.get(i));
+		}
+		log.append(String.format(LOG_PARSED_INVARIANTS, invariantTranslator_.getParsedCount(),
+				invariantTranslator_.getReusedCount()));
+		log.append(String.format(LOG_BUILT_EXPRESSIONS, invariantTranslator_.getSimplifiedCount(),
+				invariantTranslator_.getSharedCount()));
+		invariantTranslator_ = null;
+		if (invariantCache != null) {
+			log.append(String.format(LOG_CACHED_INVARIANTS, invariantCache.getHitCount(), invariantCache.getMissCount()));
+			if (!invariantCache.save()) {
+				log.append(String.format(LOG_CACHE_NOT_SAVED, settings_.getInvariantCacheFile()));
+			}
+		}
+
 		//Creates a map to store the references and if its representation axioms were created
 		HashMap<EReference, Boolean> references = new HashMap<EReference, Boolean>();
 		//Maps each reference to the axioms that represents it
@@ -599,12 +732,8 @@ public class OntologyCreator {
 		}
 		
 		log.append(LOG_GATHERING_AXIOMS);
-		//Creates the actual ontology
-		OWLOntology ontology_ = ontologyManager_.createOntology(ontologyIRI_);
-		//Adds the generated axioms on the created ontology
-		List<OWLOntologyChange> ontologyResulted = ontologyManager_.addAxioms(ontology_, axiomList_);
-		//Apply the changes
-		ontologyManager_.applyChanges(ontologyResulted);
+		//Writes the axioms still pending in the sink on the created ontology
+		axiomSink_.flush();
 		log.append(LOG_GATHERED_AXIOMS);
 		return ontology_;
 	}
@@ -614,51 +743,17 @@ public class OntologyCreator {
 	 * 
 	 * @param cls
 	 * 		Class containing the OCL invariant
-	 * @param par
+	 * @param invInDl
+	 * 		The concept representing the invariant, as translated by the InvariantTranslator
 	 * @see <a href="http://www.inf.unibz.it/~calvanese/papers-html/DL-2012-ocl.html" target=
  *      _blank>OCL-Lite: A Decidable (Yet Expressive) Fragment of OCL/a>
-	 * 
-	 * @throws ParserException
 	 */
-	protected void makeInvariantAxioms(EClass cls, Entry<String, String> note) throws ParserException {
-		OCL<EPackage, EClassifier, EOperation, EStructuralFeature, EEnumLiteral, EParameter, EObject, CallOperationAction, SendSignalAction, Constraint, EClass, EObject> ocl = OCL
-				.newInstance(EcoreEnvironmentFactory.INSTANCE);
-		OCLHelper<EClassifier, EOperation, EStructuralFeature, Constraint> helper = ocl.createOCLHelper();
-
-		//Sets the OCL Context to the provided class
-		helper.setContext(cls);
-		
-		//Stores the original expression text on the expOriginal String
-		String expOriginal = note.getValue();
-		
-		//Creates an OCLExpression based on text provided
-		OCLExpression<EClassifier> invariant = helper.createQuery(expOriginal);
-		
-		//Creates an abstract visitor to store to store the OCL expression in a stack form
-		//and resolve it to a class expression
-		ECCAbstractVisitor visitor = new ECCAbstractVisitor(ontologyIRI_, PACKAGE_PREFIX);
-		//The "accept" method will instantiate the inner structures of the visitor
-		//and apply the normalization rules described in the "OCL-Lite: A Decidable (Yet Expressive) Fragment of OCL" article
-		//Note that in order to fully normalize the expression, the rules may need to be applied several times
-		invariant.accept(visitor);
-		
-		//Loops through the execution until the main stack remains unchanged
-		//meaning that the expression is fully normalized
-		while (!expOriginal.equals(visitor.mainSt.print())) {
-			//Stores the current state of the expression in the expOriginal variable
-			expOriginal = visitor.mainSt.print();
-			//Creates an OCLExpression based on the current ocl text
-			invariant = helper.createQuery(expOriginal);
-			//reinstantiate the visitor to clear its inner structures
-			visitor = new ECCAbstractVisitor(ontologyIRI_, PACKAGE_PREFIX);
-			//Apply normalization rules
-			invariant.accept(visitor);
+	protected void makeInvariantAxioms(EClass cls, OWLClassExpression invInDl) {
+		//An invariant simplified to Top holds for every object and restricts nothing
+		if (invInDl.isOWLThing()) {
+			return;
 		}
 		
-		//Once the expression is properly stored in stack form
-		//the same is mapped to an OWL class expression
-		OWLClassExpression invInDl = visitor.mainSt.resolveStack();
-		
 		//Creates an OWL class representing the class that holds the invariant
 		OWLClass alfa = owlDataFactory_.getOWLClass(
 					IRI.create(String.format(CLASS_NAME_BUILDER, cls.getName())));
@@ -666,7 +761,7 @@ public class OntologyCreator {
 		//Creates an axiom that states that the class is restricted by its invariant
 		OWLAxiom sub = owlDataFactory_.getOWLSubClassOfAxiom(alfa, invInDl);
 		//Adds the created axiom to the axioms list
-		axiomList_.add(sub);
+		axiomSink_.add(sub);
 
 	}
 
@@ -708,12 +803,51 @@ public class OntologyCreator {
 	 * is a set S of individuals i representing the enumeration members. The third part
 	 * is an axiom stating that the E \sqsubseteq S.
 	 * 
+	 * When the disjoint classes encoding is selected, the members are represented
+	 * by atomic concepts L_i instead of individuals, avoiding nominals:
+	 * 
+	 * L_i \sqsubseteq E, L_i \sqcap L_j \sqsubseteq \bot (i \neq j) and
+	 * E \sqsubseteq L_1 \sqcup ... \sqcup L_n
+	 * 
+	 * Each enumeration is mapped only once, the following calls return the
+	 * concept previously created.
+	 * 
 	 * @param en 
 	 * 		The UML enumeration
 	 * @return
 	 */
 	protected OWLClass createOWLEnum(EEnum en) {
 		
+		//Returns the concept if the enumeration was already mapped
+		OWLClass owlEn = translatedEnumerations.get(en);
+		if (owlEn != null) {
+			return owlEn;
+		}
+		
+		//Creates a concept representing the Enumeration
+		owlEn = owlDataFactory_.getOWLClass(IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX
+				+ en.getName().replaceAll(SPACE, Constants.EMPTY_STRING) + ENUMERATION_POSFIX));
+		
+		if (settings_.getEnumerationEncoding() == EnumerationEncoding.DISJOINT_CLASSES) {
+			createOWLEnumLiteralClasses(en, owlEn);
+		} else {
+			createOWLEnumNominals(en, owlEn);
+		}
+		translatedEnumerations.put(en, owlEn);
+		return owlEn;
+	}
+
+	/**
+	 * Restricts the concept representing the enumeration to the set of
+	 * individuals representing its literals
+	 * 
+	 * @param en
+	 * 		The UML enumeration
+	 * @param owlEn
+	 * 		The concept representing the enumeration
+	 */
+	private void createOWLEnumNominals(EEnum en, OWLClass owlEn) {
+		
 		//Instantiate a hashset to store the individuals
 		HashSet<OWLIndividual> owlindividuals = new HashSet<OWLIndividual>();
 		
@@ -727,16 +861,55 @@ public class OntologyCreator {
 			owlindividuals.add(i);
 		}
 		
-		//Creates a concept representing the Enumeration
-		OWLClass owlEn = owlDataFactory_.getOWLClass(IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX
-				+ en.getName().replaceAll(SPACE, Constants.EMPTY_STRING) + ENUMERATION_POSFIX));
-		
 		//Creates an axiom stating that the concept representing the enumeration is
 		//restricted to the the set of individuals representing its literals
 		OWLObjectOneOf enumeration = owlDataFactory_.getOWLObjectOneOf(owlindividuals);
 		OWLAxiom c = owlDataFactory_.getOWLEquivalentClassesAxiom(owlEn, enumeration);
-		axiomList_.add(c);
-		return owlEn;
+		axiomSink_.add(c);
+	}
+
+	/**
+	 * Covers the concept representing the enumeration with pairwise disjoint
+	 * concepts representing its literals
+	 * 
+	 * @param en
+	 * 		The UML enumeration
+	 * @param owlEn
+	 * 		The concept representing the enumeration
+	 */
+	private void createOWLEnumLiteralClasses(EEnum en, OWLClass owlEn) {
+		
+		//Instantiate a hashset to store the concepts representing the literals
+		HashSet<OWLClassExpression> owlLiterals = new HashSet<OWLClassExpression>();
+		
+		//Runs through the literals comprising the enumeration
+		for (EEnumLiteral item : en.getELiterals()) {
+			//Creates a concept representing the current literal, qualified by the
+			//enumeration name since literals of distinct enumerations may share names
+			OWLClass literal = owlDataFactory_.getOWLClass(IRI.create(ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX
+					+ en.getName().replaceAll(SPACE, Constants.EMPTY_STRING)
+					+ item.getName().replaceAll(SPACE, Constants.EMPTY_STRING) + LITERAL_POSFIX));
+			
+			//Each literal is a member of the enumeration
+			axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(literal, owlEn));
+			owlLiterals.add(literal);
+		}
+		
+		//The literals are pairwise disjoint
+		if (owlLiterals.size() > 1) {
+			axiomSink_.add(owlDataFactory_.getOWLDisjointClassesAxiom(owlLiterals));
+		}
+		
+		//The enumeration has no member other than its literals
+		OWLClassExpression cover;
+		if (owlLiterals.isEmpty()) {
+			cover = owlDataFactory_.getOWLNothing();
+		} else if (owlLiterals.size() == 1) {
+			cover = owlLiterals.iterator().next();
+		} else {
+			cover = owlDataFactory_.getOWLObjectUnionOf(owlLiterals);
+		}
+		axiomSink_.add(owlDataFactory_.getOWLSubClassOfAxiom(owlEn, cover));
 	}
 
 	/**
@@ -804,7 +977,7 @@ public class OntologyCreator {
 		//Bound the OWLClass representing the class with the OWLAxiom representing
 		//the the attribute and it type
 		OWLAxiom subsumsForAll = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlAllAttofType);
-		axiomList_.add(subsumsForAll);
+		axiomSink_.add(subsumsForAll);
 
 		//Creates the OWLAxiom that will restrict the attribute cardinality
 		OWLAxiom subsumsCardinalities;
@@ -825,7 +998,7 @@ public class OntologyCreator {
 				
 				//restricts the attribute with the axiom restricting its cardinality
 				subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlMin);
-				axiomList_.add(subsumsCardinalities);
+				axiomSink_.add(subsumsCardinalities);
 			}
 			if (attribute.getUpperBound() != -1) {
 				//If the lower bound is not zero, creates an axiom stating
@@ -839,7 +1012,7 @@ public class OntologyCreator {
 				
 				//restricts the attribute with the axiom restricting its cardinality
 				subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlMax);
-				axiomList_.add(subsumsCardinalities);
+				axiomSink_.add(subsumsCardinalities);
 			}
 		} else {
 			//creates an axiom stating the attribute maximum cardinality.
@@ -867,16 +1040,16 @@ public class OntologyCreator {
 				//representing its lower bound
 				OWLClassExpression owlMin = null;
 				if (isBuiltIn) {
-					owlMin = owlDataFactory_.getOWLDataMinCardinality(attribute.getUpperBound(), owlAttribute);
+					owlMin = owlDataFactory_.getOWLDataMinCardinality(attribute.getLowerBound(), owlAttribute);
 				} else {
-					owlMin = owlDataFactory_.getOWLObjectMinCardinality(attribute.getUpperBound(), owlAttObj);
+					owlMin = owlDataFactory_.getOWLObjectMinCardinality(attribute.getLowerBound(), owlAttObj);
 				}
 				//Creates an axiom representing the restriction from both the upper and lower bound
 				intersec = owlDataFactory_.getOWLObjectIntersectionOf(owlMin, owlMax);
 			}
 			//Restricts the class by its attribute restrictions
 			subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, intersec);
-			axiomList_.add(subsumsCardinalities);
+			axiomSink_.add(subsumsCardinalities);
 		}
 	}
 
@@ -924,7 +1097,7 @@ public class OntologyCreator {
 
 		//Restricts the class as having the attribute
 		OWLAxiom subsumsForAll = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlAllAttofType);
-		axiomList_.add(subsumsForAll);
+		axiomSink_.add(subsumsForAll);
 
 
 		//Creates the OWLAxiom that will restrict the attribute cardinality
@@ -941,7 +1114,7 @@ public class OntologyCreator {
 				subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlMin);
 				
 				//restricts the attribute with the axiom restricting its cardinality
-				axiomList_.add(subsumsCardinalities);
+				axiomSink_.add(subsumsCardinalities);
 			}
 			if (attribute.getUpperBound() != -1) {
 				//If the lower bound is not zero, creates an axiom stating
@@ -951,7 +1124,7 @@ public class OntologyCreator {
 				subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, owlMax);
 				
 				//restricts the attribute with the axiom restricting its cardinality
-				axiomList_.add(subsumsCardinalities);
+				axiomSink_.add(subsumsCardinalities);
 			}
 		} else {
 			//creates an axiom stating the attribute maximum cardinality.
@@ -968,7 +1141,7 @@ public class OntologyCreator {
 			} else {
 				//If the attribute is a collection creates the axiom
 				//representing its lower bound
-				OWLClassExpression owlMin = owlDataFactory_.getOWLObjectMinCardinality(attribute.getUpperBound(),
+				OWLClassExpression owlMin = owlDataFactory_.getOWLObjectMinCardinality(attribute.getLowerBound(),
 						owlAttribute);
 				//Creates an axiom representing the restriction from both the upper and lower bound
 				intersec = owlDataFactory_.getOWLObjectIntersectionOf(owlMin, owlMax);
@@ -976,7 +1149,7 @@ public class OntologyCreator {
 			
 			//Restricts the class by its attribute restrictions
 			subsumsCardinalities = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, intersec);
-			axiomList_.add(subsumsCardinalities);
+			axiomSink_.add(subsumsCardinalities);
 		}
 	}
 
@@ -1008,6 +1181,13 @@ public class OntologyCreator {
 	 * property). The other two assertions impose the correct typing of the
 	 * parameters, depending only on the name of the operation, and of the
 	 * return value, depending also on the class.
+	 * 
+	 * When the forward operation encoding is selected, the last assertion is
+	 * stated on the calls instead, which type their return value unless their
+	 * receiver is not an instance of C. It has the same models and generates no
+	 * inverse role for the operation:
+	 * 
+	 * C_{f(P_1,...P_m)} \sqsubseteq \forall r_1.\neg C \sqcup \forall r_{m+2}.R
 	 */
 	protected void makeOperationAxioms(EClass cls, EOperation method) {
 		if (method.getEParameters().size() == 0) {
@@ -1047,7 +1227,7 @@ public class OntologyCreator {
 
 			OWLClassExpression intersec = owlDataFactory_.getOWLObjectIntersectionOf(owlAllAttofType, owlMax);
 			OWLAxiom subsumsIntersec = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, intersec);
-			axiomList_.add(subsumsIntersec);
+			axiomSink_.add(subsumsIntersec);
 		} else {
 			OWLClass operationClass = owlDataFactory_.getOWLClass(IRI.create(
 					String.format(CLASS_NAME_BUILDER, cls.getName() + method.getName() + method.getEType().getName())));
@@ -1076,29 +1256,36 @@ public class OntologyCreator {
 			}
 			OWLClassExpression intersec = owlDataFactory_.getOWLObjectIntersectionOf(elementsForIntersection);
 			OWLAxiom subsumsIntersec = owlDataFactory_.getOWLSubClassOfAxiom(operationClass, intersec);
-			axiomList_.add(subsumsIntersec);
+			axiomSink_.add(subsumsIntersec);
 
 			intersec = owlDataFactory_.getOWLObjectIntersectionOf(paramTypeForIntersection);
 			subsumsIntersec = owlDataFactory_.getOWLSubClassOfAxiom(operationClass, intersec);
-			axiomList_.add(subsumsIntersec);
+			axiomSink_.add(subsumsIntersec);
 
 			OWLClass owlMetRet = owlDataFactory_.getOWLClass(
 					IRI.create(String.format(CLASS_NAME_BUILDER, cls.getName() + method.getEType().getName())));
 			OWLObjectProperty owlParam = owlDataFactory_.getOWLObjectProperty(IRI.create(ontologyIRI_ + POUND_SIGN
 					+ PACKAGE_PREFIX + cls.getName() + method.getEType().getName() + ROLE_POSFIX));
 			OWLClassExpression owlAllAttofType = owlDataFactory_.getOWLObjectAllValuesFrom(owlParam, owlMetRet);
-			OWLClassExpression notCalva = owlDataFactory_.getOWLObjectComplementOf(operationClass);
-			OWLClassExpression equivalentImplication = owlDataFactory_.getOWLObjectUnionOf(notCalva, owlAllAttofType);
-
-			OWLObjectPropertyExpression inverseThis = owlDataFactory_.getOWLObjectInverseOf(owlThis);
-
-			OWLClassExpression forAllInverse = owlDataFactory_.getOWLObjectAllValuesFrom(inverseThis,
-					equivalentImplication);
-
 			OWLClass owlClass = owlDataFactory_
 					.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, cls.getName())));
-			OWLAxiom subsumsImplies = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, forAllInverse);
-			axiomList_.add(subsumsImplies);
+
+			OWLAxiom subsumsImplies;
+			if (settings_.getOperationEncoding() == OperationEncoding.FORWARD) {
+				//Types the return value from the calls, whose receiver is not an instance of the
+				//class or whose return value is typed, so no inverse role is generated
+				OWLClassExpression notReceiver = owlDataFactory_.getOWLObjectAllValuesFrom(owlThis,
+						owlDataFactory_.getOWLObjectComplementOf(owlClass));
+				subsumsImplies = owlDataFactory_.getOWLSubClassOfAxiom(operationClass,
+						owlDataFactory_.getOWLObjectUnionOf(notReceiver, owlAllAttofType));
+			} else {
+				OWLClassExpression notCalva = owlDataFactory_.getOWLObjectComplementOf(operationClass);
+				OWLClassExpression equivalentImplication = owlDataFactory_.getOWLObjectUnionOf(notCalva, owlAllAttofType);
+				OWLClassExpression forAllInverse = owlDataFactory_
+						.getOWLObjectAllValuesFrom(owlDataFactory_.getOWLObjectInverseOf(owlThis), equivalentImplication);
+				subsumsImplies = owlDataFactory_.getOWLSubClassOfAxiom(owlClass, forAllInverse);
+			}
+			axiomSink_.add(subsumsImplies);
 		}
 	}
 
@@ -1162,10 +1349,10 @@ public class OntologyCreator {
 		OWLClassExpression inter = owlDataFactory_.getOWLObjectIntersectionOf(forallRoleLeftClass,
 				forallRoleRightClass);
 		OWLAxiom subClassAxiom = owlDataFactory_.getOWLSubClassOfAxiom(thing, inter);
-		axiomList_.add(subClassAxiom);
+		axiomSink_.add(subClassAxiom);
 
 		OWLAxiom rightEqualsLeftInverse = owlDataFactory_.getOWLInverseObjectPropertiesAxiom(roleLeft, roleRight);
-		axiomList_.add(rightEqualsLeftInverse);
+		axiomSink_.add(rightEqualsLeftInverse);
 
 		OWLCardinalityRestriction<?, ?, ?> cardMinLeft = null;
 		OWLCardinalityRestriction<?, ?, ?> cardMaxLeft = null;
@@ -1180,15 +1367,15 @@ public class OntologyCreator {
 			OWLClassExpression intersectionAxiomLeft = owlDataFactory_.getOWLObjectIntersectionOf(cardMinLeft,
 					cardMaxLeft);
 			OWLAxiom subsumbsIntersectionLeft = owlDataFactory_.getOWLSubClassOfAxiom(leftClass, intersectionAxiomLeft);
-			axiomList_.add(subsumbsIntersectionLeft);
+			axiomSink_.add(subsumbsIntersectionLeft);
 		} else {
 			if (!(cardMaxLeft == null && cardMinLeft == null)) {
 				if (cardMaxLeft == null) {
 					OWLAxiom subsumbsMinLeft = owlDataFactory_.getOWLSubClassOfAxiom(leftClass, cardMinLeft);
-					axiomList_.add(subsumbsMinLeft);
+					axiomSink_.add(subsumbsMinLeft);
 				} else {
 					OWLAxiom subsumbsMaxLeft = owlDataFactory_.getOWLSubClassOfAxiom(leftClass, cardMaxLeft);
-					axiomList_.add(subsumbsMaxLeft);
+					axiomSink_.add(subsumbsMaxLeft);
 				}
 			}
 		}
@@ -1207,15 +1394,15 @@ public class OntologyCreator {
 					cardMaxRight);
 			OWLAxiom subsumbsIntersectionRight = owlDataFactory_.getOWLSubClassOfAxiom(rightClass,
 					intersectionAxiomRight);
-			axiomList_.add(subsumbsIntersectionRight);
+			axiomSink_.add(subsumbsIntersectionRight);
 		} else {
 			if (!(cardMaxRight == null && cardMinRight == null)) {
 				if (cardMaxRight == null) {
 					OWLAxiom subsumbsMinRight = owlDataFactory_.getOWLSubClassOfAxiom(rightClass, cardMinRight);
-					axiomList_.add(subsumbsMinRight);
+					axiomSink_.add(subsumbsMinRight);
 				} else {
 					OWLAxiom subsumbsMaxRight = owlDataFactory_.getOWLSubClassOfAxiom(rightClass, cardMaxRight);
-					axiomList_.add(subsumbsMaxRight);
+					axiomSink_.add(subsumbsMaxRight);
 				}
 			}
 		}
@@ -1251,7 +1438,7 @@ public class OntologyCreator {
 				//Creates an axiom stating that the the subClass concept
 				//is an OWLSubClass of the superClass Concept
 				OWLAxiom myHierarchy = owlDataFactory_.getOWLSubClassOfAxiom(subClassOwl, superClassOwl);
-				axiomList_.add(myHierarchy);
+				axiomSink_.add(myHierarchy);
 			}
 		}
 	}
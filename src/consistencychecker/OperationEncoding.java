@@ -0,0 +1,82 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+/**
+ * Ways of mapping EOperations with parameters, which are reified as a class
+ * representing the operation calls.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum OperationEncoding {
+
+	/**
+	 * The return value is typed through the inverse of the role linking a call
+	 * to its receiver, as described by Berardi et al.:
+	 * C \sqsubseteq \forall r^{-}_1.(\neg C_{f(P_1,...P_m)} \sqcup \forall r_{m+2}.R)
+	 */
+	INVERSE("inverse"),
+
+	/**
+	 * The return value is typed by the calls themselves, unless their receiver
+	 * is not an instance of C, so no inverse role is generated:
+	 * C_{f(P_1,...P_m)} \sqsubseteq \forall r_1.\neg C \sqcup \forall r_{m+2}.R
+	 */
+	FORWARD("forward");
+
+	private static final String UNKNOWN_ENCODING_ERROR = "The operation encoding \"%s\" is unknown.";
+
+	private final String encodingName;
+
+	private OperationEncoding(String encodingName) {
+		this.encodingName = encodingName;
+	}
+
+	/**
+	 * @return Returns the name used to select this encoding in the command line
+	 */
+	public String getEncodingName() {
+		return encodingName;
+	}
+
+	@Override
+	public String toString() {
+		return encodingName;
+	}
+
+	/**
+	 * Finds the encoding with the provided name
+	 *
+	 * @param name
+	 * 		The encoding name, as used in the command line
+	 * @return Returns the encoding with the provided name
+	 * @throws ConsistencyCheckerGenericException
+	 * 		If there is no encoding with such name
+	 */
+	public static OperationEncoding fromName(String name) throws ConsistencyCheckerGenericException {
+		for (OperationEncoding encoding : values()) {
+			if (encoding.encodingName.equalsIgnoreCase(name)) {
+				return encoding;
+			}
+		}
+		throw new ConsistencyCheckerGenericException(String.format(UNKNOWN_ENCODING_ERROR, name));
+	}
+}
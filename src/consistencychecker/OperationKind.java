@@ -0,0 +1,102 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.HashMap;
+
+/**
+ * The OCL operations and iterators known by the OCL-Lite normalization and by
+ * the translation of the normalized expressions to DL. Each kind is found by
+ * its OCL name, so the normalization dispatches on the kind instead of
+ * comparing names.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum OperationKind {
+
+	AND("and"),
+	OR("or"),
+	IMPLIES("implies"),
+	NOT("not"),
+	NOT_EMPTY("notEmpty"),
+	IS_EMPTY("isEmpty"),
+	SIZE("size"),
+	GREATER_THAN(">"),
+	GREATER_EQUAL(">="),
+	LESS_THAN("<"),
+	LESS_EQUAL("<="),
+	EQUAL("="),
+	NOT_EQUAL("<>"),
+	OCL_IS_TYPE_OF("oclIsTypeOf"),
+	OCL_AS_TYPE("oclAsType"),
+	EXISTS("exists"),
+	FOR_ALL("forAll"),
+	SELECT("select"),
+	REJECT("reject"),
+	COLLECT("collect"),
+	
+	/**
+	 * Navigation through a property, which has no OCL operation name
+	 */
+	NAVIGATION(null),
+	
+	/**
+	 * Any operation or iterator outside the OCL-Lite fragment
+	 */
+	UNKNOWN(null);
+
+	//Kinds by OCL name, built once
+	private static final HashMap<String, OperationKind> KINDS_BY_NAME = new HashMap<String, OperationKind>();
+
+	static {
+		for (OperationKind kind : values()) {
+			if (kind.oclName != null) {
+				KINDS_BY_NAME.put(kind.oclName, kind);
+			}
+		}
+	}
+
+	private final String oclName;
+
+	private OperationKind(String oclName) {
+		this.oclName = oclName;
+	}
+
+	/**
+	 * @return Returns the name of the operation in OCL, or null for kinds that
+	 *         are not OCL operations
+	 */
+	public String getOclName() {
+		return oclName;
+	}
+
+	/**
+	 * Finds the kind of an OCL operation or iterator
+	 * 
+	 * @param name
+	 * 		The name of the operation or iterator
+	 * @return Returns the kind with the provided name, or UNKNOWN if there is none
+	 */
+	public static OperationKind fromName(String name) {
+		OperationKind kind = KINDS_BY_NAME.get(name);
+		return kind == null ? UNKNOWN : kind;
+	}
+}
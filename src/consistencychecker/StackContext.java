@@ -0,0 +1,117 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.HashMap;
+
+import org.eclipse.emf.ecore.EReference;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+/**
+ * State shared by every StackExp and StackElement holding the invariants of
+ * a model: the data factory, the prebuilt name patterns and the concepts and
+ * roles already created. The stacks only keep a reference to it.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class StackContext {
+
+	protected static final String POUND_SIGN = "#";
+	protected static final String CLASS_POSFIX = "class";
+	protected static final String ROLE_POSFIX = "role";
+
+	private OWLDataFactory owlDataFactory_;
+	private ClassExpressionBuilder expressionBuilder_;
+	private String CLASS_NAME_BUILDER;
+	private String ROLE_NAME_PREFIX;
+	
+	//Concepts and roles already created, by class name and by reference
+	private HashMap<String, OWLClass> classes_;
+	private HashMap<EReference, OWLObjectProperty> roles_;
+
+	/**
+	 * @param owlDataFactory
+	 * 		The data factory used to create the concepts
+	 * @param ontoIRI
+	 * 		The ontology IRI used when generating OWL Concepts
+	 * @param pkg
+	 * 		The name of the package where the OCL Expression are declared
+	 */
+	public StackContext(OWLDataFactory owlDataFactory, IRI ontoIRI, String pkg) {
+		owlDataFactory_ = owlDataFactory;
+		expressionBuilder_ = new ClassExpressionBuilder(owlDataFactory);
+		CLASS_NAME_BUILDER = ontoIRI + POUND_SIGN + pkg + "(" + "%s" + "[" + CLASS_POSFIX + "]" + ")";
+		ROLE_NAME_PREFIX = ontoIRI + POUND_SIGN + pkg;
+		classes_ = new HashMap<String, OWLClass>();
+		roles_ = new HashMap<EReference, OWLObjectProperty>();
+	}
+
+	/**
+	 * @return Returns the data factory used to create the concepts
+	 */
+	public OWLDataFactory getDataFactory() {
+		return owlDataFactory_;
+	}
+
+	/**
+	 * @return Returns the builder creating the concepts representing the invariants
+	 */
+	public ClassExpressionBuilder getExpressionBuilder() {
+		return expressionBuilder_;
+	}
+
+	/**
+	 * Finds the concept representing a class
+	 * 
+	 * @param className
+	 * 		The name of the class
+	 * @return Returns the concept representing the class
+	 */
+	public OWLClass getOWLClass(String className) {
+		OWLClass owlClass = classes_.get(className);
+		if (owlClass == null) {
+			owlClass = owlDataFactory_.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, className)));
+			classes_.put(className, owlClass);
+		}
+		return owlClass;
+	}
+
+	/**
+	 * Finds the role representing the navigation through a reference
+	 * 
+	 * @param reference
+	 * 		The reference navigated
+	 * @return Returns the role representing the reference
+	 */
+	public OWLObjectProperty getOWLObjectProperty(EReference reference) {
+		OWLObjectProperty role = roles_.get(reference);
+		if (role == null) {
+			role = owlDataFactory_.getOWLObjectProperty(IRI.create(ROLE_NAME_PREFIX
+					+ reference.getEOpposite().getEType().getName() + reference.getName()
+					+ reference.getEType().getName() + ROLE_POSFIX));
+			roles_.put(reference, role);
+		}
+		return role;
+	}
+}
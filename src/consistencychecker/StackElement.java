@@ -18,68 +18,92 @@
 
 package consistencychecker;
 
-import org.eclipse.emf.ecore.EClassifier;
-import org.eclipse.ocl.expressions.OCLExpression;
-import org.semanticweb.owlapi.model.IRI;
+import org.eclipse.emf.ecore.EReference;
 
 /**
  * @author Cassio Santos, Christiano Braga
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  * 
  */
 public class StackElement {
 
-	//OCLExpression stored in this StackElement
-	private OCLExpression<EClassifier> exp;
-	//This StackElement inner stack
-	public StackExp innerStack;
+	//Kind of the OCL operation stored in this StackElement
+	private OperationKind kind;
+	//Property navigated, when the kind is a navigation
+	private EReference reference;
+	//Name of the type checked or casted, when the kind is a type operation
+	private String typeName;
+	//The StackExp containing this StackElement
+	private StackExp father;
+	//This StackElement inner stack, created on the first use since only
+	//operators with a second operand and the "select" iterators need one
+	private StackExp innerStack;
 
-	public void setExp(OCLExpression<EClassifier> expression) {
-		exp = expression;
+	/**
+	 * 
+	 * @param father
+	 * 		A pointer to the StackExp containing this StackElement.
+	 * @param kind
+	 * 		The kind of the OCL operation stored in this StackElement
+	 * @param reference
+	 * 		The property navigated, if the kind is a navigation
+	 * @param typeName
+	 * 		The name of the type checked or casted, if the kind is a type operation
+	 */
+	public StackElement(StackExp father, OperationKind kind, EReference reference, String typeName) {
+		this.father = father;
+		this.kind = kind;
+		this.reference = reference;
+		this.typeName = typeName;
 	}
 
+	/**
+	 * Inserts an operation into the this StackElement inner stack
+	 * 
+	 * @param kind
+	 * 		The kind of the operation to be inserted
+	 * @return
+	 * 		The StackElement created in the inner stack
+	 */
+	public StackElement push(OperationKind kind) {
+		return getInnerStack().push(kind, null, null);
+	}
 
 	/**
-	 * Inserts the provided Expression into the this StackElement inner stack
-	 * @param expression
-	 * 		The expression to be inserted
-	 * @param toInnerStack
-	 * 		Indicates if the expression should be inserted directly in the "sourceStack" inner stack
-	 * 		or in the inner stack of its top element.
+	 * Returns the inner stack of this StackElement, creating it if needed
+	 * @return
+	 * 		The inner stack of this StackElement
 	 */
-	public void push(OCLExpression<EClassifier> expression, boolean toInnerStack) {
-		innerStack.push(expression, toInnerStack);
+	public StackExp getInnerStack() {
+		if (innerStack == null) {
+			innerStack = new StackExp(father, father.context);
+		}
+		return innerStack;
 	}
 
 	/**
-	 * 
-	 * @param father
-	 * 		A pointer to the StackExp containing this StackElement if any.
-	 * @param ontoIRI
-	 * 		The ontology IRI for building concepts
-	 * @param pkg
-	 * 		The package name where the OCL constraint is contained
+	 * Returns the kind of the OCL operation stored at this StackElement
+	 * @return
+	 * 		The kind of the OCL operation stored at this StackElement
 	 */
-	public StackElement(StackExp father, IRI ontoIRI, String pkg) {
-		innerStack = new StackExp(father, ontoIRI, pkg);
+	public OperationKind getKind() {
+		return kind;
 	}
 
 	/**
-	 * Fires the event at the top element at the inner stack recursively untils reach a stack
-	 * where the "pushToSon" variable is set to false. Then, sets the fatherStack "pushToSon" variable to false.
+	 * @return
+	 * 		The property navigated, if the kind is a navigation
 	 */
-	public void endStack() {
-		innerStack.endStack();
+	public EReference getReference() {
+		return reference;
 	}
 
-	
 	/**
-	 * Returns the OCL Expression stored at this StackElement
 	 * @return
-	 * 		The OCL Expression stored at this StackElement
+	 * 		The name of the type checked or casted, if the kind is a type operation
 	 */
-	public OCLExpression<EClassifier> getExpression() {
-		return exp;
+	public String getTypeName() {
+		return typeName;
 	}
 }
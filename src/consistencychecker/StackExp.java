@@ -18,23 +18,23 @@
 
 package consistencychecker;
 
-import org.eclipse.emf.ecore.EClassifier;
-import org.eclipse.emf.ecore.EOperation;
+import java.util.ArrayDeque;
+import java.util.Set;
+
 import org.eclipse.emf.ecore.EReference;
-import org.eclipse.ocl.expressions.IteratorExp;
-import org.eclipse.ocl.expressions.OCLExpression;
-import org.eclipse.ocl.expressions.OperationCallExp;
-import org.eclipse.ocl.expressions.PropertyCallExp;
-import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
-import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 
 /**
+ * Multi-level stack holding a normalized OCL-Lite expression. The elements of
+ * a stack are read from the bottom to the top: a navigation path is stored
+ * from its first to its last property, and the operators are stored after the
+ * operands they are applied to. The second operand of a binary operator and
+ * the condition of a "select" are stored in the inner stack of their element.
+ * 
  * @author Cassio Santos, Christiano Braga
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  * 
  */
@@ -42,78 +42,57 @@ public class StackExp {
 
 	protected static final String SPACE = " ";
 	protected static final String DOT = ".";
-	protected static final String OCL_AS_TYPE = "oclAsType";
-	protected static final String IS_EMPTY = "isEmpty";
-	protected static final String SELECT = "select";
-	protected static final String DOUBLE_COLON = "::";
 	protected static final String BLANK = "";
 	protected static final String ARROW = "->";
-	protected static final String NOT_EMPTY = "notEmpty";
-	protected static final String IMPLIES = "implies";
-	protected static final String OR = "or";
-	protected static final String AND = "and";
-	protected static final String NOT = "not";
-	protected static final String OCL_IS_TYPE_OF = "oclIsTypeOf";
 	protected static final String PARENTHESIS = "()";
 	protected static final String PARENTHESIS_FOR_FORMAT = "(%s)";
-	protected static final String POUND_SIGN = "#";
-	protected static final String CLASS_POSFIX = "class";
-	protected static final String ROLE_POSFIX = "role";
-	protected String PACKAGE_PREFIX;
-	protected IRI ontologyIRI_;
-	protected OWLDataFactory owlDataFactory_;
-	protected OWLClassExpression topExp;
-	protected boolean pushToSon;
+	//Initial number of positions of a stack, enough for most navigations
+	protected static final int INITIAL_CAPACITY = 4;
+	
+	//Actions of the work frames used when resolving the stack
+	private static final int RESOLVE = 0;
+	private static final int COMPLEMENT = 1;
+	private static final int INTERSECTION = 2;
+	private static final int UNION = 3;
+	private static final int IMPLICATION = 4;
+	private static final int RESTRICT = 5;
+	
+	protected StackContext context;
 	protected int stackPoint;
 	protected StackElement[] stack;
 	public StackExp fatherStack;
-	protected String CLASS_NAME_BUILDER = "";
 
 	/**
 	 * @param fatherStack
 	 * 		The main stack to which this one is associated, if any.
-	 * @param ontoIRI
-	 * 		The ontology IRI used when generating OWL Concepts
-	 * @param pkg
-	 * 		The name of the package where the OCL Expression are declared
+	 * @param context
+	 * 		The state shared by all the stacks of the model
 	 */
-	public StackExp(StackExp fatherStack, IRI ontoIRI, String pkg) {
-		pushToSon = false;
+	public StackExp(StackExp fatherStack, StackContext context) {
 		stackPoint = 0;
 		this.fatherStack = fatherStack;
-		owlDataFactory_ = OWLManager.createOWLOntologyManager().getOWLDataFactory();
-		ontologyIRI_ = ontoIRI;
-		PACKAGE_PREFIX = pkg;
-		topExp = null;
-		CLASS_NAME_BUILDER = ontologyIRI_ + POUND_SIGN + PACKAGE_PREFIX + "(" + "%s" + "[" + CLASS_POSFIX + "]" + ")";
+		this.context = context;
 	}
 
 	/**
-	 * Inserts an expression into the stack and returns the stack where the next elements must be inserted
-	 * @param expression
-	 * 		The OCLExpression being stacked
-	 * @param toInnerStack
-	 * 		When false the next elements should be inserted in the current stack. 
-	 * 		Else, the next elements must be inserted in the inner stack of the StackElement 
-	 * 		containing the recently added expression.
+	 * Inserts an operation at the top of the stack
+	 * @param kind
+	 * 		The kind of the operation being stacked
+	 * @param reference
+	 * 		The property navigated, if the kind is a navigation
+	 * @param typeName
+	 * 		The name of the type checked or casted, if the kind is a type operation
 	 * @return
-	 * 		The StackExp where the next expression must be inserted
+	 * 		The StackElement created, whose inner stack receives the operands of the operation
 	 */
-	public StackExp push(OCLExpression<EClassifier> expression, boolean toInnerStack) {
-		//Declares the return variable
-		StackExp result = this;
-		//If the stack is empty, instantiates it with 100 positions
+	public StackElement push(OperationKind kind, EReference reference, String typeName) {
+		//If the stack is empty, instantiates it with a few positions
 		if (stack == null) {
-			stack = new StackElement[100];
+			stack = new StackElement[INITIAL_CAPACITY];
 		}
 		//Inserts into the stack at the first free position a new StackElement
-		stack[stackPoint] = new StackElement(this, ontologyIRI_, PACKAGE_PREFIX);
-		//Stores the provided expression in the new StackElement
-		stack[stackPoint].setExp(expression);
-		if (toInnerStack) {
-			//If "toInnerStack" is true, then set the return variable with a pointer to the inner stack created
-			result = stack[stackPoint].innerStack;
-		}
+		StackElement element = new StackElement(this, kind, reference, typeName);
+		stack[stackPoint] = element;
 		//Increases the stackPoint variable, pointing it to the next free position
 		stackPoint++;
 		//Doubles the array size if reached its limit
@@ -122,275 +101,278 @@ public class StackExp {
 			System.arraycopy(stack, 0, temp, 0, stack.length);
 			stack = temp;
 		}
-		return result;
+		return element;
 	}
 
 	/**
-	 * Inserts an OCLExpression in the inner stack of the top StackExp
-	 * @param expression
-	 * 		The expression to be inserted
-	 * @param toInnerStack
-	 * 		When false the next elements should be inserted in the inner stack. 
-	 * 		Else, the next elements must be inserted in the inner stack of the StackElement 
-	 * 		containing the recently added expression.
+	 * Returns the element at the top of the stack, keeping it there
 	 * @return
+	 * 		The element at the top of the stack, or null if the stack is empty
 	 */
-	public StackExp pushToSon(OCLExpression<EClassifier> expression, boolean toInnerStack) {
-		//Inserts the provided expression in the inner stack of the top StackExp
-		return stack[stackPoint - 1].innerStack.push(expression, toInnerStack);
+	public StackElement peek() {
+		return stackPoint == 0 ? null : stack[stackPoint - 1];
 	}
 
 	/**
-	 * Changes the expression at the top of the stack to a "select" Expression
+	 * @return
+	 * 		Returns true if there is no element in the stack
 	 */
-	public void changeUpElementToSelect() {
-		stack[stackPoint - 1].getExpression().setName(SELECT);
+	public boolean isEmpty() {
+		return stackPoint == 0;
 	}
 
 	/**
-	 * Fires the event at the top element at the inner stack recursively untils reach a stack
-	 * where the "pushToSon" variable is set to false. Then, sets the fatherStack "pushToSon" variable to false.
+	 * Gathers the model elements the expression stored in the multi-level stack depends on:
+	 * the references navigated and the classes used as types
+	 *
+	 * @param references
+	 * 		Receives the references navigated
+	 * @param typeNames
+	 * 		Receives the names of the classes used as types
 	 */
-	public void endStack() {
-		if (pushToSon) {
-			stack[stackPoint - 1].endStack();
-		} else {
-			fatherStack.pushToSon = false;
+	public void collectDependencies(Set<EReference> references, Set<String> typeNames) {
+		ArrayDeque<StackExp> pending = new ArrayDeque<StackExp>();
+		pending.push(this);
+		while (!pending.isEmpty()) {
+			StackExp current = pending.pop();
+			for (int i = 0; i < current.stackPoint; i++) {
+				StackElement element = current.stack[i];
+				if (element.getReference() != null) {
+					references.add(element.getReference());
+				}
+				if (element.getTypeName() != null) {
+					typeNames.add(element.getTypeName());
+				}
+				switch (element.getKind()) {
+				case AND:
+				case OR:
+				case IMPLIES:
+				case SELECT:
+					pending.push(element.getInnerStack());
+					break;
+				default:
+					break;
+				}
+			}
 		}
 	}
 
 	/**
-	 * Returns the element at the top of the stack, and empty that position
+	 * Transforms the OCL Expression stored in the multi-level stack into an OWLClassExpression (DL Concept).
+	 * The stack is read from the top to the bottom: the operators are resolved after their operands
+	 * and a navigation path is resolved from its last to its first property, each property leading
+	 * to the concept built so far. The traversal uses explicit work stacks instead of recursion and
+	 * leaves the stack unchanged, so it can be resolved again.
 	 * 
 	 * @return
-	 * 		Element at the top of the stack
-	 */
-	public StackElement pop() {
-		//Decreases the value of the variable pointing to the next available position
-		stackPoint--;
-		//Returns the element at the top of the stack
-		return stack[stackPoint];
-	}
-
-	/**
-	 * Returns the expression contained at the top StackElement
-	 * @return
-	 * 		The expression contained at the top StackElement
+	 * 		The OWLClasExpressin representing the normalized OCL Expression
 	 */
-	public OCLExpression<EClassifier> getTopElementExpression() {
-		//Points to the last occupied position
-		int lastOccupiedPosition = stackPoint - 1;
-		//Returns the element at this position
-		return stack[lastOccupiedPosition].getExpression();
+	public OWLClassExpression resolveStack() {
+		ClassExpressionBuilder builder = context.getExpressionBuilder();
+		//Pending work, the frame at the top is the next to be processed
+		ArrayDeque<Frame> work = new ArrayDeque<Frame>();
+		//Concepts already resolved, waiting to be combined by the operators
+		ArrayDeque<OWLClassExpression> results = new ArrayDeque<OWLClassExpression>();
+		work.push(new Frame(RESOLVE, this, stackPoint, null));
+		
+		while (!work.isEmpty()) {
+			Frame frame = work.pop();
+			switch (frame.action) {
+			case COMPLEMENT:
+				results.push(builder.complementOf(results.pop()));
+				continue;
+			case INTERSECTION:
+				OWLClassExpression rightSideAnd = results.pop();
+				results.push(builder.intersectionOf(results.pop(), rightSideAnd));
+				continue;
+			case UNION:
+				OWLClassExpression rightSideOr = results.pop();
+				results.push(builder.unionOf(results.pop(), rightSideOr));
+				continue;
+			case IMPLICATION:
+				//The implication is represented by an union between the complement
+				//of the first term and the second term
+				OWLClassExpression rightSideImplies = results.pop();
+				OWLClassExpression sourceComplement = builder.complementOf(results.pop());
+				results.push(builder.unionOf(sourceComplement, rightSideImplies));
+				continue;
+			case RESTRICT:
+				//The condition of a "select" restricts the objects reached by the navigation
+				OWLClassExpression condition = results.pop();
+				frame.topExp = frame.topExp == null ? condition
+						: builder.intersectionOf(condition, frame.topExp);
+				break;
+			default:
+				break;
+			}
+			
+			//Resolves the elements of the frame stack, from the top to the bottom
+			StackElement[] elements = frame.stack.stack;
+			int size = frame.size;
+			OWLClassExpression topExp = frame.topExp;
+			while (frame != null) {
+				if (size == 0) {
+					//The whole navigation was resolved, the concept built so far is the result
+					results.push(topExp == null ? builder.thing() : topExp);
+					break;
+				}
+				StackElement s = elements[--size];
+				switch (s.getKind()) {
+				case OCL_IS_TYPE_OF:
+				case OCL_AS_TYPE:
+					//When applied to a navigation the type restricts the navigated objects,
+					//otherwise the type is the result
+					OWLClass type = context.getOWLClass(s.getTypeName());
+					topExp = topExp == null ? type : builder.intersectionOf(type, topExp);
+					break;
+				case NOT:
+				case IS_EMPTY:
+					//The concept is the complement of the concept representing the remaining stack
+					work.push(new Frame(COMPLEMENT, null, 0, null));
+					break;
+				case NOT_EMPTY:
+					//The concept is the concept representing the remaining stack
+					break;
+				case AND:
+				case OR:
+				case IMPLIES:
+					//The remaining stack is the first term and the inner stack is the second term.
+					//Both are resolved before the operator combines them.
+					work.push(new Frame(s.getKind() == OperationKind.AND ? INTERSECTION
+							: s.getKind() == OperationKind.OR ? UNION : IMPLICATION, null, 0, null));
+					StackExp operand = s.getInnerStack();
+					work.push(new Frame(RESOLVE, operand, operand.stackPoint, null));
+					work.push(new Frame(RESOLVE, frame.stack, size, topExp));
+					frame = null;
+					break;
+				case SELECT:
+					//The condition is resolved before the remaining stack
+					work.push(new Frame(RESTRICT, frame.stack, size, topExp));
+					StackExp condition = s.getInnerStack();
+					work.push(new Frame(RESOLVE, condition, condition.stackPoint, null));
+					frame = null;
+					break;
+				case NAVIGATION:
+					//Creates a Concept representing that exists such property leading
+					//to the concept built so far, or to Top if there is none
+					OWLObjectProperty roleLeft = context.getOWLObjectProperty(s.getReference());
+					topExp = builder.someValuesFrom(roleLeft,
+							topExp == null ? builder.thing() : topExp);
+					break;
+				default:
+					break;
+				}
+			}
+		}
+		return results.pop();
 	}
 
 	/**
-	 * Transforms the OCL Expression stored in the multi-level stack into an OWLClassExpression (DL Concept)
+	 * Converts the OCL stored in the multi-level stack in this variable to an OCL Expression String.
+	 * The traversal uses an explicit work stack instead of recursion and leaves the stack unchanged.
+	 * 
 	 * @return
-	 * 		The OWLClasExpressin representing the normalized OCL Expression
+	 * 		The OCL expression form of the expression stored at this stack
 	 */
-	public OWLClassExpression resolveStack() {
-		//Declare the return variable
-		OWLClassExpression result = null;
-		//Extracts the Top StackElement, and releases that position
-		StackElement s = pop();
-		//Extracts the OCLExpression associated to it
-		OCLExpression<EClassifier> exp = s.getExpression();
-		//Checks if the Expression in OCL operation
-		if (exp instanceof OperationCallExp) {
-			//Performs the appropriated cast
-			OperationCallExp<EClassifier, EOperation> resExp = (OperationCallExp<EClassifier, EOperation>) exp;
-			//Check the type of operation being handled
-			switch(resExp.getReferredOperation().getName()){
+	public String print() {
+		StringBuilder ans = new StringBuilder();
+		//Pending work, either a text to be appended or a stack to be printed
+		ArrayDeque<Frame> work = new ArrayDeque<Frame>();
+		work.push(new Frame(RESOLVE, this, stackPoint, null));
+		
+		while (!work.isEmpty()) {
+			Frame frame = work.pop();
+			if (frame.text != null) {
+				ans.append(frame.text);
+				continue;
+			}
+			if (frame.size == 0) {
+				continue;
+			}
+			//The frames are pushed in the reverse order in which they must be printed
+			int size = frame.size - 1;
+			StackElement currentElement = frame.stack.stack[size];
+			String name = currentElement.getKind().getOclName();
+			switch (currentElement.getKind()) {
 			case OCL_IS_TYPE_OF:
-				//Extracts the type to which oclIsTypeOf() is beign applied
-				String argumentNameTypeOf = resExp.getArgument().get(0).toString()
-				.split(DOUBLE_COLON)[resExp.getArgument().get(0).toString().split(DOUBLE_COLON).length - 1];
-				//Return an OWLClass representing the type being checked
-				result = owlDataFactory_.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, argumentNameTypeOf)));
+			case OCL_AS_TYPE:
+				work.push(new Frame(name + String.format(PARENTHESIS_FOR_FORMAT, currentElement.getTypeName())));
+				pushSourceFrames(work, frame.stack, size, DOT);
 				break;
 			case NOT:
-				//Returns a concept representing the complement of the resulting concept of the remaining stack
-				result = owlDataFactory_.getOWLObjectComplementOf(this.resolveStack());
+				work.push(new Frame(")"));
+				work.push(new Frame(RESOLVE, frame.stack, size, null));
+				work.push(new Frame(name + "("));
 				break;
 			case AND:
-				//Solves the sourcestack variable in order to obtain the concept 
-				//representing the first term of the "and" operator
-				OWLClassExpression rightSideAnd = s.innerStack.resolveStack();
-				//Returns an union between the concept representing the first term of the "and" operator
-				//and the remaining stack, representing the second term of the "and" operator
-				result = owlDataFactory_.getOWLObjectIntersectionOf(this.resolveStack(), rightSideAnd);
-				break;
 			case OR:
-				//Solves the sourcestack variable in order to obtain the concept 
-				//representing the first term of the "or" operator
-				OWLClassExpression rightSideOr = s.innerStack.resolveStack();
-				//Returns an union between the concept representing the first term of the "or" operator
-				//and the remaining stack, representing the second term of the "or" operator
-				result = owlDataFactory_.getOWLObjectUnionOf(this.resolveStack(), rightSideOr);
-				break;
 			case IMPLIES:
-				//Solves the sourcestack variable in order to obtain the concept 
-				//representing the second term of the "implies" operator
-				OWLClassExpression rightSideImplies = s.innerStack.resolveStack();
-				//Solves the remaining stack in order to to obtain the concept 
-				//representing the first term of the "implies" operator.
-				//In order to properly represent the implication, this concept must be
-				//used in a complement.
-				OWLClassExpression sourceComplement = owlDataFactory_.getOWLObjectComplementOf(this.resolveStack());
-				//Returns an union between the complement of the first term and the second term
-				result = owlDataFactory_.getOWLObjectUnionOf(sourceComplement, rightSideImplies);
+				StackExp operand = currentElement.getInnerStack();
+				work.push(new Frame(RESOLVE, operand, operand.stackPoint, null));
+				work.push(new Frame(SPACE + name + SPACE));
+				work.push(new Frame(RESOLVE, frame.stack, size, null));
 				break;
 			case NOT_EMPTY:
-				//If the operation is an "notEmpty()" then, its OWL representation 
-				//is the representation of the expression to which this operator is being applied
-				result = this.resolveStack();
-				break;
 			case IS_EMPTY:
-				//If the operation is an "isEmpty()" then, its OWL representation 
-				//is the complement representation of the expression to which this operator is being applied
-				result = owlDataFactory_.getOWLObjectComplementOf(this.resolveStack());
+				work.push(new Frame(ARROW + name + PARENTHESIS));
+				work.push(new Frame(RESOLVE, frame.stack, size, null));
 				break;
-			case OCL_AS_TYPE:
-				//Extracts the type to which oclIsTypeOf() is beign applied
-				String argumentNameAsType = resExp.getArgument().get(0).toString()
-				.split(DOUBLE_COLON)[resExp.getArgument().get(0).toString().split(DOUBLE_COLON).length - 1];
-				//Creates an OWLClass representing the type being casted
-				OWLClass arg = owlDataFactory_.getOWLClass(IRI.create(String.format(CLASS_NAME_BUILDER, argumentNameAsType)));
-				//Replaces the concept stored in the "topExp" variable
-				//with an intersection between the the created OWLClass and the concept
-				//stored in the "topExp" variable. 
-				topExp = owlDataFactory_.getOWLObjectIntersectionOf(arg, topExp);
-				result = this.resolveStack();
+			case SELECT:
+				StackExp condition = currentElement.getInnerStack();
+				work.push(new Frame(")"));
+				work.push(new Frame(RESOLVE, condition, condition.stackPoint, null));
+				work.push(new Frame(name + "("));
+				pushSourceFrames(work, frame.stack, size, ARROW);
+				break;
+			case NAVIGATION:
+				//Extracts the role to which this property refers to
+				work.push(new Frame(currentElement.getReference().getName()));
+				//If the role is in the middle of the expression it should be preceded by a dot.
+				pushSourceFrames(work, frame.stack, size, DOT);
 				break;
 			default:
 				break;
-			
-			}
-		} else {
-			//Checks if the Expression is an OCL property call
-			if (exp instanceof PropertyCallExp) {
-				//Performs the appropriated cast
-				PropertyCallExp<EClassifier, EReference> resExp = (PropertyCallExp<EClassifier, EReference>) exp;
-				//Creates the OWL property representing the OCL Property
-				OWLObjectProperty roleLeft = owlDataFactory_.getOWLObjectProperty(IRI.create(ontologyIRI_ + POUND_SIGN
-						+ PACKAGE_PREFIX + resExp.getReferredProperty().getEOpposite().getEType().getName()
-						+ resExp.getReferredProperty().getName() + resExp.getReferredProperty().getEType().getName()
-						+ ROLE_POSFIX));
-				if (topExp == null) {
-					//If topExp variable is null, then creates a Concept representing that
-					//Exists such property leading to Top
-					topExp = owlDataFactory_.getOWLObjectSomeValuesFrom(roleLeft, owlDataFactory_.getOWLThing());
-				} else {
-					//If topExp variable is null, then creates a Concept representing that
-					//Exists such property leading to the concept stored in "topExp"
-					topExp = owlDataFactory_.getOWLObjectSomeValuesFrom(roleLeft, topExp);
-				}
-				if (stackPoint == 0) {
-					//If the the recursion has reached the last element, then the "topExp"
-					//concept is the result
-					result = topExp;
-				} else {
-					//If the the recursion hasn't reached the last element, then the result
-					//is the concept representing the remaining stack;
-					result = this.resolveStack();
-				}
-			} else {
-				//Checks if the Expression is a OCL iterator
-				if (exp instanceof IteratorExp) {
-					//If the expression is an Iterator, the "topExp" receives the Concept
-					//representing the source stack
-					topExp = s.innerStack.resolveStack();
-					//Returns the concept representing the remaining stack
-					result = this.resolveStack();
-				}
 			}
 		}
-		return result;
+		return ans.toString();
 	}
 
 	/**
-	 * Converts the OCL stored in the multi-level stack in this variable to an OCL Expression String
-	 * 
-	 * @return
-	 * 		The OCL expression form of the expression stored at this stack
+	 * Schedules the printing of the elements below an operation applied to them, if any
 	 */
-	public String print() {
-		int originalStackPoint = stackPoint;
-		//Instantiates the variable that will contain the String with the resulting expression with a blank String
-		String ans = BLANK;
-		//Removes the element at the top of the stack and stores it in the "currentElement" variable
-		StackElement currentElement = pop();
-		//Extracts the expression from the "currentElement"
-		OCLExpression<EClassifier> elem = currentElement.getExpression();
-		//Checks if the expression is an OCL Operation
-		if (elem instanceof OperationCallExp<?, ?>) {
-			//Casts the OCLExpression variable to an OperationCallExp variable  
-			OperationCallExp<EClassifier, EOperation> operationExp = (OperationCallExp<EClassifier, EOperation>) elem;
-			//Checks the type of the operation being printed and adds the text representing it to the "ans" 
-			//If the operation is an "not","and","or" or "implies", an recursive call to this method occurs
-			switch(operationExp.getReferredOperation().getName()){
-				case OCL_IS_TYPE_OF:
-					//Extracts the name of the Type being checked
-					String argumentName = operationExp.getArgument().get(0).toString()
-							.split(DOUBLE_COLON)[operationExp.getArgument().get(0).toString().split(DOUBLE_COLON).length - 1];
-					ans = OCL_IS_TYPE_OF + String.format(PARENTHESIS_FOR_FORMAT, argumentName);
-					break;
-				case NOT:
-					ans = NOT + String.format(PARENTHESIS_FOR_FORMAT, print());
-					break;
-				case AND:
-					ans = print() + SPACE + AND + SPACE + currentElement.innerStack.print();
-					break;
-				case OR:
-					ans = print() + SPACE + OR + SPACE + currentElement.innerStack.print();
-					break;
-				case IMPLIES:
-					ans = print() + SPACE + IMPLIES + SPACE + currentElement.innerStack.print();
-					break;
-				case NOT_EMPTY:
-					ans = print() + ARROW + NOT_EMPTY + PARENTHESIS;
-					break;
-				case IS_EMPTY:
-					ans = print() + ARROW + IS_EMPTY + PARENTHESIS;
-					break;
-				case OCL_AS_TYPE:
-					//Extracts the name of the Type being casted
-					String argumentNameAsType = operationExp.getArgument().get(0).toString()
-					.split(DOUBLE_COLON)[operationExp.getArgument().get(0).toString()
-							.split(DOUBLE_COLON).length - 1];
-					ans = OCL_IS_TYPE_OF + String.format(PARENTHESIS_FOR_FORMAT, argumentNameAsType);
-					break;
-				default:
-					break;
-			}
-		} else {
-			//Checks if the expression is an OCL Property
-			if (elem instanceof PropertyCallExp) {
-				//Casts the OCLExpression variable to an PropertyCallExp variable  
-				PropertyCallExp<EClassifier, EReference> resExp = (PropertyCallExp<EClassifier, EReference>) elem;
-				//Extracts the role to which this property refers to
-				String role = resExp.getReferredProperty().getName();
-				//If stackPoint is zero, then the role name is the first element of the expression
-				if (stackPoint == 0) {
-					ans = role;
-				} else {
-					//If stackPoint is not zero, then the role name in the middle of the expression and should be preceded by a dot.
-					ans = DOT + role;
-				}
-			} else {
-				//Checks if the expression is an OCL Iterator
-				if (elem instanceof IteratorExp) {
-					//If stackPoint is not zero, then the operator in the middle of the expression is an implies sign
-					if (stackPoint != 0) {
-						ans = ARROW;
-					}
-					//If stackPoint is zero, then recursive calls to this method are applied and concatenated to form the OCL Expression String
-					ans = print() + ans + elem.getName() + String.format(PARENTHESIS_FOR_FORMAT, currentElement.innerStack.print());
-				}
-			}
+	private static void pushSourceFrames(ArrayDeque<Frame> work, StackExp stack, int size, String separator) {
+		if (size != 0) {
+			work.push(new Frame(separator));
+			work.push(new Frame(RESOLVE, stack, size, null));
+		}
+	}
+
+	/**
+	 * Unit of pending work of the traversals: the resolution of the first
+	 * elements of a stack, the combination of concepts already resolved or a
+	 * text to be printed
+	 */
+	private static final class Frame {
+		private final int action;
+		private final StackExp stack;
+		private final int size;
+		private OWLClassExpression topExp;
+		private final String text;
+
+		private Frame(int action, StackExp stack, int size, OWLClassExpression topExp) {
+			this.action = action;
+			this.stack = stack;
+			this.size = size;
+			this.topExp = topExp;
+			this.text = null;
+		}
+
+		private Frame(String text) {
+			this.action = RESOLVE;
+			this.stack = null;
+			this.size = 0;
+			this.topExp = null;
+			this.text = text;
 		}
-		stackPoint = originalStackPoint;
-		return ans;
 	}
 }
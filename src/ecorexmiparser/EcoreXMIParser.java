@@ -18,23 +18,46 @@
 
 package ecorexmiparser;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.stax2.XMLInputFactory2;
+import org.codehaus.stax2.XMLStreamReader2;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EReference;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
-import org.xml.sax.helpers.XMLReaderFactory;
+
+import com.ctc.wstx.api.WstxInputProperties;
+import com.ctc.wstx.stax.WstxInputFactory;
+
+import util.ModelInput;
 
 /**
  * @author Cassio Santos, Christiano Braga
@@ -46,28 +69,150 @@ public class EcoreXMIParser {
 
 	private String CONTAINERNAME = "XMIContainer";
 	private final String OBJECT_PREFIX = "Object";
-	private Map<String, ArrayList<TObject>> objectPool;
-	private Map<String, ArrayList<TObject>> objectPoolSimplified;
-	private Map<String, ArrayList<String>> inheritanceClosureMap;
-	private Map<String, HashMap<TObject, ArrayList<TLink>>> linkPool;
+	private final String TYPE_ATTRIBUTE = "type";
+	private final String ID_ATTRIBUTE = "id";
+	private final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+	private final String XMI_NAMESPACE_PREFIX = "http://www.omg.org/";
+	private final String REFERENCE_PREFIX = "//@";
+	private final String ILL_FORMED_REFERENCE_ERROR = "The reference \"%s\" is not in the form //@feature.index/@feature.index";
+	private final String UNRESOLVED_REFERENCE_ERROR = "The reference \"%s\" does not name an object of the model";
+	private final String UNKNOWN_TYPE_ERROR = "The element type \"%s\" is not a class of the metamodel";
+	private final String XMI_ERROR = "The object model %s could not be read, at line %d, column %d: %s";
+	private final String XMI_READ_ERROR = "The object model %s could not be read: %s";
+	private final String XMI_INTERRUPTED_ERROR = "The parsing of the object model %s was interrupted.";
+	
+	//Size of the buffers between the file and the XML reader
+	private static final int FILE_BUFFER_SIZE = 1 << 20;
+	//Extension of the object model inside a zip archive
+	private static final String XMI_FILE_EXTENSION = ".xmi";
+	private static final int READER_BUFFER_SIZE = 1 << 16;
+	
+	//Smallest chunk parsed by a thread, and number of chunks given to each thread,
+	//so the threads finishing first take the remaining chunks
+	private static final long MIN_CHUNK_SIZE = 4 << 20;
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	private XMIReaderMode readerMode = XMIReaderMode.SAX;
+	private int threads = 1;
+	private long minChunkSize = MIN_CHUNK_SIZE;
+	//True if the parser reads a chunk of a file, whose objects are appended to the whole store later
+	private boolean chunkParser = false;
+	//Number added to the lines of the stream being parsed to get the lines of the file
+	private int lineOffset = 0;
+	private ObjectStore objectStore;
+	//Receives the objects and links while they are parsed, null if there is none
+	private ObjectModelListener listener;
+	
+	//Type and association slots of each class, computed once instead of for every element
+	private Map<String, TypeSlots> typeSlots;
+	//Slots already found for each element name and for each xsi:type value
+	private Map<String, TypeSlots> elementSlots;
+	private Map<String, TypeSlots> xsiTypeSlots;
+	//Feature names already read in references and the classes they name
+	private ArrayList<String> featureNames;
+	private IntArray featureClasses;
+	
+	//Paths and ids of the objects, and the references resolved once every object is known,
+	//with the position in the file of the element holding each one
+	private ReferenceIndex referenceIndex;
+	private IntArray pendingAssociations;
+	private IntArray pendingLinks;
+	private IntArray pendingSources;
+	private ArrayList<String> pendingReferences;
+	private IntArray pendingLines;
+	private IntArray pendingColumns;
+	//True if the root is the ECC container, whose references name a class and a position among its instances
+	private boolean containerRoot = false;
+	//Objects and slots of the open elements, NO_OBJECT standing for the container,
+	//and the depth inside an element that is not an object
+	private IntArray openObjects;
+	private ArrayList<TypeSlots> openSlots;
+	private int skippedDepth = 0;
 
 	public EcoreXMIParser(ArrayList<EClass> classes, ArrayList<EReference> associations, String ePackageName) {
+		this(classes, associations, ePackageName, false);
+	}
+
+	/**
+	 * @param classes
+	 * 		The classes of the metamodel
+	 * @param associations
+	 * 		The references of the metamodel
+	 * @param ePackageName
+	 * 		The name of the metamodel package
+	 * @param offHeap
+	 * 		True if the objects and links are stored outside the Java heap
+	 */
+	public EcoreXMIParser(ArrayList<EClass> classes, ArrayList<EReference> associations, String ePackageName,
+			boolean offHeap) {
 		CONTAINERNAME = String.format(CONTAINERNAME, ePackageName);
-		objectPool = new HashMap<String, ArrayList<TObject>>();
-		objectPoolSimplified = new HashMap<String, ArrayList<TObject>>();
-		inheritanceClosureMap = new HashMap<String, ArrayList<String>>();
+		objectStore = new ObjectStore(classes, associations, offHeap);
+		
+		//Relates each class to its id and each of its attribute names to the
+		//association it represents
+		typeSlots = new HashMap<String, TypeSlots>();
 		for (EClass eClass : classes) {
-			objectPool.put(eClass.getName(), new ArrayList<TObject>());
-			objectPoolSimplified.put(eClass.getName(), new ArrayList<TObject>());
+			TypeSlots slots = new TypeSlots(objectStore.getClassId(eClass.getName()));
 			ArrayList<EClass> toAns = new ArrayList<EClass>();
 			toAns.add(eClass);
-			inheritanceClosureMap.put(eClass.getName(), calculateInheritanceClosure(toAns));
+			for (String eClsName : calculateInheritanceClosure(toAns)) {
+				//The association declared closest to the class is the one used, as
+				//the inheritance closure starts with the class itself
+				for (EReference eReference : associations) {
+					if (eReference.getEOpposite().getEType().getName().equals(eClsName)
+							&& !slots.associations.containsKey(eReference.getName())) {
+						slots.associations.put(eReference.getName(),
+								objectStore.getAssociationId(eClsName, eReference.getName()));
+					}
+				}
+			}
+			typeSlots.put(eClass.getName(), slots);
 		}
-		linkPool = new HashMap<String, HashMap<TObject, ArrayList<TLink>>>();
-		for (EReference eReference : associations) {
-			linkPool.put(eReference.getEOpposite().getEType().getName() + eReference.getName(),
-					new HashMap<TObject, ArrayList<TLink>>());
+		//Relates the containment features of each class to the slots of their type
+		for (EClass eClass : classes) {
+			TypeSlots slots = typeSlots.get(eClass.getName());
+			for (EReference containment : eClass.getEAllContainments()) {
+				TypeSlots childSlots = typeSlots.get(containment.getEReferenceType().getName());
+				if (childSlots != null) {
+					slots.containments.put(containment.getName(), new Containment(childSlots,
+							containment.getEOpposite() == null ? null : containment.getEOpposite().getName()));
+				}
+			}
 		}
+		elementSlots = new HashMap<String, TypeSlots>();
+		xsiTypeSlots = new HashMap<String, TypeSlots>();
+		featureNames = new ArrayList<String>();
+		featureClasses = new IntArray(0, false);
+		initReferences();
+	}
+
+	/**
+	 * Creates a parser for a chunk of the file read by another parser. The
+	 * class slots are only read while parsing, so they are shared.
+	 */
+	private EcoreXMIParser(EcoreXMIParser whole) {
+		CONTAINERNAME = whole.CONTAINERNAME;
+		readerMode = whole.readerMode;
+		chunkParser = true;
+		objectStore = whole.objectStore.createPart();
+		typeSlots = whole.typeSlots;
+		elementSlots = new HashMap<String, TypeSlots>();
+		xsiTypeSlots = new HashMap<String, TypeSlots>();
+		featureNames = new ArrayList<String>();
+		featureClasses = new IntArray(0, false);
+		initReferences();
+	}
+
+	private void initReferences() {
+		referenceIndex = new ReferenceIndex();
+		pendingAssociations = new IntArray(0, false);
+		pendingLinks = new IntArray(0, false);
+		pendingSources = new IntArray(0, false);
+		pendingReferences = new ArrayList<String>();
+		pendingLines = new IntArray(0, false);
+		pendingColumns = new IntArray(0, false);
+		openObjects = new IntArray(0, false);
+		openSlots = new ArrayList<TypeSlots>();
 	}
 
 	private ArrayList<String> calculateInheritanceClosure(ArrayList<EClass> composedAnswer) {
@@ -92,95 +237,781 @@ public class EcoreXMIParser {
 	}
 
 	/**
-	 * Parses the file. After this call a query method can be called.
+	 * @param readerMode
+	 * 		The XML reader used by the next parse
 	 */
-	public void parse(String xmiSourceModel) {
-		File objectModelFile = new File(xmiSourceModel);
-		InputStream inputStream = null;
+	public void setReaderMode(XMIReaderMode readerMode) {
+		this.readerMode = readerMode;
+	}
+
+	/**
+	 * @param threads
+	 * 		The maximum number of threads parsing chunks of the file. With a
+	 * 		single thread the file is parsed as a whole.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * @param minChunkSize
+	 * 		The smallest chunk parsed by a thread, so small files can be split
+	 * 		while testing
+	 */
+	void setMinChunkSize(long minChunkSize) {
+		this.minChunkSize = minChunkSize;
+	}
+
+	/**
+	 * @param listener
+	 * 		The listener receiving the objects and links while they are parsed,
+	 * 		or null for none. A file parsed with a listener is never split into
+	 * 		chunks, so the objects are received in the order of the file.
+	 */
+	public void setListener(ObjectModelListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Parses the file. After this call a query method can be called. A file
+	 * compressed with gzip or zip is decompressed by another thread while it
+	 * is parsed, and is never split into chunks.
+	 * 
+	 * @throws IOException
+	 * 		If the file can not be read or is not a valid object model. The
+	 * 		message tells the line and column where the problem was found.
+	 */
+	public void parse(String xmiSourceModel) throws IOException {
+		long fileLength = new File(xmiSourceModel).length();
+		if (threads > 1 && listener == null && !ModelInput.isCompressed(xmiSourceModel)) {
+			//Files smaller than two chunks are not worth splitting
+			long chunkSize = Math.max(minChunkSize, fileLength / (threads * CHUNKS_PER_THREAD));
+			if (fileLength >= 2 * chunkSize) {
+				XMISplitter splitter = new XMISplitter(xmiSourceModel, chunkSize);
+				//Only the children of the ECC container can be parsed apart, as any
+				//other root would be created again by every chunk
+				String rootName = splitter.getRootName();
+				if (splitter.getChunkCount() > 1
+						&& rootName.substring(rootName.indexOf(':') + 1).equals(CONTAINERNAME)) {
+					parseChunks(xmiSourceModel, splitter);
+					return;
+				}
+			}
+		}
+		InputStream inputStream = ModelInput.open(xmiSourceModel, XMI_FILE_EXTENSION, FILE_BUFFER_SIZE);
 		try {
-			{
-				XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-				xmlReader.setContentHandler(new XMIHandler());
-				inputStream = new FileInputStream(objectModelFile);
-				xmlReader.parse(new InputSource(inputStream));
+			parse(xmiSourceModel, inputStream, 0);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Parses the chunks of the file on a pool of threads, each one into its
+	 * own store, and appends the stores in the order of the file. The objects
+	 * get the ids a sequential parse would give them, and the link positions
+	 * are resolved once every chunk is appended.
+	 */
+	private void parseChunks(String xmiSourceModel, XMISplitter splitter) throws IOException {
+		int chunks = splitter.getChunkCount();
+		List<ChunkTask> tasks = new ArrayList<ChunkTask>(chunks);
+		RandomAccessFile file = new RandomAccessFile(xmiSourceModel, "r");
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks));
+		try {
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				tasks.add(new ChunkTask(xmiSourceModel, splitter, file.getChannel(), chunk));
+			}
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(String.format(XMI_INTERRUPTED_ERROR, xmiSourceModel));
+		} catch (ExecutionException ex) {
+			throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getCause()), ex.getCause());
+		} finally {
+			pool.shutdown();
+			file.close();
+		}
+		
+		//The first chunk that failed is reported, as a sequential parse would do
+		for (ChunkTask task : tasks) {
+			if (task.error != null) {
+				throw task.error;
+			}
+		}
+		containerRoot = true;
+		referenceIndex.addRoot(ReferenceIndex.NO_OBJECT);
+		for (ChunkTask task : tasks) {
+			EcoreXMIParser part = task.parser;
+			//The pending links are shifted by the links already in their association
+			for (int i = 0; i < part.pendingReferences.size(); i++) {
+				int association = part.pendingAssociations.get(i);
+				pendingAssociations.add(association);
+				pendingLinks.add(part.pendingLinks.get(i) + objectStore.getAssociationLinkCount(association));
+				pendingSources.add(part.pendingSources.get(i) + objectStore.getObjectCount());
+				pendingReferences.add(part.pendingReferences.get(i));
+				pendingLines.add(part.pendingLines.get(i));
+				pendingColumns.add(part.pendingColumns.get(i));
 			}
+			int objectBase = objectStore.getObjectCount();
+			objectStore.append(part.objectStore);
+			referenceIndex.append(part.referenceIndex, objectBase);
+			task.parser = null;
+		}
+		try {
+			resolveReferences();
+			objectStore.seal();
+		} catch (SAXParseException ex) {
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, ex.getLineNumber(), ex.getColumnNumber(),
+					ex.getMessage()), ex);
+		} catch (IndexOutOfBoundsException ex) {
+			throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getMessage()), ex);
+		}
+	}
+
+	/**
+	 * Parses a stream with the selected reader
+	 * 
+	 * @param lineOffset
+	 * 		The number added to the lines of the stream to get the lines of the file
+	 */
+	private void parse(String xmiSourceModel, InputStream inputStream, int lineOffset) throws IOException {
+		this.lineOffset = lineOffset;
+		if (readerMode == XMIReaderMode.STAX) {
+			parseStAX(xmiSourceModel, inputStream, lineOffset);
+		} else {
+			parseSAX(xmiSourceModel, inputStream, lineOffset);
+		}
+	}
+
+	/**
+	 * Parses the file with a SAX reader, which pushes the elements to a handler
+	 */
+	private void parseSAX(String xmiSourceModel, InputStream inputStream, int lineOffset) throws IOException {
+		XMIHandler handler = new XMIHandler();
+		try {
+			//The handler reads the local names and the namespaces of the attributes
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+			xmlReader.setContentHandler(handler);
+			//The handler reports the errors by throwing them, instead of printing them
+			xmlReader.setErrorHandler(handler);
+			xmlReader.parse(new InputSource(inputStream));
+		} catch (SAXParseException ex) {
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, ex.getLineNumber() + lineOffset,
+					ex.getColumnNumber(), ex.getMessage()), ex);
+		} catch (UnlocatedException ex) {
+			throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getMessage()), ex);
 		} catch (SAXException ex) {
-			ex.printStackTrace();
-		} catch (FileNotFoundException ex) {
-			ex.printStackTrace();
-		} catch (IOException ex) {
-			ex.printStackTrace();
+			//Errors found by the handler are located by the position of the reader
+			Locator locator = handler.locator;
+			if (locator == null) {
+				throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getMessage()), ex);
+			}
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, locator.getLineNumber() + lineOffset,
+					locator.getColumnNumber(), ex.getMessage()), ex);
+		} catch (ParserConfigurationException ex) {
+			throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getMessage()), ex);
+		}
+	}
+
+	/**
+	 * Parses the file with a woodstox pull reader. Only the start and the end
+	 * of the elements are decoded; the text is skipped.
+	 */
+	private void parseStAX(String xmiSourceModel, InputStream inputStream, int lineOffset) throws IOException {
+		XMLInputFactory2 factory = new WstxInputFactory();
+		factory.configureForSpeed();
+		//The locations are kept, so errors can tell where they were found
+		factory.setProperty(XMLInputFactory2.P_PRESERVE_LOCATION, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(WstxInputProperties.P_INPUT_BUFFER_LENGTH, READER_BUFFER_SIZE);
+		XMLStreamReader2 reader = null;
+		try {
+			reader = (XMLStreamReader2) factory.createXMLStreamReader(inputStream);
+			StAXAttributes attributes = new StAXAttributes(reader);
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					startObject(reader.getLocalName(), attributes);
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					endObject();
+				}
+			}
+			sealObjects();
+		} catch (XMLStreamException ex) {
+			//Woodstox appends the location to the message in a line of its own
+			String message = ex.getMessage();
+			if (message != null && message.indexOf('\n') >= 0) {
+				message = message.substring(0, message.indexOf('\n'));
+			}
+			Location location = ex.getLocation();
+			if (location == null) {
+				throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, message), ex);
+			}
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, location.getLineNumber() + lineOffset,
+					location.getColumnNumber(), message), ex);
+		} catch (SAXParseException ex) {
+			//Unresolved references tell where they were read
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, ex.getLineNumber(), ex.getColumnNumber(),
+					ex.getMessage()), ex);
+		} catch (UnlocatedException ex) {
+			throw new IOException(String.format(XMI_READ_ERROR, xmiSourceModel, ex.getMessage()), ex);
+		} catch (SAXException ex) {
+			//The current location follows the start tag, as the position of a SAX reader does
+			Location location = reader.getLocationInfo().getCurrentLocation();
+			throw new IOException(String.format(XMI_ERROR, xmiSourceModel, location.getLineNumber() + lineOffset,
+					location.getColumnNumber(), ex.getMessage()), ex);
 		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException ex) {
+					//The stream itself is closed by the caller
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the object represented by an element, and its links. The root
+	 * element is either the ECC container or an object, and the children of
+	 * the container are typed by their element name. The children of an
+	 * object are the values of its containment features, and the elements
+	 * that are not, such as attribute values, are skipped with their content.
+	 * 
+	 * @param localName
+	 * 		The element name, without the namespace prefix
+	 * @param attributes
+	 * 		The attributes of the element
+	 * @throws SAXException
+	 * 		If the element or one of its references does not match the metamodel
+	 */
+	private void startObject(String localName, ElementAttributes attributes) throws SAXException {
+		if (skippedDepth > 0) {
+			skippedDepth++;
+			return;
+		}
+		int depth = openSlots.size();
+		if (depth == 0 && localName.equals(CONTAINERNAME)) {
+			containerRoot = true;
+			referenceIndex.addRoot(ReferenceIndex.NO_OBJECT);
+			openObjects.add(ReferenceIndex.NO_OBJECT);
+			openSlots.add(null);
+			return;
+		}
+		int parent = depth == 0 ? ReferenceIndex.NO_OBJECT : openObjects.get(depth - 1);
+		TypeSlots parentSlots = depth == 0 ? null : openSlots.get(depth - 1);
+		Containment containment = null;
+		if (parentSlots != null) {
+			containment = parentSlots.containments.get(localName);
+			if (containment == null) {
+				skippedDepth = 1;
+				return;
+			}
+		}
+		
+		//Finds the xsi:type and xmi:id attributes, wherever they are among the attributes
+		int length = attributes.getLength();
+		int typeIndex = -1;
+		int idIndex = -1;
+		for (int i = 0; i < length; i++) {
+			String name = attributes.getLocalName(i);
+			if (TYPE_ATTRIBUTE.equals(name) && XSI_NAMESPACE.equals(attributes.getURI(i))) {
+				typeIndex = i;
+			} else if (ID_ATTRIBUTE.equals(name) && attributes.getURI(i) != null
+					&& attributes.getURI(i).startsWith(XMI_NAMESPACE_PREFIX)) {
+				idIndex = i;
+			}
+		}
+		TypeSlots slots;
+		if (typeIndex >= 0) {
+			slots = getXsiTypeSlots(attributes.getValue(typeIndex));
+		} else if (containment != null) {
+			slots = containment.slots;
+		} else {
+			slots = getElementSlots(localName);
+		}
+		int obj = objectStore.addObject(slots.classId);
+		if (listener != null) {
+			listener.objectAdded(obj, slots.classId);
+		}
+		if (depth == 0) {
+			referenceIndex.addRoot(obj);
+		} else {
+			referenceIndex.addChild(parent, localName, obj);
+		}
+		if (idIndex >= 0) {
+			referenceIndex.addId(attributes.getValue(idIndex), obj);
+		}
+		for (int i = 0; i < length; i++) {
+			if (i == typeIndex || i == idIndex) {
+				continue;
+			}
+			Integer association = slots.associations.get(attributes.getLocalName(i));
+			if (association != null) {
+				objectStore.addSource(association, obj);
+				decodeReferences(attributes.getValue(i), association, obj);
+			}
+		}
+		//The references resolved later are located by the element holding them
+		if (pendingLines.size() < pendingReferences.size()) {
+			int line = attributes.getLineNumber() + lineOffset;
+			int column = attributes.getColumnNumber();
+			while (pendingLines.size() < pendingReferences.size()) {
+				pendingLines.add(line);
+				pendingColumns.add(column);
+			}
+		}
+		
+		//The containment links are only known now, after the parent and its attributes
+		if (containment != null) {
+			Integer association = parentSlots.associations.get(localName);
+			if (association != null) {
+				objectStore.addLateLink(association, parent, obj);
+				if (listener != null) {
+					listener.linkAdded(association, parent, obj);
+				}
+			}
+			Integer opposite = containment.opposite == null ? null : slots.associations.get(containment.opposite);
+			if (opposite != null) {
+				objectStore.addLateLink(opposite, obj, parent);
+				if (listener != null) {
+					listener.linkAdded(opposite, obj, parent);
+				}
+			}
+		}
+		openObjects.add(obj);
+		openSlots.add(slots);
+	}
+
+	/**
+	 * Closes the element last opened
+	 */
+	private void endObject() {
+		if (skippedDepth > 0) {
+			skippedDepth--;
+			return;
+		}
+		openObjects.removeLast();
+		openSlots.remove(openSlots.size() - 1);
+	}
+
+	/**
+	 * Sets the target of the links whose reference is a path or an id
+	 * 
+	 * @throws SAXParseException
+	 * 		If a reference does not name an object of the model, located at
+	 * 		the line of the file and the column of the element holding it
+	 */
+	private void resolveReferences() throws SAXParseException {
+		for (int i = 0; i < pendingReferences.size(); i++) {
+			int target = referenceIndex.resolve(pendingReferences.get(i));
+			if (target < 0) {
+				throw new SAXParseException(String.format(UNRESOLVED_REFERENCE_ERROR, pendingReferences.get(i)), null,
+						null, pendingLines.get(i), pendingColumns.get(i));
+			}
+			objectStore.setLinkTarget(pendingAssociations.get(i), pendingLinks.get(i), target);
+			if (listener != null) {
+				listener.linkAdded(pendingAssociations.get(i), pendingSources.get(i), target);
+			}
+		}
+		pendingAssociations = new IntArray(0, false);
+		pendingLinks = new IntArray(0, false);
+		pendingSources = new IntArray(0, false);
+		pendingReferences.clear();
+		pendingLines = new IntArray(0, false);
+		pendingColumns = new IntArray(0, false);
+	}
+
+	/**
+	 * Resolves the link positions once every object is known. The objects of
+	 * a chunk are only known once the chunks before it are appended.
+	 * 
+	 * @throws SAXException
+	 * 		If a reference does not name an object, or a link refers to a
+	 * 		position with no object, which is only known at the end of the file
+	 */
+	private void sealObjects() throws SAXException {
+		if (chunkParser) {
+			return;
+		}
+		resolveReferences();
+		if (listener != null) {
+			listener.modelParsed();
+		}
+		try {
+			objectStore.seal();
+		} catch (IndexOutOfBoundsException e) {
+			throw new UnlocatedException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Releases the objects and links created by the last parse.
+	 */
+	public void clear() {
+		objectStore = null;
+		typeSlots.clear();
+		elementSlots.clear();
+		xsiTypeSlots.clear();
+		featureNames.clear();
+		initReferences();
+	}
+
+	/**
+	 * @return Returns the objects and links read by the last parse
+	 */
+	public ObjectStore getObjectStore() {
+		return objectStore;
+	}
+
+	/**
+	 * Finds the slots of the class named by an element, removing the object
+	 * prefix from the element name
+	 */
+	private TypeSlots getElementSlots(String localName) throws SAXException {
+		TypeSlots slots = elementSlots.get(localName);
+		if (slots == null) {
+			int prefix = localName.indexOf(OBJECT_PREFIX);
+			String type = prefix < 0 ? localName
+					: localName.substring(0, prefix) + localName.substring(prefix + OBJECT_PREFIX.length());
+			slots = getTypeSlots(type);
+			elementSlots.put(localName, slots);
+		}
+		return slots;
+	}
+
+	/**
+	 * Finds the slots of the class named by a xsi:type value, in the form package:class
+	 */
+	private TypeSlots getXsiTypeSlots(String value) throws SAXException {
+		TypeSlots slots = xsiTypeSlots.get(value);
+		if (slots == null) {
+			slots = getTypeSlots(value.substring(value.indexOf(':') + 1));
+			xsiTypeSlots.put(value, slots);
+		}
+		return slots;
+	}
+
+	private TypeSlots getTypeSlots(String type) throws SAXException {
+		TypeSlots slots = typeSlots.get(type);
+		if (slots == null) {
+			throw new SAXException(String.format(UNKNOWN_TYPE_ERROR, type));
+		}
+		return slots;
+	}
+
+	/**
+	 * Decodes the references of an attribute value, separated by spaces,
+	 * without regular expressions. Under the ECC container a reference in the
+	 * form //@Class.index names a position among the instances of the class,
+	 * and is decoded at once. Any other path, and any id, is resolved once
+	 * every object is known, so forward references are allowed.
+	 * 
+	 * @param value
+	 * 		The attribute value
+	 * @param association
+	 * 		The association receiving a link for each reference
+	 * @param source
+	 * 		The object holding the attribute
+	 * @throws SAXException
+	 * 		If a reference is not in the expected form
+	 */
+	private void decodeReferences(String value, int association, int source) throws SAXException {
+		int length = value.length();
+		int position = 0;
+		while (position < length) {
+			//Skips the spaces between references
+			if (value.charAt(position) == ' ') {
+				position++;
+				continue;
+			}
+			int end = position;
+			while (end < length && value.charAt(end) != ' ') {
+				end++;
+			}
+			if (!containerRoot || !decodeClassPosition(value, position, end, association, source)) {
+				int start = value.charAt(position) == '#' ? position + 1 : position;
+				if (start < end && value.charAt(start) == '/' && !ReferenceIndex.isPath(value, start, end)) {
+					throw new SAXException(String.format(ILL_FORMED_REFERENCE_ERROR, value));
+				}
+				pendingAssociations.add(association);
+				pendingLinks.add(objectStore.addPendingLink(association));
+				pendingSources.add(source);
+				pendingReferences.add(value.substring(position, end));
+			}
+			position = end;
+		}
+	}
+
+	/**
+	 * Decodes a reference in the form //@Class.index, stored between two
+	 * positions of an attribute value
+	 * 
+	 * @return Returns false if the reference is not in such form or does not name a class
+	 */
+	private boolean decodeClassPosition(String value, int start, int end, int association, int source) {
+		if (!value.startsWith(REFERENCE_PREFIX, start)) {
+			return false;
+		}
+		int nameStart = start + REFERENCE_PREFIX.length();
+		//Finds the last dot, which precedes the index, in a single segment
+		int lastDot = -1;
+		for (int i = nameStart; i < end; i++) {
+			char c = value.charAt(i);
+			if (c == '/') {
+				return false;
+			}
+			if (c == '.') {
+				lastDot = i;
+			}
+		}
+		if (lastDot <= nameStart || lastDot == end - 1) {
+			return false;
+		}
+		int index = 0;
+		for (int i = lastDot + 1; i < end; i++) {
+			char digit = value.charAt(i);
+			if (digit < '0' || digit > '9') {
+				return false;
+			}
+			index = index * 10 + (digit - '0');
+		}
+		int classId = getFeatureClass(value, nameStart, lastDot);
+		if (classId < 0) {
+			return false;
+		}
+		objectStore.addLink(association, classId, index);
+		if (listener != null) {
+			listener.positionLinkAdded(association, source, classId, index);
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the class named by the feature stored between two positions of a
+	 * reference. The names are few, so each one is looked up once and then
+	 * matched in place.
+	 * 
+	 * @return Returns the id of the class, or -1 if the feature is not named after a class
+	 */
+	private int getFeatureClass(String value, int start, int end) {
+		int length = end - start;
+		for (int i = 0; i < featureNames.size(); i++) {
+			String name = featureNames.get(i);
+			if (name.length() == length && value.regionMatches(start, name, 0, length)) {
+				return featureClasses.get(i);
+			}
+		}
+		String name = value.substring(start, end);
+		int classId = objectStore.getClassId(name);
+		featureNames.add(name);
+		featureClasses.add(classId);
+		return classId;
+	}
+
+	/**
+	 * Type slots of the objects held by a containment feature, and the name
+	 * of the opposite feature, if any
+	 */
+	private static class Containment {
+		private final TypeSlots slots;
+		private final String opposite;
+
+		private Containment(TypeSlots slots, String opposite) {
+			this.slots = slots;
+			this.opposite = opposite;
+		}
+	}
+
+	/**
+	 * Id of a class, associations represented by its attributes and
+	 * containment features represented by its child elements
+	 */
+	private static class TypeSlots {
+		private final int classId;
+		private final HashMap<String, Integer> associations;
+		private final HashMap<String, Containment> containments;
+
+		private TypeSlots(int classId) {
+			this.classId = classId;
+			associations = new HashMap<String, Integer>();
+			containments = new HashMap<String, Containment>();
+		}
+	}
+
+	/**
+	 * Parses a chunk of the file with its own parser
+	 */
+	private class ChunkTask implements Callable<Void> {
+		private final String xmiSourceModel;
+		private final XMISplitter splitter;
+		private final FileChannel channel;
+		private final int chunk;
+		private EcoreXMIParser parser;
+		private IOException error;
+
+		private ChunkTask(String xmiSourceModel, XMISplitter splitter, FileChannel channel, int chunk) {
+			this.xmiSourceModel = xmiSourceModel;
+			this.splitter = splitter;
+			this.channel = channel;
+			this.chunk = chunk;
+			parser = new EcoreXMIParser(EcoreXMIParser.this);
+		}
+
+		@Override
+		public Void call() throws IOException {
+			InputStream inputStream = new BufferedInputStream(splitter.openChunk(channel, chunk), FILE_BUFFER_SIZE);
 			try {
-				inputStream.close();
+				parser.parse(xmiSourceModel, inputStream, splitter.getLineOffset(chunk));
 			} catch (IOException ex) {
-				ex.printStackTrace();
+				error = ex;
+			} finally {
+				inputStream.close();
 			}
+			return null;
 		}
 	}
 
-	public Map<String, ArrayList<TObject>> getObjectPool() {
-		return objectPool;
+	/**
+	 * Error found once the whole file is read, which is reported without the
+	 * position of the reader, as it is not where the error is
+	 */
+	private static class UnlocatedException extends SAXException {
+		private static final long serialVersionUID = 1L;
+
+		private UnlocatedException(String message) {
+			super(message);
+		}
 	}
 
-	public Map<String, ArrayList<TObject>> getObjectPoolSimplified() {
-		return objectPoolSimplified;
+	/**
+	 * Attributes of an element, read the same way whatever the XML reader,
+	 * and the position following its start tag
+	 */
+	private interface ElementAttributes {
+		int getLength();
+
+		String getLocalName(int index);
+
+		String getURI(int index);
+
+		String getValue(int index);
+
+		int getLineNumber();
+
+		int getColumnNumber();
 	}
 
-	public Map<String, HashMap<TObject, ArrayList<TLink>>> getlinkPool() {
-		return linkPool;
+	/**
+	 * Attributes of the element under a StAX reader
+	 */
+	private static class StAXAttributes implements ElementAttributes {
+		private final XMLStreamReader2 reader;
+
+		private StAXAttributes(XMLStreamReader2 reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int getLength() {
+			return reader.getAttributeCount();
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			return reader.getAttributeLocalName(index);
+		}
+
+		@Override
+		public String getURI(int index) {
+			return reader.getAttributeNamespace(index);
+		}
+
+		@Override
+		public String getValue(int index) {
+			return reader.getAttributeValue(index);
+		}
+
+		@Override
+		public int getLineNumber() {
+			return reader.getLocationInfo().getCurrentLocation().getLineNumber();
+		}
+
+		@Override
+		public int getColumnNumber() {
+			return reader.getLocationInfo().getCurrentLocation().getColumnNumber();
+		}
 	}
 
-	private class XMIHandler extends DefaultHandler {
+	/**
+	 * Attributes of the element under a SAX reader
+	 */
+	private static class SAXAttributes implements ElementAttributes {
+		private Attributes attributes;
+		private Locator locator;
 
-		private int objectCounter;
+		@Override
+		public int getLength() {
+			return attributes.getLength();
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			return attributes.getLocalName(index);
+		}
 
-		public XMIHandler() {
-			objectCounter = 0;
+		@Override
+		public String getURI(int index) {
+			return attributes.getURI(index);
+		}
+
+		@Override
+		public String getValue(int index) {
+			return attributes.getValue(index);
+		}
+
+		@Override
+		public int getLineNumber() {
+			return locator == null ? 0 : locator.getLineNumber();
+		}
+
+		@Override
+		public int getColumnNumber() {
+			return locator == null ? 0 : locator.getColumnNumber();
+		}
+	}
+
+	private class XMIHandler extends DefaultHandler {
+		private final SAXAttributes elementAttributes = new SAXAttributes();
+		private Locator locator;
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+			this.locator = locator;
+			elementAttributes.locator = locator;
 		}
 
 		@Override
 		public void startElement(String uri, String localName, String qName, Attributes attributes)
 				throws SAXException {
-			if (!localName.equals(CONTAINERNAME)) {
-				TObject obj = new TObject(OBJECT_PREFIX + objectCounter);
-				objectCounter++;
-				String type = localName.replaceFirst(OBJECT_PREFIX, "");
-				int i = 0;
-				if (attributes.getLocalName(0) != null && attributes.getLocalName(0).equals("type")) {
-					type = attributes.getValue(0).split(":")[1];
-					i++;
-				}
-				objectPoolSimplified.get(type).add(obj);
-				for (String eClsName : inheritanceClosureMap.get(type)) {
-					objectPool.get(eClsName).add(obj);
-				}
-				while (i < attributes.getLength()) {
-					String keyName = "";
-					for (String originAttribute : inheritanceClosureMap.get(type)) {
-						keyName = originAttribute + attributes.getLocalName(i);
-						if (linkPool.keySet().contains(keyName)) {
-							break;
-						}
-					}
-					HashMap<TObject, ArrayList<TLink>> map = linkPool.get(keyName);
-					if (map != null) {
-						if (map.get(obj) == null) {
-							map.put(obj, new ArrayList<TLink>());
-						}
-						String value = attributes.getValue(i).replaceAll("//@", "");
-						String[] values = value.split(" ");
-						for (String val : values) {
-							int typeIndex = 0;
-							String typeName = val;
-							typeIndex = Integer.valueOf(val.substring(val.lastIndexOf(".") + 1));
-							typeName = val.substring(0, val.lastIndexOf("."));
-							map.get(obj).add(new TLink(typeName, typeIndex));
-						}
-					}
-					i++;
-				}
-			}
+			elementAttributes.attributes = attributes;
+			startObject(localName, elementAttributes);
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			endObject();
+		}
+
+		@Override
+		public void endDocument() throws SAXException {
+			//Every object is known, so the link positions can be resolved
+			sealObjects();
 		}
 	}
 }
@@ -0,0 +1,135 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Growable list of primitive ints, kept either in a Java array or in a direct
+ * (off-heap) buffer, which is not scanned by the garbage collector.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class IntArray {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] heap;
+	private IntBuffer direct;
+	private int size;
+
+	/**
+	 * @param capacity
+	 * 		The number of values stored before the first growth
+	 * @param offHeap
+	 * 		True if the values are stored outside the Java heap
+	 */
+	public IntArray(int capacity, boolean offHeap) {
+		capacity = Math.max(capacity, DEFAULT_CAPACITY);
+		if (offHeap) {
+			direct = allocate(capacity);
+		} else {
+			heap = new int[capacity];
+		}
+	}
+
+	/**
+	 * Appends a value to the end of the list
+	 */
+	public void add(int value) {
+		if (size == capacity()) {
+			grow(size * 2);
+		}
+		if (heap != null) {
+			heap[size] = value;
+		} else {
+			direct.put(size, value);
+		}
+		size++;
+	}
+
+	/**
+	 * Removes the last value of the list
+	 */
+	public void removeLast() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException(Integer.toString(-1));
+		}
+		size--;
+	}
+
+	public int get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return heap != null ? heap[index] : direct.get(index);
+	}
+
+	public void set(int index, int value) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		if (heap != null) {
+			heap[index] = value;
+		} else {
+			direct.put(index, value);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Releases the capacity not used by the values
+	 */
+	public void trim() {
+		if (size < capacity()) {
+			grow(Math.max(size, 1));
+		}
+	}
+
+	private int capacity() {
+		return heap != null ? heap.length : direct.capacity();
+	}
+
+	private void grow(int capacity) {
+		if (heap != null) {
+			int[] grown = new int[capacity];
+			System.arraycopy(heap, 0, grown, 0, size);
+			heap = grown;
+		} else {
+			IntBuffer grown = allocate(capacity);
+			IntBuffer values = direct.duplicate();
+			//Seen as a Buffer, so the code also runs on Java 8 when built by newer compilers
+			((Buffer) values).limit(size);
+			grown.put(values);
+			direct = grown;
+		}
+	}
+
+	private static IntBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+}
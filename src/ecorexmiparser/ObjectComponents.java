@@ -0,0 +1,181 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Connected components of the graph whose vertices are the objects of an
+ * ObjectStore and whose edges are its links, regardless of their direction.
+ * Objects of different components are never linked, so the components can be
+ * grouped into parts checked independently. The components are found with a
+ * union-find over the object ids, and numbered in the order of their first
+ * object.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectComponents {
+
+	private static final String PARTS_ERROR = "The objects must be split in at least one part.";
+
+	//Component of each object and number of objects of each component
+	private final int[] componentOf;
+	private final int[] componentSizes;
+
+	/**
+	 * Finds the components of a sealed object store
+	 */
+	public ObjectComponents(ObjectStore store) {
+		int objectCount = store.getObjectCount();
+		int[] parent = new int[objectCount];
+		for (int object = 0; object < objectCount; object++) {
+			parent[object] = object;
+		}
+		for (int association = 0; association < store.getAssociationCount(); association++) {
+			for (int s = 0; s < store.getSourceCount(association); s++) {
+				int source = store.getSource(association, s);
+				for (int l = 0; l < store.getLinkCount(association, s); l++) {
+					union(parent, source, store.getLinkTarget(association, s, l));
+				}
+			}
+		}
+
+		//Numbers the components in the order of their first object
+		componentOf = new int[objectCount];
+		int[] rootComponent = new int[objectCount];
+		int componentCount = 0;
+		for (int object = 0; object < objectCount; object++) {
+			int root = find(parent, object);
+			if (root == object) {
+				rootComponent[root] = componentCount++;
+			}
+			//The root of a component is its first object, so its number is already known
+			componentOf[object] = rootComponent[root];
+		}
+		componentSizes = new int[componentCount];
+		for (int object = 0; object < objectCount; object++) {
+			componentSizes[componentOf[object]]++;
+		}
+	}
+
+	public int getComponentCount() {
+		return componentSizes.length;
+	}
+
+	/**
+	 * @return Returns the component holding the object
+	 */
+	public int getComponent(int objectId) {
+		return componentOf[objectId];
+	}
+
+	/**
+	 * @return Returns the number of objects of the component
+	 */
+	public int getComponentSize(int component) {
+		return componentSizes[component];
+	}
+
+	/**
+	 * Groups the components into parts of similar numbers of objects. The
+	 * components are taken from the largest, each one going to the part with
+	 * the fewest objects, so the largest part is close to the largest
+	 * component whenever there are enough parts.
+	 *
+	 * @param parts
+	 * 		The maximum number of parts. Only the first getPartCount(parts)
+	 * 		parts receive objects
+	 * @return Returns the part of each object
+	 */
+	public int[] partition(int parts) {
+		int partCount = getPartCount(parts);
+		//Sorts the components by decreasing size, the first ones first among equals
+		Integer[] components = new Integer[componentSizes.length];
+		for (int component = 0; component < components.length; component++) {
+			components[component] = component;
+		}
+		Arrays.sort(components, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				int bySize = Integer.compare(componentSizes[second], componentSizes[first]);
+				return bySize != 0 ? bySize : Integer.compare(first, second);
+			}
+		});
+
+		int[] partOfComponent = new int[componentSizes.length];
+		long[] partSizes = new long[partCount];
+		for (int component : components) {
+			int smallest = 0;
+			for (int part = 1; part < partCount; part++) {
+				if (partSizes[part] < partSizes[smallest]) {
+					smallest = part;
+				}
+			}
+			partOfComponent[component] = smallest;
+			partSizes[smallest] += componentSizes[component];
+		}
+
+		int[] partOf = new int[componentOf.length];
+		for (int object = 0; object < partOf.length; object++) {
+			partOf[object] = partOfComponent[componentOf[object]];
+		}
+		return partOf;
+	}
+
+	/**
+	 * @param parts
+	 * 		The maximum number of parts
+	 * @return Returns the number of parts actually used to group the components,
+	 *         at least one even if there is no object
+	 */
+	public int getPartCount(int parts) {
+		if (parts < 1) {
+			throw new IllegalArgumentException(PARTS_ERROR);
+		}
+		return Math.max(1, Math.min(parts, componentSizes.length));
+	}
+
+	/**
+	 * Joins the components of two objects, keeping the smallest object id as
+	 * the root of the joined component
+	 */
+	private static void union(int[] parent, int first, int second) {
+		int firstRoot = find(parent, first);
+		int secondRoot = find(parent, second);
+		if (firstRoot < secondRoot) {
+			parent[secondRoot] = firstRoot;
+		} else if (secondRoot < firstRoot) {
+			parent[firstRoot] = secondRoot;
+		}
+	}
+
+	/**
+	 * Finds the root of the component of an object, halving the path on the way
+	 */
+	private static int find(int[] parent, int object) {
+		while (parent[object] != object) {
+			parent[object] = parent[parent[object]];
+			object = parent[object];
+		}
+		return object;
+	}
+}
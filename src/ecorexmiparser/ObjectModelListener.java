@@ -0,0 +1,63 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+/**
+ * Receives the objects and links of an object model while it is parsed, with
+ * the ids they get in the ObjectStore. Objects are received in the order of
+ * the file. A link is received once its source is known, and its target is
+ * either an object id or, for a reference naming a class and an index, the
+ * position of the target among the instances of the class, which may not be
+ * parsed yet.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public interface ObjectModelListener {
+
+	/**
+	 * Receives an object
+	 *
+	 * @param classId
+	 * 		The id of the type of the object
+	 */
+	public void objectAdded(int objectId, int classId);
+
+	/**
+	 * Receives a link whose target is an object
+	 */
+	public void linkAdded(int associationId, int sourceId, int targetId);
+
+	/**
+	 * Receives a link whose target is known by its position
+	 *
+	 * @param targetClassId
+	 * 		The id of the class named in the reference
+	 * @param position
+	 * 		The position of the target among the instances of that class, in
+	 * 		the order of the file
+	 */
+	public void positionLinkAdded(int associationId, int sourceId, int targetClassId, int position);
+
+	/**
+	 * Called once every object and link of the model was received
+	 */
+	public void modelParsed();
+}
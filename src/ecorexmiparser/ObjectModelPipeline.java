@@ -0,0 +1,225 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Passes the objects and links received from the parser to another listener
+ * running on a thread of its own, so the parsing and the work done with the
+ * objects overlap. The events are written as ints into blocks, and at most a
+ * fixed number of blocks wait for the consumer, so a slow consumer holds the
+ * parser back instead of letting the events pile up in memory.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectModelPipeline implements ObjectModelListener {
+
+	private static final String THREAD_NAME = "ECC object model pipeline";
+	private static final String INTERRUPTED_ERROR = "The object model pipeline was interrupted.";
+
+	//Number of ints in a block, and the largest event written to a block
+	private static final int BLOCK_SIZE = 1 << 14;
+	private static final int MAX_EVENT_SIZE = 5;
+
+	//Event kinds, each one followed by its arguments
+	private static final int OBJECT = 0;
+	private static final int LINK = 1;
+	private static final int POSITION_LINK = 2;
+	private static final int PARSED = 3;
+
+	//Block marking the end of the events
+	private static final int[] END = new int[0];
+
+	private final ObjectModelListener consumer;
+	private final BlockingQueue<int[]> blocks;
+	private final Thread consumerThread;
+	//First error thrown by the consumer, after which the events are discarded
+	private volatile RuntimeException error;
+
+	//Block being written by the parser and its length
+	private int[] block;
+	private int length;
+
+	/**
+	 * Starts the thread passing the events to the consumer
+	 *
+	 * @param consumer
+	 * 		The listener receiving the events on the pipeline thread
+	 * @param queuedBlocks
+	 * 		The maximum number of blocks waiting for the consumer
+	 */
+	public ObjectModelPipeline(ObjectModelListener consumer, int queuedBlocks) {
+		this.consumer = consumer;
+		blocks = new ArrayBlockingQueue<int[]>(queuedBlocks);
+		block = new int[BLOCK_SIZE];
+		consumerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, THREAD_NAME);
+		consumerThread.setDaemon(true);
+		consumerThread.start();
+	}
+
+	@Override
+	public void objectAdded(int objectId, int classId) {
+		reserve();
+		block[length++] = OBJECT;
+		block[length++] = objectId;
+		block[length++] = classId;
+	}
+
+	@Override
+	public void linkAdded(int associationId, int sourceId, int targetId) {
+		reserve();
+		block[length++] = LINK;
+		block[length++] = associationId;
+		block[length++] = sourceId;
+		block[length++] = targetId;
+	}
+
+	@Override
+	public void positionLinkAdded(int associationId, int sourceId, int targetClassId, int position) {
+		reserve();
+		block[length++] = POSITION_LINK;
+		block[length++] = associationId;
+		block[length++] = sourceId;
+		block[length++] = targetClassId;
+		block[length++] = position;
+	}
+
+	@Override
+	public void modelParsed() {
+		reserve();
+		block[length++] = PARSED;
+	}
+
+	/**
+	 * Waits for the consumer to receive every event
+	 *
+	 * @throws RuntimeException
+	 * 		The error thrown by the consumer, if any
+	 * @throws IllegalStateException
+	 * 		If the thread is interrupted while waiting
+	 */
+	public void finish() {
+		send();
+		put(END);
+		try {
+			consumerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(INTERRUPTED_ERROR);
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Stops the consumer without passing the events still queued, as when
+	 * the parsing fails
+	 */
+	public void abort() {
+		consumerThread.interrupt();
+	}
+
+	/**
+	 * Sends the current block if there is no room for another event
+	 */
+	private void reserve() {
+		if (length + MAX_EVENT_SIZE > BLOCK_SIZE) {
+			send();
+		}
+	}
+
+	private void send() {
+		if (length == 0) {
+			return;
+		}
+		int[] full = block;
+		if (length < BLOCK_SIZE) {
+			full = new int[length];
+			System.arraycopy(block, 0, full, 0, length);
+		}
+		put(full);
+		block = new int[BLOCK_SIZE];
+		length = 0;
+	}
+
+	private void put(int[] full) {
+		try {
+			blocks.put(full);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(INTERRUPTED_ERROR);
+		}
+	}
+
+	/**
+	 * Passes the events of each block to the consumer, until the end block
+	 */
+	private void consume() {
+		try {
+			for (int[] events = blocks.take(); events != END; events = blocks.take()) {
+				//After an error the blocks are still taken, so the parser is not blocked
+				if (error != null) {
+					continue;
+				}
+				try {
+					dispatch(events);
+				} catch (RuntimeException e) {
+					error = e;
+				}
+			}
+		} catch (InterruptedException e) {
+			//The pipeline was aborted
+		}
+	}
+
+	private void dispatch(int[] events) {
+		int position = 0;
+		while (position < events.length) {
+			switch (events[position]) {
+			case OBJECT:
+				consumer.objectAdded(events[position + 1], events[position + 2]);
+				position += 3;
+				break;
+			case LINK:
+				consumer.linkAdded(events[position + 1], events[position + 2], events[position + 3]);
+				position += 4;
+				break;
+			case POSITION_LINK:
+				consumer.positionLinkAdded(events[position + 1], events[position + 2], events[position + 3],
+						events[position + 4]);
+				position += 5;
+				break;
+			default:
+				consumer.modelParsed();
+				position += 1;
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,575 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EReference;
+
+/**
+ * Objects and links of an object model, identified by ints. Objects are
+ * numbered in the order they appear in the XMI file and only their type is
+ * stored; the instances of a class, its subclasses included, are derived from
+ * the class hierarchy. The links of each association are kept in compressed
+ * sparse rows: the sources holding the association attribute, in increasing
+ * order, the offset of their first link and the targets of all the links.
+ * <p>
+ * While parsing, a link target is recorded as the class named in the
+ * reference and a position among the instances of that class, or directly as
+ * an object id when the reference was resolved by other means. The positions
+ * are replaced by object ids when the store is sealed. Links found after
+ * their source, such as the containment of nested objects, are kept apart and
+ * merged into the rows when the store is sealed.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectStore {
+
+	private static final String OBJECT_PREFIX = "Object";
+	private static final String SEALED_ERROR = "The object store can not change once it is sealed.";
+	private static final String UNSORTED_SOURCE_ERROR = "The links of the object %d must be added after the links of the object %d.";
+	private static final String UNRESOLVED_LINK_ERROR = "There is no object at the position %d of the class %s.";
+	private static final String FOREIGN_PART_ERROR = "The part was not created by this object store.";
+	private static final String UNRESOLVED_OBJECT_ERROR = "A link of the association %d has no target object.";
+
+	//Class recorded for a link whose target is already an object id
+	private static final int OBJECT_TARGET = -1;
+
+	private final boolean offHeap;
+
+	//Classes of the metamodel and, for each class, the classes whose objects are its instances
+	private final String[] classNames;
+	private final HashMap<String, Integer> classIds;
+	private final BitSet[] instanceTypes;
+
+	//Associations of the metamodel, identified by the source class name and the reference name
+	private final HashMap<String, Integer> associationIds;
+	private final int associationCount;
+
+	//Type of each object
+	private IntArray types;
+
+	//Instances of each class, computed when the store is sealed
+	private IntArray[] instances;
+
+	//Compressed sparse rows of each association
+	private IntArray[] linkSources;
+	private IntArray[] linkOffsets;
+	private IntArray[] linkTargets;
+	//Class named by each link reference, discarded when the store is sealed
+	private IntArray[] linkTargetClasses;
+	//Sources and targets of the links added after their source, discarded when the store is sealed
+	private IntArray[] lateSources;
+	private IntArray[] lateTargets;
+
+	private boolean sealed = false;
+
+	/**
+	 * @param classes
+	 * 		The classes of the metamodel
+	 * @param associations
+	 * 		The references of the metamodel
+	 * @param offHeap
+	 * 		True if the objects and links are stored outside the Java heap
+	 */
+	public ObjectStore(List<EClass> classes, List<EReference> associations, boolean offHeap) {
+		this.offHeap = offHeap;
+		classNames = new String[classes.size()];
+		classIds = new HashMap<String, Integer>();
+		for (int i = 0; i < classNames.length; i++) {
+			classNames[i] = classes.get(i).getName();
+			classIds.put(classNames[i], i);
+		}
+		//An object is an instance of its type and of every superclass of its type
+		instanceTypes = new BitSet[classNames.length];
+		for (int i = 0; i < classNames.length; i++) {
+			instanceTypes[i] = new BitSet(classNames.length);
+		}
+		for (int i = 0; i < classNames.length; i++) {
+			instanceTypes[i].set(i);
+			for (EClass superType : classes.get(i).getEAllSuperTypes()) {
+				Integer superId = classIds.get(superType.getName());
+				if (superId != null) {
+					instanceTypes[superId].set(i);
+				}
+			}
+		}
+
+		associationIds = new HashMap<String, Integer>();
+		for (EReference association : associations) {
+			String key = association.getEOpposite().getEType().getName() + association.getName();
+			if (!associationIds.containsKey(key)) {
+				associationIds.put(key, associationIds.size());
+			}
+		}
+		associationCount = associationIds.size();
+		types = new IntArray(0, offHeap);
+		linkSources = new IntArray[associationCount];
+		linkOffsets = new IntArray[associationCount];
+		linkTargets = new IntArray[associationCount];
+		linkTargetClasses = new IntArray[associationCount];
+		lateSources = new IntArray[associationCount];
+		lateTargets = new IntArray[associationCount];
+		for (int i = 0; i < associationCount; i++) {
+			linkSources[i] = new IntArray(0, offHeap);
+			linkOffsets[i] = new IntArray(0, offHeap);
+			linkTargets[i] = new IntArray(0, offHeap);
+			linkTargetClasses[i] = new IntArray(0, offHeap);
+			lateSources[i] = new IntArray(0, offHeap);
+			lateTargets[i] = new IntArray(0, offHeap);
+		}
+	}
+
+	/**
+	 * Creates an empty store sharing the classes and associations of another
+	 * one. Parts are kept in the Java heap, as they only live while a piece of
+	 * a file is parsed.
+	 */
+	private ObjectStore(ObjectStore whole) {
+		offHeap = false;
+		classNames = whole.classNames;
+		classIds = whole.classIds;
+		instanceTypes = whole.instanceTypes;
+		associationIds = whole.associationIds;
+		associationCount = whole.associationCount;
+		types = new IntArray(0, false);
+		linkSources = new IntArray[associationCount];
+		linkOffsets = new IntArray[associationCount];
+		linkTargets = new IntArray[associationCount];
+		linkTargetClasses = new IntArray[associationCount];
+		lateSources = new IntArray[associationCount];
+		lateTargets = new IntArray[associationCount];
+		for (int i = 0; i < associationCount; i++) {
+			linkSources[i] = new IntArray(0, false);
+			linkOffsets[i] = new IntArray(0, false);
+			linkTargets[i] = new IntArray(0, false);
+			linkTargetClasses[i] = new IntArray(0, false);
+			lateSources[i] = new IntArray(0, false);
+			lateTargets[i] = new IntArray(0, false);
+		}
+	}
+
+	/**
+	 * Creates an empty store for the objects of a piece of the object model,
+	 * to be appended to this store later. Its object ids start from 0 and its
+	 * link positions are the same as in the whole model.
+	 */
+	public ObjectStore createPart() {
+		return new ObjectStore(this);
+	}
+
+	/**
+	 * Appends the objects and links of a part, as if they were added to this
+	 * store after the objects it already has
+	 *
+	 * @param part
+	 * 		A store created by {@link #createPart()} and not sealed
+	 */
+	public void append(ObjectStore part) {
+		checkNotSealed();
+		part.checkNotSealed();
+		if (part.classNames != classNames) {
+			throw new IllegalArgumentException(FOREIGN_PART_ERROR);
+		}
+		int objectBase = types.size();
+		for (int object = 0; object < part.types.size(); object++) {
+			types.add(part.types.get(object));
+		}
+		for (int association = 0; association < associationCount; association++) {
+			IntArray sources = linkSources[association];
+			IntArray partSources = part.linkSources[association];
+			if (partSources.size() > 0 && sources.size() > 0
+					&& sources.get(sources.size() - 1) >= partSources.get(0) + objectBase) {
+				throw new IllegalStateException(String.format(UNSORTED_SOURCE_ERROR,
+						partSources.get(0) + objectBase, sources.get(sources.size() - 1)));
+			}
+			//The part offsets are shifted by the links already in the association
+			int linkBase = linkTargets[association].size();
+			for (int i = 0; i < partSources.size(); i++) {
+				sources.add(partSources.get(i) + objectBase);
+				linkOffsets[association].add(part.linkOffsets[association].get(i) + linkBase);
+			}
+			//Positions do not depend on the part, object ids are shifted like the sources
+			IntArray partTargets = part.linkTargets[association];
+			IntArray partTargetClasses = part.linkTargetClasses[association];
+			for (int link = 0; link < partTargets.size(); link++) {
+				int targetClass = partTargetClasses.get(link);
+				int target = partTargets.get(link);
+				linkTargets[association].add(targetClass == OBJECT_TARGET && target >= 0 ? target + objectBase : target);
+				linkTargetClasses[association].add(targetClass);
+			}
+			IntArray partLateSources = part.lateSources[association];
+			for (int link = 0; link < partLateSources.size(); link++) {
+				lateSources[association].add(partLateSources.get(link) + objectBase);
+				lateTargets[association].add(part.lateTargets[association].get(link) + objectBase);
+			}
+		}
+	}
+
+	/**
+	 * @return Returns the id of the class with the provided name, or -1 if there is none
+	 */
+	public int getClassId(String className) {
+		Integer id = classIds.get(className);
+		return id == null ? -1 : id;
+	}
+
+	public String getClassName(int classId) {
+		return classNames[classId];
+	}
+
+	public int getClassCount() {
+		return classNames.length;
+	}
+
+	public int getAssociationCount() {
+		return associationCount;
+	}
+
+	/**
+	 * @param sourceClassName
+	 * 		The name of the class declaring the reference
+	 * @param referenceName
+	 * 		The name of the reference
+	 * @return Returns the id of the association, or -1 if there is none
+	 */
+	public int getAssociationId(String sourceClassName, String referenceName) {
+		Integer id = associationIds.get(sourceClassName + referenceName);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Adds an object to the store
+	 *
+	 * @param classId
+	 * 		The id of the type of the object
+	 * @return Returns the id of the object
+	 */
+	public int addObject(int classId) {
+		checkNotSealed();
+		types.add(classId);
+		return types.size() - 1;
+	}
+
+	/**
+	 * Records that an object holds the attribute of an association, even if
+	 * it has no link. The sources must be added in increasing order.
+	 */
+	public void addSource(int associationId, int objectId) {
+		checkNotSealed();
+		IntArray sources = linkSources[associationId];
+		if (sources.size() > 0 && sources.get(sources.size() - 1) >= objectId) {
+			throw new IllegalStateException(
+					String.format(UNSORTED_SOURCE_ERROR, objectId, sources.get(sources.size() - 1)));
+		}
+		sources.add(objectId);
+		linkOffsets[associationId].add(linkTargets[associationId].size());
+	}
+
+	/**
+	 * Adds a link from the last source added to the association
+	 *
+	 * @param targetClassId
+	 * 		The id of the class named in the reference
+	 * @param position
+	 * 		The position of the target among the instances of that class
+	 */
+	public void addLink(int associationId, int targetClassId, int position) {
+		checkNotSealed();
+		linkTargetClasses[associationId].add(targetClassId);
+		linkTargets[associationId].add(position);
+	}
+
+	/**
+	 * Adds a link from the last source added to the association, whose target
+	 * is resolved later by {@link #setLinkTarget(int, int, int)}
+	 *
+	 * @return Returns the index of the link in the association
+	 */
+	public int addPendingLink(int associationId) {
+		checkNotSealed();
+		linkTargetClasses[associationId].add(OBJECT_TARGET);
+		linkTargets[associationId].add(-1);
+		return linkTargets[associationId].size() - 1;
+	}
+
+	/**
+	 * Sets the target object of a link added by {@link #addPendingLink(int)}
+	 */
+	public void setLinkTarget(int associationId, int link, int objectId) {
+		checkNotSealed();
+		linkTargets[associationId].set(link, objectId);
+	}
+
+	/**
+	 * @return Returns the number of links of the association, the links added
+	 *         after their source excluded
+	 */
+	public int getAssociationLinkCount(int associationId) {
+		return linkTargets[associationId].size();
+	}
+
+	/**
+	 * Adds a link whose source may have been added before other objects, as
+	 * the containment of a nested object is only known when it is parsed. The
+	 * source holds the attribute of the association.
+	 */
+	public void addLateLink(int associationId, int sourceId, int targetId) {
+		checkNotSealed();
+		lateSources[associationId].add(sourceId);
+		lateTargets[associationId].add(targetId);
+	}
+
+	/**
+	 * Computes the instances of each class and resolves the link targets. No
+	 * object or link can be added afterwards.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		If a link refers to a position with no object
+	 */
+	public void seal() {
+		if (sealed) {
+			return;
+		}
+		types.trim();
+		//Lists the classes each type is an instance of
+		int[][] typeClasses = new int[classNames.length][];
+		for (int type = 0; type < classNames.length; type++) {
+			IntArray classes = new IntArray(0, false);
+			for (int cls = 0; cls < classNames.length; cls++) {
+				if (instanceTypes[cls].get(type)) {
+					classes.add(cls);
+				}
+			}
+			typeClasses[type] = new int[classes.size()];
+			for (int i = 0; i < classes.size(); i++) {
+				typeClasses[type][i] = classes.get(i);
+			}
+		}
+		int objectCount = types.size();
+		int[] counts = new int[classNames.length];
+		for (int object = 0; object < objectCount; object++) {
+			for (int cls : typeClasses[types.get(object)]) {
+				counts[cls]++;
+			}
+		}
+		instances = new IntArray[classNames.length];
+		for (int cls = 0; cls < classNames.length; cls++) {
+			instances[cls] = new IntArray(counts[cls], offHeap);
+		}
+		for (int object = 0; object < objectCount; object++) {
+			for (int cls : typeClasses[types.get(object)]) {
+				instances[cls].add(object);
+			}
+		}
+
+		//Replaces the positions by the objects found at them
+		for (int association = 0; association < associationCount; association++) {
+			IntArray targets = linkTargets[association];
+			IntArray targetClasses = linkTargetClasses[association];
+			for (int link = 0; link < targets.size(); link++) {
+				if (targetClasses.get(link) == OBJECT_TARGET) {
+					if (targets.get(link) < 0 || targets.get(link) >= objectCount) {
+						throw new IndexOutOfBoundsException(String.format(UNRESOLVED_OBJECT_ERROR, association));
+					}
+					continue;
+				}
+				IntArray candidates = instances[targetClasses.get(link)];
+				int position = targets.get(link);
+				if (position >= candidates.size()) {
+					throw new IndexOutOfBoundsException(
+							String.format(UNRESOLVED_LINK_ERROR, position, classNames[targetClasses.get(link)]));
+				}
+				targets.set(link, candidates.get(position));
+			}
+			//The offsets end with the number of links, so the links of every source have an end
+			linkOffsets[association].add(targets.size());
+			if (lateSources[association].size() > 0) {
+				mergeLateLinks(association);
+			}
+			lateSources[association] = null;
+			lateTargets[association] = null;
+			linkSources[association].trim();
+			linkOffsets[association].trim();
+			linkTargets[association].trim();
+			linkTargetClasses[association] = null;
+		}
+		sealed = true;
+	}
+
+	/**
+	 * Rebuilds the rows of an association with the links added after their
+	 * source. The links of each source keep the order they were added in,
+	 * the late ones after the others.
+	 */
+	private void mergeLateLinks(int association) {
+		IntArray sources = linkSources[association];
+		IntArray offsets = linkOffsets[association];
+		IntArray targets = linkTargets[association];
+		IntArray late = lateSources[association];
+		int objectCount = types.size();
+		//Counts the links of each source, then turns the counts into offsets
+		int[] starts = new int[objectCount + 1];
+		boolean[] holds = new boolean[objectCount];
+		for (int s = 0; s < sources.size(); s++) {
+			holds[sources.get(s)] = true;
+			starts[sources.get(s) + 1] += offsets.get(s + 1) - offsets.get(s);
+		}
+		for (int link = 0; link < late.size(); link++) {
+			holds[late.get(link)] = true;
+			starts[late.get(link) + 1]++;
+		}
+		for (int object = 0; object < objectCount; object++) {
+			starts[object + 1] += starts[object];
+		}
+		int[] next = new int[objectCount];
+		System.arraycopy(starts, 0, next, 0, objectCount);
+		IntArray merged = new IntArray(starts[objectCount], offHeap);
+		for (int link = 0; link < starts[objectCount]; link++) {
+			merged.add(0);
+		}
+		for (int s = 0; s < sources.size(); s++) {
+			int source = sources.get(s);
+			for (int link = offsets.get(s); link < offsets.get(s + 1); link++) {
+				merged.set(next[source]++, targets.get(link));
+			}
+		}
+		for (int link = 0; link < late.size(); link++) {
+			merged.set(next[late.get(link)]++, lateTargets[association].get(link));
+		}
+		IntArray mergedSources = new IntArray(0, offHeap);
+		IntArray mergedOffsets = new IntArray(0, offHeap);
+		for (int object = 0; object < objectCount; object++) {
+			if (holds[object]) {
+				mergedSources.add(object);
+				mergedOffsets.add(starts[object]);
+			}
+		}
+		mergedOffsets.add(starts[objectCount]);
+		linkSources[association] = mergedSources;
+		linkOffsets[association] = mergedOffsets;
+		linkTargets[association] = merged;
+	}
+
+	public int getObjectCount() {
+		return types.size();
+	}
+
+	public int getType(int objectId) {
+		return types.get(objectId);
+	}
+
+	/**
+	 * @return Returns the name identifying the object in the ontology
+	 */
+	public String getObjectName(int objectId) {
+		return OBJECT_PREFIX + objectId;
+	}
+
+	/**
+	 * @return Returns true if the object is an instance of the class
+	 */
+	public boolean isInstance(int objectId, int classId) {
+		return instanceTypes[classId].get(types.get(objectId));
+	}
+
+	/**
+	 * @return Returns true if the objects of the type are instances of the class
+	 */
+	public boolean isInstanceType(int type, int classId) {
+		return instanceTypes[classId].get(type);
+	}
+
+	/**
+	 * @return Returns the number of instances of the class, its subclasses included
+	 */
+	public int getInstanceCount(int classId) {
+		return instances[classId].size();
+	}
+
+	/**
+	 * @return Returns the instance of the class at the position, in the order of the file
+	 */
+	public int getInstance(int classId, int position) {
+		return instances[classId].get(position);
+	}
+
+	/**
+	 * @return Returns the number of objects holding the attribute of the association
+	 */
+	public int getSourceCount(int associationId) {
+		return linkSources[associationId].size();
+	}
+
+	/**
+	 * @return Returns the object holding the attribute of the association at the position,
+	 *         in increasing order of id
+	 */
+	public int getSource(int associationId, int position) {
+		return linkSources[associationId].get(position);
+	}
+
+	/**
+	 * @return Returns the position of the object among the sources of the
+	 *         association, or a negative value if it does not hold its attribute
+	 */
+	public int findSource(int associationId, int objectId) {
+		IntArray sources = linkSources[associationId];
+		int low = 0;
+		int high = sources.size() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int source = sources.get(middle);
+			if (source < objectId) {
+				low = middle + 1;
+			} else if (source > objectId) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * @return Returns the number of links of the source at the position
+	 */
+	public int getLinkCount(int associationId, int sourcePosition) {
+		IntArray offsets = linkOffsets[associationId];
+		return offsets.get(sourcePosition + 1) - offsets.get(sourcePosition);
+	}
+
+	/**
+	 * @return Returns the target of a link of the source at the position
+	 */
+	public int getLinkTarget(int associationId, int sourcePosition, int link) {
+		return linkTargets[associationId].get(linkOffsets[associationId].get(sourcePosition) + link);
+	}
+
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new IllegalStateException(SEALED_ERROR);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the objects named by the references of an EMF object model. The
+ * objects are recorded while the file is parsed: the roots, the children of
+ * each object by containment feature, in the order of the file, and the
+ * xmi:id of the objects having one. A reference is then resolved by one hash
+ * lookup per path segment, or by a single lookup for an id, whatever the
+ * position of its target in the file.
+ * <p>
+ * Paths follow the EMF fragment form: "/" and the index of the root, which
+ * may be omitted for the first one, followed by a segment "/@feature.index"
+ * for each level of containment. The index of a single valued feature may be
+ * omitted as well, so "//@library/@books.3" is a valid path.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReferenceIndex {
+
+	/**
+	 * Stands for a root that is not an object, such as the ECC container
+	 */
+	public static final int NO_OBJECT = -1;
+
+	//Ids of the containment feature names
+	private final HashMap<String, Integer> featureIds;
+	private final ArrayList<String> featureNames;
+	//Last feature name looked up, as the elements of a file repeat a few names
+	private String lastFeatureName;
+	private int lastFeatureId;
+
+	//Children of each object by feature, the key joining the object and the feature ids
+	private final HashMap<Long, IntArray> children;
+	//Last children looked up, as the children of an object follow each other
+	private long lastKey = -1;
+	private IntArray lastSiblings;
+	private final IntArray roots;
+	private final HashMap<String, Integer> ids;
+
+	public ReferenceIndex() {
+		featureIds = new HashMap<String, Integer>();
+		featureNames = new ArrayList<String>();
+		children = new HashMap<Long, IntArray>();
+		roots = new IntArray(0, false);
+		ids = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Records a root of the file
+	 *
+	 * @param objectId
+	 * 		The root object, or NO_OBJECT if the root is not an object
+	 */
+	public void addRoot(int objectId) {
+		roots.add(objectId);
+	}
+
+	/**
+	 * Records an object as the next child of its parent through a feature
+	 *
+	 * @param parentId
+	 * 		The parent object, or NO_OBJECT if the parent is a root that is not an object
+	 */
+	public void addChild(int parentId, String feature, int objectId) {
+		long key = getKey(parentId, getFeatureId(feature));
+		IntArray siblings = key == lastKey ? lastSiblings : children.get(key);
+		if (siblings == null) {
+			siblings = new IntArray(0, false);
+			children.put(key, siblings);
+		}
+		siblings.add(objectId);
+		lastKey = key;
+		lastSiblings = siblings;
+	}
+
+	/**
+	 * Records the xmi:id of an object
+	 */
+	public void addId(String id, int objectId) {
+		ids.put(id, objectId);
+	}
+
+	/**
+	 * Finds the object named by a reference of the file
+	 *
+	 * @param reference
+	 * 		A path or an id, optionally preceded by #
+	 * @return Returns the object named by the reference, or -1 if there is none
+	 */
+	public int resolve(String reference) {
+		int start = reference.startsWith("#") ? 1 : 0;
+		if (start == reference.length()) {
+			return -1;
+		}
+		if (reference.charAt(start) != '/') {
+			Integer object = ids.get(reference.substring(start));
+			return object == null ? -1 : object;
+		}
+		if (!isPath(reference, start, reference.length())) {
+			return -1;
+		}
+		int end = reference.length();
+		//Index of the root
+		int position = start + 1;
+		int rootIndex = 0;
+		while (position < end && isDigit(reference.charAt(position))) {
+			rootIndex = rootIndex * 10 + (reference.charAt(position++) - '0');
+		}
+		if (rootIndex >= roots.size()) {
+			return -1;
+		}
+		int current = roots.get(rootIndex);
+		//Segments, each one in the form /@feature.index
+		while (position < end) {
+			position += 2;
+			int nameStart = position;
+			while (position < end && reference.charAt(position) != '.' && reference.charAt(position) != '/') {
+				position++;
+			}
+			Integer featureId = featureIds.get(reference.substring(nameStart, position));
+			int index = 0;
+			if (position < end && reference.charAt(position) == '.') {
+				position++;
+				while (position < end && reference.charAt(position) != '/') {
+					index = index * 10 + (reference.charAt(position++) - '0');
+				}
+			}
+			IntArray siblings = featureId == null ? null : children.get(getKey(current, featureId));
+			if (siblings == null || index >= siblings.size()) {
+				return -1;
+			}
+			current = siblings.get(index);
+		}
+		return current;
+	}
+
+	/**
+	 * Appends the objects recorded by the index of a chunk of the same file.
+	 * The roots are not appended, as every chunk repeats the root of the file.
+	 *
+	 * @param objectBase
+	 * 		The id given to the first object of the chunk
+	 */
+	public void append(ReferenceIndex part, int objectBase) {
+		for (Map.Entry<Long, IntArray> entry : part.children.entrySet()) {
+			int parentId = (int) (entry.getKey() >> 32) - 1;
+			String feature = part.featureNames.get((int) (entry.getKey() & 0xFFFFFFFFL));
+			if (parentId != NO_OBJECT) {
+				parentId += objectBase;
+			}
+			IntArray siblings = entry.getValue();
+			for (int i = 0; i < siblings.size(); i++) {
+				addChild(parentId, feature, siblings.get(i) + objectBase);
+			}
+		}
+		for (Map.Entry<String, Integer> entry : part.ids.entrySet()) {
+			ids.put(entry.getKey(), entry.getValue() + objectBase);
+		}
+	}
+
+	/**
+	 * Checks if the characters between two positions form a path
+	 *
+	 * @param start
+	 * 		The position of the first slash
+	 */
+	public static boolean isPath(String value, int start, int end) {
+		if (start >= end || value.charAt(start) != '/') {
+			return false;
+		}
+		int position = start + 1;
+		while (position < end && isDigit(value.charAt(position))) {
+			position++;
+		}
+		while (position < end) {
+			if (position + 1 >= end || value.charAt(position) != '/' || value.charAt(position + 1) != '@') {
+				return false;
+			}
+			position += 2;
+			int nameStart = position;
+			while (position < end && value.charAt(position) != '.' && value.charAt(position) != '/') {
+				position++;
+			}
+			if (position == nameStart) {
+				return false;
+			}
+			if (position < end && value.charAt(position) == '.') {
+				int digitsStart = ++position;
+				while (position < end && isDigit(value.charAt(position))) {
+					position++;
+				}
+				if (position == digitsStart || (position < end && value.charAt(position) != '/')) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private int getFeatureId(String feature) {
+		//Element names are usually interned by the XML readers, so they are first compared by identity
+		if (feature == lastFeatureName || feature.equals(lastFeatureName)) {
+			return lastFeatureId;
+		}
+		Integer id = featureIds.get(feature);
+		if (id == null) {
+			id = featureNames.size();
+			featureIds.put(feature, id);
+			featureNames.add(feature);
+		}
+		lastFeatureName = feature;
+		lastFeatureId = id;
+		return id;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static long getKey(int objectId, int featureId) {
+		return ((long) (objectId + 1) << 32) | featureId;
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+/**
+ * XML readers able to parse an object model.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum XMIReaderMode {
+
+	/**
+	 * The SAX reader provided by the platform, which pushes every element,
+	 * text included, to a handler
+	 */
+	SAX("sax"),
+
+	/**
+	 * The woodstox pull reader, which only decodes the start of the elements
+	 * and reads the file through large buffers
+	 */
+	STAX("stax");
+
+	private static final String UNKNOWN_READER_ERROR = "The XMI reader \"%s\" is unknown.";
+
+	private final String readerName;
+
+	private XMIReaderMode(String readerName) {
+		this.readerName = readerName;
+	}
+
+	/**
+	 * @return Returns the name used to select this reader in the command line
+	 */
+	public String getReaderName() {
+		return readerName;
+	}
+
+	@Override
+	public String toString() {
+		return readerName;
+	}
+
+	/**
+	 * Finds the reader with the provided name
+	 *
+	 * @param name
+	 * 		The reader name, as used in the command line
+	 * @return Returns the reader with the provided name
+	 * @throws IllegalArgumentException
+	 * 		If there is no reader with such name
+	 */
+	public static XMIReaderMode fromName(String name) {
+		for (XMIReaderMode mode : values()) {
+			if (mode.readerName.equalsIgnoreCase(name)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException(String.format(UNKNOWN_READER_ERROR, name));
+	}
+}
@@ -0,0 +1,371 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an object model into chunks that can be parsed independently. The
+ * file is scanned once, byte by byte, keeping only the element depth, so the
+ * line breaks between the children of the root element are found without
+ * decoding any attribute. A chunk is a run of whole children ending on such a
+ * line break.
+ * <p>
+ * Each chunk but the first is read after a copy of the file start, up to the
+ * root start tag, so its prefixes are declared, and every chunk is followed
+ * by the root end tag, so it is a well-formed document. A file whose root is
+ * not found, or which is not encoded in bytes compatible with ASCII, is kept
+ * in a single chunk and the parser reports its problems.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class XMISplitter {
+
+	private static final int SCAN_BUFFER_SIZE = 1 << 20;
+
+	//Scanner states
+	private static final int TEXT = 0;
+	private static final int MARKUP = 1;
+	private static final int START_TAG = 2;
+	private static final int QUOTED = 3;
+	private static final int END_TAG = 4;
+	private static final int BANG = 5;
+	private static final int COMMENT_START = 6;
+	private static final int COMMENT = 7;
+	private static final int CDATA = 8;
+	private static final int DECLARATION = 9;
+	private static final int INSTRUCTION = 10;
+
+	private final long fileLength;
+
+	//File start up to the end of the root start tag, and the root name
+	private byte[] header;
+	private String rootName;
+	//Number of line breaks in the header
+	private int headerLines;
+	//Position of the root end tag
+	private long rootEnd = -1;
+
+	//Start and first line of every chunk but the first
+	private final List<Long> chunkStarts;
+	private final List<Integer> chunkLines;
+
+	/**
+	 * Scans a file, looking for chunk boundaries
+	 *
+	 * @param path
+	 * 		The path of the object model
+	 * @param chunkSize
+	 * 		The minimum number of bytes of a chunk
+	 * @throws IOException
+	 * 		If the file can not be read
+	 */
+	public XMISplitter(String path, long chunkSize) throws IOException {
+		chunkStarts = new ArrayList<Long>();
+		chunkLines = new ArrayList<Integer>();
+		FileInputStream input = new FileInputStream(path);
+		try {
+			fileLength = input.getChannel().size();
+			scan(input, chunkSize);
+			//The header is read again, once its length is known
+			if (header != null) {
+				input.getChannel().read(ByteBuffer.wrap(header), 0);
+			}
+		} finally {
+			input.close();
+		}
+		//Without the root boundaries the file can not be split
+		if (rootName == null || rootEnd < 0) {
+			chunkStarts.clear();
+			chunkLines.clear();
+		}
+	}
+
+	private void scan(InputStream input, long chunkSize) throws IOException {
+		byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+		StringBuilder name = new StringBuilder();
+		boolean naming = false;
+		int state = TEXT;
+		int depth = 0;
+		int quote = 0;
+		int marks = 0;
+		boolean slash = false;
+		boolean subset = false;
+		int line = 1;
+		long tagStart = 0;
+		long lastStart = 0;
+		long base = 0;
+
+		int read = input.read(buffer);
+		//Encodings with more than one byte per ASCII character can not be scanned
+		if (read > 1 && (buffer[0] == 0 || buffer[1] == 0 || (buffer[0] & 0xFF) == 0xFE || (buffer[0] & 0xFF) == 0xFF)) {
+			return;
+		}
+		while (read > 0) {
+			for (int i = 0; i < read; i++) {
+				int b = buffer[i];
+				//Attribute values and the text between elements hold most of the bytes,
+				//so they are skipped in tight loops
+				if (state == QUOTED) {
+					while (b != quote && b != '\n' && ++i < read) {
+						b = buffer[i];
+					}
+				} else if (state == TEXT && depth != 1) {
+					while (b != '<' && b != '\n' && ++i < read) {
+						b = buffer[i];
+					}
+				} else if (state == START_TAG && !naming) {
+					while (b != '\'' && b != '"' && b != '>' && b != '/' && b != '\n' && ++i < read) {
+						b = buffer[i];
+					}
+				}
+				if (i == read) {
+					//The buffer ended while skipping
+					break;
+				}
+				long position = base + i;
+				if (b == '\n') {
+					line++;
+				}
+				switch (state) {
+				case TEXT:
+					if (b == '<') {
+						state = MARKUP;
+						tagStart = position;
+					} else if (b == '\n' && depth == 1 && position + 1 - lastStart >= chunkSize) {
+						//A line break between two children of the root starts a new chunk
+						lastStart = position + 1;
+						chunkStarts.add(lastStart);
+						chunkLines.add(line);
+					}
+					break;
+				case MARKUP:
+					if (b == '/') {
+						state = END_TAG;
+					} else if (b == '!') {
+						state = BANG;
+					} else if (b == '?') {
+						state = INSTRUCTION;
+						marks = 0;
+					} else {
+						state = START_TAG;
+						slash = false;
+						naming = depth == 0 && rootName == null;
+						if (naming) {
+							name.append((char) b);
+						}
+					}
+					break;
+				case START_TAG:
+					if (naming) {
+						if (b == '>' || b == '/' || b <= ' ') {
+							naming = false;
+						} else {
+							name.append((char) b);
+						}
+					}
+					if (b == '"' || b == '\'') {
+						quote = b;
+						state = QUOTED;
+					} else if (b == '>') {
+						if (!slash) {
+							depth++;
+							if (depth == 1 && rootName == null) {
+								//The children of the root start after its start tag
+								rootName = name.toString();
+								header = new byte[(int) position + 1];
+								headerLines = line - 1;
+								lastStart = position + 1;
+							}
+						}
+						state = TEXT;
+					} else {
+						slash = b == '/';
+					}
+					break;
+				case QUOTED:
+					if (b == quote) {
+						state = START_TAG;
+						slash = false;
+					}
+					break;
+				case END_TAG:
+					if (b == '>') {
+						depth--;
+						state = TEXT;
+						if (depth == 0 && rootName != null) {
+							//Nothing after the root end tag belongs to a chunk
+							rootEnd = tagStart;
+							return;
+						}
+					}
+					break;
+				case BANG:
+					if (b == '-') {
+						state = COMMENT_START;
+					} else if (b == '[') {
+						state = CDATA;
+						marks = 0;
+					} else {
+						state = DECLARATION;
+						subset = false;
+					}
+					break;
+				case COMMENT_START:
+					state = COMMENT;
+					marks = 0;
+					break;
+				case COMMENT:
+					//A comment ends with -->
+					if (b == '-') {
+						marks++;
+					} else {
+						if (b == '>' && marks >= 2) {
+							state = TEXT;
+						}
+						marks = 0;
+					}
+					break;
+				case CDATA:
+					//A CDATA section ends with ]]>
+					if (b == ']') {
+						marks++;
+					} else {
+						if (b == '>' && marks >= 2) {
+							state = TEXT;
+						}
+						marks = 0;
+					}
+					break;
+				case DECLARATION:
+					//A document type declaration may hold an internal subset between brackets
+					if (b == '[') {
+						subset = true;
+					} else if (b == ']') {
+						subset = false;
+					} else if (b == '>' && !subset) {
+						state = TEXT;
+					}
+					break;
+				case INSTRUCTION:
+					//A processing instruction ends with ?>
+					if (b == '>' && marks == 1) {
+						state = TEXT;
+					}
+					marks = b == '?' ? 1 : 0;
+					break;
+				}
+			}
+			base += read;
+			read = input.read(buffer);
+		}
+	}
+
+	/**
+	 * @return Returns the qualified name of the root element, or null if it was not found
+	 */
+	public String getRootName() {
+		return rootName;
+	}
+
+	/**
+	 * @return Returns the number of chunks the file is split into
+	 */
+	public int getChunkCount() {
+		return chunkStarts.size() + 1;
+	}
+
+	/**
+	 * @return Returns the number to add to a line of the chunk stream to get
+	 *         the line of the file
+	 */
+	public int getLineOffset(int chunk) {
+		if (chunk == 0) {
+			return 0;
+		}
+		//The chunk starts after the header and the line break added to it
+		return chunkLines.get(chunk - 1) - headerLines - 2;
+	}
+
+	/**
+	 * Opens a chunk as a well-formed document
+	 *
+	 * @param channel
+	 * 		The channel of the file, read at absolute positions so the chunks
+	 * 		can be read at the same time
+	 */
+	public InputStream openChunk(FileChannel channel, int chunk) {
+		long end = chunk < chunkStarts.size() ? chunkStarts.get(chunk) : rootEnd;
+		if (chunkStarts.isEmpty()) {
+			return new SliceInputStream(channel, 0, fileLength);
+		}
+		InputStream suffix = new ByteArrayInputStream(("</" + rootName + ">").getBytes());
+		if (chunk == 0) {
+			return new SequenceInputStream(new SliceInputStream(channel, 0, end), suffix);
+		}
+		byte[] prefix = new byte[header.length + 1];
+		System.arraycopy(header, 0, prefix, 0, header.length);
+		prefix[header.length] = '\n';
+		InputStream body = new SliceInputStream(channel, chunkStarts.get(chunk - 1), end);
+		return new SequenceInputStream(new ByteArrayInputStream(prefix), new SequenceInputStream(body, suffix));
+	}
+
+	/**
+	 * Bytes of a file between two positions, read without moving the channel
+	 */
+	private static class SliceInputStream extends InputStream {
+		private final FileChannel channel;
+		private long position;
+		private final long end;
+
+		private SliceInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] single = new byte[1];
+			return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int count = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+			if (count > 0) {
+				position += count;
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Opens the models read by ECC, either plain or compressed with gzip or zip.
+ * The compression is found by the first bytes of the file, whatever its
+ * name. A compressed file is decompressed by a thread of its own into a few
+ * blocks kept in memory, so the decompression and the parsing overlap and no
+ * temporary file is written.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ModelInput {
+
+	private static final String GZIP_SUFFIX = ".gz";
+	private static final String ZIP_SUFFIX = ".zip";
+	private static final String NO_ENTRY_ERROR = "The archive %s has no %s entry.";
+	private static final String THREAD_NAME = "ECC decompression of %s";
+
+	//Size of the decompressed blocks and number of blocks waiting to be read
+	private static final int BLOCK_SIZE = 1 << 18;
+	private static final int QUEUED_BLOCKS = 16;
+
+	private static final int GZIP_MAGIC = 0x1F8B;
+	private static final int ZIP_MAGIC = 0x504B0304;
+
+	/**
+	 * @return Returns true if the file is compressed with gzip or zip. Returns
+	 *         false as well if the file can not be read, so reading it reports
+	 *         the error.
+	 */
+	public static boolean isCompressed(String path) {
+		return getMagic(path) != 0;
+	}
+
+	/**
+	 * @return Returns the path without the suffix of a compressed file, so
+	 *         model.xmi.gz and model.xmi.zip are named model.xmi
+	 */
+	public static String getModelName(String path) {
+		String lowerPath = path.toLowerCase();
+		if (lowerPath.endsWith(GZIP_SUFFIX)) {
+			return path.substring(0, path.length() - GZIP_SUFFIX.length());
+		}
+		if (lowerPath.endsWith(ZIP_SUFFIX)) {
+			return path.substring(0, path.length() - ZIP_SUFFIX.length());
+		}
+		return path;
+	}
+
+	/**
+	 * Opens a model
+	 *
+	 * @param path
+	 * 		The path of the file
+	 * @param extension
+	 * 		The extension of the model, such as ".xmi". A zip archive is read
+	 * 		from its first entry with such extension.
+	 * @param bufferSize
+	 * 		The size of the buffer between the file and the reader
+	 * @return Returns the stream of the model, decompressed if needed
+	 * @throws IOException
+	 * 		If the file can not be opened or the archive has no such entry
+	 */
+	public static InputStream open(String path, String extension, int bufferSize) throws IOException {
+		int magic = getMagic(path);
+		InputStream file = new BufferedInputStream(new FileInputStream(path), bufferSize);
+		try {
+			if (magic == GZIP_MAGIC) {
+				return new ReadAheadInputStream(new GZIPInputStream(file, bufferSize), path);
+			}
+			if (magic == ZIP_MAGIC) {
+				ZipInputStream archive = new ZipInputStream(file);
+				for (ZipEntry entry = archive.getNextEntry(); entry != null; entry = archive.getNextEntry()) {
+					if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(extension)) {
+						return new ReadAheadInputStream(archive, path);
+					}
+				}
+				throw new IOException(String.format(NO_ENTRY_ERROR, path, extension));
+			}
+			return file;
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return Returns the gzip or zip magic number starting the file, or 0 if there is none
+	 */
+	private static int getMagic(String path) {
+		try {
+			InputStream input = new FileInputStream(path);
+			try {
+				byte[] start = new byte[4];
+				int read = 0;
+				while (read < start.length) {
+					int count = input.read(start, read, start.length - read);
+					if (count < 0) {
+						break;
+					}
+					read += count;
+				}
+				if (read >= 2 && ((start[0] & 0xFF) << 8 | (start[1] & 0xFF)) == GZIP_MAGIC) {
+					return GZIP_MAGIC;
+				}
+				if (read == 4 && ((start[0] & 0xFF) << 24 | (start[1] & 0xFF) << 16 | (start[2] & 0xFF) << 8
+						| (start[3] & 0xFF)) == ZIP_MAGIC) {
+					return ZIP_MAGIC;
+				}
+				return 0;
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Stream read from blocks filled by another thread, which reads the
+	 * source stream ahead of the reader. At most QUEUED_BLOCKS blocks wait to
+	 * be read, so the memory used does not depend on the size of the model.
+	 */
+	private static class ReadAheadInputStream extends InputStream {
+		//Block marking the end of the source stream, or an error while reading it
+		private static final byte[] END = new byte[0];
+
+		private final BlockingQueue<byte[]> blocks;
+		private final Thread readerThread;
+		private volatile IOException error;
+		private volatile boolean closed = false;
+
+		//Block being read and position of the next byte in it
+		private byte[] block;
+		private int position;
+
+		private ReadAheadInputStream(final InputStream source, String path) {
+			blocks = new ArrayBlockingQueue<byte[]>(QUEUED_BLOCKS);
+			readerThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					fill(source);
+				}
+			}, String.format(THREAD_NAME, path));
+			readerThread.setDaemon(true);
+			readerThread.start();
+		}
+
+		/**
+		 * Reads the source stream into blocks until its end, an error or the
+		 * stream being closed
+		 */
+		private void fill(InputStream source) {
+			try {
+				boolean end = false;
+				while (!end && !closed) {
+					byte[] buffer = new byte[BLOCK_SIZE];
+					int length = 0;
+					while (length < BLOCK_SIZE) {
+						int count = source.read(buffer, length, BLOCK_SIZE - length);
+						if (count < 0) {
+							end = true;
+							break;
+						}
+						length += count;
+					}
+					if (length > 0) {
+						blocks.put(length == BLOCK_SIZE ? buffer : Arrays.copyOf(buffer, length));
+					}
+				}
+			} catch (IOException e) {
+				error = e;
+			} catch (InterruptedException e) {
+				//Only a closed stream interrupts the thread
+				return;
+			} finally {
+				try {
+					source.close();
+				} catch (IOException e) {
+					//The source was fully read or is discarded
+				}
+			}
+			try {
+				blocks.put(END);
+			} catch (InterruptedException e) {
+				//The stream was closed while waiting for room
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!nextBlock()) {
+				return -1;
+			}
+			return block[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			if (!nextBlock()) {
+				return -1;
+			}
+			int count = Math.min(length, block.length - position);
+			System.arraycopy(block, position, bytes, offset, count);
+			position += count;
+			return count;
+		}
+
+		/**
+		 * Waits for a block if the current one was fully read
+		 *
+		 * @return Returns false at the end of the stream
+		 */
+		private boolean nextBlock() throws IOException {
+			if (block == END) {
+				return false;
+			}
+			if (block != null && position < block.length) {
+				return true;
+			}
+			try {
+				block = blocks.take();
+				position = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			if (block == END) {
+				if (error != null) {
+					throw error;
+				}
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			readerThread.interrupt();
+		}
+	}
+}
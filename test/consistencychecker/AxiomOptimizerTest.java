@@ -0,0 +1,158 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+/**
+ * Checks the rewritings of the AxiomOptimizer on small expressions, and that
+ * optimizing the ontology of the sample models keeps their verdicts.
+ * Models/bounds.ecore holds an attribute [1..2] typed by an enumeration of a
+ * single literal, which is consistent only if the lower bound of the
+ * attribute is taken as its minimum cardinality.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class AxiomOptimizerTest {
+
+	private static final String[] MODELS = { "Models/Modelo1.ecore", "Models/Modelo2.ecore", "Models/Modelo3.ecore",
+			"Models/phone.ecore", "Models/phoneBookCiclic.ecore", "Models/operations.ecore", "Models/bounds.ecore" };
+	private static final String BOUNDS_MODEL = "Models/bounds.ecore";
+	private static final String OBJECTS_MODEL = "Models/Modelo3.ecore";
+	private static final String[] OBJECT_MODELS = { "Models/obModel1.xmi", "Models/obModel2.xmi" };
+
+	private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+	private final AxiomOptimizer optimizer = new AxiomOptimizer(OWLManager.createOWLOntologyManager());
+	private final OWLClass a = factory.getOWLClass(IRI.create("test#A"));
+	private final OWLClass b = factory.getOWLClass(IRI.create("test#B"));
+	private final OWLObjectProperty r = factory.getOWLObjectProperty(IRI.create("test#r"));
+
+	@Test
+	public void simplifyFlattensIntersections() {
+		OWLClassExpression nested = factory.getOWLObjectIntersectionOf(a,
+				factory.getOWLObjectIntersectionOf(b, factory.getOWLThing()));
+		assertEquals(factory.getOWLObjectIntersectionOf(a, b), optimizer.simplify(nested));
+		assertEquals(factory.getOWLNothing(),
+				optimizer.simplify(factory.getOWLObjectIntersectionOf(a, factory.getOWLNothing())));
+	}
+
+	@Test
+	public void simplifyFlattensUnions() {
+		OWLClassExpression nested = factory.getOWLObjectUnionOf(a,
+				factory.getOWLObjectUnionOf(b, factory.getOWLNothing()));
+		assertEquals(factory.getOWLObjectUnionOf(a, b), optimizer.simplify(nested));
+		assertEquals(factory.getOWLThing(), optimizer.simplify(factory.getOWLObjectUnionOf(a, factory.getOWLThing())));
+	}
+
+	@Test
+	public void simplifyRemovesDoubleNegations() {
+		assertEquals(a, optimizer.simplify(factory.getOWLObjectComplementOf(factory.getOWLObjectComplementOf(a))));
+		assertEquals(factory.getOWLNothing(), optimizer.simplify(factory.getOWLObjectComplementOf(factory.getOWLThing())));
+	}
+
+	@Test
+	public void simplifyRemovesTrivialRestrictions() {
+		assertEquals(factory.getOWLThing(), optimizer.simplify(factory.getOWLObjectAllValuesFrom(r, factory.getOWLThing())));
+		assertEquals(factory.getOWLNothing(),
+				optimizer.simplify(factory.getOWLObjectSomeValuesFrom(r, factory.getOWLNothing())));
+		assertEquals(factory.getOWLThing(), optimizer.simplify(factory.getOWLObjectMinCardinality(0, r, a)));
+		assertEquals(factory.getOWLThing(),
+				optimizer.simplify(factory.getOWLObjectMaxCardinality(1, r, factory.getOWLNothing())));
+		//Restrictions are simplified inside
+		assertEquals(factory.getOWLObjectSomeValuesFrom(r, a), optimizer.simplify(
+				factory.getOWLObjectSomeValuesFrom(r, factory.getOWLObjectIntersectionOf(a, factory.getOWLThing()))));
+	}
+
+	@Test
+	public void strongerMinimumsEntailWeakerOnes() {
+		OWLClassExpression atLeastTwo = factory.getOWLObjectMinCardinality(2, r, a);
+		assertEquals(set(atLeastTwo),
+				optimizer.removeEntailedCardinalities(set(factory.getOWLObjectSomeValuesFrom(r, a), atLeastTwo)));
+		//A minimum on a filler entails the same minimum on \top
+		assertEquals(set(atLeastTwo), optimizer.removeEntailedCardinalities(
+				set(factory.getOWLObjectMinCardinality(2, r, factory.getOWLThing()), atLeastTwo)));
+	}
+
+	@Test
+	public void strongerMaximumsEntailWeakerOnes() {
+		OWLClassExpression atMostOne = factory.getOWLObjectMaxCardinality(1, r, factory.getOWLThing());
+		assertEquals(set(atMostOne), optimizer.removeEntailedCardinalities(
+				set(factory.getOWLObjectMaxCardinality(3, r, a), atMostOne)));
+		assertEquals(set(atMostOne), optimizer.removeEntailedCardinalities(
+				set(factory.getOWLObjectMaxCardinality(2, r, factory.getOWLThing()), atMostOne)));
+	}
+
+	@Test
+	public void unrelatedCardinalitiesAreKept() {
+		//Different fillers, different roles and bounds of opposite directions
+		Set<OWLClassExpression> conjuncts = set(factory.getOWLObjectMinCardinality(2, r, a),
+				factory.getOWLObjectMinCardinality(3, r, b), factory.getOWLObjectMaxCardinality(4, r, a),
+				factory.getOWLObjectSomeValuesFrom(factory.getOWLObjectProperty(IRI.create("test#s")), a));
+		assertEquals(conjuncts, optimizer.removeEntailedCardinalities(conjuncts));
+	}
+
+	@Test
+	public void optimizationKeepsTheVerdicts() throws Exception {
+		for (String model : MODELS) {
+			assertEquals(model, check(model, false), check(model, true));
+		}
+		for (String objectModel : OBJECT_MODELS) {
+			assertEquals(objectModel, check(objectModel, false), check(objectModel, true));
+		}
+	}
+
+	@Test
+	public void attributeMinimumIsTheLowerBound() throws Exception {
+		assertTrue(check(BOUNDS_MODEL, false));
+	}
+
+	/**
+	 * @param model
+	 * 		A class model, or an object model of Models/Modelo3.ecore
+	 * @return Returns true if the model is consistent
+	 */
+	private static boolean check(String model, boolean normalize) throws Exception {
+		CheckerSettings settings = new CheckerSettings();
+		settings.setNormalize(normalize);
+		ConsistencyChecker checker = model.endsWith(".xmi")
+				? new ConsistencyChecker(OBJECTS_MODEL, model, settings, new StringBuilder())
+				: new ConsistencyChecker(model, settings, new StringBuilder());
+		checker.reason();
+		return checker.checkConsistency();
+	}
+
+	private static Set<OWLClassExpression> set(OWLClassExpression... expressions) {
+		return new HashSet<OWLClassExpression>(Arrays.asList(expressions));
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the tests checking the object models of Models/Modelo3.ecore
+ * under every object and link encoding. In Models/obModel1.xmi an
+ * association has a single end and an end has no association, which the
+ * class model forbids; Models/obModel2.xmi links both ends to the
+ * association and is consistent.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+final class Encodings {
+
+	static final String MODEL = "Models/Modelo3.ecore";
+	static final String INCONSISTENT_OBJECT_MODEL = "Models/obModel1.xmi";
+	static final String CONSISTENT_OBJECT_MODEL = "Models/obModel2.xmi";
+	static final String[] OBJECT_MODELS = { INCONSISTENT_OBJECT_MODEL, CONSISTENT_OBJECT_MODEL };
+
+	private Encodings() {
+	}
+
+	/**
+	 * @return Returns new settings for every pair of object and link encodings
+	 */
+	static List<CheckerSettings> all() {
+		List<CheckerSettings> all = new ArrayList<CheckerSettings>();
+		for (ObjectEncoding objects : ObjectEncoding.values()) {
+			for (LinkEncoding links : LinkEncoding.values()) {
+				CheckerSettings settings = new CheckerSettings();
+				settings.setObjectEncoding(objects);
+				settings.setLinkEncoding(links);
+				all.add(settings);
+			}
+		}
+		return all;
+	}
+
+	/**
+	 * @return Returns the encodings of the settings, naming the failures of a test
+	 */
+	static String describe(CheckerSettings settings) {
+		return settings.getObjectEncoding() + " objects, " + settings.getLinkEncoding() + " links";
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.impl.EcorePackageImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Checks that a cached invariant is reused only while the classes and
+ * references it depends on are unchanged. The invariant of a Person requires
+ * some car, navigating the association between Person and Car; the Van class
+ * is not used by the invariant.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantCacheTest {
+
+	private static final IRI ONTOLOGY_IRI = IRI.create("lse.ic.uff.br/ontology");
+	private static final String PACKAGE = "garage";
+	private static final String INVARIANT = "self.cars->notEmpty()";
+	//A file that is not a cache, given by mistake
+	private static final String MODEL = "Models/phone.ecore";
+
+	private File file;
+	private EClass person;
+	private EClass van;
+	private EReference cars;
+
+	@Before
+	public void createModel() throws Exception {
+		file = File.createTempFile("invariants", ".owl");
+		//The cache is written to a file that does not exist yet
+		file.delete();
+
+		EcorePackageImpl.init();
+		EPackage pkg = EcoreFactory.eINSTANCE.createEPackage();
+		pkg.setName(PACKAGE);
+		person = createClass(pkg, "Person");
+		EClass car = createClass(pkg, "Car");
+		van = createClass(pkg, "Van");
+		cars = createReference(person, "cars", car, -1);
+		EReference owner = createReference(car, "owner", person, 1);
+		cars.setEOpposite(owner);
+		owner.setEOpposite(cars);
+	}
+
+	@After
+	public void deleteCache() {
+		file.delete();
+	}
+
+	@Test
+	public void unchangedInvariantIsReused() throws Exception {
+		OWLClassExpression concept = store();
+		InvariantCache cache = load();
+		assertEquals(concept, cache.get(person, INVARIANT));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void changedMultiplicityInvalidatesTheEntry() throws Exception {
+		store();
+		cars.setUpperBound(1);
+		assertMissed();
+	}
+
+	@Test
+	public void changedTypeInvalidatesTheEntry() throws Exception {
+		store();
+		cars.setEType(van);
+		assertMissed();
+	}
+
+	@Test
+	public void unrelatedChangeKeepsTheEntry() throws Exception {
+		store();
+		EAttribute seats = EcoreFactory.eINSTANCE.createEAttribute();
+		seats.setName("seats");
+		seats.setEType(EcorePackage.Literals.EINT);
+		van.getEStructuralFeatures().add(seats);
+		assertNotNull(load().get(person, INVARIANT));
+	}
+
+	@Test
+	public void modelIsNeitherLoadedNorOverwritten() throws Exception {
+		File model = new File(MODEL);
+		byte[] contents = Files.readAllBytes(model.toPath());
+		InvariantCache cache = new InvariantCache(model, ONTOLOGY_IRI, PACKAGE);
+		assertFalse(cache.load());
+		cache.put(person, INVARIANT, new OWLDataFactoryImpl().getOWLThing(), person.getName());
+		assertFalse(cache.save());
+		assertArrayEquals(contents, Files.readAllBytes(model.toPath()));
+	}
+
+	private void assertMissed() {
+		InvariantCache cache = load();
+		assertNull(cache.get(person, INVARIANT));
+		assertEquals(1, cache.getMissCount());
+	}
+
+	/**
+	 * Translates the invariant and writes it to the cache file
+	 *
+	 * @return Returns the concept of the invariant
+	 */
+	private OWLClassExpression store() throws Exception {
+		InvariantParser parser = new InvariantParser();
+		StackExp normalized;
+		try {
+			normalized = new OCLLiteNormalizer(new OWLDataFactoryImpl(), ONTOLOGY_IRI, PACKAGE)
+					.normalize(parser.parse(person, INVARIANT));
+		} finally {
+			parser.dispose();
+		}
+		OWLClassExpression concept = normalized.resolveStack();
+		InvariantCache cache = load();
+		cache.put(person, INVARIANT, concept, InvariantCache.getDependencies(person, normalized));
+		assertTrue(cache.save());
+		return concept;
+	}
+
+	private InvariantCache load() {
+		InvariantCache cache = new InvariantCache(file, ONTOLOGY_IRI, PACKAGE);
+		assertTrue(cache.load());
+		return cache;
+	}
+
+	private static EClass createClass(EPackage pkg, String name) {
+		EClass cls = EcoreFactory.eINSTANCE.createEClass();
+		cls.setName(name);
+		pkg.getEClassifiers().add(cls);
+		return cls;
+	}
+
+	private static EReference createReference(EClass source, String name, EClass target, int upperBound) {
+		EReference reference = EcoreFactory.eINSTANCE.createEReference();
+		reference.setName(name);
+		reference.setEType(target);
+		reference.setUpperBound(upperBound);
+		source.getEStructuralFeatures().add(reference);
+		return reference;
+	}
+}
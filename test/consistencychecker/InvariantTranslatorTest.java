@@ -0,0 +1,119 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.impl.EReferenceImpl;
+import org.eclipse.emf.ecore.impl.EcorePackageImpl;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * Checks that translating the invariants on a pool of threads gives the
+ * concepts of a sequential translation, and that a worker failing
+ * unexpectedly is reported alike with one or several workers.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class InvariantTranslatorTest {
+
+	//The class models of Models/ holding invariants
+	private static final String[] MODELS = { "Models/Modelo1.ecore", "Models/Modelo2.ecore", "Models/phone.ecore",
+			"Models/phoneBookCiclic.ecore" };
+	private static final int THREADS = 4;
+	private static final String FAILURE = "opposite not available";
+
+	@Test
+	public void concurrentTranslationMatchesSequentialTranslation() throws Exception {
+		for (String model : MODELS) {
+			assertEquals(model, axioms(model, 1), axioms(model, THREADS));
+		}
+	}
+
+	@Test
+	public void failingWorkerIsReportedAlike() throws Exception {
+		assertEquals(workerFailure(THREADS), workerFailure(1));
+	}
+
+	/**
+	 * Translates invariants navigating a reference that fails once the
+	 * normalizer looks for its opposite
+	 *
+	 * @return Returns the message of the error reported
+	 */
+	private static String workerFailure(int threads) throws Exception {
+		EcorePackageImpl.init();
+		EPackage pkg = EcoreFactory.eINSTANCE.createEPackage();
+		pkg.setName("failing");
+		EClass context = EcoreFactory.eINSTANCE.createEClass();
+		context.setName("Context");
+		pkg.getEClassifiers().add(context);
+		EReference reference = new EReferenceImpl() {
+			@Override
+			public EReference getEOpposite() {
+				for (StackTraceElement caller : new Throwable().getStackTrace()) {
+					if (caller.getClassName().equals(OCLLiteNormalizer.class.getName())) {
+						throw new IllegalStateException(FAILURE);
+					}
+				}
+				return null;
+			}
+		};
+		reference.setName("next");
+		reference.setEType(context);
+		reference.setUpperBound(-1);
+		context.getEStructuralFeatures().add(reference);
+
+		InvariantTranslator translator = new InvariantTranslator(IRI.create("lse.ic.uff.br/ontology"), pkg.getName(),
+				threads);
+		for (int i = 0; i < THREADS; i++) {
+			translator.add(context, "self.next->isEmpty()");
+		}
+		try {
+			translator.translate();
+		} catch (ConsistencyCheckerGenericException e) {
+			return e.getMessage();
+		}
+		fail("The invariants were translated");
+		return null;
+	}
+
+	/**
+	 * @return Returns the axioms of the class model, with the invariants
+	 *         translated by the provided number of threads
+	 */
+	private static Set<OWLAxiom> axioms(String model, int threads) throws Exception {
+		CheckerSettings settings = new CheckerSettings();
+		settings.setThreads(threads);
+		return new HashSet<OWLAxiom>(new ConsistencyChecker(model, settings, new StringBuilder()).getOntology()
+				.getAxioms());
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Checks that object models checked at the same time against a class model
+ * mapped once get the verdicts they get when checked alone, as a batch does.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class MetamodelCheckerTest {
+
+	private static final String MODEL = "Models/Modelo3.ecore";
+	private static final String[] OBJECT_MODELS = { "Models/obModel1.xmi", "Models/obModel2.xmi" };
+	//Each object model is checked several times, so the checks overlap
+	private static final int COPIES = 4;
+	private static final int THREADS = 4;
+
+	@Test
+	public void concurrentChecksMatchSingleChecks() throws Exception {
+		List<Boolean> expected = new ArrayList<Boolean>();
+		for (String objectModel : OBJECT_MODELS) {
+			ConsistencyChecker checker = new ConsistencyChecker(MODEL, objectModel, new CheckerSettings(),
+					new StringBuilder());
+			checker.reason();
+			expected.add(checker.checkConsistency());
+		}
+		//The models disagree, so a check answering for another model is noticed
+		assertTrue(expected.contains(true) && expected.contains(false));
+
+		final MetamodelChecker metamodel = new MetamodelChecker(MODEL, new CheckerSettings(), new StringBuilder());
+		assertTrue(metamodel.isConsistent());
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int copy = 0; copy < COPIES; copy++) {
+				for (final String objectModel : OBJECT_MODELS) {
+					results.add(pool.submit(new Callable<Boolean>() {
+						@Override
+						public Boolean call() throws Exception {
+							ConsistencyChecker checker = metamodel.check(objectModel, new StringBuilder());
+							checker.reason();
+							return checker.checkConsistency();
+						}
+					}));
+				}
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(OBJECT_MODELS[i % OBJECT_MODELS.length], expected.get(i % OBJECT_MODELS.length),
+						results.get(i).get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
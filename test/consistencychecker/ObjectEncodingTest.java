@@ -0,0 +1,60 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks that every object and link encoding gives the same verdict on the
+ * object models described by {@link Encodings}.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectEncodingTest {
+
+	@Test
+	public void encodingsDetectTheInconsistentObjectModel() throws Exception {
+		assertVerdict(Encodings.INCONSISTENT_OBJECT_MODEL, false);
+	}
+
+	@Test
+	public void encodingsAcceptTheConsistentObjectModel() throws Exception {
+		assertVerdict(Encodings.CONSISTENT_OBJECT_MODEL, true);
+	}
+
+	private void assertVerdict(String objectModel, boolean consistent) throws Exception {
+		for (CheckerSettings settings : Encodings.all()) {
+			assertEquals(Encodings.describe(settings), consistent, check(objectModel, settings));
+		}
+	}
+
+	/**
+	 * @return Returns true if the object model is consistent under the settings
+	 */
+	private boolean check(String objectModel, CheckerSettings settings) throws Exception {
+		ConsistencyChecker checker = new ConsistencyChecker(Encodings.MODEL, objectModel, settings,
+				new StringBuilder());
+		checker.reason();
+		return checker.checkConsistency();
+	}
+}
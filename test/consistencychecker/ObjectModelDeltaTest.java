@@ -0,0 +1,120 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * Checks that deltas applied to an object model mapped incrementally change
+ * only what they name. In Models/obModel2.xmi the association ends are
+ * Object0 and Object1 and the association is Object2; a delta followed by its
+ * reverse must leave the axioms of the object model as they were mapped, and
+ * a rejected delta must leave them untouched.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectModelDeltaTest {
+
+	@Test
+	public void unlinkingAndRelinkingRestoresTheAxioms() throws Exception {
+		ObjectModelDelta unlink = new ObjectModelDelta();
+		unlink.removeLink("Object1", "assoc", "Object2");
+		unlink.removeLink("Object2", "assocEnd", "Object1");
+		ObjectModelDelta relink = new ObjectModelDelta();
+		relink.addLink("Object1", "assoc", "Object2");
+		relink.addLink("Object2", "assocEnd", "Object1");
+		assertRoundTrip(unlink, relink);
+	}
+
+	@Test
+	public void addingAndRemovingAnObjectRestoresTheAxioms() throws Exception {
+		//The association gets a third end, which its upper bound forbids
+		ObjectModelDelta add = new ObjectModelDelta();
+		add.addObject("Object3", "AssociationEnd");
+		add.addLink("Object3", "assoc", "Object2");
+		add.addLink("Object2", "assocEnd", "Object3");
+		ObjectModelDelta remove = new ObjectModelDelta();
+		remove.removeObject("Object3");
+		remove.removeLink("Object2", "assocEnd", "Object3");
+		assertRoundTrip(add, remove);
+	}
+
+	@Test
+	public void rejectedDeltaLeavesTheAxioms() throws Exception {
+		for (CheckerSettings settings : Encodings.all()) {
+			ConsistencyChecker checker = checker(settings);
+			Set<OWLAxiom> mapped = axioms(checker);
+			//The first change is valid, the second names a link that does not exist
+			ObjectModelDelta delta = new ObjectModelDelta();
+			delta.removeLink("Object1", "assoc", "Object2");
+			delta.removeLink("Object0", "assoc", "Object1");
+			try {
+				checker.applyDelta(delta, new StringBuilder());
+				fail(Encodings.describe(settings) + ": the delta was applied");
+			} catch (ConsistencyCheckerGenericException e) {
+				assertEquals(Encodings.describe(settings), mapped, axioms(checker));
+			}
+		}
+	}
+
+	/**
+	 * Applies a delta making the consistent object model inconsistent, then
+	 * the delta reverting it, under every object and link encoding
+	 */
+	private void assertRoundTrip(ObjectModelDelta delta, ObjectModelDelta reverse) throws Exception {
+		for (CheckerSettings settings : Encodings.all()) {
+			String encodings = Encodings.describe(settings);
+			ConsistencyChecker checker = checker(settings);
+			Set<OWLAxiom> mapped = axioms(checker);
+
+			checker.applyDelta(delta, new StringBuilder());
+			checker.reason();
+			assertFalse(encodings, checker.checkConsistency());
+
+			checker.applyDelta(reverse, new StringBuilder());
+			assertEquals(encodings, mapped, axioms(checker));
+			checker.reason();
+			assertTrue(encodings, checker.checkConsistency());
+		}
+	}
+
+	/**
+	 * Maps the consistent object model incrementally under the encodings of the settings
+	 */
+	private static ConsistencyChecker checker(CheckerSettings settings) throws Exception {
+		settings.setIncrementalObjectModel(true);
+		return new ConsistencyChecker(Encodings.MODEL, Encodings.CONSISTENT_OBJECT_MODEL, settings,
+				new StringBuilder());
+	}
+
+	private static Set<OWLAxiom> axioms(ConsistencyChecker checker) {
+		return new HashSet<OWLAxiom>(checker.getOntology().getAxioms());
+	}
+}
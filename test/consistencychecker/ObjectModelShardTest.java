@@ -0,0 +1,78 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks that an object model split in shards gets the verdict and the
+ * inconsistent classes of the object model checked as a whole, under every
+ * object and link encoding. The lone association end of Models/obModel1.xmi
+ * is not linked to the other objects, so it is placed in a shard of its own,
+ * while the objects of Models/obModel2.xmi are all linked in a single shard.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ObjectModelShardTest {
+
+	private static final int SHARDS = 2;
+
+	@Test
+	public void unlinkedObjectsAreSplit() throws Exception {
+		for (CheckerSettings settings : Encodings.all()) {
+			settings.setObjectModelShards(SHARDS);
+			assertEquals(Encodings.describe(settings), SHARDS,
+					check(Encodings.INCONSISTENT_OBJECT_MODEL, settings).getOntologies().size());
+			assertEquals(Encodings.describe(settings), 1,
+					check(Encodings.CONSISTENT_OBJECT_MODEL, settings).getOntologies().size());
+		}
+	}
+
+	@Test
+	public void shardsMatchTheWholeObjectModel() throws Exception {
+		for (String objectModel : Encodings.OBJECT_MODELS) {
+			for (CheckerSettings settings : Encodings.all()) {
+				String encodings = objectModel + ", " + Encodings.describe(settings);
+				ConsistencyChecker whole = check(objectModel, settings);
+				settings.setObjectModelShards(SHARDS);
+				ConsistencyChecker sharded = check(objectModel, settings);
+				assertEquals(encodings, whole.checkConsistency(), sharded.checkConsistency());
+				assertEquals(encodings, inconsistentClasses(whole), inconsistentClasses(sharded));
+			}
+		}
+	}
+
+	private static ConsistencyChecker check(String objectModel, CheckerSettings settings) throws Exception {
+		ConsistencyChecker checker = new ConsistencyChecker(Encodings.MODEL, objectModel, settings,
+				new StringBuilder());
+		checker.reason();
+		return checker;
+	}
+
+	private static Set<String> inconsistentClasses(ConsistencyChecker checker) throws Exception {
+		return new HashSet<String>(checker.getInconsistentClassesNames());
+	}
+}
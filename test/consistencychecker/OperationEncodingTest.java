@@ -0,0 +1,116 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Checks that the inverse and forward operation encodings type the return
+ * value of an operation with parameters alike. Models/operations.ecore holds
+ * the operation Customer.place(product : Product) : Order; a call of it on a
+ * Customer returning something that is not typed as its return value is a
+ * clash both encodings must detect, while the other calls stay satisfiable.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class OperationEncodingTest {
+
+	private static final String MODEL = "Models/operations.ecore";
+	private static final String PREFIX = "lse.ic.uff.br/ontology#operations";
+
+	@Test
+	public void encodingsAgreeOnTheClassModel() throws Exception {
+		assertEquals(check(OperationEncoding.INVERSE), check(OperationEncoding.FORWARD));
+	}
+
+	@Test
+	public void inverseEncodingTypesTheReturnValue() throws Exception {
+		assertReturnTyped(OperationEncoding.INVERSE);
+	}
+
+	@Test
+	public void forwardEncodingTypesTheReturnValue() throws Exception {
+		assertReturnTyped(OperationEncoding.FORWARD);
+	}
+
+	/**
+	 * @return Returns true if the class model is consistent under the encoding
+	 */
+	private boolean check(OperationEncoding encoding) throws Exception {
+		ConsistencyChecker checker = new ConsistencyChecker(MODEL, settings(encoding), new StringBuilder());
+		checker.reason();
+		return checker.checkConsistency();
+	}
+
+	private void assertReturnTyped(OperationEncoding encoding) throws Exception {
+		OWLOntology ontology = new ConsistencyChecker(MODEL, settings(encoding), new StringBuilder()).getOntology();
+		OWLDataFactory factory = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLClass customer = getClass(factory, "Customer");
+		OWLClass call = getClass(factory, "CustomerplaceOrder");
+		OWLClass returnType = getClass(factory, "CustomerOrder");
+		OWLObjectProperty receiver = factory.getOWLObjectProperty(IRI.create(PREFIX + "CustomerCustomerrole"));
+		OWLObjectProperty returned = factory.getOWLObjectProperty(IRI.create(PREFIX + "CustomerOrderrole"));
+
+		Reasoner reasoner = new Reasoner(ontology);
+		try {
+			//A call on a Customer returning an untyped value clashes
+			assertFalse(reasoner.isSatisfiable(calls(factory, call, receiver, customer, returned,
+					factory.getOWLObjectComplementOf(returnType))));
+			//A call on a Customer returning a typed value does not
+			assertTrue(reasoner.isSatisfiable(calls(factory, call, receiver, customer, returned, returnType)));
+			//Nor does a call on something else, whatever it returns
+			assertTrue(reasoner.isSatisfiable(calls(factory, call, receiver,
+					factory.getOWLObjectComplementOf(customer), returned, factory.getOWLObjectComplementOf(returnType))));
+		} finally {
+			reasoner.dispose();
+		}
+	}
+
+	/**
+	 * Builds the calls whose receiver and return value are of the provided concepts
+	 */
+	private static OWLClassExpression calls(OWLDataFactory factory, OWLClass call, OWLObjectProperty receiver,
+			OWLClassExpression receiverType, OWLObjectProperty returned, OWLClassExpression returnedType) {
+		return factory.getOWLObjectIntersectionOf(call, factory.getOWLObjectSomeValuesFrom(receiver, receiverType),
+				factory.getOWLObjectSomeValuesFrom(returned, returnedType));
+	}
+
+	private static OWLClass getClass(OWLDataFactory factory, String name) {
+		return factory.getOWLClass(IRI.create(PREFIX + "(" + name + "[class])"));
+	}
+
+	private static CheckerSettings settings(OperationEncoding encoding) {
+		CheckerSettings settings = new CheckerSettings();
+		settings.setOperationEncoding(encoding);
+		return settings;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package consistencychecker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * Checks that the axioms built while the object model is parsed are the
+ * axioms built once it is parsed, under every object and link encoding. In
+ * Models/library.xmi the loans name their items among the books and dvds,
+ * before and after the item, so the positions are resolved over the
+ * instances of both subclasses of an item.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class PipelinedObjectModelTest {
+
+	private static final String LIBRARY_MODEL = "Models/library.ecore";
+	private static final String LIBRARY_OBJECT_MODEL = "Models/library.xmi";
+
+	@Test
+	public void pipelinedAxiomsMatchTheBatchAxioms() throws Exception {
+		for (String objectModel : Encodings.OBJECT_MODELS) {
+			assertSameAxioms(Encodings.MODEL, objectModel);
+		}
+	}
+
+	@Test
+	public void positionsAreResolvedOverSubclasses() throws Exception {
+		assertSameAxioms(LIBRARY_MODEL, LIBRARY_OBJECT_MODEL);
+	}
+
+	private void assertSameAxioms(String model, String objectModel) throws Exception {
+		for (CheckerSettings settings : Encodings.all()) {
+			Set<OWLAxiom> batch = axioms(model, objectModel, settings);
+			settings.setPipelinedObjectModel(true);
+			assertEquals(objectModel + ", " + Encodings.describe(settings), batch, axioms(model, objectModel, settings));
+		}
+	}
+
+	private static Set<OWLAxiom> axioms(String model, String objectModel, CheckerSettings settings) throws Exception {
+		return new HashSet<OWLAxiom>(new ConsistencyChecker(model, objectModel, settings, new StringBuilder())
+				.getOntology().getAxioms());
+	}
+}
@@ -0,0 +1,314 @@
+/**
+ *   This file is part of ECore Consistency Checker (ECC).
+ *
+ *   ECC is a free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   ECC is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with ECC.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package ecorexmiparser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.impl.EcorePackageImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that an object model split into chunks parsed by several threads
+ * gives the objects and links of a sequential parse, with both readers. The
+ * object model of Models/Modelo3.ecore is generated with enough objects to
+ * be split, the ends first, so their links to the associations are forward
+ * references into later chunks, and the associations name some ends by id.
+ * <p>
+ * References are also resolved through nested containment paths and ids
+ * given after other attributes, on a metamodel of folders holding folders
+ * and documents, and an unresolved reference is located alike by both readers.
+ *
+ * @author Cassio Santos, Christiano Braga
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class EcoreXMIParserTest {
+
+	private static final String MODEL = "Models/Modelo3.ecore";
+	private static final String CONTAINER = "XMIContainer";
+	private static final int ASSOCIATIONS = 300;
+	private static final int THREADS = 4;
+	private static final long MIN_CHUNK_SIZE = 512;
+	private static final String FOLDERS = "folders";
+	private static final String XMI_NAMESPACES = " xmlns:xmi=\"http://www.omg.org/XMI\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"";
+
+	private ArrayList<EClass> classes;
+	private ArrayList<EReference> associations;
+	private String packageName;
+	private File file;
+
+	@Before
+	public void loadMetamodel() throws IOException {
+		EcorePackageImpl.init();
+		ResourceSet resources = new ResourceSetImpl();
+		resources.getResourceFactoryRegistry().getExtensionToFactoryMap().put("ecore", new XMIResourceFactoryImpl());
+		Resource resource = resources.getResource(URI.createFileURI(new File(MODEL).getAbsolutePath()), true);
+		useMetamodel((EPackage) resource.getContents().get(0));
+		file = File.createTempFile("objects", ".xmi");
+	}
+
+	@After
+	public void deleteObjectModel() {
+		file.delete();
+	}
+
+	@Test
+	public void chunksMatchSequentialParse() throws IOException {
+		writeObjectModel();
+		assertTrue(new XMISplitter(file.getPath(), MIN_CHUNK_SIZE).getChunkCount() > 1);
+		for (XMIReaderMode readerMode : XMIReaderMode.values()) {
+			List<String> sequential = describe(parse(readerMode, 1));
+			assertEquals(readerMode.toString(), 3 * ASSOCIATIONS, countObjects(sequential));
+			assertEquals(readerMode.toString(), sequential, describe(parse(readerMode, THREADS)));
+		}
+	}
+
+	@Test
+	public void nestedPathsAndLateIdsAreResolved() throws IOException {
+		useMetamodel(createFolders());
+		//The first document links to a document of the next folder, by its path and by an id
+		//given after the other attributes, and the last document links back to the first one
+		write("<folders:Folder xmi:version=\"2.0\"" + XMI_NAMESPACES + " xmlns:folders=\"http://folders/1.0\">",
+				"  <folders>",
+				"    <documents links=\"//@folders.1/@documents.3 d6\"/>",
+				"    <documents/>",
+				"  </folders>",
+				"  <folders>",
+				"    <documents/>",
+				"    <documents title=\"second\" xsi:type=\"folders:Document\" xmi:id=\"d6\"/>",
+				"    <documents/>",
+				"    <documents title=\"last\" links=\"//@folders.0/@documents.0\"/>",
+				"  </folders>",
+				"</folders:Folder>");
+		for (XMIReaderMode readerMode : XMIReaderMode.values()) {
+			ObjectStore store = parse(readerMode, 1);
+			int links = store.getAssociationId("Document", "links");
+			//Objects are numbered in the order of the file, from the root folder
+			assertEquals(readerMode.toString(), Arrays.asList(8, 6), targets(store, links, 2));
+			assertEquals(readerMode.toString(), Arrays.asList(2), targets(store, links, 8));
+			int documents = store.getAssociationId("Folder", "documents");
+			assertEquals(readerMode.toString(), Arrays.asList(5, 6, 7, 8), targets(store, documents, 4));
+		}
+	}
+
+	@Test
+	public void idsAreFoundAfterOtherAttributes() throws IOException {
+		write("<Modelo3:XMIContainer xmi:version=\"2.0\"" + XMI_NAMESPACES + " xmlns:Modelo3=\"http://Modelo3/1.0\">",
+				"  <AssociationEnd assoc=\"a0\" label=\"x\" xmi:id=\"e0\"/>",
+				"  <AssociationEnd assoc=\"a0\" xmi:id=\"e1\"/>",
+				"  <Association label=\"y\" assocEnd=\"e0 e1\" xmi:id=\"a0\"/>",
+				"</Modelo3:XMIContainer>");
+		for (XMIReaderMode readerMode : XMIReaderMode.values()) {
+			ObjectStore store = parse(readerMode, 1);
+			int assocEnd = store.getAssociationId("Association", "assocEnd");
+			assertEquals(readerMode.toString(), Arrays.asList(0, 1), targets(store, assocEnd, 2));
+		}
+	}
+
+	@Test
+	public void unresolvedReferenceIsLocated() throws IOException {
+		write("<Modelo3:XMIContainer xmi:version=\"2.0\"" + XMI_NAMESPACES + " xmlns:Modelo3=\"http://Modelo3/1.0\">",
+				"  <AssociationEnd assoc=\"a1\"/>",
+				"  <Association xmi:id=\"a0\"/>",
+				"</Modelo3:XMIContainer>");
+		String expected = null;
+		for (XMIReaderMode readerMode : XMIReaderMode.values()) {
+			try {
+				parse(readerMode, 1);
+				fail("The reference was resolved");
+			} catch (IOException e) {
+				//The error names the line of the reference, not the end of the file
+				assertTrue(e.getMessage(), e.getMessage().contains("at line 2,"));
+				if (expected == null) {
+					expected = e.getMessage();
+				}
+				assertEquals(expected, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Collects the classes and references of a metamodel, as the class model
+	 * mapping does
+	 */
+	private void useMetamodel(EPackage pkg) {
+		packageName = pkg.getName();
+		classes = new ArrayList<EClass>();
+		associations = new ArrayList<EReference>();
+		for (EClassifier classifier : pkg.getEClassifiers()) {
+			if (classifier instanceof EClass && !classifier.getName().equals(CONTAINER)) {
+				classes.add((EClass) classifier);
+				associations.addAll(((EClass) classifier).getEAllReferences());
+			}
+		}
+	}
+
+	/**
+	 * @return Returns a metamodel of folders containing folders and
+	 *         documents, the documents linking to other documents
+	 */
+	private static EPackage createFolders() {
+		EPackage pkg = EcoreFactory.eINSTANCE.createEPackage();
+		pkg.setName(FOLDERS);
+		EClass folder = EcoreFactory.eINSTANCE.createEClass();
+		folder.setName("Folder");
+		pkg.getEClassifiers().add(folder);
+		EClass document = EcoreFactory.eINSTANCE.createEClass();
+		document.setName("Document");
+		pkg.getEClassifiers().add(document);
+		createReferences(folder, FOLDERS, true, folder, "parent");
+		createReferences(folder, "documents", true, document, "folder");
+		createReferences(document, "links", false, document, "linkedBy");
+		return pkg;
+	}
+
+	/**
+	 * Creates a reference and its opposite, as every reference mapped by ECC has one
+	 */
+	private static void createReferences(EClass source, String name, boolean containment, EClass target,
+			String oppositeName) {
+		EReference reference = EcoreFactory.eINSTANCE.createEReference();
+		reference.setName(name);
+		reference.setEType(target);
+		reference.setUpperBound(-1);
+		reference.setContainment(containment);
+		source.getEStructuralFeatures().add(reference);
+		EReference opposite = EcoreFactory.eINSTANCE.createEReference();
+		opposite.setName(oppositeName);
+		opposite.setEType(source);
+		opposite.setUpperBound(containment ? 1 : -1);
+		target.getEStructuralFeatures().add(opposite);
+		reference.setEOpposite(opposite);
+		opposite.setEOpposite(reference);
+	}
+
+	private void write(String... lines) throws IOException {
+		Writer writer = new FileWriter(file);
+		try {
+			for (String line : lines) {
+				writer.write(line + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * @return Returns the targets of the links of an object, in the order of the file
+	 */
+	private static List<Integer> targets(ObjectStore store, int association, int source) {
+		int position = store.findSource(association, source);
+		List<Integer> targets = new ArrayList<Integer>();
+		for (int link = 0; position >= 0 && link < store.getLinkCount(association, position); link++) {
+			targets.add(store.getLinkTarget(association, position, link));
+		}
+		return targets;
+	}
+
+	/**
+	 * Writes the ends of every association, then the associations. The even
+	 * ends are named by their path and the odd ones by their id, and the
+	 * attributes of some elements span several lines.
+	 */
+	private void writeObjectModel() throws IOException {
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"ASCII\"?>\n");
+			writer.write("<" + packageName + ":" + CONTAINER + " xmi:version=\"2.0\"\n");
+			writer.write("    xmlns:xmi=\"http://www.omg.org/XMI\"\n");
+			writer.write("    xmlns:" + packageName + "=\"http://" + packageName + "/1.0\">\n");
+			for (int end = 0; end < 2 * ASSOCIATIONS; end++) {
+				String id = end % 2 == 1 ? " xmi:id=\"end" + end + "\"" : "";
+				String separator = end % 3 == 0 ? "\n      " : " ";
+				writer.write("  <AssociationEnd" + id + separator + "assoc=\"//@Association." + end / 2 + "\"/>\n");
+			}
+			writer.write("  <!-- The associations follow their ends -->\n");
+			for (int association = 0; association < ASSOCIATIONS; association++) {
+				writer.write("  <Association assocEnd=\"//@AssociationEnd." + 2 * association + " end"
+						+ (2 * association + 1) + "\"/>\n");
+			}
+			writer.write("</" + packageName + ":" + CONTAINER + ">\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	private ObjectStore parse(XMIReaderMode readerMode, int threads) throws IOException {
+		EcoreXMIParser parser = new EcoreXMIParser(classes, associations, packageName);
+		parser.setReaderMode(readerMode);
+		parser.setThreads(threads);
+		parser.setMinChunkSize(MIN_CHUNK_SIZE);
+		parser.parse(file.getPath());
+		return parser.getObjectStore();
+	}
+
+	/**
+	 * @return Returns the type of every object, followed by the links of
+	 *         every association, each one naming its source and target objects
+	 */
+	private static List<String> describe(ObjectStore store) {
+		List<String> description = new ArrayList<String>();
+		for (int obj = 0; obj < store.getObjectCount(); obj++) {
+			description.add(store.getObjectName(obj) + " : " + store.getClassName(store.getType(obj)));
+		}
+		for (int association = 0; association < store.getAssociationCount(); association++) {
+			for (int position = 0; position < store.getSourceCount(association); position++) {
+				String source = store.getObjectName(store.getSource(association, position));
+				for (int link = 0; link < store.getLinkCount(association, position); link++) {
+					description.add(association + " " + source + " -> "
+							+ store.getObjectName(store.getLinkTarget(association, position, link)));
+				}
+			}
+		}
+		return description;
+	}
+
+	private static int countObjects(List<String> description) {
+		int objects = 0;
+		for (String line : description) {
+			if (line.contains(" : ")) {
+				objects++;
+			}
+		}
+		return objects;
+	}
+}